@@ -0,0 +1,71 @@
+plugins {
+    alias(libs.plugins.android.library)
+}
+
+android {
+    namespace = "io.embrace.benchmark"
+    compileSdk = rootProject.ext["compileSdkVersion"] as Int
+
+    defaultConfig {
+        minSdk = rootProject.ext["minSdkVersion"] as Int
+    }
+
+    compileOptions {
+        sourceCompatibility = JavaVersion.VERSION_17
+        targetCompatibility = JavaVersion.VERSION_17
+    }
+
+    testOptions {
+        unitTests {
+            // The modules log through android.util.Log, let those calls no-op on the JVM
+            isReturnDefaultValues = true
+        }
+    }
+}
+
+dependencies {
+    // using packages locally
+    testImplementation(project(":core"))
+    testImplementation(project(":react-native-tracer-provider"))
+    testImplementation(project(":react-native-otlp"))
+    testImplementation("com.facebook.react:react-android")
+
+    testImplementation(platform(libs.opentelemetry.bom))
+    testImplementation("io.opentelemetry:opentelemetry-sdk")
+    testImplementation(libs.mockito.core)
+
+    testImplementation(libs.jmh.core)
+    testAnnotationProcessor(libs.jmh.generator.annprocess)
+}
+
+/**
+ * Benchmarks live in the unit test source set so that they run on the JVM with the same classpath as the unit tests,
+ * including the android.jar stubs. They are run through JMH rather than JUnit:
+ *
+ *   ./gradlew :benchmark:jmh
+ *   ./gradlew :benchmark:jmh -Pjmh.include=SpanLifecycle -Pjmh.args="-wi 1 -i 3 -f 1"
+ *
+ * Results, including the allocation rate from the GC profiler, are written to build/reports/jmh/results.json
+ */
+val unitTest = tasks.named<Test>("testReleaseUnitTest")
+
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks with the GC profiler"
+    dependsOn("compileReleaseUnitTestJavaWithJavac")
+
+    val results = layout.buildDirectory.file("reports/jmh/results.json")
+    outputs.file(results)
+    outputs.upToDateWhen { false }
+
+    classpath(unitTest.map { it.classpath })
+    mainClass.set("org.openjdk.jmh.Main")
+
+    val include = findProperty("jmh.include") as String? ?: ".*"
+    val extraArgs = (findProperty("jmh.args") as String?)?.split(" ")?.filter { it.isNotBlank() } ?: emptyList()
+    args(listOf(include, "-prof", "gc", "-rf", "json", "-rff", results.get().asFile.absolutePath) + extraArgs)
+
+    doFirst {
+        results.get().asFile.parentFile.mkdirs()
+    }
+}
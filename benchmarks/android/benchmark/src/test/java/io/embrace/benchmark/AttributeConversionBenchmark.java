@@ -0,0 +1,77 @@
+package io.embrace.benchmark;
+
+import com.facebook.react.bridge.JavaOnlyArray;
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.ReadableMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import io.embrace.reactnativetracerprovider.AttributeConverter;
+import io.opentelemetry.api.common.Attributes;
+
+/**
+ * Converting attribute maps received over the bridge to OTEL Attributes, for the shapes of map commonly sent from the
+ * JS side. Input maps are built during setup so only the conversion itself is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AttributeConversionBenchmark {
+    @Param({"empty", "single", "small", "arrays"})
+    public String shape;
+
+    private final AttributeConverter converter = new AttributeConverter(Logger.getLogger("[Embrace]"));
+    private ReadableMap attributes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        switch (shape) {
+            case "empty":
+                attributes = new JavaOnlyMap();
+                break;
+            case "single":
+                attributes = JavaOnlyMap.of("screen", "home");
+                break;
+            case "small":
+                attributes = JavaOnlyMap.of(
+                    "screen", "home",
+                    "component", "list",
+                    "index", 3.0,
+                    "visible", true
+                );
+                break;
+            case "arrays":
+                attributes = JavaOnlyMap.of(
+                    "screen", "home",
+                    "ids", JavaOnlyArray.of(1.0, 2.0, 3.0),
+                    "tags", JavaOnlyArray.of("a", "b"),
+                    "flags", JavaOnlyArray.of(true, false)
+                );
+                break;
+            default:
+                throw new IllegalArgumentException("unknown shape: " + shape);
+        }
+    }
+
+    @Benchmark
+    public Attributes fromReadableMap() {
+        return converter.fromReadableMap(attributes);
+    }
+}
@@ -0,0 +1,180 @@
+package io.embrace.benchmark;
+
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.PromiseImpl;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.WritableMap;
+
+import org.mockito.Mockito;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.embrace.reactnativetracerprovider.WritableMapBuilder;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * Shared setup for driving the native modules outside of a running React Native app
+ */
+final class BenchmarkFixtures {
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * A promise with no callbacks attached, settling it is a no-op so the same instance can be reused across calls
+     */
+    static Promise noOpPromise() {
+        return new PromiseImpl(null, null);
+    }
+
+    /**
+     * Modules only hold on to the context, they never call into it on the paths being benchmarked
+     */
+    static ReactApplicationContext reactContext() {
+        return Mockito.mock(ReactApplicationContext.class);
+    }
+
+    /**
+     * In-memory SDK tracer provider, spans are handed to an exporter that only counts them so that the benchmark
+     * includes ending and exporting a span without holding on to the data
+     */
+    static SdkTracerProvider inMemoryTracerProvider(CountingSpanExporter exporter) {
+        return SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+            .build();
+    }
+
+    /**
+     * WritableNativeMap needs the React Native native libraries so JavaOnlyMap is used instead
+     */
+    static final class JavaOnlyMapBuilder implements WritableMapBuilder {
+        @Override
+        public WritableMap build() {
+            return new JavaOnlyMap();
+        }
+    }
+
+    static final class CountingSpanExporter implements SpanExporter {
+        final AtomicLong exported = new AtomicLong();
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            exported.addAndGet(spans.size());
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+
+    /**
+     * Stands in for an OTLP/HTTP receiver on localhost: reads each request and answers 200 with an empty body, keeping
+     * connections alive the way the exporters' HTTP client expects. Only requests with a Content-Length are supported,
+     * which is what the exporters send without compression.
+     */
+    static final class StubOtlpReceiver implements Closeable {
+        private static final byte[] RESPONSE =
+            "HTTP/1.1 200 OK\r\nContent-Length: 0\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+        final AtomicLong requests = new AtomicLong();
+        private final ServerSocket serverSocket;
+        private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "stub-otlp-receiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        StubOtlpReceiver() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            connections.execute(this::accept);
+        }
+
+        String endpoint(String path) {
+            return "http://127.0.0.1:" + serverSocket.getLocalPort() + path;
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            connections.shutdownNow();
+        }
+
+        private void accept() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    final Socket socket = serverSocket.accept();
+                    connections.execute(() -> serve(socket));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (Socket connection = socket) {
+                final InputStream in = new BufferedInputStream(connection.getInputStream());
+                final OutputStream out = connection.getOutputStream();
+                while (true) {
+                    long contentLength = 0;
+                    String line;
+                    while ((line = readLine(in)) != null && !line.isEmpty()) {
+                        final int colon = line.indexOf(':');
+                        if (colon > 0 && line.substring(0, colon).trim().equalsIgnoreCase("Content-Length")) {
+                            contentLength = Long.parseLong(line.substring(colon + 1).trim());
+                        }
+                    }
+                    if (line == null) {
+                        return;
+                    }
+
+                    for (long remaining = contentLength; remaining > 0; remaining--) {
+                        if (in.read() < 0) {
+                            return;
+                        }
+                    }
+                    requests.incrementAndGet();
+                    out.write(RESPONSE);
+                    out.flush();
+                }
+            } catch (IOException ignored) {
+                // the client closed the connection
+            }
+        }
+
+        // a header line without its line ending, or null once the connection is closed
+        private static String readLine(InputStream in) throws IOException {
+            final ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) >= 0 && b != '\n') {
+                if (b != '\r') {
+                    line.write(b);
+                }
+            }
+            return b < 0 && line.size() == 0 ? null : line.toString("US-ASCII");
+        }
+    }
+}
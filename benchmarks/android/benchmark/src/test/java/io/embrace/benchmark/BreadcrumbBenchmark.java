@@ -0,0 +1,50 @@
+package io.embrace.benchmark;
+
+import com.facebook.react.bridge.Promise;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import io.embrace.rnembracecore.EmbraceManagerModule;
+
+/**
+ * Adding breadcrumbs through EmbraceManagerModule with the promise based method and the fire-and-forget one. The
+ * promise here settles without calling back into JS, so the difference only covers the module's side of it, the
+ * round trip over the bridge and settling the JS promise that fire-and-forget also saves aren't included.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BreadcrumbBenchmark {
+    private final Promise promise = BenchmarkFixtures.noOpPromise();
+    private EmbraceManagerModule module;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        module = new EmbraceManagerModule(BenchmarkFixtures.reactContext());
+    }
+
+    @Benchmark
+    public void addBreadcrumb() {
+        module.addBreadcrumb("breadcrumb", promise);
+    }
+
+    @Benchmark
+    public void addBreadcrumbFireAndForget() {
+        module.addBreadcrumbFireAndForget("breadcrumb");
+    }
+}
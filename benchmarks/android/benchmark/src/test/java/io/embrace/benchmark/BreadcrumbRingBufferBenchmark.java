@@ -0,0 +1,168 @@
+package io.embrace.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.embrace.rnembracecore.BreadcrumbRingBuffer;
+
+/**
+ * Adding breadcrumbs from one and from eight threads at once to BreadcrumbRingBuffer, against adding them to a bounded
+ * deque behind a lock, both drained every millisecond by a background thread. Breadcrumbs dropped because the buffer
+ * was full are reported alongside the score, a buffer that drops more looks faster than it is. Other thread counts
+ * can be run by overriding them with `-Pjmh.args="-t 4"`.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BreadcrumbRingBufferBenchmark {
+    private static final long DRAIN_INTERVAL_MS = 1;
+    private static final int DISTINCT_MESSAGES = 64;
+    private static final BreadcrumbRingBuffer.Sink DISCARD = (message, timestampMs, count) -> { };
+
+    @State(Scope.Benchmark)
+    public static class Ring {
+        BreadcrumbRingBuffer buffer;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            buffer = new BreadcrumbRingBuffer(BreadcrumbRingBuffer.DEFAULT_CAPACITY, DISCARD);
+            buffer.start(DRAIN_INTERVAL_MS);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            buffer.stop();
+        }
+    }
+
+    // The baseline, a bounded deque that producers and the drainer take turns on
+    @State(Scope.Benchmark)
+    public static class Locked {
+        private final ArrayDeque<String> deque = new ArrayDeque<>();
+        private volatile boolean running;
+        private Thread drainer;
+
+        boolean add(String message) {
+            synchronized (deque) {
+                if (deque.size() >= BreadcrumbRingBuffer.DEFAULT_CAPACITY) {
+                    return false;
+                }
+                deque.add(message);
+                return true;
+            }
+        }
+
+        private void drain() {
+            synchronized (deque) {
+                deque.clear();
+            }
+        }
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            running = true;
+            drainer = new Thread(() -> {
+                while (running) {
+                    drain();
+                    try {
+                        Thread.sleep(DRAIN_INTERVAL_MS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+            drainer.start();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws InterruptedException {
+            running = false;
+            drainer.join();
+            drain();
+        }
+    }
+
+    /**
+     * Each producer adds its own cycle of messages, built up front so that only adding them is measured
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Producer {
+        private static final AtomicInteger PRODUCERS = new AtomicInteger();
+
+        private final String[] messages = new String[DISTINCT_MESSAGES];
+        private long timestampMs;
+        public long dropped;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            final int producer = PRODUCERS.getAndIncrement();
+            for (int i = 0; i < DISTINCT_MESSAGES; i++) {
+                messages[i] = producer + "-" + i;
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            dropped = 0;
+        }
+
+        String next() {
+            return messages[(int) (timestampMs++ % DISTINCT_MESSAGES)];
+        }
+    }
+
+    private static void addToRing(Ring ring, Producer producer) {
+        if (!ring.buffer.add(producer.next(), producer.timestampMs)) {
+            producer.dropped++;
+        }
+    }
+
+    private static void addToLocked(Locked locked, Producer producer) {
+        if (!locked.add(producer.next())) {
+            producer.dropped++;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void ringBuffer(Ring ring, Producer producer) {
+        addToRing(ring, producer);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void ringBufferContended(Ring ring, Producer producer) {
+        addToRing(ring, producer);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void lockedDeque(Locked locked, Producer producer) {
+        addToLocked(locked, producer);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void lockedDequeContended(Locked locked, Producer producer) {
+        addToLocked(locked, producer);
+    }
+}
@@ -0,0 +1,120 @@
+package io.embrace.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import io.embrace.rnembraceotlp.BatchConfig;
+import io.embrace.rnembraceotlp.BatchingLogRecordExporter;
+import io.embrace.rnembraceotlp.BatchingSpanExporter;
+import io.embrace.rnembraceotlp.DeferredLogRecordExporter;
+import io.embrace.rnembraceotlp.DeferredSpanExporter;
+import io.embrace.rnembraceotlp.ExportWorkerKt;
+import io.embrace.rnembraceotlp.ExporterConfig;
+import io.embrace.rnembraceotlp.OtlpCompression;
+import io.embrace.rnembraceotlp.OtlpEncoding;
+import io.embrace.rnembraceotlp.OtlpExporters;
+import io.embrace.rnembraceotlp.OtlpProtocol;
+import io.opentelemetry.sdk.logs.export.LogRecordExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * How long registering a batching trace and log exporter keeps the calling thread busy, building them inline against
+ * handing the build to a background executor with the deferred exporters. Only the first registration in a process
+ * pays for class loading, the cost deferring is meant to take off app startup, so each fork measures a single cold
+ * call instead of a warmed up average.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class ExporterSetupBenchmark {
+    private static final long TIMEOUT_SECONDS = 10;
+    private static final int MAX_BUFFERED_ITEMS = ExportWorkerKt.DEFAULT_MAX_PENDING_ITEMS;
+
+    private final Logger log = Logger.getLogger("[Embrace]");
+    private ExecutorService executor;
+    private SpanExporter spanExporter;
+    private LogRecordExporter logExporter;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (spanExporter instanceof DeferredSpanExporter) {
+            ((DeferredSpanExporter) spanExporter).getReady().join(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+        if (logExporter instanceof DeferredLogRecordExporter) {
+            ((DeferredLogRecordExporter) logExporter).getReady().join(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+        spanExporter.shutdown().join(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        logExporter.shutdown().join(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        executor.shutdownNow();
+    }
+
+    private static ExporterConfig config(String signal) {
+        return new ExporterConfig(
+            "http://127.0.0.1:4318/v1/" + signal,
+            Collections.emptyList(),
+            null,
+            new BatchConfig(),
+            OtlpCompression.NONE,
+            OtlpEncoding.PROTOBUF,
+            null,
+            null,
+            null
+        );
+    }
+
+    // What the module builds for a trace and a log exporter with batching
+    private SpanExporter buildSpanExporter() {
+        return new BatchingSpanExporter(
+            OtlpExporters.INSTANCE.spanExporter(config("traces"), OtlpProtocol.HTTP, log, null),
+            new BatchConfig()
+        );
+    }
+
+    private LogRecordExporter buildLogExporter() {
+        return new BatchingLogRecordExporter(
+            OtlpExporters.INSTANCE.logExporter(config("logs"), OtlpProtocol.HTTP, log, null),
+            new BatchConfig()
+        );
+    }
+
+    @Benchmark
+    public void inline(Blackhole blackhole) {
+        spanExporter = buildSpanExporter();
+        logExporter = buildLogExporter();
+        blackhole.consume(spanExporter);
+        blackhole.consume(logExporter);
+    }
+
+    @Benchmark
+    public void deferred(Blackhole blackhole) {
+        spanExporter = new DeferredSpanExporter(this::buildSpanExporter, executor, MAX_BUFFERED_ITEMS, log);
+        logExporter = new DeferredLogRecordExporter(this::buildLogExporter, executor, MAX_BUFFERED_ITEMS, log);
+        blackhole.consume(spanExporter);
+        blackhole.consume(logExporter);
+    }
+}
@@ -0,0 +1,101 @@
+package io.embrace.benchmark;
+
+import com.facebook.react.bridge.JavaOnlyArray;
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import io.embrace.rnembracecore.EmbraceManagerModule;
+
+/**
+ * Logging messages with properties through EmbraceManagerModule. The Embrace SDK is not started when running on the
+ * JVM so this measures the module's own work, converting the properties received over the bridge and attaching the JS
+ * stacktrace, up to the point the log is handed to the SDK. Batched logging is reported per message so that it can be
+ * compared with logging one message per bridge call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogPropertiesBenchmark {
+    private static final String STACKTRACE = "Error: something went wrong\n"
+        + "    at onPress (index.bundle:1024:18)\n"
+        + "    at touchableHandlePress (index.bundle:2048:24)\n"
+        + "    at _performSideEffectsForTransition (index.bundle:4096:12)";
+
+    // the size of the batches the JS buffer sends
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"0", "5", "20"})
+    public int propertyCount;
+
+    private final Promise promise = BenchmarkFixtures.noOpPromise();
+    private EmbraceManagerModule module;
+    private ReadableMap properties;
+    private ReadableArray batch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        module = new EmbraceManagerModule(BenchmarkFixtures.reactContext());
+
+        JavaOnlyMap map = new JavaOnlyMap();
+        for (int i = 0; i < propertyCount; i++) {
+            map.putString("property-" + i, "value-" + i);
+        }
+        properties = map;
+
+        JavaOnlyArray logs = new JavaOnlyArray();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            logs.pushMap(JavaOnlyMap.of(
+                "message", "message",
+                "severity", "warning",
+                "properties", properties,
+                "stacktrace", STACKTRACE,
+                "includeStacktrace", true
+            ));
+        }
+        batch = logs;
+    }
+
+    @Benchmark
+    public void logMessage() {
+        module.logMessageWithSeverityAndProperties("message", "warning", properties, STACKTRACE, true, promise);
+    }
+
+    @Benchmark
+    public void logInfoMessage() {
+        module.logMessageWithSeverityAndProperties("message", "info", properties, "", false, promise);
+    }
+
+    @Benchmark
+    public void logHandledError() {
+        module.logHandledError("message", STACKTRACE, properties, promise);
+    }
+
+    // logMessagesBatch builds what it resolves with through Arguments, which needs the React Native native libraries,
+    // the fire-and-forget variant logs each entry the same way
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void logMessagesBatch() {
+        module.logMessagesBatchFireAndForget(batch);
+    }
+}
@@ -0,0 +1,68 @@
+package io.embrace.benchmark;
+
+import com.facebook.react.bridge.Promise;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import io.embrace.rnembracecore.EmbraceManagerModule;
+
+/**
+ * Recording completed and failed network requests through EmbraceManagerModule. As with the log benchmarks the
+ * Embrace SDK is not started, so this measures parsing the request received over the bridge and building the
+ * EmbraceNetworkRequest, optionally including generating a W3C traceparent for span forwarding.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NetworkRequestBenchmark {
+    private static final String URL = "https://api.example.com/v1/items?page=2";
+
+    @Param({"false", "true"})
+    public boolean networkSpanForwarding;
+
+    private final Promise promise = BenchmarkFixtures.noOpPromise();
+    private EmbraceManagerModule module;
+    private double startTime;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final boolean forwarding = networkSpanForwarding;
+        // Whether forwarding is enabled normally comes from the SDK's remote config, which isn't available here
+        module = new EmbraceManagerModule(BenchmarkFixtures.reactContext()) {
+            @Override
+            public boolean isNetworkSpanForwardingEnabled() {
+                return forwarding;
+            }
+        };
+        startTime = System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public void logNetworkRequest() {
+        module.logNetworkRequest(URL, "GET", startTime, startTime + 250, 512, 2048, 200, promise);
+    }
+
+    @Benchmark
+    public void logNetworkClientError() {
+        module.logNetworkClientError(
+            URL, "POST", startTime, startTime + 250,
+            "java.net.SocketTimeoutException", "timeout", promise
+        );
+    }
+}
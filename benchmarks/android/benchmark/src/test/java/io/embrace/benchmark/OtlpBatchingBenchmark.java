@@ -0,0 +1,89 @@
+package io.embrace.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import io.embrace.benchmark.BenchmarkFixtures.StubOtlpReceiver;
+import io.embrace.rnembraceotlp.BatchConfig;
+import io.embrace.rnembraceotlp.BatchingSpanExporter;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * Ending 1000 spans and sending them through the OTLP/HTTP exporter to a receiver on localhost until all of them have
+ * arrived, with each span exported as it ends the way Embrace hands spans to custom exporters, and with
+ * BatchingSpanExporter collecting them into batches of 100 first.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OtlpBatchingBenchmark {
+    private static final int SPAN_COUNT = 1000;
+    private static final int BATCH_SIZE = 100;
+    private static final long TIMEOUT_SECONDS = 30;
+
+    @Param({"false", "true"})
+    public boolean batched;
+
+    private StubOtlpReceiver receiver;
+    private SpanExporter exporter;
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        receiver = new StubOtlpReceiver();
+        exporter = OtlpHttpSpanExporter.builder()
+            .setEndpoint(receiver.endpoint("/v1/traces"))
+            .build();
+        if (batched) {
+            // only sent once a batch is full, or on flush
+            final BatchConfig defaults = new BatchConfig();
+            exporter = new BatchingSpanExporter(exporter, new BatchConfig(
+                BATCH_SIZE,
+                defaults.getMaxQueueSize(),
+                60_000L,
+                defaults.getMaxConcurrentExports()
+            ));
+        }
+        tracerProvider = SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+            .build();
+        tracer = tracerProvider.get("benchmark");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        tracerProvider.shutdown().join(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        receiver.close();
+    }
+
+    @Benchmark
+    public void exportSpans() {
+        for (int i = 0; i < SPAN_COUNT; i++) {
+            tracer.spanBuilder("span").startSpan().end();
+        }
+        tracerProvider.forceFlush().join(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        exporter.flush().join(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+}
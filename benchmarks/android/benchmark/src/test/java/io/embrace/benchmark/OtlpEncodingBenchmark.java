@@ -0,0 +1,104 @@
+package io.embrace.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.embrace.rnembraceotlp.OtlpCompression;
+import io.embrace.rnembraceotlp.OtlpEncoding;
+import io.embrace.rnembraceotlp.OtlpHttpSenderKt;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * Encoding one export's worth of spans into an OTLP request body with each encoding and compression, for a batch
+ * shaped like the ones the app exports: screen and network spans with a handful of attributes and events. The spans
+ * are recorded during setup so only the encoding itself is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OtlpEncodingBenchmark {
+    private static final int SPAN_PAIRS = 50;
+
+    @Param({"PROTOBUF", "JSON"})
+    public OtlpEncoding encoding;
+
+    @Param({"NONE", "GZIP"})
+    public OtlpCompression compression;
+
+    private final List<SpanData> batch = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(new SpanExporter() {
+                @Override
+                public CompletableResultCode export(Collection<SpanData> spans) {
+                    batch.addAll(spans);
+                    return CompletableResultCode.ofSuccess();
+                }
+
+                @Override
+                public CompletableResultCode flush() {
+                    return CompletableResultCode.ofSuccess();
+                }
+
+                @Override
+                public CompletableResultCode shutdown() {
+                    return CompletableResultCode.ofSuccess();
+                }
+            }))
+            .build();
+        final Tracer tracer = tracerProvider.get("benchmark");
+
+        for (int i = 0; i < SPAN_PAIRS; i++) {
+            final Span screen = tracer.spanBuilder("emb-screen-view")
+                .setAttribute("view.name", "screen-" + (i % 7))
+                .setAttribute("emb.type", "ux.view")
+                .startSpan();
+            final Span request = tracer.spanBuilder("emb-GET /api/v1/items/" + i)
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute("http.request.method", "GET")
+                .setAttribute("url.full", "https://example.com/api/v1/items/" + i + "?page=0")
+                .setAttribute("http.response.status_code", 200L)
+                .setAttribute("http.response.body.size", 1024L * (i + 1))
+                .startSpan();
+            request.addEvent("response-received", Attributes.of(AttributeKey.longKey("attempt"), 1L));
+            request.end();
+            screen.end();
+        }
+
+        tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public byte[] encodeSpans() {
+        return OtlpHttpSenderKt.encodeOtlpSpans(batch, encoding, compression);
+    }
+}
@@ -0,0 +1,152 @@
+package io.embrace.benchmark;
+
+import com.facebook.react.bridge.JavaOnlyArray;
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import io.embrace.benchmark.BenchmarkFixtures.CountingSpanExporter;
+import io.embrace.benchmark.BenchmarkFixtures.JavaOnlyMapBuilder;
+import io.embrace.reactnativetracerprovider.ReactNativeTracerProviderModule;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+
+/**
+ * Span lifecycle throughput through ReactNativeTracerProviderModule, from starting a span with a bridge handle to
+ * ending and exporting it. Covers the individual @ReactMethods, the same calls sent through applyBatch and starting
+ * spans through startSpanSync, with and without the dedicated span executor.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpanLifecycleBenchmark {
+    private static final double TRACER_HANDLE = 1.0;
+
+    /**
+     * With the executor enabled operations are applied on its thread, the queue blocks when full so that every
+     * operation counted has actually been applied rather than dropped
+     */
+    @Param({"false", "true"})
+    public boolean spanExecutor;
+
+    private final Promise promise = BenchmarkFixtures.noOpPromise();
+    private final ReadableArray noLinks = new JavaOnlyArray();
+    private final ReadableMap noAttributes = new JavaOnlyMap();
+    private final ReadableMap startAttributes = JavaOnlyMap.of(
+        "screen", "home",
+        "component", "list"
+    );
+    private final ReadableMap attributes = JavaOnlyMap.of(
+        "index", 3.0,
+        "visible", true,
+        "tags", JavaOnlyArray.of("a", "b")
+    );
+    private final ReadableMap eventAttributes = JavaOnlyMap.of("item", "row-3");
+    private final ReadableMap status = JavaOnlyMap.of("code", "OK", "message", "");
+
+    private CountingSpanExporter exporter;
+    private SdkTracerProvider tracerProvider;
+    private ReactNativeTracerProviderModule module;
+    private double nextHandle;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        exporter = new CountingSpanExporter();
+        tracerProvider = BenchmarkFixtures.inMemoryTracerProvider(exporter);
+        module = new ReactNativeTracerProviderModule(
+            BenchmarkFixtures.reactContext(),
+            tracerProvider,
+            new JavaOnlyMapBuilder()
+        );
+        if (spanExecutor) {
+            module.enableSpanExecutor(JavaOnlyMap.of("fullQueuePolicy", "block"));
+        }
+        module.setupTracer(TRACER_HANDLE, "benchmark", "1.0.0", "");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        module.invalidate();
+        tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+    }
+
+    private double startSpan(ReadableMap attributes) {
+        double handle = ++nextHandle;
+        module.startSpan(
+            TRACER_HANDLE, handle,
+            "span", "", 0.0, attributes, noLinks,
+            0.0, "", "", promise
+        );
+        return handle;
+    }
+
+    @Benchmark
+    public void startAndEnd() {
+        double handle = startSpan(noAttributes);
+        module.endSpan(handle, 0.0);
+    }
+
+    /**
+     * The span context is returned to the caller rather than resolved through a promise, with the executor enabled
+     * this includes waiting for it to apply the start
+     */
+    @Benchmark
+    public WritableMap startSyncAndEnd() {
+        double handle = ++nextHandle;
+        WritableMap spanContext = module.startSpanSync(
+            TRACER_HANDLE, handle,
+            "span", "", 0.0, noAttributes, noLinks,
+            0.0, "", ""
+        );
+        module.endSpan(handle, 0.0);
+        return spanContext;
+    }
+
+    @Benchmark
+    public void fullLifecycle() {
+        double handle = startSpan(startAttributes);
+        module.setAttributes(handle, attributes);
+        module.addEvent(handle, "item-visible", eventAttributes, 0.0);
+        module.setStatus(handle, status);
+        module.endSpan(handle, 0.0);
+    }
+
+    @Benchmark
+    public void batchedLifecycle() {
+        double handle = ++nextHandle;
+        // Commands are built per call as they would be when deserialized from the bridge
+        module.applyBatch(
+            JavaOnlyArray.of(
+                JavaOnlyArray.of(
+                    "startSpan", TRACER_HANDLE, handle,
+                    "span", "", 0.0, startAttributes, noLinks, 0.0, "", ""
+                ),
+                JavaOnlyArray.of("setAttributes", handle, attributes),
+                JavaOnlyArray.of("addEvent", handle, "item-visible", eventAttributes, 0.0),
+                JavaOnlyArray.of("setStatus", handle, status),
+                JavaOnlyArray.of("endSpan", handle, 0.0)
+            ),
+            promise
+        );
+    }
+}
@@ -0,0 +1,81 @@
+package io.embrace.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.embrace.reactnativetracerprovider.SpanTable;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+
+/**
+ * Inserting, looking up, completing and clearing as many spans as a long running app could reasonably accumulate, in
+ * the SpanTable keyed by numeric handles and in the pair of string keyed ConcurrentHashMaps it replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpanTableBenchmark {
+    private static final int LIVE_SPANS = 10_000;
+
+    private final Span[] spans = new Span[LIVE_SPANS];
+    private final String[] stringIds = new String[LIVE_SPANS];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        for (int i = 0; i < LIVE_SPANS; i++) {
+            spans[i] = Span.wrap(SpanContext.create(
+                String.format("%032x", i),
+                String.format("%016x", i),
+                TraceFlags.getSampled(),
+                TraceState.getDefault()
+            ));
+            stringIds[i] = "benchmark_1.0.0__" + i;
+        }
+    }
+
+    @Benchmark
+    public SpanTable spanTable() {
+        SpanTable table = new SpanTable();
+        for (int i = 0; i < LIVE_SPANS; i++) {
+            table.putActive(i + 1L, spans[i], 0);
+        }
+        for (int i = 0; i < LIVE_SPANS; i++) {
+            table.get(i + 1L);
+            table.markCompleted(i + 1L);
+        }
+        table.clearCompleted();
+        return table;
+    }
+
+    @Benchmark
+    public ConcurrentHashMap<String, Span> concurrentHashMaps() {
+        ConcurrentHashMap<String, Span> activeSpans = new ConcurrentHashMap<>();
+        ConcurrentHashMap<String, Span> completedSpans = new ConcurrentHashMap<>();
+        for (int i = 0; i < LIVE_SPANS; i++) {
+            activeSpans.put(stringIds[i], spans[i]);
+        }
+        for (int i = 0; i < LIVE_SPANS; i++) {
+            Span span = activeSpans.remove(stringIds[i]);
+            completedSpans.put(stringIds[i], span != null ? span : completedSpans.get(stringIds[i]));
+        }
+        completedSpans.clear();
+        return completedSpans;
+    }
+}
@@ -0,0 +1,31 @@
+// Top-level build file where you can add configuration options common to all sub-projects/modules.
+plugins {
+    alias(libs.plugins.android.library) apply false
+    alias(libs.plugins.kotlin.android) apply false
+}
+
+buildscript {
+    extra.apply {
+        set("minSdkVersion", 24)
+        set("compileSdkVersion", 36)
+        set("targetSdkVersion", 36)
+        set("kotlinVersion", "2.1.20")
+    }
+
+    repositories {
+        google()
+        mavenCentral()
+    }
+}
+
+// The packages depend on `com.facebook.react:react-native:+`, which is normally swapped for `react-android` by the
+// React Native Gradle plugin. The benchmarks don't build an app so the substitution is done here instead
+val reactNativeVersion = property("reactNativeVersion") as String
+allprojects {
+    configurations.all {
+        resolutionStrategy.dependencySubstitution {
+            substitute(module("com.facebook.react:react-native"))
+                .using(module("com.facebook.react:react-android:$reactNativeVersion"))
+        }
+    }
+}
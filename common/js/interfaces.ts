@@ -34,11 +34,129 @@ interface ExporterConfig {
   endpoint: string;
   headers?: {key: string; token: string}[];
   timeout?: number;
+  /** Defaults to "none", only supported on Android */
+  compression?: "none" | "gzip";
+  /** Defaults to "protobuf", only supported on Android */
+  encoding?: "protobuf" | "json";
+  // Setting any of the following batches telemetry before it is sent to the endpoint rather than sending each item in
+  // its own request. Only supported on Android
+  /** Export as soon as this many items are queued, defaults to 512 */
+  maxExportBatchSize?: number;
+  /** Items added while this many are already queued are dropped, defaults to 2048 */
+  maxQueueSize?: number;
+  /** Export a partial batch once this long has passed since its first item was queued, defaults to 5000 */
+  scheduleDelayMs?: number;
+  /** Maximum number of batches being sent at once, defaults to 1 */
+  maxConcurrentExports?: number;
+  /**
+   * Keeps requests that fail to send on disk and sends them again once exports succeed, oldest first. Only supported on
+   * Android over http
+   */
+  offlineSpool?: {
+    /** Oldest requests are dropped once the spool would grow past this size, defaults to 10 MiB */
+    maxBytes?: number;
+    /** Requests older than this are dropped instead of being sent, defaults to 24 hours */
+    maxAgeMs?: number;
+  };
+  /**
+   * How failed requests are retried, only supported on Android. Over gRPC only `maxAttempts` (at most 5) and the
+   * backoff apply
+   */
+  retry?: {
+    /** Attempts per request including the first one, defaults to 5 */
+    maxAttempts?: number;
+    /** Wait before the first retry, defaults to 1000 */
+    initialBackoffMs?: number;
+    /** Longest wait between attempts, requests asked to wait longer by Retry-After are given up on, defaults to 5000 */
+    maxBackoffMs?: number;
+    /** Growth of the wait after each attempt, defaults to 1.5 */
+    backoffMultiplier?: number;
+    /** Fraction of each wait that is randomized, between 0 and 1, defaults to 1 */
+    jitter?: number;
+    /** Response statuses worth retrying, connection failures always are. Defaults to [429, 502, 503, 504] */
+    retryableStatusCodes?: number[];
+  };
+  /**
+   * Runs the exporter on its own queue and thread, dropping telemetry once this many items are waiting to be sent.
+   * Defaults to 2048 for exporters configured as an array, otherwise unset. Only supported on Android
+   */
+  maxPendingItems?: number;
+}
+
+interface FileExporterConfig {
+  /** Relative to the app's files directory unless absolute, defaults to "embrace_otlp_files" */
+  directory?: string;
+  /** One OTLP/JSON request per line, or length-delimited OTLP protobuf requests. Defaults to "ndjson" */
+  format?: "ndjson" | "protobuf";
+  /** Size a file can grow to before it is rotated, defaults to 5 MiB */
+  maxFileBytes?: number;
+  /** Files kept per signal including the one being written to, defaults to 3 */
+  maxFiles?: number;
+}
+
+interface HttpClientConfig {
+  /** Idle connections kept open for reuse, defaults to 5 */
+  maxIdleConnections?: number;
+  /** How long an idle connection is kept open for reuse, defaults to 5 minutes */
+  keepAliveMs?: number;
+  /** Negotiates HTTP/2 with endpoints that support it over TLS, defaults to true */
+  preferHttp2?: boolean;
+  /** Defaults to 10 seconds */
+  connectTimeoutMs?: number;
+  /** Defaults to 10 seconds */
+  readTimeoutMs?: number;
 }
 
 interface OTLPExporterConfig {
-  logExporter?: ExporterConfig;
-  traceExporter?: ExporterConfig;
+  // An array sends the same telemetry to each endpoint, each isolated from the others so a slow or failing endpoint
+  // doesn't hold up or drop telemetry for the rest. Only supported on Android, iOS uses the first exporter
+  logExporter?: ExporterConfig | ExporterConfig[];
+  traceExporter?: ExporterConfig | ExporterConfig[];
+  /**
+   * Transport used for both exporters, defaults to "http". With "grpc" endpoints are the collector's scheme, host and
+   * port without a path. Only supported on Android
+   */
+  protocol?: "http" | "grpc";
+  /**
+   * Also writes spans and logs to rotating local files, to `traces.<ext>` and `logs.<ext>`. Only supported on Android
+   */
+  fileExporter?: FileExporterConfig;
+  /**
+   * Tunes the HTTP client shared by every trace and log exporter, which reuse its connections. Only supported on
+   * Android over http
+   */
+  httpClient?: HttpClientConfig;
+  /** Logs each exporter's stats to Embrace on this interval, see `getExporterStats`. Only supported on Android */
+  statsReportIntervalMs?: number;
+  /**
+   * Builds the exporters in the background so that they don't hold up the SDK starting, holding on to what is exported
+   * until they are ready. Defaults to true, only supported on Android
+   */
+  deferExporterSetup?: boolean;
+}
+
+/**
+ * Counters for one trace or log exporter since it was set up. Parts of the pipeline that aren't in use report 0
+ */
+interface ExporterStats {
+  signal: "traces" | "logs";
+  endpoint: string;
+  batchesSent: number;
+  itemsSent: number;
+  failedBatches: number;
+  failedItems: number;
+  /** Request bodies posted including retries and spool replays, 0 over gRPC */
+  bytesSent: number;
+  retries: number;
+  /** Items waiting to be batched, queued for the endpoint or in flight */
+  queueDepth: number;
+  /** Items dropped because a queue was full, plus spooled requests dropped to make room */
+  dropped: number;
+  spooledRecords: number;
+  latencyP50Ms: number;
+  latencyP90Ms: number;
+  latencyP99Ms: number;
+  latencyMaxMs: number;
 }
 
 export {
@@ -47,5 +165,8 @@ export {
   AndroidConfig,
   LogProperties,
   ExporterConfig,
+  ExporterStats,
+  FileExporterConfig,
+  HttpClientConfig,
   OTLPExporterConfig,
 };
@@ -0,0 +1,240 @@
+package io.embrace.rnembracecore;
+
+import android.util.Log;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed capacity buffer of breadcrumbs that any number of threads can add to without taking a lock, drained to a sink
+ * in batches by a background thread. A breadcrumb with the same message as the one added just before it is collapsed
+ * into that entry, which counts the repeats, as long as the entry is still the newest one in the buffer, hasn't been
+ * drained yet and no breadcrumb was dropped since. Breadcrumbs added while the buffer is full are dropped and counted.
+ */
+public class BreadcrumbRingBuffer {
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final long DEFAULT_DRAIN_INTERVAL_MS = 100;
+
+    public interface Sink {
+        /**
+         * Receives each drained entry, `count` being how many times the message was added in a row starting at
+         * `timestampMs`
+         */
+        void add(String message, long timestampMs, int count);
+    }
+
+    /**
+     * The message to hand on for a drained entry, with ` (xN)` appended when it was added `count` times in a row so
+     * that the repeats are kept in a single breadcrumb
+     */
+    public static String withRepeatCount(String message, int count) {
+        return count > 1 ? message + " (x" + count + ")" : message;
+    }
+
+    private static final class Entry {
+        final String message;
+        final long timestampMs;
+        final long position;
+        // how many times the message was added, flipped negative once drained so that it can't be repeated any more
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        Entry(String message, long timestampMs, long position) {
+            this.message = message;
+            this.timestampMs = timestampMs;
+            this.position = position;
+        }
+
+        boolean repeat() {
+            while (true) {
+                final int current = count.get();
+                if (current < 0) {
+                    return false;
+                }
+                if (count.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        int seal() {
+            return count.getAndSet(-1);
+        }
+    }
+
+    private final Sink sink;
+    private final int capacity;
+    private final int mask;
+
+    // Each slot's sequence says whose turn it is: a producer may write the slot at position `p` when it is `p`, the
+    // drainer may read it when it is `p + 1`, after which it is set to `p + capacity` for the producer one lap ahead
+    private final AtomicReferenceArray<Entry> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicReference<Entry> last = new AtomicReference<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // only the drainer moves the head, whether it is the background thread or a synchronous flush
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private long head = 0;
+
+    private ScheduledExecutorService drainer;
+    private Thread.UncaughtExceptionHandler crashHandler;
+    private Thread.UncaughtExceptionHandler previousCrashHandler;
+
+    public BreadcrumbRingBuffer(int capacity, Sink sink) {
+        // rounded up to a power of two so that positions map to slots with a mask
+        this.capacity = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.sink = sink;
+        this.slots = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Breadcrumbs dropped since the buffer was created because it was full
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Adds a breadcrumb, returns false if it was dropped because the buffer is full
+     */
+    public boolean add(String message, long timestampMs) {
+        // `last` can lag behind when producers race, so it is only repeated while nothing was added after it
+        final Entry previous = last.get();
+        if (previous != null && previous.position == tail.get() - 1 && previous.message.equals(message)
+            && previous.repeat()) {
+            return true;
+        }
+
+        while (true) {
+            final long position = tail.get();
+            final int index = (int) (position & mask);
+            final long lag = sequences.get(index) - position;
+
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    final Entry entry = new Entry(message, timestampMs, position);
+                    slots.set(index, entry);
+                    sequences.set(index, position + 1);
+                    last.set(entry);
+                    return true;
+                }
+            } else if (lag < 0) {
+                // the slot still holds the entry from a lap ago, which hasn't been drained. A repeat of the entry added
+                // before this one no longer follows it
+                dropped.incrementAndGet();
+                last.set(null);
+                return false;
+            }
+            // otherwise another producer claimed the position first, try the next one
+        }
+    }
+
+    /**
+     * Hands every entry added so far to the sink on the calling thread, returns how many there were
+     */
+    public int drain() {
+        drainLock.lock();
+        try {
+            int drained = 0;
+            while (true) {
+                final int index = (int) (head & mask);
+                if (sequences.get(index) != head + 1) {
+                    return drained;
+                }
+
+                final Entry entry = slots.getAndSet(index, null);
+                final int count = entry.seal();
+                sequences.set(index, head + capacity);
+                head++;
+                drained++;
+
+                try {
+                    sink.add(entry.message, entry.timestampMs, count);
+                } catch (Exception e) {
+                    Log.e("Embrace", "Error draining breadcrumb", e);
+                }
+            }
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * Starts draining on a background thread every `drainIntervalMs`, does nothing if already started
+     */
+    public synchronized void start(long drainIntervalMs) {
+        if (drainer != null) {
+            return;
+        }
+
+        drainer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "embrace-breadcrumbs");
+            thread.setDaemon(true);
+            return thread;
+        });
+        drainer.scheduleWithFixedDelay(this::drain, drainIntervalMs, drainIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the background thread, puts back the uncaught exception handler `drainOnCrash` replaced and drains whatever
+     * is left on the calling thread
+     */
+    public synchronized void stop() {
+        if (drainer != null) {
+            drainer.shutdown();
+            drainer = null;
+        }
+        if (crashHandler != null) {
+            // if another handler was set over ours since, it may hand on to ours, which is left in place to pass
+            // exceptions through to the previous one
+            if (Thread.getDefaultUncaughtExceptionHandler() == crashHandler) {
+                Thread.setDefaultUncaughtExceptionHandler(previousCrashHandler);
+            }
+            crashHandler = null;
+            previousCrashHandler = null;
+        }
+        drain();
+    }
+
+    /**
+     * Drains whatever is buffered before handing an uncaught exception on to the handler that was set before, so that
+     * the breadcrumbs leading up to a crash make it to the SDK before it records the crash. Does nothing if already
+     * done since the buffer was last stopped.
+     */
+    public synchronized void drainOnCrash() {
+        if (crashHandler != null) {
+            return;
+        }
+
+        final Thread.UncaughtExceptionHandler previous = Thread.getDefaultUncaughtExceptionHandler();
+        crashHandler = (thread, throwable) -> {
+            try {
+                drain();
+            } catch (Exception e) {
+                Log.e("Embrace", "Error draining breadcrumbs on crash", e);
+            }
+            if (previous != null) {
+                previous.uncaughtException(thread, throwable);
+            }
+        };
+        previousCrashHandler = previous;
+        Thread.setDefaultUncaughtExceptionHandler(crashHandler);
+    }
+}
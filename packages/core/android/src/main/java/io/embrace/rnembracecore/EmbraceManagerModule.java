@@ -2,14 +2,23 @@ package io.embrace.rnembracecore;
 
 import android.util.Log;
 
+import com.facebook.react.bridge.LifecycleEventListener;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
 
+import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 import javax.annotation.Nonnull;
@@ -21,8 +30,30 @@ import io.embrace.android.embracesdk.network.EmbraceNetworkRequest;
 import io.embrace.android.embracesdk.network.http.HttpMethod;
 
 public class EmbraceManagerModule extends ReactContextBaseJavaModule {
+    // Should match METHOD_CODES in packages/core/src/utils/networkBatch.ts, methods the SDK doesn't know are left null
+    private static final String[] NETWORK_METHOD_CODES = {
+            "GET", "HEAD", "POST", "PUT", "DELETE", "CONNECT", "OPTIONS", "TRACE", "PATCH", "PURGE", "LINK", "UNLINK"
+    };
+    private static final HttpMethod[] NETWORK_METHODS = new HttpMethod[NETWORK_METHOD_CODES.length];
+
+    static {
+        for (int i = 0; i < NETWORK_METHOD_CODES.length; i++) {
+            NETWORK_METHODS[i] = parseMethodFromString(NETWORK_METHOD_CODES[i]);
+        }
+    }
+
     private final ReactApplicationContext context;
 
+    // errors from the `*FireAndForget` methods, which have no promise to reject, counted by method name
+    private final Map<String, AtomicLong> fireAndForgetErrors = new ConcurrentHashMap<>();
+
+    // created with the first buffered breadcrumb, see `getBreadcrumbs`
+    private volatile BreadcrumbRingBuffer breadcrumbs;
+    private LifecycleEventListener breadcrumbsLifecycleListener;
+
+    // stack traces sent along with logs, which JS sends only a reference to once they have been sent
+    private final StacktraceInterner stacktraces = new StacktraceInterner(StacktraceInterner.DEFAULT_CAPACITY);
+
     public EmbraceManagerModule(ReactApplicationContext reactContext) {
         super(reactContext);
         this.context = reactContext;
@@ -34,6 +65,12 @@ public class EmbraceManagerModule extends ReactContextBaseJavaModule {
         return "EmbraceManager";
     }
 
+    @Override
+    public void invalidate() {
+        stopBreadcrumbs();
+        super.invalidate();
+    }
+
     @ReactMethod
     public void isStarted(Promise promise) {
         try {
@@ -125,6 +162,91 @@ public class EmbraceManagerModule extends ReactContextBaseJavaModule {
         }
     }
 
+    @ReactMethod
+    public void addBreadcrumbFireAndForget(String message) {
+        try {
+            Embrace.INSTANCE.addBreadcrumb(message);
+        } catch(Exception e) {
+            countFireAndForgetError("addBreadcrumb", "Error adding breadcrumb", e);
+        }
+    }
+
+    /**
+     * Adds a breadcrumb to a buffer that is drained to the SDK in the background rather than to the SDK right away, see
+     * `BreadcrumbBufferingConfig` in packages/core/src/utils/breadcrumbBuffer.ts. Breadcrumbs dropped because the
+     * buffer is full are counted as `addBreadcrumb` fire-and-forget errors.
+     */
+    @ReactMethod
+    public void addBreadcrumbBuffered(String message) {
+        try {
+            if (!getBreadcrumbs().add(message, System.currentTimeMillis())) {
+                countFireAndForgetError("addBreadcrumb", "Breadcrumb buffer is full, dropping breadcrumb", null);
+            }
+        } catch(Exception e) {
+            countFireAndForgetError("addBreadcrumb", "Error adding breadcrumb", e);
+        }
+    }
+
+    // The buffer is drained in the background, and right away when the app is paused, the session is ended, or on a
+    // crash. Created with the first buffered breadcrumb rather than with the module so that its crash handler is set
+    // after the SDK's and runs first.
+    // The SDK takes no timestamp for a breadcrumb and stamps it when it is drained, and a repeated breadcrumb is added
+    // once for each time it was repeated so that it reads the same as it would have unbuffered
+    private BreadcrumbRingBuffer getBreadcrumbs() {
+        BreadcrumbRingBuffer buffer = breadcrumbs;
+        if (buffer != null) {
+            return buffer;
+        }
+
+        synchronized (this) {
+            if (breadcrumbs == null) {
+                buffer = new BreadcrumbRingBuffer(BreadcrumbRingBuffer.DEFAULT_CAPACITY, (message, timestampMs, count) ->
+                    Embrace.INSTANCE.addBreadcrumb(BreadcrumbRingBuffer.withRepeatCount(message, count))
+                );
+                buffer.start(BreadcrumbRingBuffer.DEFAULT_DRAIN_INTERVAL_MS);
+                buffer.drainOnCrash();
+
+                breadcrumbsLifecycleListener = new LifecycleEventListener() {
+                    @Override
+                    public void onHostResume() {
+                    }
+
+                    @Override
+                    public void onHostPause() {
+                        drainBreadcrumbs();
+                    }
+
+                    @Override
+                    public void onHostDestroy() {
+                        stopBreadcrumbs();
+                    }
+                };
+                context.addLifecycleEventListener(breadcrumbsLifecycleListener);
+                breadcrumbs = buffer;
+            }
+            return breadcrumbs;
+        }
+    }
+
+    // drains what is left and restores the crash handler the buffer replaced, a later breadcrumb starts a new buffer
+    private synchronized void stopBreadcrumbs() {
+        if (breadcrumbs == null) {
+            return;
+        }
+
+        context.removeLifecycleEventListener(breadcrumbsLifecycleListener);
+        breadcrumbsLifecycleListener = null;
+        breadcrumbs.stop();
+        breadcrumbs = null;
+    }
+
+    private void drainBreadcrumbs() {
+        final BreadcrumbRingBuffer buffer = breadcrumbs;
+        if (buffer != null) {
+            buffer.drain();
+        }
+    }
+
     @ReactMethod
     public void addUserPersona(String persona, Promise promise) {
         try {
@@ -159,25 +281,136 @@ public class EmbraceManagerModule extends ReactContextBaseJavaModule {
     public void logMessageWithSeverityAndProperties(String message, String severity, ReadableMap properties,
                                                     String stacktrace, Boolean includeStacktrace, Promise promise) {
         try {
-            final Map<String, Object> propValue = properties == null ? new HashMap<>() : properties.toHashMap();
-            final Severity severityValue = getSeverityByString(severity);
-
-            if (includeStacktrace && !stacktrace.isEmpty()) {
-                // we don't want to send info stacktraces to sdk for 'info' logs,
-                // this is already prevented in the js layer as well
-                if (!severity.equals("info")) {
-                    propValue.put("emb.stacktrace.rn", stacktrace);
-                }
-            }
-
-            Embrace.INSTANCE.logMessage(message, severityValue, propValue);
+            logMessage(message, severity, properties, stacktrace, includeStacktrace);
             promise.resolve(true);
+        } catch (StacktraceInterner.NotInternedException e) {
+            // nothing was logged, JS sends it again with the stack trace in full
+            Log.w("Embrace", e.getMessage());
+            promise.reject("STACKTRACE_NOT_INTERNED", e.getMessage(), e);
         } catch (Exception e) {
             Log.e("Embrace", "Error logging message", e);
             promise.reject("LOG_MESSAGE_ERROR", "Error logging message", e);
         }
     }
 
+    @ReactMethod
+    public void logMessageWithSeverityAndPropertiesFireAndForget(String message, String severity,
+                                                                 ReadableMap properties, String stacktrace,
+                                                                 Boolean includeStacktrace) {
+        try {
+            try {
+                logMessage(message, severity, properties, stacktrace, includeStacktrace);
+            } catch (StacktraceInterner.NotInternedException e) {
+                // there is no promise to have JS send it again, better logged without its stack trace than not at all
+                Log.w("Embrace", e.getMessage() + ", logging the message without it");
+                logMessage(message, severity, properties, "", false);
+            }
+        } catch (Exception e) {
+            countFireAndForgetError("logMessageWithSeverityAndProperties", "Error logging message", e);
+        }
+    }
+
+    // logs several messages in a single bridge call, each entry carrying the same fields as the arguments of
+    // `logMessageWithSeverityAndProperties`. Entries that fail are skipped, resolves with how many were logged and the
+    // indexes of the entries skipped because their stack trace reference wasn't known, for JS to send again in full
+    @ReactMethod
+    public void logMessagesBatch(ReadableArray logs, Promise promise) {
+        try {
+            final List<Integer> notInterned = new ArrayList<>();
+            final int logged = logMessages(logs, notInterned);
+
+            final WritableArray notInternedIndexes = Arguments.createArray();
+            for (int index : notInterned) {
+                notInternedIndexes.pushInt(index);
+            }
+            final WritableMap result = Arguments.createMap();
+            result.putInt("logged", logged);
+            result.putArray("notInterned", notInternedIndexes);
+            promise.resolve(result);
+        } catch (Exception e) {
+            Log.e("Embrace", "Error logging messages batch", e);
+            promise.reject("LOG_MESSAGES_BATCH_ERROR", "Error logging messages batch", e);
+        }
+    }
+
+    @ReactMethod
+    public void logMessagesBatchFireAndForget(ReadableArray logs) {
+        try {
+            final int skipped = logs.size() - logMessages(logs, null);
+            if (skipped > 0) {
+                countFireAndForgetErrors("logMessagesBatch", skipped);
+            }
+        } catch (Exception e) {
+            countFireAndForgetError("logMessagesBatch", "Error logging messages batch", e);
+        }
+    }
+
+    // Entries whose stack trace reference isn't known are added to `notInterned`, or logged without a stack trace when
+    // it is null since there is no one to send them again
+    private int logMessages(ReadableArray logs, List<Integer> notInterned) {
+        int logged = 0;
+        for (int i = 0; i < logs.size(); i++) {
+            try {
+                final ReadableMap log = logs.getMap(i);
+                if (log == null || !log.hasKey("message") || log.isNull("message")) {
+                    Log.w("Embrace", "Skipping log without a message in batch");
+                    // JS counts its stack trace as sent all the same, see `StacktraceInterner`
+                    if (log != null && log.hasKey("stacktrace")) {
+                        stacktraces.resolve(log.getString("stacktrace"));
+                    }
+                    continue;
+                }
+
+                final String message = log.getString("message");
+                final String severity = log.hasKey("severity") ? log.getString("severity") : "error";
+                final ReadableMap properties =
+                        log.hasKey("properties") && !log.isNull("properties") ? log.getMap("properties") : null;
+                try {
+                    logMessage(
+                            message,
+                            severity,
+                            properties,
+                            log.hasKey("stacktrace") ? log.getString("stacktrace") : "",
+                            log.hasKey("includeStacktrace") && log.getBoolean("includeStacktrace")
+                    );
+                } catch (StacktraceInterner.NotInternedException e) {
+                    if (notInterned != null) {
+                        // nothing was logged, JS sends it again with the stack trace in full
+                        Log.w("Embrace", e.getMessage());
+                        notInterned.add(i);
+                        continue;
+                    }
+                    Log.w("Embrace", e.getMessage() + ", logging the message without it");
+                    logMessage(message, severity, properties, "", false);
+                }
+                logged++;
+            } catch (Exception e) {
+                Log.e("Embrace", "Error logging message in batch", e);
+            }
+        }
+        return logged;
+    }
+
+    // not private so that tests can stand in for the SDK when logging more than it would keep in a session
+    protected void logMessage(String message, String severity, ReadableMap properties, String sentStacktrace,
+                              boolean includeStacktrace) throws StacktraceInterner.NotInternedException {
+        // resolved before anything else can fail so that every stack trace JS sends is interned, see
+        // `StacktraceInterner`
+        final String stacktrace = stacktraces.resolve(sentStacktrace);
+        final Map<String, Object> propValue = properties == null ? new HashMap<>() : properties.toHashMap();
+        final Severity severityValue = getSeverityByString(severity);
+
+        if (includeStacktrace && !stacktrace.isEmpty()) {
+            // we don't want to send info stacktraces to sdk for 'info' logs,
+            // this is already prevented in the js layer as well
+            if (!severity.equals("info")) {
+                propValue.put("emb.stacktrace.rn", stacktrace);
+            }
+        }
+
+        Embrace.INSTANCE.logMessage(message, severityValue, propValue);
+    }
+
     private Severity getSeverityByString(String severity) {
         switch (severity) {
             case "info":
@@ -210,6 +443,7 @@ public class EmbraceManagerModule extends ReactContextBaseJavaModule {
     @ReactMethod
     public void logUnhandledJSException(String name, String message, String type, String stacktrace, Promise promise) {
         try {
+            drainBreadcrumbs();
             EmbraceInternalApi.INSTANCE.getReactNativeInternalInterface().logUnhandledJsException(name, message, type, stacktrace);
             promise.resolve(true);
         } catch(Exception e) {
@@ -267,6 +501,17 @@ public class EmbraceManagerModule extends ReactContextBaseJavaModule {
         }
     }
 
+    @ReactMethod
+    public void addSessionPropertyFireAndForget(String key, String value, boolean permanent) {
+        try {
+            if (!Embrace.INSTANCE.addSessionProperty(key, value, permanent)) {
+                countFireAndForgetError("addSessionProperty", "Session property was not added", null);
+            }
+        } catch(Exception e) {
+            countFireAndForgetError("addSessionProperty", "Error adding session property", e);
+        }
+    }
+
     @ReactMethod
     public void removeSessionProperty(String key, Promise promise) {
         try {
@@ -280,6 +525,7 @@ public class EmbraceManagerModule extends ReactContextBaseJavaModule {
     @ReactMethod
     public void endSession(Promise promise) {
         try {
+            drainBreadcrumbs();
             Embrace.INSTANCE.endSession(false);
             promise.resolve(true);
         } catch(Exception e) {
@@ -334,25 +580,66 @@ public class EmbraceManagerModule extends ReactContextBaseJavaModule {
         }
 
         try {
-            Embrace.INSTANCE.recordNetworkRequest(EmbraceNetworkRequest.fromCompletedRequest(
+            Embrace.INSTANCE.recordNetworkRequest(
+                    completedRequest(url, parsedMethod, st, et, bytesSent, bytesReceived, statusCode, traceparent()));
+            promise.resolve(true);
+        } catch(Exception e) {
+            promise.reject("LOG_NETWORK_REQUEST_ERROR", "Error logging network request", e);
+        }
+    }
+
+    @ReactMethod
+    public void logNetworkRequestFireAndForget(String url,
+                                               String httpMethod,
+                                               Double startInMillis,
+                                               Double endInMillis,
+                                               Integer bytesSent,
+                                               Integer bytesReceived,
+                                               Integer statusCode) {
+        HttpMethod parsedMethod = parseMethodFromString(httpMethod);
+        if (parsedMethod == null) {
+            countFireAndForgetError("logNetworkRequest", "Unexpected http method: " + httpMethod, null);
+            return;
+        }
+
+        try {
+            Embrace.INSTANCE.recordNetworkRequest(completedRequest(
                     url,
                     parsedMethod,
-                    st,
-                    et,
-                    bytesSent.intValue(),
-                    bytesReceived.intValue(),
-                    statusCode.intValue(),
-                    null,
-                    isNetworkSpanForwardingEnabled() ? generateW3cTraceparent() : null,
-                    null
+                    startInMillis.longValue(),
+                    endInMillis.longValue(),
+                    bytesSent,
+                    bytesReceived,
+                    statusCode,
+                    traceparent()
             ));
-
-            promise.resolve(true);
         } catch(Exception e) {
-            promise.reject("LOG_NETWORK_REQUEST_ERROR", "Error logging network request", e);
+            countFireAndForgetError("logNetworkRequest", "Error logging network request", e);
         }
     }
 
+    private EmbraceNetworkRequest completedRequest(String url,
+                                                   HttpMethod method,
+                                                   long startInMillis,
+                                                   long endInMillis,
+                                                   Integer bytesSent,
+                                                   Integer bytesReceived,
+                                                   Integer statusCode,
+                                                   String traceparent) {
+        return EmbraceNetworkRequest.fromCompletedRequest(
+                url,
+                method,
+                startInMillis,
+                endInMillis,
+                bytesSent.intValue(),
+                bytesReceived.intValue(),
+                statusCode.intValue(),
+                null,
+                traceparent,
+                null
+        );
+    }
+
     @ReactMethod
     public void logNetworkClientError(String url,
                                       String httpMethod,
@@ -370,22 +657,163 @@ public class EmbraceManagerModule extends ReactContextBaseJavaModule {
         }
 
         try {
-            Embrace.INSTANCE.recordNetworkRequest(EmbraceNetworkRequest.fromIncompleteRequest(
+            Embrace.INSTANCE.recordNetworkRequest(
+                    incompleteRequest(url, parsedMethod, st, et, errorType, errorMessage, traceparent()));
+            promise.resolve(true);
+        } catch(Exception e) {
+            promise.reject("LOG_NETWORK_CLIENT_ERROR_ERROR", "Error logging network client error", e);
+        }
+
+    }
+
+    @ReactMethod
+    public void logNetworkClientErrorFireAndForget(String url,
+                                                   String httpMethod,
+                                                   Double startInMillis,
+                                                   Double endInMillis,
+                                                   String errorType,
+                                                   String errorMessage) {
+        HttpMethod parsedMethod = parseMethodFromString(httpMethod);
+        if (parsedMethod == null) {
+            countFireAndForgetError("logNetworkClientError", "Unexpected http method: " + httpMethod, null);
+            return;
+        }
+
+        try {
+            Embrace.INSTANCE.recordNetworkRequest(incompleteRequest(
                     url,
                     parsedMethod,
-                    st,
-                    et,
+                    startInMillis.longValue(),
+                    endInMillis.longValue(),
                     errorType,
                     errorMessage,
-                    null,
-                    isNetworkSpanForwardingEnabled() ? generateW3cTraceparent() : null,
-                    null
+                    traceparent()
             ));
-            promise.resolve(true);
         } catch(Exception e) {
-            promise.reject("LOG_NETWORK_CLIENT_ERROR_ERROR", "Error logging network client error", e);
+            countFireAndForgetError("logNetworkClientError", "Error logging network client error", e);
+        }
+    }
+
+    private EmbraceNetworkRequest incompleteRequest(String url,
+                                                    HttpMethod method,
+                                                    long startInMillis,
+                                                    long endInMillis,
+                                                    String errorType,
+                                                    String errorMessage,
+                                                    String traceparent) {
+        return EmbraceNetworkRequest.fromIncompleteRequest(
+                url,
+                method,
+                startInMillis,
+                endInMillis,
+                errorType,
+                errorMessage,
+                null,
+                traceparent,
+                null
+        );
+    }
+
+    @ReactMethod
+    public void logNetworkRequestsBatch(ReadableMap batch, Promise promise) {
+        try {
+            promise.resolve(recordNetworkRequests(batch));
+        } catch(Exception e) {
+            promise.reject("LOG_NETWORK_REQUESTS_BATCH_ERROR", "Error logging network requests batch", e);
         }
+    }
+
+    @ReactMethod
+    public void logNetworkRequestsBatchFireAndForget(ReadableMap batch) {
+        try {
+            final int skipped = batch.getArray("urls").size() - recordNetworkRequests(batch);
+            if (skipped > 0) {
+                countFireAndForgetErrors("logNetworkRequestsBatch", skipped);
+            }
+        } catch(Exception e) {
+            countFireAndForgetError("logNetworkRequestsBatch", "Error logging network requests batch", e);
+        }
+    }
+
+    // Records requests laid out as parallel arrays, one per field, with the http method as an index into
+    // NETWORK_METHOD_CODES. Requests with an error type are recorded as client errors, returns how many were recorded
+    private int recordNetworkRequests(ReadableMap batch) {
+        final ReadableArray urls = batch.getArray("urls");
+        final ReadableArray methods = batch.getArray("methods");
+        final ReadableArray startTimes = batch.getArray("startTimes");
+        final ReadableArray endTimes = batch.getArray("endTimes");
+        final ReadableArray bytesSent = batch.getArray("bytesSent");
+        final ReadableArray bytesReceived = batch.getArray("bytesReceived");
+        final ReadableArray statusCodes = batch.getArray("statusCodes");
+        final ReadableArray errorTypes = batch.getArray("errorTypes");
+        final ReadableArray errorMessages = batch.getArray("errorMessages");
+        // the same for every request in the batch, only checked once
+        final boolean spanForwardingEnabled = isNetworkSpanForwardingEnabled();
+
+        int recorded = 0;
+        for (int i = 0; i < urls.size(); i++) {
+            try {
+                final int code = methods.getInt(i);
+                final HttpMethod method = code >= 0 && code < NETWORK_METHODS.length ? NETWORK_METHODS[code] : null;
+                if (method == null) {
+                    Log.w("Embrace", "Skipping network request with an unexpected http method in batch");
+                    continue;
+                }
 
+                final String url = urls.getString(i);
+                final long start = (long) startTimes.getDouble(i);
+                final long end = (long) endTimes.getDouble(i);
+                final String traceparent = spanForwardingEnabled ? generateW3cTraceparent() : null;
+                final String errorType = errorTypes.isNull(i) ? null : errorTypes.getString(i);
+
+                Embrace.INSTANCE.recordNetworkRequest(errorType != null && !errorType.isEmpty()
+                        ? incompleteRequest(url, method, start, end, errorType, errorMessages.getString(i), traceparent)
+                        : completedRequest(url, method, start, end, bytesSent.getInt(i), bytesReceived.getInt(i),
+                                           statusCodes.getInt(i), traceparent)
+                );
+                recorded++;
+            } catch(Exception e) {
+                Log.e("Embrace", "Error logging network request in batch", e);
+            }
+        }
+        return recorded;
+    }
+
+    private String traceparent() {
+        return isNetworkSpanForwardingEnabled() ? generateW3cTraceparent() : null;
+    }
+
+    private void countFireAndForgetError(String methodName, String message, Exception e) {
+        Log.e("Embrace", message, e);
+        countFireAndForgetErrors(methodName, 1);
+    }
+
+    private void countFireAndForgetErrors(String methodName, int count) {
+        fireAndForgetErrors.computeIfAbsent(methodName, key -> new AtomicLong()).addAndGet(count);
+    }
+
+    /**
+     * Errors from the `*FireAndForget` methods since the module was created, by the method they stand in for
+     */
+    public Map<String, Long> getFireAndForgetErrorCounts() {
+        final Map<String, Long> counts = new HashMap<>();
+        for (Map.Entry<String, AtomicLong> entry : fireAndForgetErrors.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().get());
+        }
+        return counts;
+    }
+
+    @ReactMethod
+    public void getFireAndForgetErrors(Promise promise) {
+        try {
+            final WritableMap result = Arguments.createMap();
+            for (Map.Entry<String, Long> entry : getFireAndForgetErrorCounts().entrySet()) {
+                result.putDouble(entry.getKey(), entry.getValue());
+            }
+            promise.resolve(result);
+        } catch(Exception e) {
+            promise.reject("GET_FIRE_AND_FORGET_ERRORS_ERROR", "Error getting fire and forget errors", e);
+        }
     }
 
     public boolean isNetworkSpanForwardingEnabled() {
@@ -396,7 +824,7 @@ public class EmbraceManagerModule extends ReactContextBaseJavaModule {
         return Embrace.INSTANCE.generateW3cTraceparent();
     }
 
-    private HttpMethod parseMethodFromString(String httpMethod) {
+    private static HttpMethod parseMethodFromString(String httpMethod) {
         try {
             return HttpMethod.fromString(httpMethod);
         } catch(Exception e) {
@@ -0,0 +1,82 @@
+package io.embrace.rnembracecore;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Native half of the stack trace interning done in packages/core/src/utils/stacktraceIntern.ts. The JS layer sends a
+ * stack trace in full the first time and then only a reference to its hash, this keeps the most recently used stack
+ * traces by hash so that references can be turned back into them.
+ * <p>
+ * The JS layer remembers fewer hashes than this keeps and both evict the least recently used one, touching entries in
+ * the same order since every log goes through `resolve`. So anything JS still remembers is still here, a reference
+ * that isn't found means the two got out of step (e.g. the module was recreated) and JS has to send the stack trace
+ * in full again.
+ */
+public class StacktraceInterner {
+    // Should match MAX_INTERNED_STACKTRACES in packages/core/src/utils/stacktraceIntern.ts
+    public static final int DEFAULT_CAPACITY = 256;
+    // Should match REFERENCE_PREFIX in packages/core/src/utils/stacktraceIntern.ts
+    public static final String REFERENCE_PREFIX = "emb-stack:";
+
+    public static class NotInternedException extends Exception {
+        NotInternedException(String reference) {
+            super("Stack trace " + reference + " was not interned");
+        }
+    }
+
+    private final Map<String, String> stacktraces;
+
+    public StacktraceInterner(int capacity) {
+        this.stacktraces = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the stack trace a reference stands for, or interns and returns a stack trace sent in full. Throws if the
+     * reference isn't known, in which case the stack trace has to be sent again in full.
+     */
+    public synchronized String resolve(String stacktrace) throws NotInternedException {
+        if (stacktrace == null || stacktrace.isEmpty()) {
+            return stacktrace;
+        }
+
+        if (stacktrace.startsWith(REFERENCE_PREFIX)) {
+            final String interned = stacktraces.get(stacktrace.substring(REFERENCE_PREFIX.length()));
+            if (interned == null) {
+                throw new NotInternedException(stacktrace);
+            }
+            return interned;
+        }
+
+        stacktraces.put(hash(stacktrace), stacktrace);
+        return stacktrace;
+    }
+
+    public synchronized int size() {
+        return stacktraces.size();
+    }
+
+    /**
+     * 53 bit cyrb53 hash of the UTF-16 code units of `value` in hex, the same as `hashStacktrace` computes in JS
+     */
+    public static String hash(String value) {
+        int h1 = 0xdeadbeef;
+        int h2 = 0x41c6ce57;
+        for (int i = 0; i < value.length(); i++) {
+            final char ch = value.charAt(i);
+            h1 = (h1 ^ ch) * -1640531535; // 2654435761
+            h2 = (h2 ^ ch) * 1597334677;
+        }
+        h1 = (h1 ^ (h1 >>> 16)) * -2048144789; // 2246822507
+        h1 ^= (h2 ^ (h2 >>> 13)) * -1028477387; // 3266489909
+        h2 = (h2 ^ (h2 >>> 16)) * -2048144789;
+        h2 ^= (h1 ^ (h1 >>> 13)) * -1028477387;
+
+        return Long.toHexString(((long) (h2 & 0x1fffff) << 32) | (h1 & 0xffffffffL));
+    }
+}
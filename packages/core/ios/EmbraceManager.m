@@ -83,6 +83,10 @@ RCT_EXTERN_METHOD(logMessageWithSeverityAndProperties:(NSString *)message
                   resolver:(RCTPromiseResolveBlock)resolve
                   rejecter:(RCTPromiseRejectBlock)reject)
 
+RCT_EXTERN_METHOD(logMessagesBatch:(NSArray *)logs
+                  resolver:(RCTPromiseResolveBlock)resolve
+                  rejecter:(RCTPromiseRejectBlock)reject)
+
 RCT_EXTERN_METHOD(addUserPersona:(NSString *)persona
                   resolver:(RCTPromiseResolveBlock)resolve
                   rejecter:(RCTPromiseRejectBlock)reject)
@@ -113,6 +117,44 @@ RCT_EXTERN_METHOD(logNetworkClientError:(NSString *)url
                   resolver:(RCTPromiseResolveBlock)resolve
                   rejecter:(RCTPromiseRejectBlock)reject)
 
+RCT_EXTERN_METHOD(addBreadcrumbFireAndForget:(NSString *)event)
+
+RCT_EXTERN_METHOD(addSessionPropertyFireAndForget:(NSString *)key
+                  value:(NSString *)value
+                  permanent:(BOOL)permanent)
+
+RCT_EXTERN_METHOD(logMessageWithSeverityAndPropertiesFireAndForget:(NSString *)message
+                  severity:(NSString *)severity
+                  properties:(NSDictionary)properties
+                  stacktrace:(NSString *)stacktrace
+                  includeStacktrace:(BOOL)includeStacktrace)
+
+RCT_EXTERN_METHOD(logMessagesBatchFireAndForget:(NSArray *)logs)
+
+RCT_EXTERN_METHOD(logNetworkRequestFireAndForget:(NSString *)url
+                  httpMethod:(NSString *)httpMethod
+                  startInMillis:(double)startInMillis
+                  endInMillis:(double)endInMillis
+                  bytesSent:(double)bytesSent
+                  bytesReceived:(double)bytesReceived
+                  statusCode:(double)statusCode)
+
+RCT_EXTERN_METHOD(logNetworkClientErrorFireAndForget:(NSString *)url
+                  httpMethod:(NSString *)httpMethod
+                  startInMillis:(double)startInMillis
+                  endInMillis:(double)endInMillis
+                  errorType:(NSString *)errorType
+                  errorMessage:(NSString *)errorMessage)
+
+RCT_EXTERN_METHOD(logNetworkRequestsBatch:(NSDictionary *)batch
+                  resolver:(RCTPromiseResolveBlock)resolve
+                  rejecter:(RCTPromiseRejectBlock)reject)
+
+RCT_EXTERN_METHOD(logNetworkRequestsBatchFireAndForget:(NSDictionary *)batch)
+
+RCT_EXTERN_METHOD(getFireAndForgetErrors:(RCTPromiseResolveBlock)resolve
+                  rejecter:(RCTPromiseRejectBlock)reject)
+
 RCT_EXTERN_METHOD(logHandledError:(NSString *)message
                   stacktrace:(NSString *)stacktrace
                   properties:(NSDictionary)properties
@@ -23,11 +23,23 @@ private let EVENT_ATTRIBUTES_KEY = "attributes"
 // Crash metadata
 private let EMB_EXC = "emb-js"
 
+// Should match METHOD_CODES in packages/core/src/utils/networkBatch.ts
+private let NETWORK_METHOD_CODES = [
+    "GET", "HEAD", "POST", "PUT", "DELETE", "CONNECT", "OPTIONS", "TRACE", "PATCH", "PURGE", "LINK", "UNLINK"
+]
+
 @objc(EmbraceManager)
 class EmbraceManager: NSObject {
     private var log = OSLog(subsystem: "Embrace", category: "ReactNativeEmbraceManager")
     private var config: SDKConfig = SDKConfig(from: NSDictionary())
 
+    // errors from the `*FireAndForget` methods, which have no promise to reject, counted by method name
+    private var fireAndForgetErrors: [String: Int] = [:]
+    private let fireAndForgetErrorsLock = NSLock()
+
+    // stack traces sent along with logs, which JS sends only a reference to once they have been sent
+    private let stacktraces = StacktraceInterner(capacity: INTERNED_STACKTRACES_CAPACITY)
+
     @objc(setJavaScriptBundlePath:resolver:rejecter:)
     func setJavaScriptBundlePath(_ path: String, resolver resolve: @escaping RCTPromiseResolveBlock, rejecter reject: @escaping RCTPromiseRejectBlock) {
         DispatchQueue.global(qos: .background).async {
@@ -300,18 +312,146 @@ class EmbraceManager: NSObject {
         includeStacktrace: Bool,
         resolver resolve: @escaping RCTPromiseResolveBlock,
         rejecter reject: @escaping RCTPromiseRejectBlock
+    ) {
+        // resolved before anything else can fail so that every stack trace JS sends is interned, see
+        // `StacktraceInterner`
+        let resolvedStacktrace: String
+        do {
+            resolvedStacktrace = try stacktraces.resolve(stacktrace)
+        } catch {
+            // nothing was logged, JS sends it again with the stack trace in full
+            reject("STACKTRACE_NOT_INTERNED", error.localizedDescription, error)
+            return
+        }
+
+        logResolvedMessage(
+            message,
+            severity: severity,
+            properties: properties,
+            stacktrace: resolvedStacktrace,
+            includeStacktrace: includeStacktrace,
+            resolver: resolve,
+            rejecter: reject
+        )
+    }
+
+    private func logResolvedMessage(
+        _ message: String,
+        severity: String,
+        properties: NSDictionary,
+        stacktrace: String,
+        includeStacktrace: Bool,
+        resolver resolve: @escaping RCTPromiseResolveBlock,
+        rejecter reject: @escaping RCTPromiseRejectBlock
     ) {
         guard Embrace.client != nil else {
             reject("LOG_MESSAGE_ERROR", "Embrace SDK may not be initialized", nil)
             return
         }
 
-        let severityValue = self.severityFromString(from: severity)
-        guard var attributes = properties as? [String: String] else {
+        guard let attributes = properties as? [String: String] else {
             reject("LOG_MESSAGE_INVALID_PROPERTIES", "Properties should be [String: String]", nil)
             return
         }
 
+        self.logMessage(
+            message,
+            severity: severity,
+            attributes: attributes,
+            stacktrace: stacktrace,
+            includeStacktrace: includeStacktrace
+        )
+        resolve(true)
+    }
+
+    // logs several messages in a single bridge call, each entry carrying the same fields as the arguments of
+    // `logMessageWithSeverityAndProperties`. Entries that are invalid are skipped, resolves with how many were logged
+    // and the indexes of the entries skipped because their stack trace reference wasn't known, for JS to send again in
+    // full
+    @objc(logMessagesBatch:resolver:rejecter:)
+    func logMessagesBatch(
+        _ logs: NSArray,
+        resolver resolve: @escaping RCTPromiseResolveBlock,
+        rejecter reject: @escaping RCTPromiseRejectBlock
+    ) {
+        logMessagesBatch(logs, logWithoutUnknownStacktraces: false, resolver: resolve, rejecter: reject)
+    }
+
+    // entries whose stack trace reference isn't known are logged without a stack trace instead of being skipped when
+    // `logWithoutUnknownStacktraces` is set, for when there is no one to send them again
+    private func logMessagesBatch(
+        _ logs: NSArray,
+        logWithoutUnknownStacktraces: Bool,
+        resolver resolve: @escaping RCTPromiseResolveBlock,
+        rejecter reject: @escaping RCTPromiseRejectBlock
+    ) {
+        guard Embrace.client != nil else {
+            // nothing is logged but JS counts the stack traces as sent all the same, see `StacktraceInterner`
+            for entry in logs {
+                _ = try? stacktraces.resolve((entry as? NSDictionary)?["stacktrace"] as? String ?? "")
+            }
+            reject("LOG_MESSAGES_BATCH_ERROR", "Embrace SDK may not be initialized", nil)
+            return
+        }
+
+        var logged = 0
+        var notInterned: [Int] = []
+        for (index, entry) in logs.enumerated() {
+            let stacktrace: String
+            var includeStacktrace = (entry as? NSDictionary)?["includeStacktrace"] as? Bool ?? false
+            do {
+                stacktrace = try stacktraces.resolve((entry as? NSDictionary)?["stacktrace"] as? String ?? "")
+            } catch {
+                guard logWithoutUnknownStacktraces else {
+                    // nothing is logged, JS sends it again with the stack trace in full
+                    os_log("Skipping log in batch: %{public}@", log: self.log, type: .error, error.localizedDescription)
+                    notInterned.append(index)
+                    continue
+                }
+                os_log(
+                    "%{public}@, logging the message without it",
+                    log: self.log,
+                    type: .error,
+                    error.localizedDescription
+                )
+                stacktrace = ""
+                includeStacktrace = false
+            }
+
+            guard let log = entry as? NSDictionary, let message = log["message"] as? String else {
+                os_log("Skipping invalid log in batch", log: self.log, type: .error)
+                continue
+            }
+
+            let properties = log["properties"] ?? NSDictionary()
+            guard let attributes = (properties is NSNull ? NSDictionary() : properties) as? [String: String] else {
+                os_log("Skipping log in batch, properties should be [String: String]", log: self.log, type: .error)
+                continue
+            }
+
+            self.logMessage(
+                message,
+                severity: log["severity"] as? String ?? "error",
+                attributes: attributes,
+                stacktrace: stacktrace,
+                includeStacktrace: includeStacktrace
+            )
+            logged += 1
+        }
+
+        resolve(["logged": logged, "notInterned": notInterned])
+    }
+
+    private func logMessage(
+        _ message: String,
+        severity: String,
+        attributes properties: [String: String],
+        stacktrace: String,
+        includeStacktrace: Bool
+    ) {
+        let severityValue = self.severityFromString(from: severity)
+        var attributes = properties
+
         let isInfoLog = severityValue == .info
 
         var stackTraceBehavior: StackTraceBehavior = StackTraceBehavior.notIncluded
@@ -332,8 +472,6 @@ class EmbraceManager: NSObject {
             attributes: attributes,
             stackTraceBehavior: stackTraceBehavior
         )
-        resolve(true)
-
     }
 
     private func severityFromString(from inputString: String) -> LogSeverity {
@@ -449,6 +587,212 @@ class EmbraceManager: NSObject {
         }
     }
 
+    private func countFireAndForgetErrors(_ methodName: String, count: Int = 1) {
+        fireAndForgetErrorsLock.lock()
+        fireAndForgetErrors[methodName, default: 0] += count
+        fireAndForgetErrorsLock.unlock()
+    }
+
+    // runs one of the promise based methods without a promise, counting whatever it would have rejected
+    private func fireAndForget(
+        _ methodName: String,
+        _ call: (@escaping RCTPromiseResolveBlock, @escaping RCTPromiseRejectBlock) -> Void
+    ) {
+        call({ _ in }, { code, message, _ in
+            os_log("%{public}@: %{public}@", log: self.log, type: .error, code ?? methodName, message ?? "")
+            self.countFireAndForgetErrors(methodName)
+        })
+    }
+
+    @objc(addBreadcrumbFireAndForget:)
+    func addBreadcrumbFireAndForget(_ event: String) {
+        fireAndForget("addBreadcrumb") { resolve, reject in
+            self.addBreadcrumb(event, resolver: resolve, rejecter: reject)
+        }
+    }
+
+    @objc(addSessionPropertyFireAndForget:value:permanent:)
+    func addSessionPropertyFireAndForget(_ key: String, value: String, permanent: Bool) {
+        fireAndForget("addSessionProperty") { resolve, reject in
+            self.addSessionProperty(key, value: value, permanent: permanent, resolver: resolve, rejecter: reject)
+        }
+    }
+
+    @objc(logMessageWithSeverityAndPropertiesFireAndForget:severity:properties:stacktrace:includeStacktrace:)
+    func logMessageWithSeverityAndPropertiesFireAndForget(
+        _ message: String,
+        severity: String,
+        properties: NSDictionary,
+        stacktrace: String,
+        includeStacktrace: Bool
+    ) {
+        // there is no promise to have JS send it again, better logged without its stack trace than not at all
+        var resolvedStacktrace = ""
+        var resolvedIncludeStacktrace = false
+        do {
+            resolvedStacktrace = try stacktraces.resolve(stacktrace)
+            resolvedIncludeStacktrace = includeStacktrace
+        } catch {
+            os_log("%{public}@, logging the message without it", log: self.log, type: .error, error.localizedDescription)
+        }
+
+        fireAndForget("logMessageWithSeverityAndProperties") { resolve, reject in
+            self.logResolvedMessage(
+                message,
+                severity: severity,
+                properties: properties,
+                stacktrace: resolvedStacktrace,
+                includeStacktrace: resolvedIncludeStacktrace,
+                resolver: resolve,
+                rejecter: reject
+            )
+        }
+    }
+
+    @objc(logMessagesBatchFireAndForget:)
+    func logMessagesBatchFireAndForget(_ logs: NSArray) {
+        fireAndForget("logMessagesBatch") { _, reject in
+            self.logMessagesBatch(logs, logWithoutUnknownStacktraces: true, resolver: { result in
+                let logged = (result as? [String: Any])?["logged"] as? Int ?? 0
+                let skipped = logs.count - logged
+                if skipped > 0 {
+                    self.countFireAndForgetErrors("logMessagesBatch", count: skipped)
+                }
+            }, rejecter: reject)
+        }
+    }
+
+    @objc(logNetworkRequestFireAndForget:httpMethod:startInMillis:endInMillis:bytesSent:bytesReceived:statusCode:)
+    func logNetworkRequestFireAndForget(
+        _ url: String,
+        httpMethod: String,
+        startInMillis: Double,
+        endInMillis: Double,
+        bytesSent: Double,
+        bytesReceived: Double,
+        statusCode: Double
+    ) {
+        fireAndForget("logNetworkRequest") { resolve, reject in
+            self.logNetworkRequest(
+                url,
+                httpMethod: httpMethod,
+                startInMillis: startInMillis,
+                endInMillis: endInMillis,
+                bytesSent: bytesSent,
+                bytesReceived: bytesReceived,
+                statusCode: statusCode,
+                resolver: resolve,
+                rejecter: reject
+            )
+        }
+    }
+
+    @objc(logNetworkClientErrorFireAndForget:httpMethod:startInMillis:endInMillis:errorType:errorMessage:)
+    func logNetworkClientErrorFireAndForget(
+        _ url: String,
+        httpMethod: String,
+        startInMillis: Double,
+        endInMillis: Double,
+        errorType: String,
+        errorMessage: String
+    ) {
+        fireAndForget("logNetworkClientError") { resolve, reject in
+            self.logNetworkClientError(
+                url,
+                httpMethod: httpMethod,
+                startInMillis: startInMillis,
+                endInMillis: endInMillis,
+                errorType: errorType,
+                errorMessage: errorMessage,
+                resolver: resolve,
+                rejecter: reject
+            )
+        }
+    }
+
+    @objc(getFireAndForgetErrors:rejecter:)
+    func getFireAndForgetErrors(_ resolve: @escaping RCTPromiseResolveBlock, rejecter reject: @escaping RCTPromiseRejectBlock) {
+        fireAndForgetErrorsLock.lock()
+        let errors = fireAndForgetErrors
+        fireAndForgetErrorsLock.unlock()
+        resolve(errors)
+    }
+
+    @objc(logNetworkRequestsBatch:resolver:rejecter:)
+    func logNetworkRequestsBatch(
+        _ batch: NSDictionary,
+        resolver resolve: @escaping RCTPromiseResolveBlock,
+        rejecter reject: @escaping RCTPromiseRejectBlock
+    ) {
+        guard Embrace.client != nil else {
+            reject("LOG_NETWORK_REQUESTS_BATCH_ERROR", "Embrace SDK may not be initialized", nil)
+            return
+        }
+
+        resolve(recordNetworkRequests(batch))
+    }
+
+    @objc(logNetworkRequestsBatchFireAndForget:)
+    func logNetworkRequestsBatchFireAndForget(_ batch: NSDictionary) {
+        let skipped = ((batch["urls"] as? NSArray)?.count ?? 0) - recordNetworkRequests(batch)
+        if skipped > 0 {
+            countFireAndForgetErrors("logNetworkRequestsBatch", count: skipped)
+        }
+    }
+
+    // records requests laid out as parallel arrays, one per field, with the http method as an index into
+    // NETWORK_METHOD_CODES. Requests with an error type are recorded as client errors, returns how many were recorded
+    private func recordNetworkRequests(_ batch: NSDictionary) -> Int {
+        guard let urls = batch["urls"] as? [String],
+              let methods = batch["methods"] as? [Int],
+              let startTimes = batch["startTimes"] as? [Double],
+              let endTimes = batch["endTimes"] as? [Double],
+              let bytesSent = batch["bytesSent"] as? [Double],
+              let bytesReceived = batch["bytesReceived"] as? [Double],
+              let statusCodes = batch["statusCodes"] as? [Double],
+              let errorTypes = batch["errorTypes"] as? [String],
+              let errorMessages = batch["errorMessages"] as? [String],
+              [methods.count, startTimes.count, endTimes.count, bytesSent.count, bytesReceived.count,
+               statusCodes.count, errorTypes.count, errorMessages.count].allSatisfy({ $0 == urls.count }) else {
+            os_log("Skipping invalid network requests batch", log: self.log, type: .error)
+            return 0
+        }
+
+        var recorded = 0
+        for i in urls.indices {
+            guard methods[i] >= 0 && methods[i] < NETWORK_METHOD_CODES.count else {
+                os_log("Skipping network request with an unexpected http method in batch", log: self.log, type: .error)
+                continue
+            }
+
+            if errorTypes[i].isEmpty {
+                logNetworkRequest(
+                    urls[i],
+                    httpMethod: NETWORK_METHOD_CODES[methods[i]],
+                    startInMillis: startTimes[i],
+                    endInMillis: endTimes[i],
+                    bytesSent: bytesSent[i],
+                    bytesReceived: bytesReceived[i],
+                    statusCode: statusCodes[i],
+                    resolver: { _ in recorded += 1 },
+                    rejecter: { _, _, _ in }
+                )
+            } else {
+                logNetworkClientError(
+                    urls[i],
+                    httpMethod: NETWORK_METHOD_CODES[methods[i]],
+                    startInMillis: startTimes[i],
+                    endInMillis: endTimes[i],
+                    errorType: errorTypes[i],
+                    errorMessage: errorMessages[i],
+                    resolver: { _ in recorded += 1 },
+                    rejecter: { _, _, _ in }
+                )
+            }
+        }
+        return recorded
+    }
+
     private func dateFrom(ms: Double) -> Date {
         return Date(timeIntervalSince1970: TimeInterval(ms / 1000.0))
     }
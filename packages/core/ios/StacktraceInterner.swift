@@ -0,0 +1,94 @@
+import Foundation
+
+// Should match MAX_INTERNED_STACKTRACES in packages/core/src/utils/stacktraceIntern.ts
+let INTERNED_STACKTRACES_CAPACITY = 256
+// Should match REFERENCE_PREFIX in packages/core/src/utils/stacktraceIntern.ts
+let INTERNED_STACKTRACE_REFERENCE_PREFIX = "emb-stack:"
+
+struct StacktraceNotInternedError: Error, LocalizedError {
+    let reference: String
+
+    var errorDescription: String? {
+        return "Stack trace \(reference) was not interned"
+    }
+}
+
+/**
+ Native half of the stack trace interning done in packages/core/src/utils/stacktraceIntern.ts. The JS layer sends a
+ stack trace in full the first time and then only a reference to its hash, this keeps the most recently used stack
+ traces by hash so that references can be turned back into them.
+
+ The JS layer remembers fewer hashes than this keeps and both evict the least recently used one, touching entries in the
+ same order since every log goes through `resolve`. So anything JS still remembers is still here, a reference that isn't
+ found means the two got out of step and JS has to send the stack trace in full again.
+ */
+class StacktraceInterner {
+    private let capacity: Int
+    private let lock = NSLock()
+    private var stacktraces: [String: String] = [:]
+    // hashes from least to most recently used
+    private var order: [String] = []
+
+    init(capacity: Int) {
+        self.capacity = capacity
+    }
+
+    /**
+     Returns the stack trace a reference stands for, or interns and returns a stack trace sent in full. Throws if the
+     reference isn't known, in which case the stack trace has to be sent again in full.
+     */
+    func resolve(_ stacktrace: String) throws -> String {
+        if stacktrace.isEmpty {
+            return stacktrace
+        }
+
+        lock.lock()
+        defer { lock.unlock() }
+
+        if stacktrace.hasPrefix(INTERNED_STACKTRACE_REFERENCE_PREFIX) {
+            let hash = String(stacktrace.dropFirst(INTERNED_STACKTRACE_REFERENCE_PREFIX.count))
+            guard let interned = stacktraces[hash] else {
+                throw StacktraceNotInternedError(reference: stacktrace)
+            }
+            touch(hash)
+            return interned
+        }
+
+        let hash = StacktraceInterner.hash(stacktrace)
+        if stacktraces.updateValue(stacktrace, forKey: hash) == nil {
+            order.append(hash)
+            if order.count > capacity {
+                stacktraces.removeValue(forKey: order.removeFirst())
+            }
+        } else {
+            touch(hash)
+        }
+        return stacktrace
+    }
+
+    // the table is small, a linear search for the hash is cheaper than what interning saves on the bridge
+    private func touch(_ hash: String) {
+        if let index = order.firstIndex(of: hash) {
+            order.remove(at: index)
+            order.append(hash)
+        }
+    }
+
+    /**
+     53 bit cyrb53 hash of the UTF-16 code units of `value` in hex, the same as `hashStacktrace` computes in JS
+     */
+    static func hash(_ value: String) -> String {
+        var h1: UInt32 = 0xdeadbeef
+        var h2: UInt32 = 0x41c6ce57
+        for ch in value.utf16 {
+            h1 = (h1 ^ UInt32(ch)) &* 2654435761
+            h2 = (h2 ^ UInt32(ch)) &* 1597334677
+        }
+        h1 = (h1 ^ (h1 >> 16)) &* 2246822507
+        h1 ^= (h2 ^ (h2 >> 13)) &* 3266489909
+        h2 = (h2 ^ (h2 >> 16)) &* 2246822507
+        h2 ^= (h1 ^ (h1 >> 13)) &* 3266489909
+
+        return String((UInt64(h2 & 0x1fffff) << 32) | UInt64(h1), radix: 16)
+    }
+}
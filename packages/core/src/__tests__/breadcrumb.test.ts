@@ -1,18 +1,54 @@
 import {addBreadcrumb} from "../api/breadcrumb";
+import {configureBreadcrumbBuffering} from "../utils/breadcrumbBuffer";
 
 const mockAddBreadcrumb = jest.fn().mockReturnValue(Promise.resolve(true));
+const mockAddBreadcrumbBuffered = jest.fn();
 
 jest.mock("../EmbraceManagerModule", () => ({
   EmbraceManagerModule: {
     addBreadcrumb: (message: string) => mockAddBreadcrumb(message),
+    addBreadcrumbBuffered: (message: string) =>
+      mockAddBreadcrumbBuffered(message),
   },
 }));
 
+jest.mock("react-native", () => ({
+  Platform: {OS: "android"},
+}));
+const mockReactNative = jest.requireMock("react-native");
+
 const MOCK_VIEW = "View";
 
 describe("breadcrumbs", () => {
+  beforeEach(() => {
+    jest.clearAllMocks();
+    mockReactNative.Platform.OS = "android";
+  });
+
+  afterEach(() => {
+    configureBreadcrumbBuffering({enabled: false});
+  });
+
   test("addBreadcrumb", async () => {
     await addBreadcrumb(MOCK_VIEW);
     expect(mockAddBreadcrumb).toHaveBeenCalledWith(MOCK_VIEW);
+    expect(mockAddBreadcrumbBuffered).not.toHaveBeenCalled();
+  });
+
+  test("addBreadcrumb buffered", async () => {
+    configureBreadcrumbBuffering({enabled: true});
+
+    expect(await addBreadcrumb(MOCK_VIEW)).toBe(true);
+    expect(mockAddBreadcrumbBuffered).toHaveBeenCalledWith(MOCK_VIEW);
+    expect(mockAddBreadcrumb).not.toHaveBeenCalled();
+  });
+
+  test("addBreadcrumb is not buffered on iOS", async () => {
+    mockReactNative.Platform.OS = "ios";
+    configureBreadcrumbBuffering({enabled: true});
+
+    await addBreadcrumb(MOCK_VIEW);
+    expect(mockAddBreadcrumb).toHaveBeenCalledWith(MOCK_VIEW);
+    expect(mockAddBreadcrumbBuffered).not.toHaveBeenCalled();
   });
 });
@@ -0,0 +1,167 @@
+import {
+  configureFireAndForget,
+  getFireAndForgetErrors,
+} from "../utils/fireAndForget";
+import {configureLogBatching, flushLogs} from "../utils/logBatch";
+import {addSessionProperty} from "../api/session";
+import {logNetworkClientError, recordNetworkRequest} from "../api/network";
+import {logError, logInfo} from "../api/log";
+import {addBreadcrumb} from "../api/breadcrumb";
+
+const mockAddBreadcrumb = jest.fn().mockReturnValue(Promise.resolve(true));
+const mockAddBreadcrumbFireAndForget = jest.fn();
+const mockAddSessionPropertyFireAndForget = jest.fn();
+const mockLogMessageWithSeverityAndPropertiesFireAndForget = jest.fn();
+const mockLogMessagesBatchFireAndForget = jest.fn();
+const mockLogNetworkRequestFireAndForget = jest.fn();
+const mockLogNetworkClientErrorFireAndForget = jest.fn();
+const mockGetFireAndForgetErrors = jest.fn();
+
+jest.mock("../EmbraceManagerModule", () => ({
+  EmbraceManagerModule: {
+    addBreadcrumb: (message: string) => mockAddBreadcrumb(message),
+    addBreadcrumbFireAndForget: (message: string) =>
+      mockAddBreadcrumbFireAndForget(message),
+    addSessionPropertyFireAndForget: (
+      key: string,
+      value: string,
+      permanent: boolean,
+    ) => mockAddSessionPropertyFireAndForget(key, value, permanent),
+    logMessageWithSeverityAndPropertiesFireAndForget: (...args: unknown[]) =>
+      mockLogMessageWithSeverityAndPropertiesFireAndForget(...args),
+    logMessagesBatchFireAndForget: (logs: unknown[]) =>
+      mockLogMessagesBatchFireAndForget(logs),
+    logNetworkRequestFireAndForget: (...args: unknown[]) =>
+      mockLogNetworkRequestFireAndForget(...args),
+    logNetworkClientErrorFireAndForget: (...args: unknown[]) =>
+      mockLogNetworkClientErrorFireAndForget(...args),
+    getFireAndForgetErrors: () => mockGetFireAndForgetErrors(),
+  },
+}));
+
+jest.mock("react-native", () => ({
+  AppState: {
+    addEventListener: () => ({remove: () => {}}),
+  },
+}));
+
+jest.mock("../utils/log", () => ({
+  generateStackTrace: () => "this is a fake stack trace",
+}));
+
+describe("Fire and forget", () => {
+  beforeEach(() => {
+    jest.clearAllMocks();
+    configureFireAndForget({enabled: true});
+  });
+
+  afterEach(() => {
+    configureFireAndForget({enabled: false});
+  });
+
+  it("should call the methods that don't return a result", async () => {
+    expect(await addBreadcrumb("a breadcrumb")).toBe(true);
+    expect(await addSessionProperty("key", "value", false)).toBe(true);
+    expect(await logInfo("an info")).toBe(true);
+    expect(
+      await recordNetworkRequest("https://example.com", "get", 1, 2, 3),
+    ).toBe(true);
+    expect(
+      await logNetworkClientError(
+        "https://example.com",
+        "post",
+        1,
+        2,
+        "Timeout",
+        "timed out",
+      ),
+    ).toBe(true);
+
+    expect(mockAddBreadcrumb).not.toHaveBeenCalled();
+    expect(mockAddBreadcrumbFireAndForget).toHaveBeenCalledWith(
+      "a breadcrumb",
+    );
+    expect(mockAddSessionPropertyFireAndForget).toHaveBeenCalledWith(
+      "key",
+      "value",
+      false,
+    );
+    expect(
+      mockLogMessageWithSeverityAndPropertiesFireAndForget,
+    ).toHaveBeenCalledWith("an info", "info", {}, "", false);
+    expect(mockLogNetworkRequestFireAndForget).toHaveBeenCalledWith(
+      "https://example.com",
+      "get",
+      1,
+      2,
+      3,
+      -1,
+      -1,
+    );
+    expect(mockLogNetworkClientErrorFireAndForget).toHaveBeenCalledWith(
+      "https://example.com",
+      "post",
+      1,
+      2,
+      "Timeout",
+      "timed out",
+    );
+  });
+
+  it("should send batched logs without a result", async () => {
+    configureLogBatching({enabled: true});
+
+    const logged = logError("an error", false);
+    await flushLogs();
+
+    expect(await logged).toBe(true);
+    expect(mockLogMessagesBatchFireAndForget).toHaveBeenCalledWith([
+      {
+        message: "an error",
+        severity: "error",
+        properties: {},
+        stacktrace: "",
+        includeStacktrace: false,
+      },
+    ]);
+
+    configureLogBatching({enabled: false});
+  });
+
+  it("should resolve to false if the call can't be made", async () => {
+    mockAddBreadcrumbFireAndForget.mockImplementationOnce(() => {
+      throw new Error("not linked");
+    });
+
+    expect(await addBreadcrumb("a breadcrumb")).toBe(false);
+  });
+
+  it("should go back to the promise based methods once turned off", async () => {
+    configureFireAndForget({enabled: false});
+
+    expect(await addBreadcrumb("a breadcrumb")).toBe(true);
+    expect(mockAddBreadcrumb).toHaveBeenCalledTimes(1);
+    expect(mockAddBreadcrumbFireAndForget).not.toHaveBeenCalled();
+  });
+
+  it("should get the errors counted on the native side", async () => {
+    mockGetFireAndForgetErrors.mockReturnValueOnce(
+      Promise.resolve({addBreadcrumb: 2}),
+    );
+    expect(await getFireAndForgetErrors()).toEqual({addBreadcrumb: 2});
+
+    mockGetFireAndForgetErrors.mockReturnValueOnce(Promise.reject("failed"));
+    expect(await getFireAndForgetErrors()).toEqual({});
+  });
+
+  it("should not wait on a native result for 10k breadcrumbs", async () => {
+    const results = await Promise.all(
+      Array.from({length: 10_000}, (_, i) => addBreadcrumb(`breadcrumb ${i}`)),
+    );
+
+    expect(results).toEqual(Array(10_000).fill(true));
+    expect(mockAddBreadcrumbFireAndForget).toHaveBeenCalledTimes(10_000);
+    // none of the calls asked the native side for a result to send back
+    expect(mockAddBreadcrumb).not.toHaveBeenCalled();
+  });
+});
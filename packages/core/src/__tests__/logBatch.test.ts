@@ -0,0 +1,194 @@
+import {LogProperties, LogSeverity} from "../interfaces";
+import {configureLogBatching, flushLogs} from "../utils/logBatch";
+import {logError, logInfo, logMessage, logWarning} from "../api/log";
+
+const MOCK_STACKTRACE = "this is a fake stack trace";
+
+const mockLogMessageWithSeverityAndProperties = jest
+  .fn()
+  .mockReturnValue(Promise.resolve(true));
+const mockLogMessagesBatch = jest
+  .fn()
+  .mockImplementation((logs: unknown[]) =>
+    Promise.resolve({logged: logs.length, notInterned: []}),
+  );
+
+jest.mock("../EmbraceManagerModule", () => ({
+  EmbraceManagerModule: {
+    logMessageWithSeverityAndProperties: (
+      message: string,
+      severity: LogSeverity,
+      properties: LogProperties,
+      stacktrace: string,
+      includeStacktrace: boolean,
+    ) =>
+      mockLogMessageWithSeverityAndProperties(
+        message,
+        severity,
+        properties,
+        stacktrace,
+        includeStacktrace,
+      ),
+    logMessagesBatch: (logs: unknown[]) => mockLogMessagesBatch(logs),
+  },
+}));
+
+const mockAppStateRemove = jest.fn();
+const mockAppStateAddEventListener = jest
+  .fn()
+  .mockReturnValue({remove: () => mockAppStateRemove()});
+jest.mock("react-native", () => ({
+  AppState: {
+    addEventListener: (type: string, listener: (state: string) => void) =>
+      mockAppStateAddEventListener(type, listener),
+  },
+}));
+
+jest.mock("../utils/log", () => ({
+  generateStackTrace: () => MOCK_STACKTRACE,
+}));
+
+describe("Log batching", () => {
+  beforeEach(() => {
+    jest.useFakeTimers();
+    configureLogBatching({
+      enabled: true,
+      maxBatchSize: 50,
+      maxBatchBytes: 64 * 1024,
+      flushIntervalMs: 250,
+    });
+    jest.clearAllMocks();
+  });
+
+  afterEach(() => {
+    configureLogBatching({enabled: false});
+    jest.useRealTimers();
+  });
+
+  it("should not call the single log method while batching", async () => {
+    const logged = logWarning("a warning");
+    await flushLogs();
+
+    expect(await logged).toBe(true);
+    expect(mockLogMessageWithSeverityAndProperties).not.toHaveBeenCalled();
+    expect(mockLogMessagesBatch).toHaveBeenCalledWith([
+      {
+        message: "a warning",
+        severity: "warning",
+        properties: {},
+        stacktrace: MOCK_STACKTRACE,
+        includeStacktrace: true,
+      },
+    ]);
+  });
+
+  it("should send the buffered logs in order after the flush interval", async () => {
+    logInfo("first");
+    logError("second", false);
+    logMessage("third", "warning", {foo: "bar"});
+
+    jest.advanceTimersByTime(249);
+    expect(mockLogMessagesBatch).not.toHaveBeenCalled();
+
+    jest.advanceTimersByTime(1);
+    expect(mockLogMessagesBatch).toHaveBeenCalledTimes(1);
+    expect(mockLogMessagesBatch).toHaveBeenCalledWith([
+      {
+        message: "first",
+        severity: "info",
+        properties: {},
+        stacktrace: "",
+        includeStacktrace: false,
+      },
+      {
+        message: "second",
+        severity: "error",
+        properties: {},
+        stacktrace: "",
+        includeStacktrace: false,
+      },
+      {
+        message: "third",
+        severity: "warning",
+        properties: {foo: "bar"},
+        stacktrace: MOCK_STACKTRACE,
+        includeStacktrace: true,
+      },
+    ]);
+  });
+
+  it("should send a batch once it reaches the max batch size", () => {
+    configureLogBatching({maxBatchSize: 3});
+
+    logInfo("1");
+    logInfo("2");
+    expect(mockLogMessagesBatch).not.toHaveBeenCalled();
+
+    logInfo("3");
+    expect(mockLogMessagesBatch).toHaveBeenCalledTimes(1);
+    expect(mockLogMessagesBatch.mock.calls[0][0]).toHaveLength(3);
+  });
+
+  it("should send a batch once it reaches the max batch bytes", () => {
+    configureLogBatching({maxBatchBytes: 20});
+
+    logInfo("0123456789");
+    expect(mockLogMessagesBatch).not.toHaveBeenCalled();
+
+    logMessage("01234", "info", {key: "value"});
+    expect(mockLogMessagesBatch).toHaveBeenCalledTimes(1);
+    expect(mockLogMessagesBatch.mock.calls[0][0]).toHaveLength(2);
+  });
+
+  it("should send the buffered logs when the app goes to the background", () => {
+    expect(mockAppStateAddEventListener).not.toHaveBeenCalled();
+    configureLogBatching({enabled: false});
+    configureLogBatching({enabled: true});
+    const listener = mockAppStateAddEventListener.mock.calls[0][1];
+
+    logInfo("before background");
+    listener("inactive");
+    expect(mockLogMessagesBatch).not.toHaveBeenCalled();
+
+    listener("background");
+    expect(mockLogMessagesBatch).toHaveBeenCalledTimes(1);
+  });
+
+  it("should send the buffered logs and stop listening when batching is turned off", () => {
+    logInfo("buffered");
+    configureLogBatching({enabled: false});
+
+    expect(mockLogMessagesBatch).toHaveBeenCalledTimes(1);
+    expect(mockAppStateRemove).toHaveBeenCalledTimes(1);
+
+    logInfo("not buffered");
+    expect(mockLogMessageWithSeverityAndProperties).toHaveBeenCalledTimes(1);
+  });
+
+  it("should resolve every log in a batch to false if it was not fully logged", async () => {
+    mockLogMessagesBatch.mockReturnValueOnce(
+      Promise.resolve({logged: 1, notInterned: []}),
+    );
+    const first = logInfo("first");
+    const second = logInfo("second");
+    await flushLogs();
+    expect(await first).toBe(false);
+    expect(await second).toBe(false);
+
+    mockLogMessagesBatch.mockReturnValueOnce(Promise.reject("failed"));
+    const third = logInfo("third");
+    await flushLogs();
+    expect(await third).toBe(false);
+  });
+
+  it("should cross the bridge once per batch for 10k logs", async () => {
+    const logs = Array.from({length: 10_000}, (_, i) =>
+      logError(`error ${i}`),
+    );
+    await flushLogs();
+
+    expect(await Promise.all(logs)).toEqual(Array(10_000).fill(true));
+    expect(mockLogMessagesBatch).toHaveBeenCalledTimes(200);
+    expect(mockLogMessageWithSeverityAndProperties).not.toHaveBeenCalled();
+  });
+});
@@ -0,0 +1,183 @@
+import {
+  configureNetworkBatching,
+  flushNetworkRequests,
+} from "../utils/networkBatch";
+import {configureFireAndForget} from "../utils/fireAndForget";
+import {logNetworkClientError, recordNetworkRequest} from "../api/network";
+
+const mockLogNetworkRequest = jest.fn().mockReturnValue(Promise.resolve(true));
+const mockLogNetworkRequestsBatch = jest
+  .fn()
+  .mockImplementation((batch: {urls: string[]}) =>
+    Promise.resolve(batch.urls.length),
+  );
+const mockLogNetworkRequestsBatchFireAndForget = jest.fn();
+
+jest.mock("../EmbraceManagerModule", () => ({
+  EmbraceManagerModule: {
+    logNetworkRequest: (...args: unknown[]) => mockLogNetworkRequest(...args),
+    logNetworkRequestsBatch: (batch: {urls: string[]}) =>
+      mockLogNetworkRequestsBatch(batch),
+    logNetworkRequestsBatchFireAndForget: (batch: unknown) =>
+      mockLogNetworkRequestsBatchFireAndForget(batch),
+  },
+}));
+
+const mockAppStateRemove = jest.fn();
+const mockAppStateAddEventListener = jest
+  .fn()
+  .mockReturnValue({remove: () => mockAppStateRemove()});
+jest.mock("react-native", () => ({
+  AppState: {
+    addEventListener: (type: string, listener: (state: string) => void) =>
+      mockAppStateAddEventListener(type, listener),
+  },
+}));
+
+describe("Network request batching", () => {
+  beforeEach(() => {
+    jest.useFakeTimers();
+    configureNetworkBatching({
+      enabled: true,
+      maxBatchSize: 100,
+      flushIntervalMs: 1000,
+    });
+    jest.clearAllMocks();
+  });
+
+  afterEach(() => {
+    configureNetworkBatching({enabled: false});
+    jest.useRealTimers();
+  });
+
+  it("should send the buffered requests as columns after the flush interval", async () => {
+    const recorded = recordNetworkRequest(
+      "https://example.com/a",
+      "get",
+      1,
+      2,
+      3,
+      4,
+      200,
+    );
+    const errored = logNetworkClientError(
+      "https://example.com/b",
+      "POST",
+      5,
+      6,
+      "Timeout",
+      "timed out",
+    );
+
+    jest.advanceTimersByTime(999);
+    expect(mockLogNetworkRequestsBatch).not.toHaveBeenCalled();
+
+    jest.advanceTimersByTime(1);
+    expect(await recorded).toBe(true);
+    expect(await errored).toBe(true);
+    expect(mockLogNetworkRequest).not.toHaveBeenCalled();
+    expect(mockLogNetworkRequestsBatch).toHaveBeenCalledTimes(1);
+    expect(mockLogNetworkRequestsBatch).toHaveBeenCalledWith({
+      urls: ["https://example.com/a", "https://example.com/b"],
+      methods: [0, 2],
+      startTimes: [1, 5],
+      endTimes: [2, 6],
+      bytesSent: [3, -1],
+      bytesReceived: [4, -1],
+      statusCodes: [200, -1],
+      errorTypes: ["", "Timeout"],
+      errorMessages: ["", "timed out"],
+    });
+  });
+
+  it("should send a batch once it reaches the max batch size", () => {
+    configureNetworkBatching({maxBatchSize: 3});
+
+    recordNetworkRequest("https://example.com", "GET", 1, 2);
+    recordNetworkRequest("https://example.com", "GET", 1, 2);
+    expect(mockLogNetworkRequestsBatch).not.toHaveBeenCalled();
+
+    recordNetworkRequest("https://example.com", "GET", 1, 2);
+    expect(mockLogNetworkRequestsBatch).toHaveBeenCalledTimes(1);
+    expect(mockLogNetworkRequestsBatch.mock.calls[0][0].urls).toHaveLength(3);
+  });
+
+  it("should not buffer a request with an unknown method", async () => {
+    expect(
+      await recordNetworkRequest(
+        "https://example.com",
+        "BREW" as unknown as "get",
+        1,
+        2,
+      ),
+    ).toBe(false);
+    await flushNetworkRequests();
+
+    expect(mockLogNetworkRequestsBatch).not.toHaveBeenCalled();
+  });
+
+  it("should send the buffered requests when the app goes to the background", () => {
+    configureNetworkBatching({enabled: false});
+    configureNetworkBatching({enabled: true});
+    const listener = mockAppStateAddEventListener.mock.calls[0][1];
+
+    recordNetworkRequest("https://example.com", "GET", 1, 2);
+    listener("inactive");
+    expect(mockLogNetworkRequestsBatch).not.toHaveBeenCalled();
+
+    listener("background");
+    expect(mockLogNetworkRequestsBatch).toHaveBeenCalledTimes(1);
+  });
+
+  it("should send the buffered requests and stop listening when batching is turned off", () => {
+    recordNetworkRequest("https://example.com", "GET", 1, 2);
+    configureNetworkBatching({enabled: false});
+
+    expect(mockLogNetworkRequestsBatch).toHaveBeenCalledTimes(1);
+    expect(mockAppStateRemove).toHaveBeenCalledTimes(1);
+
+    recordNetworkRequest("https://example.com", "GET", 1, 2);
+    expect(mockLogNetworkRequest).toHaveBeenCalledTimes(1);
+  });
+
+  it("should resolve every request in a batch to false if it was not fully recorded", async () => {
+    mockLogNetworkRequestsBatch.mockReturnValueOnce(Promise.resolve(1));
+    const first = recordNetworkRequest("https://example.com", "GET", 1, 2);
+    const second = recordNetworkRequest("https://example.com", "GET", 1, 2);
+    await flushNetworkRequests();
+    expect(await first).toBe(false);
+    expect(await second).toBe(false);
+
+    mockLogNetworkRequestsBatch.mockReturnValueOnce(Promise.reject("failed"));
+    const third = recordNetworkRequest("https://example.com", "GET", 1, 2);
+    await flushNetworkRequests();
+    expect(await third).toBe(false);
+  });
+
+  it("should send batches without a result when fire-and-forget is on", async () => {
+    configureFireAndForget({enabled: true});
+
+    const recorded = recordNetworkRequest("https://example.com", "PUT", 1, 2);
+    await flushNetworkRequests();
+
+    expect(await recorded).toBe(true);
+    expect(mockLogNetworkRequestsBatch).not.toHaveBeenCalled();
+    expect(mockLogNetworkRequestsBatchFireAndForget).toHaveBeenCalledTimes(1);
+    expect(
+      mockLogNetworkRequestsBatchFireAndForget.mock.calls[0][0].methods,
+    ).toEqual([3]);
+
+    configureFireAndForget({enabled: false});
+  });
+
+  it("should cross the bridge once per batch for 10k requests", async () => {
+    const requests = Array.from({length: 10_000}, (_, i) =>
+      recordNetworkRequest(`https://example.com/${i}`, "GET", i, i + 1),
+    );
+    await flushNetworkRequests();
+
+    expect(await Promise.all(requests)).toEqual(Array(10_000).fill(true));
+    expect(mockLogNetworkRequestsBatch).toHaveBeenCalledTimes(100);
+    expect(mockLogNetworkRequest).not.toHaveBeenCalled();
+  });
+});
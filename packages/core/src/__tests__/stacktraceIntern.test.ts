@@ -0,0 +1,319 @@
+import {
+  MAX_INTERNED_STACKTRACES,
+  configureStacktraceInterning,
+  getStacktraceInterningConfig,
+  getStacktraceInterningStats,
+  hashStacktrace,
+  resetStacktraceInterningStats,
+} from "../utils/stacktraceIntern";
+import {configureLogBatching, flushLogs} from "../utils/logBatch";
+import {configureFireAndForget} from "../utils/fireAndForget";
+import {logError, logInfo, logWarning} from "../api/log";
+
+const REFERENCE_PREFIX = "emb-stack:";
+
+// stands in for the native `StacktraceInterner`, a table of the most recently used stack traces by hash
+const mockNativeStacktraces = new Map<string, string>();
+const mockResolve = (stacktrace: string): string | null => {
+  if (!stacktrace) {
+    return stacktrace;
+  }
+
+  const hash = stacktrace.startsWith(REFERENCE_PREFIX)
+    ? stacktrace.substring(REFERENCE_PREFIX.length)
+    : hashStacktrace(stacktrace);
+  const interned = stacktrace.startsWith(REFERENCE_PREFIX)
+    ? mockNativeStacktraces.get(hash)
+    : stacktrace;
+  if (interned === undefined) {
+    return null;
+  }
+
+  mockNativeStacktraces.delete(hash);
+  mockNativeStacktraces.set(hash, interned);
+  if (mockNativeStacktraces.size > MAX_INTERNED_STACKTRACES) {
+    mockNativeStacktraces.delete(
+      mockNativeStacktraces.keys().next().value as string,
+    );
+  }
+  return interned;
+};
+
+const mockLogged: string[] = [];
+const mockLogMessageWithSeverityAndProperties = jest
+  .fn()
+  .mockImplementation(
+    (
+      _message: string,
+      _severity: string,
+      _properties: object,
+      stacktrace: string,
+    ) => {
+      const resolved = mockResolve(stacktrace);
+      if (resolved === null) {
+        return Promise.reject({code: "STACKTRACE_NOT_INTERNED"});
+      }
+      mockLogged.push(resolved);
+      return Promise.resolve(true);
+    },
+  );
+// stands in for the native fire-and-forget method, which logs the message without a stack trace it doesn't know
+const mockLogMessageWithSeverityAndPropertiesFireAndForget = jest
+  .fn()
+  .mockImplementation(
+    (
+      _message: string,
+      _severity: string,
+      _properties: object,
+      stacktrace: string,
+    ) => {
+      mockLogged.push(mockResolve(stacktrace) ?? "");
+    },
+  );
+const mockLogMessagesBatch = jest
+  .fn()
+  .mockImplementation((logs: {stacktrace: string}[]) => {
+    let logged = 0;
+    const notInterned: number[] = [];
+    logs.forEach(({stacktrace}, index) => {
+      const resolved = mockResolve(stacktrace);
+      if (resolved === null) {
+        notInterned.push(index);
+      } else {
+        mockLogged.push(resolved);
+        logged++;
+      }
+    });
+    return Promise.resolve({logged, notInterned});
+  });
+
+jest.mock("../EmbraceManagerModule", () => ({
+  EmbraceManagerModule: {
+    logMessageWithSeverityAndProperties: (
+      ...args: [string, string, object, string]
+    ) => mockLogMessageWithSeverityAndProperties(...args),
+    logMessageWithSeverityAndPropertiesFireAndForget: (
+      ...args: [string, string, object, string]
+    ) => mockLogMessageWithSeverityAndPropertiesFireAndForget(...args),
+    logMessagesBatch: (logs: {stacktrace: string}[]) =>
+      mockLogMessagesBatch(logs),
+  },
+}));
+
+jest.mock("react-native", () => ({
+  AppState: {
+    addEventListener: () => ({remove: () => {}}),
+  },
+}));
+
+let mockStacktrace = "";
+jest.mock("../utils/log", () => ({
+  generateStackTrace: () => mockStacktrace,
+}));
+
+// a stack trace roughly the size of one from a release bundle, `frames` deep
+const fakeStacktrace = (callSite: number, frames = 25) =>
+  [
+    "Error",
+    ...Array.from(
+      {length: frames},
+      (_, frame) =>
+        `    at callSite${callSite}Frame${frame} (http://localhost:8081/index.bundle?platform=ios&dev=false:${callSite}:${frame})`,
+    ),
+  ].join("\n");
+
+describe("Stack trace interning", () => {
+  beforeEach(() => {
+    jest.clearAllMocks();
+    mockNativeStacktraces.clear();
+    mockLogged.length = 0;
+    mockStacktrace = fakeStacktrace(0);
+    configureStacktraceInterning({enabled: true, maxEntries: 128});
+    resetStacktraceInterningStats();
+  });
+
+  afterEach(() => {
+    configureStacktraceInterning({enabled: false});
+  });
+
+  it("should compute the same hash as the native layers", () => {
+    expect(hashStacktrace("")).toBe("bdcb81aee8d83");
+    expect(hashStacktrace("a")).toBe("1c2ba782c97901");
+    expect(hashStacktrace("Error\n    at foo (index.bundle:1:2)")).toBe(
+      "1b586aa38f1389",
+    );
+    expect(hashStacktrace("é😀 stack")).toBe("1df7669e33514d");
+  });
+
+  it("should send a repeated stack trace as a reference", async () => {
+    expect(await logError("first")).toBe(true);
+    expect(await logWarning("second")).toBe(true);
+
+    const [first, second] = mockLogMessageWithSeverityAndProperties.mock.calls;
+    expect(first[3]).toBe(mockStacktrace);
+    expect(second[3]).toBe(
+      `${REFERENCE_PREFIX}${hashStacktrace(mockStacktrace)}`,
+    );
+    expect(mockLogged).toEqual([mockStacktrace, mockStacktrace]);
+  });
+
+  it("should not intern logs without a stack trace", async () => {
+    await logInfo("an info");
+    await logError("an error", false);
+
+    expect(getStacktraceInterningStats()).toEqual({
+      sent: 0,
+      interned: 0,
+      bytesSent: 0,
+      bytesSaved: 0,
+    });
+  });
+
+  it("should send the stack trace in full again if the native layer doesn't know it", async () => {
+    await logError("first");
+    // e.g. the native module was recreated
+    mockNativeStacktraces.clear();
+
+    expect(await logError("second")).toBe(true);
+    expect(mockLogMessageWithSeverityAndProperties).toHaveBeenCalledTimes(3);
+    expect(mockLogMessageWithSeverityAndProperties.mock.calls[2][3]).toBe(
+      mockStacktrace,
+    );
+    expect(mockLogged).toEqual([mockStacktrace, mockStacktrace]);
+
+    // and it is interned again
+    await logError("third");
+    expect(mockLogMessageWithSeverityAndProperties.mock.calls[3][3]).toMatch(
+      REFERENCE_PREFIX,
+    );
+  });
+
+  it("should send stack traces in full once they are evicted", async () => {
+    configureStacktraceInterning({maxEntries: 2});
+
+    for (let i = 0; i < 6; i++) {
+      mockStacktrace = fakeStacktrace(i % 3);
+      await logError(`error ${i}`);
+    }
+
+    // three stack traces taking turns never stay in a table of two
+    expect(getStacktraceInterningStats().sent).toBe(6);
+    expect(getStacktraceInterningStats().interned).toBe(0);
+  });
+
+  it("should send batched logs again with their stack traces in full if the native layer doesn't know them", async () => {
+    configureLogBatching({enabled: true});
+
+    logError("first");
+    await flushLogs();
+    // e.g. the native module was recreated
+    mockNativeStacktraces.clear();
+    mockLogged.length = 0;
+    const resent = logError("second");
+    await flushLogs();
+    expect(await resent).toBe(true);
+    expect(mockLogMessagesBatch).toHaveBeenCalledTimes(3);
+    expect(mockLogMessagesBatch.mock.calls[2][0][0].stacktrace).toBe(
+      mockStacktrace,
+    );
+    expect(mockLogged).toEqual([mockStacktrace]);
+
+    // and it is interned again
+    logError("third");
+    await flushLogs();
+    expect(mockLogMessagesBatch.mock.calls[3][0][0].stacktrace).toMatch(
+      REFERENCE_PREFIX,
+    );
+    expect(mockLogged).toEqual([mockStacktrace, mockStacktrace]);
+
+    configureLogBatching({enabled: false});
+  });
+
+  it("should start over sending stack traces in full after a batch that failed", async () => {
+    configureLogBatching({enabled: true});
+
+    logError("first");
+    await flushLogs();
+    mockLogMessagesBatch.mockReturnValueOnce(Promise.reject("failed"));
+    const failed = logError("second");
+    await flushLogs();
+    expect(await failed).toBe(false);
+
+    logError("third");
+    await flushLogs();
+    expect(mockLogMessagesBatch.mock.calls[2][0][0].stacktrace).toBe(
+      mockStacktrace,
+    );
+
+    configureLogBatching({enabled: false});
+  });
+
+  it("should start over sending stack traces in full after a fire-and-forget call that failed", async () => {
+    configureFireAndForget({enabled: true});
+
+    await logError("first");
+    mockLogMessageWithSeverityAndPropertiesFireAndForget.mockImplementationOnce(
+      () => {
+        throw new Error("failed");
+      },
+    );
+    expect(await logError("second")).toBe(false);
+
+    await logError("third");
+    expect(
+      mockLogMessageWithSeverityAndPropertiesFireAndForget.mock.calls[2][3],
+    ).toBe(mockStacktrace);
+    expect(mockLogged).toEqual([mockStacktrace, mockStacktrace]);
+
+    configureFireAndForget({enabled: false});
+  });
+
+  it("should cap the stack traces remembered at what the native layer keeps", () => {
+    configureStacktraceInterning({maxEntries: 10_000});
+    expect(getStacktraceInterningConfig().maxEntries).toBe(
+      MAX_INTERNED_STACKTRACES,
+    );
+  });
+
+  it("should never reference a stack trace the native layer evicted", async () => {
+    // more call sites than either side keeps, picked at random with a few much more often than the rest
+    let seed = 1;
+    const random = () => {
+      seed = (seed * 16807) % 2147483647;
+      return seed / 2147483647;
+    };
+
+    for (let i = 0; i < 5_000; i++) {
+      mockStacktrace = fakeStacktrace(Math.floor(400 * random() ** 3), 5);
+      expect(await logError(`error ${i}`)).toBe(true);
+    }
+
+    // every call was logged the first time, none had to be sent again
+    expect(mockLogMessageWithSeverityAndProperties).toHaveBeenCalledTimes(
+      5_000,
+    );
+    expect(getStacktraceInterningStats().interned).toBeGreaterThan(0);
+  });
+
+  /**
+   * 10k errors logged from 10 call sites send each stack trace in full once and a reference for every repeat
+   */
+  it("should save most of the stack trace bytes for repeated errors", async () => {
+    configureLogBatching({enabled: true});
+
+    const logs = Array.from({length: 10_000}, (_, i) => {
+      mockStacktrace = fakeStacktrace(i % 10);
+      return logError(`error ${i}`);
+    });
+    await flushLogs();
+    expect(await Promise.all(logs)).toEqual(Array(10_000).fill(true));
+
+    const {sent, interned, bytesSent, bytesSaved} =
+      getStacktraceInterningStats();
+    expect(sent).toBe(10);
+    expect(interned).toBe(9_990);
+    expect(bytesSaved).toBeGreaterThan(bytesSent);
+
+    configureLogBatching({enabled: false});
+  });
+});
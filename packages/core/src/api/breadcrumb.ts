@@ -8,6 +8,8 @@
  */
 
 import {safePromise} from "../utils/promiseHandler";
+import {fireAndForget, isFireAndForgetEnabled} from "../utils/fireAndForget";
+import {isBreadcrumbBufferingEnabled} from "../utils/breadcrumbBuffer";
 import {EmbraceManagerModule} from "../EmbraceManagerModule";
 
 /**
@@ -34,11 +36,24 @@ import {EmbraceManagerModule} from "../EmbraceManagerModule";
  * addBreadcrumb('Cart loaded with 3 items');
  * ```
  */
-const addBreadcrumb = (message: string): Promise<boolean> =>
-  safePromise(
+const addBreadcrumb = (message: string): Promise<boolean> => {
+  if (isBreadcrumbBufferingEnabled()) {
+    return fireAndForget("addBreadcrumb", () =>
+      EmbraceManagerModule.addBreadcrumbBuffered(message),
+    );
+  }
+
+  if (isFireAndForgetEnabled()) {
+    return fireAndForget("addBreadcrumb", () =>
+      EmbraceManagerModule.addBreadcrumbFireAndForget(message),
+    );
+  }
+
+  return safePromise(
     EmbraceManagerModule.addBreadcrumb(message),
     "addBreadcrumb",
     false,
   );
+};
 
 export {addBreadcrumb};
@@ -10,6 +10,13 @@
 
 import {safePromise} from "../utils/promiseHandler";
 import {generateStackTrace} from "../utils/log";
+import {enqueueLog, isLogBatchingEnabled} from "../utils/logBatch";
+import {fireAndForget, isFireAndForgetEnabled} from "../utils/fireAndForget";
+import {
+  internStacktrace,
+  resetInternedStacktraces,
+  sendInterned,
+} from "../utils/stacktraceIntern";
 import {LogSeverity, LogProperties} from "../interfaces";
 import {EmbraceManagerModule} from "../EmbraceManagerModule";
 
@@ -55,13 +62,47 @@ const logMessage = (
     );
   }
 
-  return safePromise(
-    EmbraceManagerModule.logMessageWithSeverityAndProperties(
-      message,
-      severity,
-      properties,
+  // see `configureLogBatching`, batched logs resolve once their batch is sent
+  if (isLogBatchingEnabled()) {
+    return enqueueLog(
+      {
+        message,
+        severity,
+        properties,
+        stacktrace: internStacktrace(stackTrace),
+        includeStacktrace,
+      },
       stackTrace,
-      includeStacktrace,
+    );
+  }
+
+  if (isFireAndForgetEnabled()) {
+    return fireAndForget("logMessage", () =>
+      EmbraceManagerModule.logMessageWithSeverityAndPropertiesFireAndForget(
+        message,
+        severity,
+        properties,
+        internStacktrace(stackTrace),
+        includeStacktrace,
+      ),
+    ).then(sent => {
+      if (!sent) {
+        // the native layer may not have interned the stack trace counted as sent, start over sending them in full
+        resetInternedStacktraces();
+      }
+      return sent;
+    });
+  }
+
+  return safePromise(
+    sendInterned(stackTrace, stacktrace =>
+      EmbraceManagerModule.logMessageWithSeverityAndProperties(
+        message,
+        severity,
+        properties,
+        stacktrace,
+        includeStacktrace,
+      ),
     ),
     "logMessage",
     false,
@@ -10,6 +10,11 @@
  */
 
 import {safePromise} from "../utils/promiseHandler";
+import {
+  enqueueNetworkRequest,
+  isNetworkBatchingEnabled,
+} from "../utils/networkBatch";
+import {fireAndForget, isFireAndForgetEnabled} from "../utils/fireAndForget";
 import {MethodType} from "../interfaces";
 import {EmbraceManagerModule} from "../EmbraceManagerModule";
 
@@ -56,8 +61,34 @@ const recordNetworkRequest = (
   bytesSent?: number,
   bytesReceived?: number,
   statusCode?: number,
-): Promise<boolean> =>
-  safePromise(
+): Promise<boolean> => {
+  if (isNetworkBatchingEnabled()) {
+    return enqueueNetworkRequest({
+      url,
+      httpMethod,
+      startInMillis,
+      endInMillis,
+      bytesSent,
+      bytesReceived,
+      statusCode,
+    });
+  }
+
+  if (isFireAndForgetEnabled()) {
+    return fireAndForget("recordNetworkRequest", () =>
+      EmbraceManagerModule.logNetworkRequestFireAndForget(
+        url,
+        httpMethod,
+        startInMillis,
+        endInMillis,
+        bytesSent || -1,
+        bytesReceived || -1,
+        statusCode || -1,
+      ),
+    );
+  }
+
+  return safePromise(
     EmbraceManagerModule.logNetworkRequest(
       url,
       httpMethod,
@@ -70,6 +101,7 @@ const recordNetworkRequest = (
     "recordNetworkRequest",
     false,
   );
+};
 
 /**
  * Manually records a network request that failed due to a client-side error.
@@ -111,8 +143,32 @@ const logNetworkClientError = (
   endInMillis: number,
   errorType: string,
   errorMessage: string,
-): Promise<boolean> =>
-  safePromise(
+): Promise<boolean> => {
+  if (isNetworkBatchingEnabled()) {
+    return enqueueNetworkRequest({
+      url,
+      httpMethod,
+      startInMillis,
+      endInMillis,
+      errorType,
+      errorMessage,
+    });
+  }
+
+  if (isFireAndForgetEnabled()) {
+    return fireAndForget("logNetworkClientError", () =>
+      EmbraceManagerModule.logNetworkClientErrorFireAndForget(
+        url,
+        httpMethod,
+        startInMillis,
+        endInMillis,
+        errorType,
+        errorMessage,
+      ),
+    );
+  }
+
+  return safePromise(
     EmbraceManagerModule.logNetworkClientError(
       url,
       httpMethod,
@@ -124,5 +180,6 @@ const logNetworkClientError = (
     "logNetworkClientError",
     false,
   );
+};
 
 export {recordNetworkRequest, logNetworkClientError};
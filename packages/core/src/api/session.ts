@@ -10,6 +10,7 @@
  */
 
 import {safePromise} from "../utils/promiseHandler";
+import {fireAndForget, isFireAndForgetEnabled} from "../utils/fireAndForget";
 import {SessionStatus} from "../interfaces";
 import {EmbraceManagerModule} from "../EmbraceManagerModule";
 
@@ -40,12 +41,23 @@ const addSessionProperty = (
   key: string,
   value: string,
   permanent: boolean,
-): Promise<boolean> =>
-  safePromise(
+): Promise<boolean> => {
+  if (isFireAndForgetEnabled()) {
+    return fireAndForget("addSessionProperty", () =>
+      EmbraceManagerModule.addSessionPropertyFireAndForget(
+        key,
+        value,
+        permanent,
+      ),
+    );
+  }
+
+  return safePromise(
     EmbraceManagerModule.addSessionProperty(key, value, permanent),
     "addSessionProperty",
     false,
   );
+};
 
 /**
  * Removes a previously set session property.
@@ -167,4 +167,39 @@ export {
   type SDKErrorLoggingConfig,
 } from "./utils/promiseHandler";
 
+export {
+  configureLogBatching,
+  flushLogs,
+  getLogBatchingConfig,
+  type LogBatchingConfig,
+} from "./utils/logBatch";
+
+export {
+  configureFireAndForget,
+  getFireAndForgetConfig,
+  getFireAndForgetErrors,
+  type FireAndForgetConfig,
+} from "./utils/fireAndForget";
+
+export {
+  configureBreadcrumbBuffering,
+  getBreadcrumbBufferingConfig,
+  type BreadcrumbBufferingConfig,
+} from "./utils/breadcrumbBuffer";
+
+export {
+  configureNetworkBatching,
+  flushNetworkRequests,
+  getNetworkBatchingConfig,
+  type NetworkBatchingConfig,
+} from "./utils/networkBatch";
+
+export {
+  configureStacktraceInterning,
+  getStacktraceInterningConfig,
+  getStacktraceInterningStats,
+  type StacktraceInterningConfig,
+  type StacktraceInterningStats,
+} from "./utils/stacktraceIntern";
+
 export {initialize};
@@ -0,0 +1,48 @@
+import {Platform} from "react-native";
+
+export interface BreadcrumbBufferingConfig {
+  /**
+   * On Android, have `addBreadcrumb` add to a native buffer that a background thread hands to the SDK every 100ms
+   * instead of calling the SDK for each breadcrumb. Its promise resolves to `true` straight away, breadcrumbs dropped
+   * because the buffer is full are counted as `addBreadcrumb` errors in `getFireAndForgetErrors`. The SDK takes no
+   * timestamp for a breadcrumb, so buffered ones are stamped when they are handed to it, up to about 100ms late. The same
+   * message added several times in a row is handed over once with ` (xN)` appended, N being how many times it was
+   * added. Has no effect on iOS.
+   */
+  enabled: boolean;
+}
+
+let breadcrumbBufferingConfig: BreadcrumbBufferingConfig = {
+  enabled: false,
+};
+
+const isBreadcrumbBufferingEnabled = (): boolean =>
+  breadcrumbBufferingConfig.enabled && Platform.OS === "android";
+
+/**
+ * Turns buffering of breadcrumbs on or off, see `BreadcrumbBufferingConfig`.
+ *
+ * @example
+ * ```ts
+ * configureBreadcrumbBuffering({enabled: true});
+ * ```
+ */
+const configureBreadcrumbBuffering = (
+  config: Partial<BreadcrumbBufferingConfig>,
+): void => {
+  breadcrumbBufferingConfig = {
+    ...breadcrumbBufferingConfig,
+    ...config,
+  };
+};
+
+const getBreadcrumbBufferingConfig =
+  (): Readonly<BreadcrumbBufferingConfig> => {
+    return {...breadcrumbBufferingConfig};
+  };
+
+export {
+  configureBreadcrumbBuffering,
+  getBreadcrumbBufferingConfig,
+  isBreadcrumbBufferingEnabled,
+};
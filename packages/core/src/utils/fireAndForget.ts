@@ -0,0 +1,77 @@
+import {EmbraceManagerModule} from "../EmbraceManagerModule";
+
+import {handleSDKError, safePromise} from "./promiseHandler";
+
+export interface FireAndForgetConfig {
+  /**
+   * Use the native methods that don't hand back a result for `addBreadcrumb`, `logMessage` (and so `logInfo`,
+   * `logWarning` and `logError`, batched or not), `recordNetworkRequest`, `logNetworkClientError` and
+   * `addSessionProperty`. This saves a callback and a message back over the bridge for each call. Their promises resolve
+   * to `true` straight away and errors are counted on the native side instead, see `getFireAndForgetErrors`.
+   */
+  enabled: boolean;
+}
+
+let fireAndForgetConfig: FireAndForgetConfig = {
+  enabled: false,
+};
+
+// shared so that calls don't each allocate a promise of their own
+const SENT = Promise.resolve(true);
+
+/**
+ * Makes a call to one of the native `*FireAndForget` methods, only errors thrown while making it are reported through
+ * `handleSDKError`
+ */
+const fireAndForget = (
+  methodName: string,
+  call: () => void,
+): Promise<boolean> => {
+  try {
+    call();
+    return SENT;
+  } catch (error) {
+    handleSDKError(methodName, error);
+    return Promise.resolve(false);
+  }
+};
+
+const isFireAndForgetEnabled = (): boolean => fireAndForgetConfig.enabled;
+
+/**
+ * Turns the fire-and-forget native calls on or off, see `FireAndForgetConfig`.
+ *
+ * @example
+ * ```ts
+ * configureFireAndForget({enabled: true});
+ * ```
+ */
+const configureFireAndForget = (config: Partial<FireAndForgetConfig>): void => {
+  fireAndForgetConfig = {
+    ...fireAndForgetConfig,
+    ...config,
+  };
+};
+
+const getFireAndForgetConfig = (): Readonly<FireAndForgetConfig> => {
+  return {...fireAndForgetConfig};
+};
+
+/**
+ * Counts the errors the native layer ran into in fire-and-forget calls since the app started, by the name of the
+ * method they stood in for, e.g. `{addBreadcrumb: 2}`
+ */
+const getFireAndForgetErrors = (): Promise<Record<string, number>> =>
+  safePromise(
+    EmbraceManagerModule.getFireAndForgetErrors(),
+    "getFireAndForgetErrors",
+    {},
+  );
+
+export {
+  configureFireAndForget,
+  fireAndForget,
+  getFireAndForgetConfig,
+  getFireAndForgetErrors,
+  isFireAndForgetEnabled,
+};
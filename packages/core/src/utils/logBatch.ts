@@ -0,0 +1,202 @@
+import {AppState, AppStateStatus, NativeEventSubscription} from "react-native";
+
+import {LogProperties, LogSeverity} from "../interfaces";
+import {EmbraceManagerModule} from "../EmbraceManagerModule";
+
+import {handleSDKError} from "./promiseHandler";
+import {fireAndForget, isFireAndForgetEnabled} from "./fireAndForget";
+import {internStacktrace, resetInternedStacktraces} from "./stacktraceIntern";
+
+export interface LogBatchingConfig {
+  /**
+   * Buffer logs in JS and send them to the native layer in batches instead of one bridge call per log.
+   */
+  enabled: boolean;
+
+  /**
+   * Send the buffered logs once this many are waiting.
+   */
+  maxBatchSize: number;
+
+  /**
+   * Send the buffered logs once their messages, stack traces and properties add up to roughly this many bytes.
+   */
+  maxBatchBytes: number;
+
+  /**
+   * Send the buffered logs this long after the first of them was buffered.
+   */
+  flushIntervalMs: number;
+}
+
+interface BufferedLog {
+  message: string;
+  severity: LogSeverity;
+  properties: LogProperties;
+  stacktrace: string;
+  includeStacktrace: boolean;
+}
+
+interface PendingLog {
+  log: BufferedLog;
+  // in full, `log` may only carry a reference to it
+  stacktrace: string;
+  resolve: (logged: boolean) => void;
+}
+
+interface LogMessagesBatchResult {
+  logged: number;
+  // indexes of the logs skipped because the native layer didn't know their stack trace reference
+  notInterned: number[];
+}
+
+let logBatchingConfig: LogBatchingConfig = {
+  enabled: false,
+  maxBatchSize: 50,
+  maxBatchBytes: 64 * 1024,
+  flushIntervalMs: 250,
+};
+
+let pending: PendingLog[] = [];
+let pendingBytes = 0;
+let flushTimer: ReturnType<typeof setTimeout> | null = null;
+let appStateSubscription: NativeEventSubscription | null = null;
+
+// string lengths stand in for bytes, close enough for deciding when to flush
+const estimateBytes = ({message, stacktrace, properties}: BufferedLog) =>
+  Object.keys(properties || {}).reduce(
+    (total, key) => total + key.length + String(properties[key]).length,
+    message.length + stacktrace.length,
+  );
+
+const onAppStateChange = (state: AppStateStatus) => {
+  if (state === "background") {
+    flushLogs();
+  }
+};
+
+const sendBatch = (logs: BufferedLog[]): Promise<LogMessagesBatchResult> => {
+  try {
+    return EmbraceManagerModule.logMessagesBatch(logs);
+  } catch (error) {
+    return Promise.reject(error);
+  }
+};
+
+/**
+ * Sends every buffered log to the native layer in a single call. Each log's promise resolves to `true` if the whole
+ * batch was logged, `false` otherwise, or to `true` once it is sent when fire-and-forget calls are turned on
+ */
+const flushLogs = (): Promise<void> => {
+  if (flushTimer) {
+    clearTimeout(flushTimer);
+    flushTimer = null;
+  }
+
+  if (pending.length === 0) {
+    return Promise.resolve();
+  }
+
+  const batch = pending;
+  pending = [];
+  pendingBytes = 0;
+
+  if (isFireAndForgetEnabled()) {
+    return fireAndForget("logMessagesBatch", () =>
+      EmbraceManagerModule.logMessagesBatchFireAndForget(
+        batch.map(({log}) => log),
+      ),
+    ).then(logged => {
+      if (!logged) {
+        // the native layer may not have interned the stack traces counted as sent, start over sending them in full
+        resetInternedStacktraces();
+      }
+      batch.forEach(({resolve}) => resolve(logged));
+    });
+  }
+
+  return sendBatch(batch.map(({log}) => log))
+    .then(({logged, notInterned}: LogMessagesBatchResult) => {
+      if (notInterned.length === 0) {
+        return logged === batch.length;
+      }
+
+      // the native layer lost track of some stack traces, start over sending them in full and send those logs again
+      resetInternedStacktraces();
+      return sendBatch(
+        notInterned.map(index => ({
+          ...batch[index].log,
+          stacktrace: internStacktrace(batch[index].stacktrace),
+        })),
+      ).then(
+        (resent: LogMessagesBatchResult) =>
+          logged + resent.logged === batch.length,
+      );
+    })
+    .catch((error: unknown) => {
+      // the native layer may not have interned the stack traces counted as sent, start over sending them in full
+      resetInternedStacktraces();
+      handleSDKError("logMessagesBatch", error);
+      return false;
+    })
+    .then(logged => batch.forEach(({resolve}) => resolve(logged)));
+};
+
+/**
+ * Buffers `log`, whose stack trace is sent as `internStacktrace` returns for `stacktrace`
+ */
+const enqueueLog = (log: BufferedLog, stacktrace: string): Promise<boolean> =>
+  new Promise(resolve => {
+    pending.push({log, stacktrace, resolve});
+    pendingBytes += estimateBytes(log);
+
+    if (
+      pending.length >= logBatchingConfig.maxBatchSize ||
+      pendingBytes >= logBatchingConfig.maxBatchBytes
+    ) {
+      flushLogs();
+    } else if (!flushTimer) {
+      flushTimer = setTimeout(flushLogs, logBatchingConfig.flushIntervalMs);
+    }
+  });
+
+const isLogBatchingEnabled = (): boolean => logBatchingConfig.enabled;
+
+/**
+ * Turns batching of `logMessage`, `logInfo`, `logWarning` and `logError` on or off and tunes when batches are sent.
+ * Batches are also sent when the app goes to the background, and turning batching off sends whatever is buffered.
+ *
+ * @example
+ * ```ts
+ * configureLogBatching({enabled: true, maxBatchSize: 100});
+ * ```
+ */
+const configureLogBatching = (config: Partial<LogBatchingConfig>): void => {
+  logBatchingConfig = {
+    ...logBatchingConfig,
+    ...config,
+  };
+
+  if (logBatchingConfig.enabled && !appStateSubscription) {
+    appStateSubscription = AppState.addEventListener(
+      "change",
+      onAppStateChange,
+    );
+  } else if (!logBatchingConfig.enabled) {
+    appStateSubscription?.remove();
+    appStateSubscription = null;
+    flushLogs();
+  }
+};
+
+const getLogBatchingConfig = (): Readonly<LogBatchingConfig> => {
+  return {...logBatchingConfig};
+};
+
+export {
+  configureLogBatching,
+  enqueueLog,
+  flushLogs,
+  getLogBatchingConfig,
+  isLogBatchingEnabled,
+};
@@ -0,0 +1,212 @@
+import {AppState, AppStateStatus, NativeEventSubscription} from "react-native";
+
+import {MethodType} from "../interfaces";
+import {EmbraceManagerModule} from "../EmbraceManagerModule";
+
+import {handleSDKError} from "./promiseHandler";
+import {fireAndForget, isFireAndForgetEnabled} from "./fireAndForget";
+
+export interface NetworkBatchingConfig {
+  /**
+   * Buffer `recordNetworkRequest` and `logNetworkClientError` calls in JS and send them to the native layer in batches
+   * instead of one bridge call per request.
+   */
+  enabled: boolean;
+
+  /**
+   * Send the buffered requests once this many are waiting.
+   */
+  maxBatchSize: number;
+
+  /**
+   * Send the buffered requests this long after the first of them was buffered.
+   */
+  flushIntervalMs: number;
+}
+
+// Should match NETWORK_METHOD_CODES on the native side, methods are sent as their index in this list
+const METHOD_CODES = [
+  "GET",
+  "HEAD",
+  "POST",
+  "PUT",
+  "DELETE",
+  "CONNECT",
+  "OPTIONS",
+  "TRACE",
+  "PATCH",
+  "PURGE",
+  "LINK",
+  "UNLINK",
+];
+
+// One array per field rather than one object per request, so that each batch crosses the bridge as a handful of
+// arrays of plain values. Client errors have a non-empty error type, completed requests have an empty one.
+interface NetworkRequestColumns {
+  urls: string[];
+  methods: number[];
+  startTimes: number[];
+  endTimes: number[];
+  bytesSent: number[];
+  bytesReceived: number[];
+  statusCodes: number[];
+  errorTypes: string[];
+  errorMessages: string[];
+}
+
+interface BufferedNetworkRequest {
+  url: string;
+  httpMethod: MethodType;
+  startInMillis: number;
+  endInMillis: number;
+  bytesSent?: number;
+  bytesReceived?: number;
+  statusCode?: number;
+  errorType?: string;
+  errorMessage?: string;
+}
+
+let networkBatchingConfig: NetworkBatchingConfig = {
+  enabled: false,
+  maxBatchSize: 100,
+  flushIntervalMs: 1000,
+};
+
+const emptyColumns = (): NetworkRequestColumns => ({
+  urls: [],
+  methods: [],
+  startTimes: [],
+  endTimes: [],
+  bytesSent: [],
+  bytesReceived: [],
+  statusCodes: [],
+  errorTypes: [],
+  errorMessages: [],
+});
+
+let pending = emptyColumns();
+let resolvers: ((recorded: boolean) => void)[] = [];
+let flushTimer: ReturnType<typeof setTimeout> | null = null;
+let appStateSubscription: NativeEventSubscription | null = null;
+
+const onAppStateChange = (state: AppStateStatus) => {
+  if (state === "background") {
+    flushNetworkRequests();
+  }
+};
+
+/**
+ * Sends every buffered request to the native layer in a single call. Each request's promise resolves to `true` if the
+ * whole batch was recorded, `false` otherwise, or to `true` once it is sent when fire-and-forget calls are turned on
+ */
+const flushNetworkRequests = (): Promise<void> => {
+  if (flushTimer) {
+    clearTimeout(flushTimer);
+    flushTimer = null;
+  }
+
+  if (resolvers.length === 0) {
+    return Promise.resolve();
+  }
+
+  const batch = pending;
+  const batchResolvers = resolvers;
+  pending = emptyColumns();
+  resolvers = [];
+
+  if (isFireAndForgetEnabled()) {
+    return fireAndForget("logNetworkRequestsBatch", () =>
+      EmbraceManagerModule.logNetworkRequestsBatchFireAndForget(batch),
+    ).then(recorded => batchResolvers.forEach(resolve => resolve(recorded)));
+  }
+
+  let sent: Promise<number>;
+  try {
+    sent = EmbraceManagerModule.logNetworkRequestsBatch(batch);
+  } catch (error) {
+    sent = Promise.reject(error);
+  }
+
+  return sent
+    .then((recorded: number) => recorded === batchResolvers.length)
+    .catch((error: unknown) => {
+      handleSDKError("logNetworkRequestsBatch", error);
+      return false;
+    })
+    .then(recorded => batchResolvers.forEach(resolve => resolve(recorded)));
+};
+
+const enqueueNetworkRequest = (
+  request: BufferedNetworkRequest,
+): Promise<boolean> => {
+  const method = METHOD_CODES.indexOf(request.httpMethod.toUpperCase());
+  if (method === -1) {
+    // the native side would skip it anyway, no need to hold up a batch for it
+    return Promise.resolve(false);
+  }
+
+  return new Promise(resolve => {
+    pending.urls.push(request.url);
+    pending.methods.push(method);
+    pending.startTimes.push(request.startInMillis);
+    pending.endTimes.push(request.endInMillis);
+    pending.bytesSent.push(request.bytesSent || -1);
+    pending.bytesReceived.push(request.bytesReceived || -1);
+    pending.statusCodes.push(request.statusCode || -1);
+    pending.errorTypes.push(request.errorType || "");
+    pending.errorMessages.push(request.errorMessage || "");
+    resolvers.push(resolve);
+
+    if (resolvers.length >= networkBatchingConfig.maxBatchSize) {
+      flushNetworkRequests();
+    } else if (!flushTimer) {
+      flushTimer = setTimeout(
+        flushNetworkRequests,
+        networkBatchingConfig.flushIntervalMs,
+      );
+    }
+  });
+};
+
+const isNetworkBatchingEnabled = (): boolean => networkBatchingConfig.enabled;
+
+/**
+ * Turns batching of `recordNetworkRequest` and `logNetworkClientError` on or off and tunes when batches are sent.
+ * Batches are also sent when the app goes to the background, and turning batching off sends whatever is buffered.
+ *
+ * @example
+ * ```ts
+ * configureNetworkBatching({enabled: true, flushIntervalMs: 500});
+ * ```
+ */
+const configureNetworkBatching = (
+  config: Partial<NetworkBatchingConfig>,
+): void => {
+  networkBatchingConfig = {
+    ...networkBatchingConfig,
+    ...config,
+  };
+
+  if (networkBatchingConfig.enabled && !appStateSubscription) {
+    appStateSubscription = AppState.addEventListener(
+      "change",
+      onAppStateChange,
+    );
+  } else if (!networkBatchingConfig.enabled) {
+    appStateSubscription?.remove();
+    appStateSubscription = null;
+    flushNetworkRequests();
+  }
+};
+
+const getNetworkBatchingConfig = (): Readonly<NetworkBatchingConfig> => {
+  return {...networkBatchingConfig};
+};
+
+export {
+  configureNetworkBatching,
+  enqueueNetworkRequest,
+  flushNetworkRequests,
+  getNetworkBatchingConfig,
+  isNetworkBatchingEnabled,
+};
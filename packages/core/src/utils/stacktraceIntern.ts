@@ -0,0 +1,194 @@
+export interface StacktraceInterningConfig {
+  /**
+   * Send each distinct stack trace attached to `logMessage`, `logWarning` and `logError` over the bridge once, and only
+   * a short reference to it for later logs with the same stack trace.
+   */
+  enabled: boolean;
+
+  /**
+   * How many stack traces to remember as sent, least recently used first out. Capped at `MAX_INTERNED_STACKTRACES`,
+   * how many the native layer keeps, so that anything remembered here can still be found there.
+   */
+  maxEntries: number;
+}
+
+export interface StacktraceInterningStats {
+  /**
+   * Stack traces sent in full.
+   */
+  sent: number;
+
+  /**
+   * Stack traces sent as a reference instead.
+   */
+  interned: number;
+
+  /**
+   * Characters of stack traces sent, references included.
+   */
+  bytesSent: number;
+
+  /**
+   * Characters of stack traces that references stood in for, less the references themselves.
+   */
+  bytesSaved: number;
+}
+
+// Should match DEFAULT_CAPACITY and REFERENCE_PREFIX in the native `StacktraceInterner`
+const MAX_INTERNED_STACKTRACES = 256;
+const REFERENCE_PREFIX = "emb-stack:";
+// the code the native layer rejects with when it doesn't know a reference
+const NOT_INTERNED_ERROR = "STACKTRACE_NOT_INTERNED";
+
+let stacktraceInterningConfig: StacktraceInterningConfig = {
+  enabled: false,
+  maxEntries: 128,
+};
+
+// hashes of the stack traces sent so far, a Map iterates in insertion order so the first key is the least recently used
+let interned = new Map<string, true>();
+let stats: StacktraceInterningStats = {
+  sent: 0,
+  interned: 0,
+  bytesSent: 0,
+  bytesSaved: 0,
+};
+
+/**
+ * 53 bit cyrb53 hash of the UTF-16 code units of `stacktrace` in hex, the native layers compute the same
+ */
+const hashStacktrace = (stacktrace: string): string => {
+  let h1 = 0xdeadbeef;
+  let h2 = 0x41c6ce57;
+  for (let i = 0; i < stacktrace.length; i++) {
+    const ch = stacktrace.charCodeAt(i);
+    h1 = Math.imul(h1 ^ ch, 2654435761);
+    h2 = Math.imul(h2 ^ ch, 1597334677);
+  }
+  h1 = Math.imul(h1 ^ (h1 >>> 16), 2246822507);
+  h1 ^= Math.imul(h2 ^ (h2 >>> 13), 3266489909);
+  h2 = Math.imul(h2 ^ (h2 >>> 16), 2246822507);
+  h2 ^= Math.imul(h1 ^ (h1 >>> 13), 3266489909);
+
+  return (4294967296 * (2097151 & h2) + (h1 >>> 0)).toString(16);
+};
+
+/**
+ * Returns what to send over the bridge in place of `stacktrace`: the stack trace itself the first time it is seen, a
+ * reference to it while it is still remembered as sent after that
+ */
+const internStacktrace = (stacktrace: string): string => {
+  if (!stacktraceInterningConfig.enabled || !stacktrace) {
+    return stacktrace;
+  }
+
+  const hash = hashStacktrace(stacktrace);
+  const seen = interned.delete(hash);
+  interned.set(hash, true);
+
+  if (!seen) {
+    if (interned.size > stacktraceInterningConfig.maxEntries) {
+      interned.delete(interned.keys().next().value as string);
+    }
+    stats.sent++;
+    stats.bytesSent += stacktrace.length;
+    return stacktrace;
+  }
+
+  const reference = `${REFERENCE_PREFIX}${hash}`;
+  stats.interned++;
+  stats.bytesSent += reference.length;
+  stats.bytesSaved += stacktrace.length - reference.length;
+  return reference;
+};
+
+/**
+ * Sends `stacktrace` through `send`, as a reference if it has been sent before. If the native layer no longer knows
+ * the reference it is sent once more in full, which interns it again on both sides
+ */
+const sendInterned = <T>(
+  stacktrace: string,
+  send: (stacktrace: string) => Promise<T>,
+): Promise<T> => {
+  const sent = internStacktrace(stacktrace);
+  if (sent === stacktrace) {
+    return send(stacktrace);
+  }
+
+  return send(sent).catch((error: unknown) => {
+    if ((error as {code?: string} | null)?.code !== NOT_INTERNED_ERROR) {
+      throw error;
+    }
+
+    stats.sent++;
+    stats.bytesSent += stacktrace.length;
+    return send(stacktrace);
+  });
+};
+
+/**
+ * Forgets every stack trace sent so far so that each is sent in full again, for when the native layer may have lost
+ * track of them without saying which, e.g. a batch of logs that wasn't fully logged
+ */
+const resetInternedStacktraces = (): void => {
+  interned = new Map();
+};
+
+/**
+ * Turns interning of log stack traces on or off, see `StacktraceInterningConfig`. Turning it off or changing
+ * `maxEntries` forgets the stack traces sent so far.
+ *
+ * @example
+ * ```ts
+ * configureStacktraceInterning({enabled: true});
+ * ```
+ */
+const configureStacktraceInterning = (
+  config: Partial<StacktraceInterningConfig>,
+): void => {
+  const previous = stacktraceInterningConfig;
+  stacktraceInterningConfig = {
+    ...stacktraceInterningConfig,
+    ...config,
+  };
+  stacktraceInterningConfig.maxEntries = Math.max(
+    0,
+    Math.min(stacktraceInterningConfig.maxEntries, MAX_INTERNED_STACKTRACES),
+  );
+
+  if (
+    !stacktraceInterningConfig.enabled ||
+    stacktraceInterningConfig.maxEntries !== previous.maxEntries
+  ) {
+    resetInternedStacktraces();
+  }
+};
+
+const getStacktraceInterningConfig =
+  (): Readonly<StacktraceInterningConfig> => {
+    return {...stacktraceInterningConfig};
+  };
+
+/**
+ * How many stack traces were sent in full or as a reference since the app started, and how many characters of them
+ * went over the bridge and were saved by the references
+ */
+const getStacktraceInterningStats = (): Readonly<StacktraceInterningStats> => {
+  return {...stats};
+};
+
+const resetStacktraceInterningStats = (): void => {
+  stats = {sent: 0, interned: 0, bytesSent: 0, bytesSaved: 0};
+};
+
+export {
+  MAX_INTERNED_STACKTRACES,
+  configureStacktraceInterning,
+  getStacktraceInterningConfig,
+  getStacktraceInterningStats,
+  hashStacktrace,
+  internStacktrace,
+  resetInternedStacktraces,
+  resetStacktraceInterningStats,
+  sendInterned,
+};
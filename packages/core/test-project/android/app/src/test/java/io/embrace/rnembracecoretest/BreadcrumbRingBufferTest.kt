@@ -0,0 +1,154 @@
+package io.embrace.rnembracecoretest
+
+import io.embrace.rnembracecore.BreadcrumbRingBuffer
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+private const val TIMEOUT_SECONDS = 10L
+
+class BreadcrumbRingBufferTest {
+    private data class Drained(val message: String, val timestampMs: Long, val count: Int)
+
+    private val drained = Collections.synchronizedList(mutableListOf<Drained>())
+    private val sink = BreadcrumbRingBuffer.Sink { message, timestampMs, count ->
+        drained.add(Drained(message, timestampMs, count))
+    }
+
+    @Test
+    fun coalescesConsecutiveRepeats() {
+        val buffer = BreadcrumbRingBuffer(16, sink)
+
+        buffer.add("tap", 1)
+        buffer.add("tap", 2)
+        buffer.add("tap", 3)
+        buffer.add("render", 4)
+        buffer.add("tap", 5)
+
+        assertEquals(3, buffer.drain())
+        assertEquals(
+            listOf(Drained("tap", 1, 3), Drained("render", 4, 1), Drained("tap", 5, 1)),
+            drained.toList()
+        )
+    }
+
+    @Test
+    fun doesNotRepeatDrainedEntries() {
+        val buffer = BreadcrumbRingBuffer(16, sink)
+
+        buffer.add("tap", 1)
+        buffer.drain()
+        buffer.add("tap", 2)
+        buffer.drain()
+
+        assertEquals(listOf(Drained("tap", 1, 1), Drained("tap", 2, 1)), drained.toList())
+    }
+
+    @Test
+    fun dropsWhenFull() {
+        val buffer = BreadcrumbRingBuffer(3, sink)
+        assertEquals(4, buffer.capacity)
+
+        for (i in 0 until 4) {
+            assertTrue(buffer.add("breadcrumb $i", i.toLong()))
+        }
+        // repeating the last one still fits, it takes no new slot
+        assertTrue(buffer.add("breadcrumb 3", 4))
+        assertFalse(buffer.add("breadcrumb 4", 5))
+        // but not once something was dropped after it, the repeat no longer follows it
+        assertFalse(buffer.add("breadcrumb 3", 6))
+        assertEquals(2L, buffer.dropped)
+
+        assertEquals(4, buffer.drain())
+        assertEquals(Drained("breadcrumb 3", 3, 2), drained.last())
+        assertTrue(buffer.add("breadcrumb 5", 7))
+    }
+
+    @Test
+    fun appendsTheRepeatCount() {
+        assertEquals("tap", BreadcrumbRingBuffer.withRepeatCount("tap", 1))
+        assertEquals("tap (x3)", BreadcrumbRingBuffer.withRepeatCount("tap", 3))
+    }
+
+    @Test
+    fun stopDrainsWhatIsLeft() {
+        val buffer = BreadcrumbRingBuffer(16, sink)
+        buffer.start(60_000)
+
+        buffer.add("tap", 1)
+        buffer.stop()
+
+        assertEquals(listOf(Drained("tap", 1, 1)), drained.toList())
+    }
+
+    @Test
+    fun stopRestoresTheCrashHandler() {
+        val previous = Thread.UncaughtExceptionHandler { _, _ -> }
+        val original = Thread.getDefaultUncaughtExceptionHandler()
+        Thread.setDefaultUncaughtExceptionHandler(previous)
+        try {
+            val buffer = BreadcrumbRingBuffer(16, sink)
+            buffer.drainOnCrash()
+            buffer.drainOnCrash()
+            val crashHandler = Thread.getDefaultUncaughtExceptionHandler()
+            assertNotSame(previous, crashHandler)
+
+            buffer.add("tap", 1)
+            crashHandler.uncaughtException(Thread.currentThread(), RuntimeException())
+            assertEquals(listOf(Drained("tap", 1, 1)), drained.toList())
+
+            buffer.stop()
+            assertSame(previous, Thread.getDefaultUncaughtExceptionHandler())
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(original)
+        }
+    }
+
+    @Test
+    fun concurrentProducersLoseNothing() {
+        val producers = 8
+        val perProducer = 10_000
+        val buffer = BreadcrumbRingBuffer(BreadcrumbRingBuffer.DEFAULT_CAPACITY, sink)
+        buffer.start(1)
+
+        runProducers(producers) { producer ->
+            for (i in 0 until perProducer) {
+                buffer.add("$producer-$i", i.toLong())
+            }
+        }
+        buffer.stop()
+
+        // everything added was either drained or counted as dropped
+        assertEquals((producers * perProducer).toLong(), drained.sumOf { it.count.toLong() } + buffer.dropped)
+
+        // and what each producer added was drained in the order it added it
+        for (producer in 0 until producers) {
+            val sequence = drained.filter { it.message.startsWith("$producer-") }.map { it.timestampMs }
+            assertEquals(sequence.sorted(), sequence)
+        }
+    }
+
+    /**
+     * Runs `produce` on `producers` threads that start together and waits for all of them to finish
+     */
+    private fun runProducers(producers: Int, produce: (Int) -> Unit) {
+        val start = CountDownLatch(1)
+        val done = CountDownLatch(producers)
+        repeat(producers) { producer ->
+            Thread {
+                start.await()
+                produce(producer)
+                done.countDown()
+            }.start()
+        }
+
+        start.countDown()
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+    }
+}
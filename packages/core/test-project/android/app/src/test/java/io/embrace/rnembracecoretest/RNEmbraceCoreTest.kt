@@ -1,12 +1,18 @@
 package io.embrace.rnembracecoretest
 
 import android.os.Looper
+import com.facebook.react.bridge.Arguments
+import com.facebook.react.bridge.JavaOnlyArray
 import com.facebook.react.bridge.JavaOnlyMap
 import com.facebook.react.bridge.Promise
+import com.facebook.react.bridge.ReadableMap
+import com.facebook.react.bridge.WritableArray
+import com.facebook.react.bridge.WritableMap
 import com.facebook.react.common.SystemClock.currentTimeMillis
 import io.embrace.android.embracesdk.Embrace
 import io.embrace.android.embracesdk.network.http.HttpMethod
 import io.embrace.rnembracecore.EmbraceManagerModule
+import io.embrace.rnembracecore.StacktraceInterner
 import io.opentelemetry.kotlin.export.OperationResultCode
 import io.opentelemetry.kotlin.logging.export.LogRecordExporter
 import io.opentelemetry.kotlin.logging.model.ReadableLogRecord
@@ -24,11 +30,13 @@ import org.mockito.kotlin.any
 import org.mockito.kotlin.argumentCaptor
 import org.mockito.kotlin.clearInvocations
 import org.mockito.kotlin.doReturn
+import org.mockito.kotlin.eq
 import org.mockito.kotlin.mock
 import org.mockito.kotlin.timeout
 import org.mockito.kotlin.times
 import org.mockito.kotlin.verify
 import org.mockito.kotlin.verifyBlocking
+import org.mockito.kotlin.verifyNoInteractions
 import org.mockito.kotlin.whenever
 import org.robolectric.RobolectricTestRunner
 import org.robolectric.RuntimeEnvironment
@@ -220,6 +228,51 @@ class RNEmbraceCoreTest {
         verify(promise, times(2)).resolve(true)
     }
 
+    @Test
+    fun logNetworkRequestsBatch() {
+        whenever(embraceModuleSpy.generateW3cTraceparent()).thenReturn("traceparent-log-network-requests-batch")
+        whenever(embraceModuleSpy.isNetworkSpanForwardingEnabled).thenReturn(true)
+        clearInvocations(embraceModuleSpy)
+
+        val startTime = currentTimeMillis().toDouble()
+        val endTime = startTime + 1000
+        embraceModuleSpy.logNetworkRequestsBatch(
+            JavaOnlyMap.of(
+                "urls",
+                JavaOnlyArray.of(
+                    "http://request.com/v1/batch/get",
+                    "http://request.com/v1/batch/post",
+                    "http://request.com/v1/batch/error",
+                    "http://request.com/v1/batch/skipped"
+                ),
+                // GET, POST, PUT and a code with no method, which is skipped
+                "methods", JavaOnlyArray.of(0, 2, 3, 99),
+                "startTimes", JavaOnlyArray.of(startTime, startTime, startTime, startTime),
+                "endTimes", JavaOnlyArray.of(endTime, endTime, endTime, endTime),
+                "bytesSent", JavaOnlyArray.of(-1, 120, -1, -1),
+                "bytesReceived", JavaOnlyArray.of(300, 40, -1, -1),
+                "statusCodes", JavaOnlyArray.of(200, 201, -1, -1),
+                "errorTypes", JavaOnlyArray.of("", "", "Timeout", ""),
+                "errorMessages", JavaOnlyArray.of("", "", "timed out", "")
+            ),
+            promise
+        )
+
+        verify(promise, times(1)).resolve(3)
+        // checked once for the whole batch rather than per request
+        verify(embraceModuleSpy, times(1)).isNetworkSpanForwardingEnabled
+
+        argumentCaptor<List<SpanData>>().apply {
+            verifyBlocking(spanExporter, timeout(200).times(3)) { export(capture()) }
+
+            val spans = allValues.flatten()
+            assertEquals(3, spans.size)
+            spans.forEach {
+                assertEquals("traceparent-log-network-requests-batch", it.attributes["emb.w3c_traceparent"])
+            }
+        }
+    }
+
     @Test
     fun logMessageWithSeverityAndProperties() {
         val properties = JavaOnlyMap().apply {
@@ -384,4 +437,162 @@ class RNEmbraceCoreTest {
             assertEquals("stacktrace as string", logWithNoSeverity.attributes["emb.stacktrace.rn"])
         }
     }
+
+    @Test
+    fun logMessageWithInternedStacktrace() {
+        val module = EmbraceManagerModule(mock())
+        val stacktrace = "Error\n    at interned (index.bundle:1:2)"
+        val reference = StacktraceInterner.REFERENCE_PREFIX + StacktraceInterner.hash(stacktrace)
+
+        // a reference to a stack trace that wasn't sent in full before is rejected without logging anything
+        module.logMessageWithSeverityAndProperties("referenced first", "error", JavaOnlyMap(), reference, true, promise)
+        verify(promise, times(1)).reject(eq("STACKTRACE_NOT_INTERNED"), any<String>(), any<Throwable>())
+
+        module.logMessageWithSeverityAndProperties("sent in full", "error", JavaOnlyMap(), stacktrace, true, promise)
+        module.logMessageWithSeverityAndProperties("referenced", "warning", JavaOnlyMap(), reference, true, promise)
+        verify(promise, times(2)).resolve(true)
+
+        argumentCaptor<List<ReadableLogRecord>>().apply {
+            verifyBlocking(logExporter, timeout(200).times(2)) { export(capture()) }
+
+            val logs = allValues.flatten()
+            assertEquals(listOf("sent in full", "referenced"), logs.map { it.body.toString() })
+            logs.forEach { assertEquals(stacktrace, it.attributes["emb.stacktrace.rn"]) }
+        }
+    }
+
+    @Test
+    fun logMessagesBatch() {
+        val properties = JavaOnlyMap.of("custom.property1", "value.for-custom-property1")
+        val logs = JavaOnlyArray.of(
+            JavaOnlyMap.of(
+                "message", "a batched warning message",
+                "severity", "warning",
+                "properties", properties,
+                "stacktrace", "stacktrace as string",
+                "includeStacktrace", true
+            ),
+            // won't add the stacktrace as per product's decision
+            JavaOnlyMap.of(
+                "message", "a batched info message",
+                "severity", "info",
+                "properties", JavaOnlyMap(),
+                "stacktrace", "stacktrace as string",
+                "includeStacktrace", true
+            ),
+            // skipped, there is nothing to log
+            JavaOnlyMap.of("severity", "error")
+        )
+
+        withJavaOnlyArguments { embraceModuleSpy.logMessagesBatch(logs, promise) }
+        argumentCaptor<ReadableMap>().apply {
+            verify(promise, times(1)).resolve(capture())
+            assertEquals(2, firstValue.getInt("logged"))
+            assertEquals(0, firstValue.getArray("notInterned")?.size())
+        }
+
+        argumentCaptor<List<ReadableLogRecord>>().apply {
+            verifyBlocking(logExporter, timeout(200).times(2)) { export(capture()) }
+            assertEquals(2, allValues.size)
+
+            val warningLog = allValues[0].asSequence().withIndex().elementAt(0).value
+            assertEquals("WARNING", warningLog.severityText)
+            assertEquals("a batched warning message", warningLog.body.toString())
+            assertEquals("value.for-custom-property1", warningLog.attributes["custom.property1"])
+            assertEquals("stacktrace as string", warningLog.attributes["emb.stacktrace.rn"])
+            assertEquals("sys.log", warningLog.attributes["emb.type"])
+
+            val infoLog = allValues[1].asSequence().withIndex().elementAt(0).value
+            assertEquals("INFO", infoLog.severityText)
+            assertEquals("a batched info message", infoLog.body.toString())
+            assertNull(infoLog.attributes["emb.stacktrace.rn"])
+        }
+    }
+
+    @Test
+    fun logMessagesWithUnknownStacktraces() {
+        val module = EmbraceManagerModule(mock())
+        val stacktrace = "Error\n    at unknown (index.bundle:1:2)"
+        val reference = StacktraceInterner.REFERENCE_PREFIX + StacktraceInterner.hash(stacktrace)
+        val logs = {
+            JavaOnlyArray.of(
+                JavaOnlyMap.of("message", "known", "severity", "error", "stacktrace", "", "includeStacktrace", true),
+                JavaOnlyMap.of(
+                    "message", "unknown", "severity", "error", "stacktrace", reference, "includeStacktrace", true
+                )
+            )
+        }
+
+        // the entry is skipped and its index handed back for JS to send it again in full
+        withJavaOnlyArguments { module.logMessagesBatch(logs(), promise) }
+        argumentCaptor<ReadableMap>().apply {
+            verify(promise, times(1)).resolve(capture())
+            assertEquals(1, firstValue.getInt("logged"))
+            assertEquals(listOf(1), firstValue.getArray("notInterned")?.toArrayList()?.map { (it as Number).toInt() })
+        }
+        verifyBlocking(logExporter, timeout(200).times(1)) { export(any()) }
+
+        // without a promise to have JS send them again they are logged without the stack trace
+        clearInvocations(logExporter)
+        module.logMessagesBatchFireAndForget(logs())
+        module.logMessageWithSeverityAndPropertiesFireAndForget("unknown", "error", JavaOnlyMap(), reference, true)
+        assertEquals(emptyMap<String, Long>(), module.fireAndForgetErrorCounts)
+
+        argumentCaptor<List<ReadableLogRecord>>().apply {
+            verifyBlocking(logExporter, timeout(200).times(3)) { export(capture()) }
+
+            val logged = allValues.flatten()
+            assertEquals(listOf("known", "unknown", "unknown"), logged.map { it.body.toString() })
+            logged.forEach { assertNull(it.attributes["emb.stacktrace.rn"]) }
+        }
+    }
+
+    // Arguments.createMap and createArray need React Native's native library, which isn't loaded in unit tests
+    private fun withJavaOnlyArguments(block: () -> Unit) {
+        Mockito.mockStatic(Arguments::class.java).use { arguments ->
+            arguments.`when`<WritableMap> { Arguments.createMap() }.thenAnswer { JavaOnlyMap() }
+            arguments.`when`<WritableArray> { Arguments.createArray() }.thenAnswer { JavaOnlyArray() }
+            block()
+        }
+    }
+
+    @Test
+    fun fireAndForgetErrors() {
+        val module = EmbraceManagerModule(mock())
+        assertEquals(emptyMap<String, Long>(), module.fireAndForgetErrorCounts)
+
+        module.addBreadcrumbFireAndForget("a breadcrumb without a promise")
+        module.logNetworkRequestFireAndForget(
+            "http://request.com/v1/fire/and/forget",
+            "NOT-A-METHOD",
+            currentTimeMillis().toDouble(),
+            currentTimeMillis().toDouble() + 1000,
+            10,
+            10,
+            200
+        )
+        module.logMessagesBatchFireAndForget(
+            JavaOnlyArray.of(
+                JavaOnlyMap.of("message", "a batched message without a promise", "severity", "info"),
+                // skipped, there is nothing to log
+                JavaOnlyMap.of("severity", "error")
+            )
+        )
+
+        assertEquals(mapOf("logNetworkRequest" to 1L, "logMessagesBatch" to 1L), module.fireAndForgetErrorCounts)
+        verifyBlocking(logExporter, timeout(200).times(1)) { export(any()) }
+    }
+
+    @Test
+    fun fireAndForgetSkipsThePromise() {
+        val module = EmbraceManagerModule(mock())
+
+        module.addBreadcrumb("a breadcrumb with a promise", promise)
+        verify(promise, times(1)).resolve(true)
+
+        clearInvocations(promise)
+        module.addBreadcrumbFireAndForget("a breadcrumb without a promise")
+        verifyNoInteractions(promise)
+        assertEquals(emptyMap<String, Long>(), module.fireAndForgetErrorCounts)
+    }
 }
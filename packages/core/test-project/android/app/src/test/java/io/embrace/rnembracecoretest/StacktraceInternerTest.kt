@@ -0,0 +1,61 @@
+package io.embrace.rnembracecoretest
+
+import io.embrace.rnembracecore.StacktraceInterner
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertThrows
+import org.junit.Test
+
+private const val STACKTRACE = "Error\n    at foo (index.bundle:1:2)"
+
+class StacktraceInternerTest {
+    private fun reference(stacktrace: String) = StacktraceInterner.REFERENCE_PREFIX + StacktraceInterner.hash(stacktrace)
+
+    @Test
+    fun computesTheSameHashAsJs() {
+        // the values `hashStacktrace` computes in packages/core/src/utils/stacktraceIntern.ts
+        assertEquals("bdcb81aee8d83", StacktraceInterner.hash(""))
+        assertEquals("1c2ba782c97901", StacktraceInterner.hash("a"))
+        assertEquals("1b586aa38f1389", StacktraceInterner.hash(STACKTRACE))
+        assertEquals("1df7669e33514d", StacktraceInterner.hash("é😀 stack"))
+    }
+
+    @Test
+    fun resolvesReferencesToInternedStacktraces() {
+        val interner = StacktraceInterner(4)
+
+        assertEquals(STACKTRACE, interner.resolve(STACKTRACE))
+        assertEquals(STACKTRACE, interner.resolve(reference(STACKTRACE)))
+        assertEquals("", interner.resolve(""))
+        assertEquals(1, interner.size())
+    }
+
+    @Test
+    fun throwsForUnknownReferences() {
+        val interner = StacktraceInterner(4)
+
+        assertThrows(StacktraceInterner.NotInternedException::class.java) {
+            interner.resolve(reference(STACKTRACE))
+        }
+        // sending it in full interns it
+        interner.resolve(STACKTRACE)
+        assertEquals(STACKTRACE, interner.resolve(reference(STACKTRACE)))
+    }
+
+    @Test
+    fun evictsTheLeastRecentlyUsed() {
+        val interner = StacktraceInterner(2)
+
+        interner.resolve("first")
+        interner.resolve("second")
+        // using the first one makes the second the least recently used
+        interner.resolve(reference("first"))
+        interner.resolve("third")
+
+        assertEquals(2, interner.size())
+        assertEquals("first", interner.resolve(reference("first")))
+        assertEquals("third", interner.resolve(reference("third")))
+        assertThrows(StacktraceInterner.NotInternedException::class.java) {
+            interner.resolve(reference("second"))
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package io.embrace.rnembraceotlp
+
+import io.opentelemetry.sdk.common.CompletableResultCode
+import io.opentelemetry.sdk.logs.data.LogRecordData
+import io.opentelemetry.sdk.logs.export.LogRecordExporter
+import io.opentelemetry.sdk.trace.data.SpanData
+import io.opentelemetry.sdk.trace.export.SpanExporter
+
+/**
+ * Wraps a SpanExporter so that spans are sent on to it in batches, see ExportBatcher
+ */
+class BatchingSpanExporter(
+    private val delegate: SpanExporter,
+    config: BatchConfig
+) : SpanExporter {
+    private val batcher = ExportBatcher<SpanData>(config, delegate::export)
+
+    override fun export(spans: Collection<SpanData>): CompletableResultCode = batcher.add(spans)
+
+    override fun flush(): CompletableResultCode = batcher.flush()
+
+    override fun shutdown(): CompletableResultCode {
+        val result = CompletableResultCode()
+        batcher.shutdown().whenComplete {
+            delegate.shutdown().whenComplete { result.succeed() }
+        }
+        return result
+    }
+
+    fun stats(): ExportBatcherStats = batcher.stats()
+}
+
+/**
+ * Wraps a LogRecordExporter so that logs are sent on to it in batches, see ExportBatcher
+ */
+class BatchingLogRecordExporter(
+    private val delegate: LogRecordExporter,
+    config: BatchConfig
+) : LogRecordExporter {
+    private val batcher = ExportBatcher<LogRecordData>(config, delegate::export)
+
+    override fun export(logs: Collection<LogRecordData>): CompletableResultCode = batcher.add(logs)
+
+    override fun flush(): CompletableResultCode = batcher.flush()
+
+    override fun shutdown(): CompletableResultCode {
+        val result = CompletableResultCode()
+        batcher.shutdown().whenComplete {
+            delegate.shutdown().whenComplete { result.succeed() }
+        }
+        return result
+    }
+
+    fun stats(): ExportBatcherStats = batcher.stats()
+}
+
+/**
+ * Wraps a SpanExporter so that it runs on its own queue and thread, isolated from other endpoints, see ExportWorker
+ */
+class IsolatedSpanExporter(
+    private val delegate: SpanExporter,
+    endpoint: String,
+    maxPendingItems: Int
+) : SpanExporter {
+    private val worker = ExportWorker<SpanData>(endpoint, maxPendingItems, delegate::export)
+
+    override fun export(spans: Collection<SpanData>): CompletableResultCode = worker.add(spans)
+
+    override fun flush(): CompletableResultCode = worker.flush()
+
+    override fun shutdown(): CompletableResultCode {
+        val result = CompletableResultCode()
+        worker.shutdown().whenComplete {
+            delegate.shutdown().whenComplete { result.succeed() }
+        }
+        return result
+    }
+
+    fun stats(): ExportWorkerStats = worker.stats()
+}
+
+/**
+ * Wraps a LogRecordExporter so that it runs on its own queue and thread, isolated from other endpoints, see
+ * ExportWorker
+ */
+class IsolatedLogRecordExporter(
+    private val delegate: LogRecordExporter,
+    endpoint: String,
+    maxPendingItems: Int
+) : LogRecordExporter {
+    private val worker = ExportWorker<LogRecordData>(endpoint, maxPendingItems, delegate::export)
+
+    override fun export(logs: Collection<LogRecordData>): CompletableResultCode = worker.add(logs)
+
+    override fun flush(): CompletableResultCode = worker.flush()
+
+    override fun shutdown(): CompletableResultCode {
+        val result = CompletableResultCode()
+        worker.shutdown().whenComplete {
+            delegate.shutdown().whenComplete { result.succeed() }
+        }
+        return result
+    }
+
+    fun stats(): ExportWorkerStats = worker.stats()
+}
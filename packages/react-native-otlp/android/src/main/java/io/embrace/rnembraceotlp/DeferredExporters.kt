@@ -0,0 +1,174 @@
+package io.embrace.rnembraceotlp
+
+import java.util.ArrayDeque
+import java.util.concurrent.Executor
+import java.util.concurrent.locks.ReentrantLock
+import java.util.logging.Logger
+import kotlin.concurrent.withLock
+
+import io.opentelemetry.sdk.common.CompletableResultCode
+import io.opentelemetry.sdk.logs.data.LogRecordData
+import io.opentelemetry.sdk.logs.export.LogRecordExporter
+import io.opentelemetry.sdk.trace.data.SpanData
+import io.opentelemetry.sdk.trace.export.SpanExporter
+
+private class HeldExport<T>(
+    val items: Collection<T>,
+    val result: CompletableResultCode
+)
+
+/**
+ * Builds an exporter with `build` on `executor` and holds on to whatever is exported in the meantime, passing it on in
+ * the order it came in once the exporter is ready. Exports that would take what is held past `maxBufferedItems` items
+ * are dropped, and everything held is dropped if building the exporter fails. The result of an export that is held
+ * only completes once the exporter it was handed to has finished with it, and fails if it is dropped.
+ */
+class DeferredDelegate<D : Any, T>(
+    build: () -> D,
+    executor: Executor,
+    maxBufferedItems: Int,
+    private val exportTo: (D, Collection<T>) -> CompletableResultCode,
+    private val log: Logger = Logger.getLogger("[Embrace]")
+) {
+    private val maxBufferedItems = maxOf(maxBufferedItems, 1)
+
+    private val lock = ReentrantLock()
+    private val buffered = ArrayDeque<HeldExport<T>>()
+    private var bufferedItems = 0
+    private var delegate: D? = null
+    private var failed = false
+
+    /**
+     * Completes once the exporter is built and everything held until then has been handed to it, fails if building it
+     * failed
+     */
+    val ready = CompletableResultCode()
+
+    init {
+        executor.execute { complete(build) }
+    }
+
+    private fun complete(build: () -> D) {
+        val built = try {
+            build()
+        } catch (e: RuntimeException) {
+            log.warning("Failed to set up exporter, dropping what was exported to it: ${e.message}")
+            val dropped = lock.withLock {
+                failed = true
+                bufferedItems = 0
+                buffered.toList().also { buffered.clear() }
+            }
+            dropped.forEach { it.result.fail() }
+            ready.fail()
+            return
+        }
+
+        // New exports keep being held until everything already held has been handed over, so order is kept
+        while (true) {
+            val held = lock.withLock {
+                val next = buffered.poll()
+                if (next == null) {
+                    delegate = built
+                } else {
+                    bufferedItems -= next.items.size
+                }
+                next
+            } ?: break
+            val exported = passOn(built, held.items)
+            exported.whenComplete { if (exported.isSuccess) held.result.succeed() else held.result.fail() }
+        }
+        ready.succeed()
+    }
+
+    private fun passOn(target: D, items: Collection<T>): CompletableResultCode = try {
+        exportTo(target, items)
+    } catch (e: RuntimeException) {
+        log.warning("Failed to export: ${e.message}")
+        CompletableResultCode.ofFailure()
+    }
+
+    fun export(items: Collection<T>): CompletableResultCode {
+        val current = lock.withLock {
+            delegate ?: run {
+                if (failed || bufferedItems + items.size > maxBufferedItems) {
+                    log.warning("Dropping ${items.size} item(s), the exporter is not set up yet.")
+                    return CompletableResultCode.ofFailure()
+                }
+                val held = HeldExport(items, CompletableResultCode())
+                buffered.add(held)
+                bufferedItems += items.size
+                return held.result
+            }
+        }
+        return passOn(current, items)
+    }
+
+    /**
+     * Runs `action` on the exporter once it is ready, fails if it could not be built
+     */
+    fun afterSetup(action: (D) -> CompletableResultCode): CompletableResultCode {
+        val result = CompletableResultCode()
+        ready.whenComplete {
+            val current = lock.withLock { delegate }
+            if (current == null) {
+                result.fail()
+            } else {
+                val inner = action(current)
+                inner.whenComplete { if (inner.isSuccess) result.succeed() else result.fail() }
+            }
+        }
+        return result
+    }
+}
+
+/**
+ * Registered in place of a SpanExporter that is built in the background, see DeferredDelegate
+ */
+class DeferredSpanExporter(
+    build: () -> SpanExporter,
+    executor: Executor,
+    maxBufferedItems: Int = DEFAULT_MAX_PENDING_ITEMS,
+    log: Logger = Logger.getLogger("[Embrace]")
+) : SpanExporter {
+    private val deferred = DeferredDelegate<SpanExporter, SpanData>(
+        build,
+        executor,
+        maxBufferedItems,
+        { exporter, spans -> exporter.export(spans) },
+        log
+    )
+
+    val ready: CompletableResultCode get() = deferred.ready
+
+    override fun export(spans: Collection<SpanData>): CompletableResultCode = deferred.export(spans)
+
+    override fun flush(): CompletableResultCode = deferred.afterSetup { it.flush() }
+
+    override fun shutdown(): CompletableResultCode = deferred.afterSetup { it.shutdown() }
+}
+
+/**
+ * Registered in place of a LogRecordExporter that is built in the background, see DeferredDelegate
+ */
+class DeferredLogRecordExporter(
+    build: () -> LogRecordExporter,
+    executor: Executor,
+    maxBufferedItems: Int = DEFAULT_MAX_PENDING_ITEMS,
+    log: Logger = Logger.getLogger("[Embrace]")
+) : LogRecordExporter {
+    private val deferred = DeferredDelegate<LogRecordExporter, LogRecordData>(
+        build,
+        executor,
+        maxBufferedItems,
+        { exporter, logs -> exporter.export(logs) },
+        log
+    )
+
+    val ready: CompletableResultCode get() = deferred.ready
+
+    override fun export(logs: Collection<LogRecordData>): CompletableResultCode = deferred.export(logs)
+
+    override fun flush(): CompletableResultCode = deferred.afterSetup { it.flush() }
+
+    override fun shutdown(): CompletableResultCode = deferred.afterSetup { it.shutdown() }
+}
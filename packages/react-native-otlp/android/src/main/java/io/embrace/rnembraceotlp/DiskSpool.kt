@@ -0,0 +1,388 @@
+package io.embrace.rnembraceotlp
+
+import java.io.File
+import java.io.IOException
+import java.io.RandomAccessFile
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+import java.util.logging.Logger
+import java.util.zip.CRC32
+
+const val DEFAULT_SPOOL_MAX_BYTES = 10L * 1024 * 1024
+const val DEFAULT_SPOOL_MAX_AGE_MS = 24L * 60 * 60 * 1000
+const val DEFAULT_SPOOL_SEGMENT_BYTES = 256 * 1024
+
+// Record header: magic, payload length, payload crc32, time appended
+private const val HEADER_BYTES = 4 + 4 + 4 + 8
+private const val MAGIC_PENDING = 0x4F544C50 // "OTLP"
+private const val MAGIC_CONSUMED = 0x4F544C43 // "OTLC"
+private const val SEGMENT_SUFFIX = ".seg"
+
+data class SpoolConfig(
+    val maxBytes: Long = DEFAULT_SPOOL_MAX_BYTES,
+    val maxAgeMs: Long = DEFAULT_SPOOL_MAX_AGE_MS
+)
+
+/**
+ * Snapshot of what the spool is holding and the counters of records it has had to give up on
+ */
+data class DiskSpoolStats(
+    val pendingRecords: Int,
+    val segments: Int,
+    val bytesOnDisk: Long,
+    val appended: Long,
+    val replayed: Long,
+    val dropped: Long,
+    val expired: Long,
+    val rejected: Long
+)
+
+/**
+ * What became of a record handed to `replay`
+ */
+enum class ReplayResult {
+    /** Sent, the record is consumed */
+    SENT,
+
+    /** Failed in a way that may succeed later, the record is kept and replay stops there */
+    RETRY_LATER,
+
+    /** Rejected in a way that won't change by sending it again, the record is discarded and replay moves on */
+    REJECTED
+}
+
+private class Segment(
+    val id: Long,
+    val file: File,
+    val channel: FileChannel,
+    val buffer: MappedByteBuffer
+) {
+    var writeOffset = 0
+    var readOffset = 0
+    var pending = 0
+
+    // Recovered segments are only read from, appends go to a new segment
+    var sealed = false
+    val size: Int get() = buffer.capacity()
+}
+
+private class PendingRecord(
+    val segment: Segment,
+    val offset: Int,
+    val appendedAt: Long,
+    val payload: ByteArray
+)
+
+/**
+ * Durable append-only store of serialized export requests kept in a directory of fixed size segment files, used to
+ * hold on to batches that failed to export until they can be replayed.
+ *
+ * Segments are memory-mapped so appending a record is a copy into the mapping, the OS writes dirty pages back on its own
+ * which survives the process being killed without paying for a sync on every append. Each record is written payload
+ * first and magic last, with a crc32 of the payload, so a record torn by a crash is detected and ignored along with
+ * anything after it in that segment when the spool is reopened. Replayed records are flagged as consumed in place and
+ * a segment is deleted once all of its records have been.
+ *
+ * Records are replayed oldest first. When appending would take the spool past `maxBytes` the oldest segments are
+ * dropped, and records older than `maxAgeMs` are discarded rather than replayed.
+ *
+ * Segment files that can't be deleted are truncated instead so that their records aren't picked up again, and new
+ * segments are numbered after the highest one found on disk so that they never reuse the name of one left behind.
+ */
+class DiskSpool(
+    private val dir: File,
+    config: SpoolConfig = SpoolConfig(),
+    private val segmentBytes: Int = DEFAULT_SPOOL_SEGMENT_BYTES,
+    private val clock: () -> Long = System::currentTimeMillis,
+    private val log: Logger = Logger.getLogger("[Embrace]")
+) {
+    private val maxBytes = maxOf(config.maxBytes, 0L)
+    private val maxAgeMs = maxOf(config.maxAgeMs, 0L)
+    private val segments = ArrayDeque<Segment>()
+
+    private var appended = 0L
+    private var replayed = 0L
+    private var dropped = 0L
+    private var expired = 0L
+    private var rejected = 0L
+
+    private var nextId = 1L
+    private var closed = false
+
+    init {
+        dir.mkdirs()
+        val files = dir.listFiles { file -> file.name.endsWith(SEGMENT_SUFFIX) } ?: emptyArray()
+        val found = files.mapNotNull { file ->
+            file.name.removeSuffix(SEGMENT_SUFFIX).toLongOrNull()?.let { Pair(it, file) }
+        }
+        nextId = (found.maxOfOrNull { it.first } ?: 0L) + 1
+        found.sortedBy { it.first }.forEach { (id, file) -> recover(id, file) }
+    }
+
+    /**
+     * Maps the segment file, growing it to `size` first if it is smaller. The channel is kept open alongside the
+     * mapping so that it can be closed explicitly when the segment is released
+     */
+    private fun open(id: Long, file: File, size: Int): Segment {
+        val raf = RandomAccessFile(file, "rw")
+        try {
+            if (raf.length() < size) {
+                raf.setLength(size.toLong())
+            }
+            return Segment(id, file, raf.channel, raf.channel.map(FileChannel.MapMode.READ_WRITE, 0, raf.length()))
+        } catch (e: IOException) {
+            raf.close()
+            throw e
+        }
+    }
+
+    private fun release(segment: Segment) {
+        try {
+            segment.channel.close()
+        } catch (e: IOException) {
+            log.warning("Failed to close spool segment ${segment.file.name}: ${e.message}")
+        }
+    }
+
+    /**
+     * Deletes a segment file, falling back to truncating it so that a file that can't be deleted is at least empty and
+     * skipped when the spool is reopened
+     */
+    private fun delete(file: File) {
+        if (file.delete() || !file.exists()) {
+            return
+        }
+
+        try {
+            RandomAccessFile(file, "rw").use { it.setLength(0) }
+            log.warning("Failed to delete spool segment ${file.name}, truncated it instead")
+        } catch (e: IOException) {
+            log.warning("Failed to delete or truncate spool segment ${file.name}: ${e.message}")
+        }
+    }
+
+    /**
+     * Rebuilds the in-memory state of a segment left behind by a previous run, scanning its records up to the first
+     * one that is missing or torn
+     */
+    private fun recover(id: Long, file: File) {
+        val segment = try {
+            open(id, file, 0)
+        } catch (e: IOException) {
+            log.warning("Discarding unreadable spool segment ${file.name}: ${e.message}")
+            delete(file)
+            return
+        }
+
+        var offset = 0
+        var firstPending = -1
+        while (offset + HEADER_BYTES <= segment.size) {
+            val magic = segment.buffer.getInt(offset)
+            if (magic != MAGIC_PENDING && magic != MAGIC_CONSUMED) {
+                break
+            }
+
+            val length = segment.buffer.getInt(offset + 4)
+            if (length < 0 || offset + HEADER_BYTES + length > segment.size || !crcMatches(segment, offset, length)) {
+                log.warning("Discarding torn record in spool segment ${file.name}")
+                break
+            }
+
+            if (magic == MAGIC_PENDING) {
+                segment.pending++
+                if (firstPending < 0) {
+                    firstPending = offset
+                }
+            }
+            offset += HEADER_BYTES + length
+        }
+
+        if (segment.pending == 0) {
+            release(segment)
+            delete(file)
+            return
+        }
+
+        segment.writeOffset = offset
+        segment.readOffset = firstPending
+        segment.sealed = true
+        segments.addLast(segment)
+    }
+
+    private fun crcMatches(segment: Segment, offset: Int, length: Int): Boolean {
+        val crc = CRC32()
+        val payload = ByteArray(length)
+        segment.buffer.duplicate().apply { position(offset + HEADER_BYTES) }.get(payload)
+        crc.update(payload)
+        return crc.value.toInt() == segment.buffer.getInt(offset + 8)
+    }
+
+    private fun bytesOnDisk(): Long = segments.sumOf { it.size.toLong() }
+
+    private fun removeSegment(segment: Segment) {
+        segments.remove(segment)
+        release(segment)
+        delete(segment.file)
+    }
+
+    private fun newSegment(minSize: Int): Segment? {
+        val size = maxOf(segmentBytes, minSize)
+        if (size > maxBytes) {
+            return null
+        }
+
+        while (segments.isNotEmpty() && bytesOnDisk() + size > maxBytes) {
+            val oldest = segments.first()
+            dropped += oldest.pending
+            removeSegment(oldest)
+        }
+
+        val id = nextId++
+        val file = File(dir, String.format("%016d%s", id, SEGMENT_SUFFIX))
+        return try {
+            open(id, file, size).also { segments.addLast(it) }
+        } catch (e: IOException) {
+            log.warning("Failed to create spool segment: ${e.message}")
+            null
+        }
+    }
+
+    /**
+     * Persists a serialized request, returns false if it could not be stored
+     */
+    @Synchronized
+    fun append(payload: ByteArray): Boolean {
+        if (closed) {
+            return false
+        }
+
+        val recordSize = HEADER_BYTES + payload.size
+        var segment = segments.lastOrNull()
+        if (segment == null || segment.sealed || segment.writeOffset + recordSize > segment.size) {
+            segment = newSegment(recordSize)
+        }
+        if (segment == null) {
+            dropped++
+            log.warning("Dropping export of ${payload.size} bytes, it does not fit in the spool.")
+            return false
+        }
+
+        val offset = segment.writeOffset
+        val crc = CRC32().apply { update(payload) }
+        segment.buffer.duplicate().apply { position(offset + HEADER_BYTES) }.put(payload)
+        segment.buffer.putLong(offset + 12, clock())
+        segment.buffer.putInt(offset + 8, crc.value.toInt())
+        segment.buffer.putInt(offset + 4, payload.size)
+        // Written last so that a record is only picked up on recovery once the rest of it is in place
+        segment.buffer.putInt(offset, MAGIC_PENDING)
+
+        if (segment.pending == 0) {
+            segment.readOffset = offset
+        }
+        segment.writeOffset = offset + recordSize
+        segment.pending++
+        appended++
+        return true
+    }
+
+    @Synchronized
+    private fun nextPending(): PendingRecord? {
+        for (segment in segments) {
+            if (segment.pending == 0) {
+                continue
+            }
+
+            var offset = segment.readOffset
+            while (offset + HEADER_BYTES <= segment.writeOffset) {
+                val magic = segment.buffer.getInt(offset)
+                if (magic != MAGIC_PENDING && magic != MAGIC_CONSUMED) {
+                    break
+                }
+                val length = segment.buffer.getInt(offset + 4)
+                if (magic == MAGIC_PENDING) {
+                    segment.readOffset = offset
+                    val payload = ByteArray(length)
+                    segment.buffer.duplicate().apply { position(offset + HEADER_BYTES) }.get(payload)
+                    return PendingRecord(segment, offset, segment.buffer.getLong(offset + 12), payload)
+                }
+                offset += HEADER_BYTES + length
+            }
+        }
+        return null
+    }
+
+    @Synchronized
+    private fun consume(record: PendingRecord) {
+        val segment = record.segment
+        // The segment may have been dropped to make room while the record was being replayed
+        if (!segments.contains(segment)) {
+            return
+        }
+
+        segment.buffer.putInt(record.offset, MAGIC_CONSUMED)
+        segment.pending--
+        segment.readOffset = record.offset + HEADER_BYTES + record.payload.size
+
+        if (segment.pending == 0 && (segment.sealed || segment !== segments.lastOrNull())) {
+            removeSegment(segment)
+        }
+    }
+
+    /**
+     * Hands pending records to `send` oldest first until one has to be retried later or there are none left, returns
+     * the number of records sent. Records that are rejected, or past `maxAgeMs` and so not sent at all, are discarded
+     * so that they don't hold up the ones after them. Should only be called from one thread at a time, the spool is not
+     * locked while `send` runs so records can keep being appended
+     */
+    fun replay(send: (ByteArray) -> ReplayResult): Int {
+        var sent = 0
+        while (true) {
+            val record = nextPending() ?: break
+
+            if (maxAgeMs > 0 && clock() - record.appendedAt > maxAgeMs) {
+                synchronized(this) { expired++ }
+                consume(record)
+                continue
+            }
+
+            when (send(record.payload)) {
+                ReplayResult.RETRY_LATER -> break
+                ReplayResult.REJECTED -> {
+                    log.warning("Discarding spooled export of ${record.payload.size} bytes, it was rejected.")
+                    synchronized(this) { rejected++ }
+                    consume(record)
+                }
+                ReplayResult.SENT -> {
+                    synchronized(this) { replayed++ }
+                    consume(record)
+                    sent++
+                }
+            }
+        }
+        return sent
+    }
+
+    /**
+     * Closes the segment files and drops the spool's references to their mappings so that they can be released, the
+     * records still pending stay on disk to be replayed when the spool is next opened. Nothing can be appended or
+     * replayed afterwards
+     */
+    @Synchronized
+    fun close() {
+        closed = true
+        segments.forEach { release(it) }
+        segments.clear()
+    }
+
+    @Synchronized
+    fun stats(): DiskSpoolStats = DiskSpoolStats(
+        segments.sumOf { it.pending },
+        segments.size,
+        bytesOnDisk(),
+        appended,
+        replayed,
+        dropped,
+        expired,
+        rejected
+    )
+}
@@ -0,0 +1,197 @@
+package io.embrace.rnembraceotlp
+
+import java.util.ArrayDeque
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.Semaphore
+import java.util.concurrent.TimeUnit
+import java.util.logging.Logger
+
+import io.opentelemetry.sdk.common.CompletableResultCode
+
+// Same defaults as the OpenTelemetry SDK's BatchSpanProcessor
+const val DEFAULT_MAX_EXPORT_BATCH_SIZE = 512
+const val DEFAULT_MAX_QUEUE_SIZE = 2048
+const val DEFAULT_SCHEDULE_DELAY_MS = 5000L
+const val DEFAULT_MAX_CONCURRENT_EXPORTS = 1
+
+data class BatchConfig(
+    val maxExportBatchSize: Int = DEFAULT_MAX_EXPORT_BATCH_SIZE,
+    val maxQueueSize: Int = DEFAULT_MAX_QUEUE_SIZE,
+    val scheduleDelayMs: Long = DEFAULT_SCHEDULE_DELAY_MS,
+    val maxConcurrentExports: Int = DEFAULT_MAX_CONCURRENT_EXPORTS
+)
+
+/**
+ * Snapshot of the items waiting to be batched and of those dropped because the queue was full
+ */
+data class ExportBatcherStats(
+    val queueDepth: Int,
+    val dropped: Long
+)
+
+/**
+ * Buffers items handed to an exporter and passes them on to `exportBatch` in batches, either as soon as
+ * `maxExportBatchSize` items are queued or once `scheduleDelayMs` has passed since the first item of a partial batch was
+ * queued. At most `maxConcurrentExports` batches are in flight at once, further batches wait in the queue until one of
+ * them completes. Items added while `maxQueueSize` items are already waiting are dropped.
+ *
+ * Embrace hands spans and logs to custom exporters as they complete, without this each of them ends up as its own
+ * request to the OTLP endpoint.
+ */
+class ExportBatcher<T>(
+    config: BatchConfig,
+    private val exportBatch: (Collection<T>) -> CompletableResultCode,
+    private val log: Logger = Logger.getLogger("[Embrace]")
+) {
+    private val maxExportBatchSize = maxOf(config.maxExportBatchSize, 1)
+    private val maxQueueSize = maxOf(config.maxQueueSize, maxExportBatchSize)
+    private val scheduleDelayMs = maxOf(config.scheduleDelayMs, 0L)
+    private val permits = Semaphore(maxOf(config.maxConcurrentExports, 1))
+
+    private val lock = Any()
+    private val queue = ArrayDeque<T>()
+    private val inFlight = mutableSetOf<CompletableResultCode>()
+    private var timer: ScheduledFuture<*>? = null
+    private var shutdown = false
+    private var dropped = 0L
+
+    private val scheduler: ScheduledExecutorService = Executors.newSingleThreadScheduledExecutor { runnable ->
+        Thread(runnable, "embrace-otlp-batcher").apply { isDaemon = true }
+    }
+
+    fun add(items: Collection<T>): CompletableResultCode {
+        var dropped = 0
+
+        synchronized(lock) {
+            if (shutdown) {
+                return CompletableResultCode.ofFailure()
+            }
+
+            for (item in items) {
+                if (queue.size < maxQueueSize) {
+                    queue.add(item)
+                } else {
+                    dropped++
+                }
+            }
+            this.dropped += dropped
+
+            if (queue.size >= maxExportBatchSize) {
+                scheduler.execute { drain(false) }
+            } else if (queue.isNotEmpty()) {
+                scheduleTimer()
+            }
+        }
+
+        if (dropped > 0) {
+            log.warning("Dropping $dropped item(s), the export queue is full.")
+        }
+
+        // Items are exported asynchronously, same as with the SDK's batch processors
+        return CompletableResultCode.ofSuccess()
+    }
+
+    // Must be called holding the lock
+    private fun scheduleTimer() {
+        if (timer == null) {
+            timer = scheduler.schedule({
+                synchronized(lock) {
+                    timer = null
+                }
+                drain(true)
+            }, scheduleDelayMs, TimeUnit.MILLISECONDS)
+        }
+    }
+
+    /**
+     * Exports full batches, or everything queued if `partial` is set, for as long as there are permits available.
+     * Completing an export calls back in here so that batches left waiting for a permit are picked up
+     */
+    private fun drain(partial: Boolean) {
+        while (true) {
+            val batch = synchronized(lock) {
+                if (queue.isEmpty()) {
+                    return
+                }
+                if (queue.size < maxExportBatchSize && !partial) {
+                    scheduleTimer()
+                    return
+                }
+                if (!permits.tryAcquire()) {
+                    return
+                }
+                takeBatch()
+            }
+
+            export(batch) {
+                permits.release()
+                if (!scheduler.isShutdown) {
+                    scheduler.execute { drain(false) }
+                }
+            }
+        }
+    }
+
+    // Must be called holding the lock
+    private fun takeBatch(): List<T> {
+        val batch = ArrayList<T>(minOf(queue.size, maxExportBatchSize))
+        while (batch.size < maxExportBatchSize && queue.isNotEmpty()) {
+            batch.add(queue.poll())
+        }
+        return batch
+    }
+
+    private fun export(batch: List<T>, onComplete: () -> Unit): CompletableResultCode {
+        val result = try {
+            exportBatch(batch)
+        } catch (e: RuntimeException) {
+            log.warning("Failed to export batch: ${e.message}")
+            CompletableResultCode.ofFailure()
+        }
+
+        synchronized(lock) {
+            inFlight.add(result)
+        }
+        result.whenComplete {
+            synchronized(lock) {
+                inFlight.remove(result)
+            }
+            onComplete()
+        }
+        return result
+    }
+
+    /**
+     * Exports everything queued straight away without waiting on `maxConcurrentExports`, completes once those exports
+     * and any already in flight have
+     */
+    fun flush(): CompletableResultCode {
+        val batches = mutableListOf<List<T>>()
+        val pending: List<CompletableResultCode>
+
+        synchronized(lock) {
+            timer?.cancel(false)
+            timer = null
+            while (queue.isNotEmpty()) {
+                batches.add(takeBatch())
+            }
+            pending = inFlight.toList()
+        }
+
+        val results = pending + batches.map { export(it) {} }
+        return CompletableResultCode.ofAll(results)
+    }
+
+    fun stats(): ExportBatcherStats = synchronized(lock) { ExportBatcherStats(queue.size, dropped) }
+
+    fun shutdown(): CompletableResultCode {
+        synchronized(lock) {
+            shutdown = true
+        }
+        val result = flush()
+        scheduler.shutdown()
+        return result
+    }
+}
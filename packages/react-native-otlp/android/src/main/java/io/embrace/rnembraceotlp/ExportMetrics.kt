@@ -0,0 +1,224 @@
+package io.embrace.rnembraceotlp
+
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+import java.util.concurrent.atomic.LongAdder
+import kotlin.math.ceil
+
+import io.opentelemetry.sdk.common.CompletableResultCode
+import io.opentelemetry.sdk.logs.data.LogRecordData
+import io.opentelemetry.sdk.logs.export.LogRecordExporter
+import io.opentelemetry.sdk.trace.data.SpanData
+import io.opentelemetry.sdk.trace.export.SpanExporter
+
+// Upper bounds of the latency buckets, anything slower lands in an overflow bucket
+private val LATENCY_BUCKETS_MS = longArrayOf(1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10_000, 30_000)
+
+/**
+ * Fixed bucket histogram of export latencies that can be recorded into from any thread without locking. Percentiles
+ * are reported as the upper bound of the bucket they fall in, or the slowest latency seen for the overflow bucket
+ */
+class LatencyHistogram {
+    private val counts = AtomicLongArray(LATENCY_BUCKETS_MS.size + 1)
+    private val maxNanos = AtomicLong()
+
+    fun record(nanos: Long) {
+        val ms = TimeUnit.NANOSECONDS.toMillis(nanos)
+        var bucket = LATENCY_BUCKETS_MS.indexOfFirst { ms <= it }
+        if (bucket < 0) {
+            bucket = LATENCY_BUCKETS_MS.size
+        }
+        counts.incrementAndGet(bucket)
+        maxNanos.accumulateAndGet(nanos) { current, latest -> maxOf(current, latest) }
+    }
+
+    fun maxMs(): Long = TimeUnit.NANOSECONDS.toMillis(maxNanos.get())
+
+    /**
+     * `percentile` is between 0 and 100, 0 is returned while nothing has been recorded
+     */
+    fun percentileMs(percentile: Double): Long {
+        val snapshot = LongArray(counts.length()) { counts.get(it) }
+        val total = snapshot.sum()
+        if (total == 0L) {
+            return 0
+        }
+
+        val rank = maxOf(ceil(total * percentile.coerceIn(0.0, 100.0) / 100).toLong(), 1L)
+        var seen = 0L
+        for (i in snapshot.indices) {
+            seen += snapshot[i]
+            if (seen >= rank) {
+                return if (i < LATENCY_BUCKETS_MS.size) minOf(LATENCY_BUCKETS_MS[i], maxMs()) else maxMs()
+            }
+        }
+        return maxMs()
+    }
+}
+
+data class ExportMeterStats(
+    val batchesSent: Long,
+    val itemsSent: Long,
+    val failedBatches: Long,
+    val failedItems: Long,
+    val inFlightItems: Long,
+    val latencyP50Ms: Long,
+    val latencyP90Ms: Long,
+    val latencyP99Ms: Long,
+    val latencyMaxMs: Long
+)
+
+/**
+ * Counts the batches going through an exporter and how long each takes to complete, see MeteringSpanExporter
+ */
+class ExportMeter {
+    private val batchesSent = LongAdder()
+    private val itemsSent = LongAdder()
+    private val failedBatches = LongAdder()
+    private val failedItems = LongAdder()
+    private val inFlightItems = AtomicLong()
+    private val latency = LatencyHistogram()
+
+    fun <T> export(items: Collection<T>, exportBatch: (Collection<T>) -> CompletableResultCode): CompletableResultCode {
+        val start = System.nanoTime()
+        inFlightItems.addAndGet(items.size.toLong())
+
+        val result = exportBatch(items)
+        result.whenComplete {
+            latency.record(System.nanoTime() - start)
+            inFlightItems.addAndGet(-items.size.toLong())
+            if (result.isSuccess) {
+                batchesSent.increment()
+                itemsSent.add(items.size.toLong())
+            } else {
+                failedBatches.increment()
+                failedItems.add(items.size.toLong())
+            }
+        }
+        return result
+    }
+
+    fun stats(): ExportMeterStats = ExportMeterStats(
+        batchesSent.sum(),
+        itemsSent.sum(),
+        failedBatches.sum(),
+        failedItems.sum(),
+        inFlightItems.get(),
+        latency.percentileMs(50.0),
+        latency.percentileMs(90.0),
+        latency.percentileMs(99.0),
+        latency.maxMs()
+    )
+}
+
+/**
+ * Wraps a SpanExporter to meter the batches it is handed, see ExportMeter
+ */
+class MeteringSpanExporter(
+    private val delegate: SpanExporter,
+    val meter: ExportMeter = ExportMeter()
+) : SpanExporter {
+    override fun export(spans: Collection<SpanData>): CompletableResultCode = meter.export(spans, delegate::export)
+
+    override fun flush(): CompletableResultCode = delegate.flush()
+
+    override fun shutdown(): CompletableResultCode = delegate.shutdown()
+}
+
+/**
+ * Wraps a LogRecordExporter to meter the batches it is handed, see ExportMeter
+ */
+class MeteringLogRecordExporter(
+    private val delegate: LogRecordExporter,
+    val meter: ExportMeter = ExportMeter()
+) : LogRecordExporter {
+    override fun export(logs: Collection<LogRecordData>): CompletableResultCode = meter.export(logs, delegate::export)
+
+    override fun flush(): CompletableResultCode = delegate.flush()
+
+    override fun shutdown(): CompletableResultCode = delegate.shutdown()
+}
+
+/**
+ * Everything known about one exporter's pipeline, from the metered network exporter up through the batching queue,
+ * the endpoint's worker and the offline spool. Counters for parts of the pipeline that aren't in use are 0
+ */
+data class ExportPipelineStats(
+    val signal: String,
+    val endpoint: String,
+    val batchesSent: Long,
+    val itemsSent: Long,
+    val failedBatches: Long,
+    val failedItems: Long,
+    val bytesSent: Long,
+    val retries: Long,
+    val queueDepth: Long,
+    val dropped: Long,
+    val spooledRecords: Long,
+    val latencyP50Ms: Long,
+    val latencyP90Ms: Long,
+    val latencyP99Ms: Long,
+    val latencyMaxMs: Long
+)
+
+/**
+ * Keeps hold of the parts of an exporter's pipeline that can report on themselves, set as the pipeline is assembled
+ */
+class ExportPipeline(
+    val signal: String,
+    val endpoint: String,
+    val meter: ExportMeter = ExportMeter()
+) {
+    var bytesSent: (() -> Long)? = null
+    var retryStats: (() -> RetryStats)? = null
+    var batcherStats: (() -> ExportBatcherStats)? = null
+    var workerStats: (() -> ExportWorkerStats)? = null
+    var spoolStats: (() -> DiskSpoolStats)? = null
+
+    fun stats(): ExportPipelineStats {
+        val meterStats = meter.stats()
+        val batcher = batcherStats?.invoke()
+        val worker = workerStats?.invoke()
+        val spool = spoolStats?.invoke()
+
+        return ExportPipelineStats(
+            signal = signal,
+            endpoint = endpoint,
+            batchesSent = meterStats.batchesSent,
+            itemsSent = meterStats.itemsSent,
+            failedBatches = meterStats.failedBatches,
+            failedItems = meterStats.failedItems,
+            bytesSent = bytesSent?.invoke() ?: 0L,
+            retries = retryStats?.invoke()?.retries ?: 0L,
+            queueDepth = (batcher?.queueDepth ?: 0).toLong() + (worker?.queueDepth ?: 0) + meterStats.inFlightItems,
+            dropped = (batcher?.dropped ?: 0L) + (worker?.dropped ?: 0L) + (spool?.dropped ?: 0L) + (spool?.rejected ?: 0L),
+            spooledRecords = (spool?.pendingRecords ?: 0).toLong(),
+            latencyP50Ms = meterStats.latencyP50Ms,
+            latencyP90Ms = meterStats.latencyP90Ms,
+            latencyP99Ms = meterStats.latencyP99Ms,
+            latencyMaxMs = meterStats.latencyMaxMs
+        )
+    }
+}
+
+/**
+ * Flattens the stats into the shape handed to JS and attached to self-reported logs
+ */
+fun ExportPipelineStats.toMap(): Map<String, Any> = linkedMapOf(
+    "signal" to signal,
+    "endpoint" to endpoint,
+    "batchesSent" to batchesSent,
+    "itemsSent" to itemsSent,
+    "failedBatches" to failedBatches,
+    "failedItems" to failedItems,
+    "bytesSent" to bytesSent,
+    "retries" to retries,
+    "queueDepth" to queueDepth,
+    "dropped" to dropped,
+    "spooledRecords" to spooledRecords,
+    "latencyP50Ms" to latencyP50Ms,
+    "latencyP90Ms" to latencyP90Ms,
+    "latencyP99Ms" to latencyP99Ms,
+    "latencyMaxMs" to latencyMaxMs
+)
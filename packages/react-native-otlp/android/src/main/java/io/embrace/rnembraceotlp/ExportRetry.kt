@@ -0,0 +1,80 @@
+package io.embrace.rnembraceotlp
+
+import java.time.ZonedDateTime
+import java.time.format.DateTimeFormatter
+import java.time.format.DateTimeParseException
+import java.util.Random
+
+// Same defaults as the retry policy of the OTLP exporters from opentelemetry-java, which also uses full jitter
+const val DEFAULT_RETRY_MAX_ATTEMPTS = 5
+const val DEFAULT_RETRY_INITIAL_BACKOFF_MS = 1000L
+const val DEFAULT_RETRY_MAX_BACKOFF_MS = 5000L
+const val DEFAULT_RETRY_BACKOFF_MULTIPLIER = 1.5
+const val DEFAULT_RETRY_JITTER = 1.0
+val DEFAULT_RETRYABLE_STATUS_CODES = setOf(429, 502, 503, 504)
+
+/**
+ * How a failed export is retried. `jitter` is the fraction of each backoff that is randomized, 0 waits exactly the
+ * backoff and 1 waits anywhere between none and all of it, so that devices that failed together don't retry together.
+ * Connection failures are always retryable, responses only if their status is in `retryableStatusCodes`
+ */
+data class RetryConfig(
+    val maxAttempts: Int = DEFAULT_RETRY_MAX_ATTEMPTS,
+    val initialBackoffMs: Long = DEFAULT_RETRY_INITIAL_BACKOFF_MS,
+    val maxBackoffMs: Long = DEFAULT_RETRY_MAX_BACKOFF_MS,
+    val backoffMultiplier: Double = DEFAULT_RETRY_BACKOFF_MULTIPLIER,
+    val jitter: Double = DEFAULT_RETRY_JITTER,
+    val retryableStatusCodes: Set<Int> = DEFAULT_RETRYABLE_STATUS_CODES
+)
+
+/**
+ * Requests retried, and requests given up on after a retryable failure because they ran out of attempts or were asked
+ * to wait longer than `maxBackoffMs`
+ */
+data class RetryStats(
+    val retries: Long,
+    val giveUps: Long
+)
+
+/**
+ * Backoff state for the attempts at sending a single request
+ */
+class RetryBackoff(
+    config: RetryConfig,
+    private val random: Random
+) {
+    val maxAttempts = maxOf(config.maxAttempts, 1)
+    val maxBackoffMs = maxOf(config.maxBackoffMs, 0L)
+    private val multiplier = maxOf(config.backoffMultiplier, 1.0)
+    private val jitter = config.jitter.coerceIn(0.0, 1.0)
+    private var backoffMs = config.initialBackoffMs.coerceIn(0L, maxBackoffMs)
+
+    /**
+     * Returns how long to wait before the next attempt, at least `retryAfterMs` when the server asked for it
+     */
+    fun nextDelayMs(retryAfterMs: Long?): Long {
+        val delay = backoffMs - (backoffMs * jitter * random.nextDouble()).toLong()
+        backoffMs = minOf((backoffMs * multiplier).toLong(), maxBackoffMs)
+        return maxOf(delay, retryAfterMs ?: 0L)
+    }
+}
+
+/**
+ * Parses a Retry-After header, which is either a number of seconds or an HTTP date, into milliseconds from `now`
+ */
+fun parseRetryAfterMs(value: String?, now: Long = System.currentTimeMillis()): Long? {
+    if (value.isNullOrBlank()) {
+        return null
+    }
+
+    value.trim().toLongOrNull()?.let {
+        return maxOf(it, 0L) * 1000
+    }
+
+    return try {
+        val date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)
+        maxOf(date.toInstant().toEpochMilli() - now, 0L)
+    } catch (e: DateTimeParseException) {
+        null
+    }
+}
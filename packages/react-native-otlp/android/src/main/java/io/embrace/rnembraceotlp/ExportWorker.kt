@@ -0,0 +1,162 @@
+package io.embrace.rnembraceotlp
+
+import java.util.ArrayDeque
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.locks.ReentrantLock
+import java.util.logging.Logger
+import kotlin.concurrent.withLock
+
+import io.opentelemetry.sdk.common.CompletableResultCode
+
+const val DEFAULT_MAX_PENDING_ITEMS = 2048
+
+// Upper bound on waiting for a single export, the exporters' own timeouts and retries normally resolve it well before
+private const val EXPORT_TIMEOUT_MS = 60_000L
+
+/**
+ * Snapshot of an endpoint's queue and how long exports take to go through it, from being queued to completing
+ */
+data class ExportWorkerStats(
+    val endpoint: String,
+    val queueDepth: Int,
+    val maxQueueDepth: Int,
+    val exported: Long,
+    val failed: Long,
+    val dropped: Long,
+    val meanLatencyNanos: Long,
+    val maxLatencyNanos: Long
+)
+
+private class PendingExport<T>(
+    val items: Collection<T>,
+    val queuedAt: Long,
+    val result: CompletableResultCode
+)
+
+/**
+ * Hands exports for a single endpoint over to a dedicated thread through a queue bounded to `maxPendingItems` items,
+ * so that an endpoint that is slow or failing only holds up and drops its own telemetry. Exports are passed on to
+ * `exportBatch` one at a time, each waited on before the next, and in the order they were queued. Exports that would
+ * take the queue past `maxPendingItems` are dropped.
+ */
+class ExportWorker<T>(
+    val endpoint: String,
+    maxPendingItems: Int,
+    private val exportBatch: (Collection<T>) -> CompletableResultCode,
+    private val log: Logger = Logger.getLogger("[Embrace]")
+) {
+    private val maxPendingItems = maxOf(maxPendingItems, 1)
+
+    private val lock = ReentrantLock()
+    private val queued = lock.newCondition()
+    private val queue = ArrayDeque<PendingExport<T>>()
+    private var pendingItems = 0
+    private var shutdown = false
+
+    private var maxQueueDepth = 0
+    private var exported = 0L
+    private var failed = 0L
+    private var dropped = 0L
+    private var completedExports = 0L
+    private var totalLatencyNanos = 0L
+    private var maxLatencyNanos = 0L
+
+    init {
+        Thread(::drain, "embrace-otlp-worker").apply {
+            isDaemon = true
+            start()
+        }
+    }
+
+    /**
+     * Queues items to be exported, fails straight away if they were dropped
+     */
+    fun add(items: Collection<T>): CompletableResultCode {
+        lock.withLock {
+            if (shutdown || pendingItems + items.size > maxPendingItems) {
+                dropped += items.size
+                log.warning("Dropping ${items.size} item(s) for $endpoint, its export queue is full.")
+                return CompletableResultCode.ofFailure()
+            }
+
+            queue.add(PendingExport(items, System.nanoTime(), CompletableResultCode()))
+            pendingItems += items.size
+            maxQueueDepth = maxOf(maxQueueDepth, pendingItems)
+            queued.signal()
+        }
+
+        // Items are exported asynchronously, waiting on them here would let this endpoint hold up the others
+        return CompletableResultCode.ofSuccess()
+    }
+
+    private fun drain() {
+        while (true) {
+            val pending = lock.withLock {
+                while (queue.isEmpty() && !shutdown) {
+                    queued.await()
+                }
+                queue.peek() ?: return
+            }
+
+            val succeeded = try {
+                exportBatch(pending.items).join(EXPORT_TIMEOUT_MS, TimeUnit.MILLISECONDS).isSuccess
+            } catch (e: RuntimeException) {
+                log.warning("Failed to export to $endpoint: ${e.message}")
+                false
+            }
+            val latency = System.nanoTime() - pending.queuedAt
+
+            lock.withLock {
+                queue.poll()
+                pendingItems -= pending.items.size
+                if (succeeded) {
+                    exported += pending.items.size
+                } else {
+                    failed += pending.items.size
+                }
+                completedExports++
+                totalLatencyNanos += latency
+                maxLatencyNanos = maxOf(maxLatencyNanos, latency)
+            }
+
+            if (succeeded) {
+                pending.result.succeed()
+            } else {
+                pending.result.fail()
+            }
+        }
+    }
+
+    /**
+     * Completes once everything queued so far has been exported
+     */
+    fun flush(): CompletableResultCode {
+        val last = lock.withLock { queue.peekLast() } ?: return CompletableResultCode.ofSuccess()
+        return last.result
+    }
+
+    /**
+     * Stops taking exports, what is already queued is still exported before the worker's thread exits
+     */
+    fun shutdown(): CompletableResultCode {
+        val result = flush()
+        lock.withLock {
+            shutdown = true
+            queued.signal()
+        }
+        return result
+    }
+
+    fun stats(): ExportWorkerStats = lock.withLock {
+        ExportWorkerStats(
+            endpoint,
+            pendingItems,
+            maxQueueDepth,
+            exported,
+            failed,
+            dropped,
+            if (completedExports == 0L) 0L else totalLatencyNanos / completedExports,
+            maxLatencyNanos
+        )
+    }
+}
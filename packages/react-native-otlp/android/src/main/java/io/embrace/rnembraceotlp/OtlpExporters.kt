@@ -0,0 +1,141 @@
+package io.embrace.rnembraceotlp
+
+import java.time.Duration
+import java.util.logging.Logger
+
+import io.opentelemetry.exporter.otlp.logs.OtlpGrpcLogRecordExporter
+import io.opentelemetry.exporter.otlp.trace.OtlpGrpcSpanExporter
+import io.opentelemetry.sdk.common.export.RetryPolicy
+import io.opentelemetry.sdk.logs.export.LogRecordExporter
+import io.opentelemetry.sdk.trace.export.SpanExporter
+
+import okhttp3.OkHttpClient
+
+// Upper bound enforced by RetryPolicy from opentelemetry-java
+private const val MAX_RETRY_ATTEMPTS = 5
+
+/**
+ * Builds the OTLP exporters for a parsed ExporterConfig over the requested protocol
+ */
+object OtlpExporters {
+    /**
+     * Requests over HTTP go through OtlpHttpSender on `client`, the client tuned by the app when it configured one and
+     * otherwise OtlpHttpClients.default, so that every HTTP exporter shares a connection pool instead of the official
+     * OTLP/HTTP exporters from opentelemetry-java each building their own
+     */
+    fun spanExporter(
+        config: ExporterConfig,
+        protocol: OtlpProtocol,
+        log: Logger,
+        client: OkHttpClient? = null
+    ): SpanExporter =
+        when (protocol) {
+            OtlpProtocol.HTTP -> OtlpSenderSpanExporter(httpSender(config, log, client ?: OtlpHttpClients.default))
+            OtlpProtocol.GRPC -> setOtlpGrpcTraceExporter(config, log)
+        }
+
+    fun logExporter(
+        config: ExporterConfig,
+        protocol: OtlpProtocol,
+        log: Logger,
+        client: OkHttpClient? = null
+    ): LogRecordExporter =
+        when (protocol) {
+            OtlpProtocol.HTTP -> OtlpSenderLogRecordExporter(httpSender(config, log, client ?: OtlpHttpClients.default))
+            OtlpProtocol.GRPC -> setOtlpGrpcLogExporter(config, log)
+        }
+
+    // OtlpHttpSender honours Retry-After and the configured retryable statuses, without a retry config it retries the
+    // way the official exporters do by default
+    fun httpSender(
+        config: ExporterConfig,
+        log: Logger,
+        client: OkHttpClient = OtlpHttpClients.default
+    ): OtlpHttpSender = OtlpHttpSender(
+        config.endpoint,
+        config.headers ?: emptyList(),
+        config.timeout,
+        config.compression,
+        config.encoding,
+        config.retry ?: RetryConfig(),
+        log,
+        client = client
+    )
+
+    // Only the attempts and backoff carry over to the gRPC exporters, they retry their own set of status codes with full
+    // jitter and ignore server hints. Null turns retries off
+    private fun retryPolicy(retry: RetryConfig, log: Logger): RetryPolicy? {
+        if (retry.maxAttempts <= 1) {
+            return null
+        }
+        if (retry.maxAttempts > MAX_RETRY_ATTEMPTS) {
+            log.warning("Retry `maxAttempts` can be at most $MAX_RETRY_ATTEMPTS, using $MAX_RETRY_ATTEMPTS.")
+        }
+
+        return RetryPolicy.builder()
+            .setMaxAttempts(minOf(retry.maxAttempts, MAX_RETRY_ATTEMPTS))
+            .setInitialBackoff(Duration.ofMillis(maxOf(retry.initialBackoffMs, 1L)))
+            .setMaxBackoff(Duration.ofMillis(maxOf(retry.maxBackoffMs, 1L)))
+            .setBackoffMultiplier(maxOf(retry.backoffMultiplier, 1.0))
+            .build()
+    }
+
+    // gRPC, the endpoint is the collector's scheme, host and port without a path
+    private fun setOtlpGrpcTraceExporter(config: ExporterConfig, log: Logger): SpanExporter {
+        if (config.encoding == OtlpEncoding.JSON) {
+            log.warning("JSON encoding is not supported over gRPC, using protobuf.")
+        }
+
+        val otlpGrpcSpanExporter = OtlpGrpcSpanExporter.builder()
+            .setEndpoint(config.endpoint)
+
+        if (!config.headers.isNullOrEmpty()) {
+            for (header in config.headers) {
+                otlpGrpcSpanExporter.addHeader(header.key, header.token)
+            }
+        }
+
+        if (config.timeout != null) {
+            otlpGrpcSpanExporter.setTimeout(config.timeout)
+        }
+
+        if (config.compression == OtlpCompression.GZIP) {
+            otlpGrpcSpanExporter.setCompression("gzip")
+        }
+
+        if (config.retry != null) {
+            otlpGrpcSpanExporter.setRetryPolicy(retryPolicy(config.retry, log))
+        }
+
+        return otlpGrpcSpanExporter.build()
+    }
+
+    private fun setOtlpGrpcLogExporter(config: ExporterConfig, log: Logger): LogRecordExporter {
+        if (config.encoding == OtlpEncoding.JSON) {
+            log.warning("JSON encoding is not supported over gRPC, using protobuf.")
+        }
+
+        val otlpGrpcLogExporter = OtlpGrpcLogRecordExporter.builder()
+            .setEndpoint(config.endpoint)
+
+        if (!config.headers.isNullOrEmpty()) {
+            for (header in config.headers) {
+                otlpGrpcLogExporter.addHeader(header.key, header.token)
+            }
+        }
+
+        if (config.timeout != null) {
+            otlpGrpcLogExporter.setTimeout(config.timeout)
+        }
+
+        if (config.compression == OtlpCompression.GZIP) {
+            otlpGrpcLogExporter.setCompression("gzip")
+        }
+
+        if (config.retry != null) {
+            otlpGrpcLogExporter.setRetryPolicy(retryPolicy(config.retry, log))
+        }
+
+        return otlpGrpcLogExporter.build()
+    }
+}
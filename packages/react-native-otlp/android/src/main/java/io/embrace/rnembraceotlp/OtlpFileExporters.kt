@@ -0,0 +1,266 @@
+package io.embrace.rnembraceotlp
+
+import java.io.File
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.StandardOpenOption
+import java.util.logging.Logger
+
+import io.opentelemetry.exporter.internal.marshal.Marshaler
+import io.opentelemetry.exporter.internal.otlp.logs.LogsRequestMarshaler
+import io.opentelemetry.exporter.internal.otlp.traces.TraceRequestMarshaler
+import io.opentelemetry.sdk.common.CompletableResultCode
+import io.opentelemetry.sdk.logs.data.LogRecordData
+import io.opentelemetry.sdk.logs.export.LogRecordExporter
+import io.opentelemetry.sdk.trace.data.SpanData
+import io.opentelemetry.sdk.trace.export.SpanExporter
+
+const val DEFAULT_MAX_FILE_BYTES = 5L * 1024 * 1024
+const val DEFAULT_MAX_FILES = 3
+
+private const val WRITE_BUFFER_BYTES = 64 * 1024
+private const val NEWLINE = '\n'.code.toByte()
+
+/**
+ * How requests are laid out in a file, either as one OTLP/JSON request per line or as OTLP protobuf requests each
+ * prefixed with their length as a varint, the same framing as protobuf's writeDelimitedTo
+ */
+enum class OtlpFileFormat(val extension: String, val encoding: OtlpEncoding) {
+    NDJSON("ndjson", OtlpEncoding.JSON),
+    PROTOBUF("pb", OtlpEncoding.PROTOBUF)
+}
+
+data class FileExporterConfig(
+    val directory: File,
+    val format: OtlpFileFormat = OtlpFileFormat.NDJSON,
+    val maxFileBytes: Long = DEFAULT_MAX_FILE_BYTES,
+    val maxFiles: Int = DEFAULT_MAX_FILES
+)
+
+/**
+ * Appends OTLP requests to `<name>.<extension>` in `dir`, rotating it to `<name>.1.<extension>` and so on once it would
+ * grow past `maxFileBytes` and keeping at most `maxFiles` files including the one being written to. Writes go through a
+ * buffer in front of a FileChannel and only reach the file when the buffer fills up, on flush and on close.
+ */
+class OtlpFileWriter(
+    private val dir: File,
+    private val name: String,
+    private val format: OtlpFileFormat,
+    maxFileBytes: Long = DEFAULT_MAX_FILE_BYTES,
+    maxFiles: Int = DEFAULT_MAX_FILES,
+    private val log: Logger = Logger.getLogger("[Embrace]")
+) {
+    private val maxFileBytes = maxOf(maxFileBytes, 1L)
+    private val maxFiles = maxOf(maxFiles, 1)
+    private val buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES)
+    private var channel: FileChannel? = null
+
+    // Size of the current file including what is still buffered
+    private var fileBytes = 0L
+
+    val currentFile: File get() = File(dir, "$name.${format.extension}")
+
+    fun rotatedFile(index: Int): File = File(dir, "$name.$index.${format.extension}")
+
+    private fun encodeRecord(marshaler: Marshaler): ByteArray {
+        val request = encodeOtlpRequest(marshaler, format.encoding, OtlpCompression.NONE)
+        return when (format) {
+            OtlpFileFormat.NDJSON -> request + NEWLINE
+            OtlpFileFormat.PROTOBUF -> encodeVarint(request.size) + request
+        }
+    }
+
+    private fun open(): FileChannel {
+        dir.mkdirs()
+        val opened = FileChannel.open(
+            currentFile.toPath(),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND
+        )
+        fileBytes = opened.size()
+        channel = opened
+        return opened
+    }
+
+    private fun writeFully(channel: FileChannel, source: ByteBuffer) {
+        while (source.hasRemaining()) {
+            channel.write(source)
+        }
+    }
+
+    private fun flushBuffer() {
+        val current = channel ?: return
+        buffer.flip()
+        writeFully(current, buffer)
+        buffer.clear()
+    }
+
+    private fun rotate() {
+        flushBuffer()
+        channel?.close()
+        channel = null
+
+        if (maxFiles == 1) {
+            currentFile.delete()
+        } else {
+            rotatedFile(maxFiles - 1).delete()
+            for (i in maxFiles - 2 downTo 1) {
+                rotatedFile(i).renameTo(rotatedFile(i + 1))
+            }
+            currentFile.renameTo(rotatedFile(1))
+        }
+        fileBytes = 0
+    }
+
+    private fun append(current: FileChannel, record: ByteArray) {
+        if (record.size > buffer.remaining()) {
+            flushBuffer()
+        }
+        if (record.size > buffer.capacity()) {
+            writeFully(current, ByteBuffer.wrap(record))
+        } else {
+            buffer.put(record)
+        }
+        fileBytes += record.size
+    }
+
+    /**
+     * Appends a request, returns false if it could not be written
+     */
+    @Synchronized
+    fun write(marshaler: Marshaler): Boolean {
+        val record = encodeRecord(marshaler)
+
+        return try {
+            var current = channel ?: open()
+            if (fileBytes > 0 && fileBytes + record.size > maxFileBytes) {
+                rotate()
+                current = open()
+            }
+            append(current, record)
+            true
+        } catch (e: IOException) {
+            log.warning("Failed to write to ${currentFile.path}: ${e.message}")
+            false
+        }
+    }
+
+    @Synchronized
+    fun flush(): Boolean = try {
+        flushBuffer()
+        true
+    } catch (e: IOException) {
+        log.warning("Failed to write to ${currentFile.path}: ${e.message}")
+        false
+    }
+
+    @Synchronized
+    fun close(): Boolean {
+        val flushed = flush()
+        try {
+            channel?.close()
+        } catch (e: IOException) {
+            log.warning("Failed to close ${currentFile.path}: ${e.message}")
+        }
+        channel = null
+        return flushed
+    }
+}
+
+private fun encodeVarint(value: Int): ByteArray {
+    val bytes = ArrayList<Byte>(5)
+    var remaining = value
+    while (remaining and 0x7F.inv() != 0) {
+        bytes.add(((remaining and 0x7F) or 0x80).toByte())
+        remaining = remaining ushr 7
+    }
+    bytes.add(remaining.toByte())
+    return bytes.toByteArray()
+}
+
+/**
+ * Reads back the requests in a file written by OtlpFileWriter, each already encoded the way OtlpHttpSender expects it
+ * for the format's encoding so captured telemetry can be sent on or replayed in benchmarks. A truncated last record, as
+ * left behind when the process dies mid-write, is skipped
+ */
+fun readOtlpFile(file: File, format: OtlpFileFormat): List<ByteArray> {
+    val bytes = file.readBytes()
+    val records = mutableListOf<ByteArray>()
+    var offset = 0
+
+    when (format) {
+        OtlpFileFormat.NDJSON -> {
+            while (offset < bytes.size) {
+                val end = bytes.indexOfByte(NEWLINE, offset)
+                if (end < 0) {
+                    break
+                }
+                if (end > offset) {
+                    records.add(bytes.copyOfRange(offset, end))
+                }
+                offset = end + 1
+            }
+        }
+        OtlpFileFormat.PROTOBUF -> {
+            while (offset < bytes.size) {
+                var length = 0
+                var shift = 0
+                while (offset < bytes.size) {
+                    val b = bytes[offset++].toInt()
+                    length = length or ((b and 0x7F) shl shift)
+                    shift += 7
+                    if (b and 0x80 == 0) {
+                        break
+                    }
+                }
+                if (offset + length > bytes.size) {
+                    break
+                }
+                records.add(bytes.copyOfRange(offset, offset + length))
+                offset += length
+            }
+        }
+    }
+    return records
+}
+
+private fun ByteArray.indexOfByte(value: Byte, from: Int): Int {
+    for (i in from until size) {
+        if (this[i] == value) {
+            return i
+        }
+    }
+    return -1
+}
+
+class OtlpFileSpanExporter(private val writer: OtlpFileWriter) : SpanExporter {
+    override fun export(spans: Collection<SpanData>): CompletableResultCode =
+        if (writer.write(TraceRequestMarshaler.create(spans))) {
+            CompletableResultCode.ofSuccess()
+        } else {
+            CompletableResultCode.ofFailure()
+        }
+
+    override fun flush(): CompletableResultCode =
+        if (writer.flush()) CompletableResultCode.ofSuccess() else CompletableResultCode.ofFailure()
+
+    override fun shutdown(): CompletableResultCode =
+        if (writer.close()) CompletableResultCode.ofSuccess() else CompletableResultCode.ofFailure()
+}
+
+class OtlpFileLogRecordExporter(private val writer: OtlpFileWriter) : LogRecordExporter {
+    override fun export(logs: Collection<LogRecordData>): CompletableResultCode =
+        if (writer.write(LogsRequestMarshaler.create(logs))) {
+            CompletableResultCode.ofSuccess()
+        } else {
+            CompletableResultCode.ofFailure()
+        }
+
+    override fun flush(): CompletableResultCode =
+        if (writer.flush()) CompletableResultCode.ofSuccess() else CompletableResultCode.ofFailure()
+
+    override fun shutdown(): CompletableResultCode =
+        if (writer.close()) CompletableResultCode.ofSuccess() else CompletableResultCode.ofFailure()
+}
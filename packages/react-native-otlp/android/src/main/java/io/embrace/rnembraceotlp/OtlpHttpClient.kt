@@ -0,0 +1,42 @@
+package io.embrace.rnembraceotlp
+
+import java.util.concurrent.TimeUnit
+
+import okhttp3.ConnectionPool
+import okhttp3.OkHttpClient
+import okhttp3.Protocol
+
+// Same pool defaults as OkHttp, same timeouts as the OTLP exporters from opentelemetry-java
+const val DEFAULT_MAX_IDLE_CONNECTIONS = 5
+const val DEFAULT_KEEP_ALIVE_MS = 5L * 60 * 1000
+const val DEFAULT_CONNECT_TIMEOUT_MS = 10_000L
+const val DEFAULT_READ_TIMEOUT_MS = 10_000L
+
+/**
+ * Tuning for the HTTP client shared by every OTLP/HTTP exporter. HTTP/2 is only negotiated over TLS, cleartext
+ * endpoints always use HTTP/1.1
+ */
+data class HttpClientConfig(
+    val maxIdleConnections: Int = DEFAULT_MAX_IDLE_CONNECTIONS,
+    val keepAliveMs: Long = DEFAULT_KEEP_ALIVE_MS,
+    val preferHttp2: Boolean = true,
+    val connectTimeoutMs: Long = DEFAULT_CONNECT_TIMEOUT_MS,
+    val readTimeoutMs: Long = DEFAULT_READ_TIMEOUT_MS
+)
+
+object OtlpHttpClients {
+    /**
+     * Client used by senders that aren't handed one, created on first use
+     */
+    val default: OkHttpClient by lazy { create(HttpClientConfig()) }
+
+    fun create(config: HttpClientConfig): OkHttpClient = OkHttpClient.Builder()
+        .connectionPool(
+            ConnectionPool(maxOf(config.maxIdleConnections, 0), maxOf(config.keepAliveMs, 1L), TimeUnit.MILLISECONDS)
+        )
+        .protocols(if (config.preferHttp2) listOf(Protocol.HTTP_2, Protocol.HTTP_1_1) else listOf(Protocol.HTTP_1_1))
+        .connectTimeout(maxOf(config.connectTimeoutMs, 0L), TimeUnit.MILLISECONDS)
+        .readTimeout(maxOf(config.readTimeoutMs, 0L), TimeUnit.MILLISECONDS)
+        .writeTimeout(maxOf(config.readTimeoutMs, 0L), TimeUnit.MILLISECONDS)
+        .build()
+}
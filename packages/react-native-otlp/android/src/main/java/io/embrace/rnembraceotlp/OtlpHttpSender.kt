@@ -0,0 +1,301 @@
+package io.embrace.rnembraceotlp
+
+import java.io.ByteArrayOutputStream
+import java.io.IOException
+import java.net.HttpURLConnection
+import java.time.Duration
+import java.util.Random
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.atomic.AtomicLong
+import java.util.logging.Logger
+import java.util.zip.GZIPOutputStream
+
+import io.opentelemetry.exporter.internal.marshal.Marshaler
+import io.opentelemetry.exporter.internal.otlp.logs.LogsRequestMarshaler
+import io.opentelemetry.exporter.internal.otlp.traces.TraceRequestMarshaler
+import io.opentelemetry.sdk.common.CompletableResultCode
+import io.opentelemetry.sdk.logs.data.LogRecordData
+import io.opentelemetry.sdk.logs.export.LogRecordExporter
+import io.opentelemetry.sdk.trace.data.SpanData
+import io.opentelemetry.sdk.trace.export.SpanExporter
+
+import okhttp3.MediaType.Companion.toMediaType
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.RequestBody.Companion.toRequestBody
+
+enum class OtlpCompression {
+    NONE,
+    GZIP
+}
+
+enum class OtlpEncoding {
+    PROTOBUF,
+    JSON
+}
+
+// The request marshalers come from opentelemetry-exporter-otlp-common, which is internal to opentelemetry-java and has no
+// compatibility guarantees. They are kept to this file and OtlpFileExporters, the official OTLP/HTTP exporters can't share
+// a client, encode JSON or hand back the encoded body for the offline spool
+internal fun encodeOtlpRequest(marshaler: Marshaler, encoding: OtlpEncoding, compression: OtlpCompression): ByteArray {
+    val bytes = ByteArrayOutputStream()
+    val output = if (compression == OtlpCompression.GZIP) GZIPOutputStream(bytes) else bytes
+
+    output.use {
+        when (encoding) {
+            OtlpEncoding.PROTOBUF -> marshaler.writeBinaryTo(it)
+            OtlpEncoding.JSON -> marshaler.writeJsonTo(it)
+        }
+    }
+    return bytes.toByteArray()
+}
+
+/**
+ * Why a request failed to export, `statusCode` is null when no response was received. Connection failures and
+ * responses with a retryable status can succeed if sent again later, anything else would be rejected again
+ */
+class OtlpExportException(
+    message: String,
+    val statusCode: Int?,
+    val retryable: Boolean,
+    cause: Throwable? = null
+) : Exception(message, cause)
+
+/**
+ * Whether an export completed with a failure that may succeed if sent again, only known for the exports of an
+ * OtlpHttpSender
+ */
+fun isRetryableFailure(result: CompletableResultCode): Boolean =
+    result.isDone && !result.isSuccess && (result.failureThrowable as? OtlpExportException)?.retryable == true
+
+/**
+ * Serializes spans into an OTLP request the way it is sent over the wire, exposed so the cost of each encoding and
+ * compression can be measured without going through an exporter
+ */
+fun encodeOtlpSpans(spans: Collection<SpanData>, encoding: OtlpEncoding, compression: OtlpCompression): ByteArray =
+    encodeOtlpRequest(TraceRequestMarshaler.create(spans), encoding, compression)
+
+fun encodeOtlpLogs(logs: Collection<LogRecordData>, encoding: OtlpEncoding, compression: OtlpCompression): ByteArray =
+    encodeOtlpRequest(LogsRequestMarshaler.create(logs), encoding, compression)
+
+private class PostResponse(
+    val code: Int,
+    val retryAfter: String?
+) {
+    val isSuccess: Boolean get() = code in HttpURLConnection.HTTP_OK until HttpURLConnection.HTTP_MULT_CHOICE
+}
+
+/**
+ * Posts OTLP requests over HTTP in either encoding, and replays requests that were already encoded with `encodeSpans` or
+ * `encodeLogs`.
+ * Requests are sent one at a time on a background thread, matching how the OTLP/HTTP exporters from opentelemetry-java
+ * are used by Embrace, which also means a request backing off holds back the ones after it. Senders handed the same
+ * `client` share its connection pool, so the trace and log exporters for a collector keep reusing the same connections.
+ * `timeout` bounds each attempt as a whole, on top of the client's connect and read timeouts
+ */
+class OtlpHttpSender(
+    private val endpoint: String,
+    private val headers: List<HeaderConfig>,
+    timeout: Duration?,
+    val compression: OtlpCompression,
+    val encoding: OtlpEncoding = OtlpEncoding.PROTOBUF,
+    private val retry: RetryConfig? = null,
+    private val log: Logger = Logger.getLogger("[Embrace]"),
+    private val random: Random = Random(),
+    private val sleep: (Long) -> Unit = Thread::sleep,
+    client: OkHttpClient = OtlpHttpClients.default
+) {
+    // Clients derived with newBuilder share the connection pool of the one they came from
+    private val client = if (timeout == null) client else client.newBuilder().callTimeout(timeout).build()
+    private val contentType =
+        (if (encoding == OtlpEncoding.JSON) "application/json" else "application/x-protobuf").toMediaType()
+    private val executor: ExecutorService = Executors.newSingleThreadExecutor { runnable ->
+        Thread(runnable, "embrace-otlp-http-sender").apply { isDaemon = true }
+    }
+    // Responses that are worth sending again, whether or not this sender retries them itself
+    private val retryableStatusCodes = retry?.retryableStatusCodes ?: DEFAULT_RETRYABLE_STATUS_CODES
+    private val retries = AtomicLong()
+    private val giveUps = AtomicLong()
+    private val bytesSent = AtomicLong()
+
+    // Completes once the executor has finished the requests queued before shutdown
+    private val terminated = CompletableResultCode()
+
+    /**
+     * Serializes spans into the body this sender posts
+     */
+    fun encodeSpans(spans: Collection<SpanData>): ByteArray = encodeOtlpSpans(spans, encoding, compression)
+
+    /**
+     * Serializes logs into the body this sender posts
+     */
+    fun encodeLogs(logs: Collection<LogRecordData>): ByteArray = encodeOtlpLogs(logs, encoding, compression)
+
+    fun sendSpans(spans: Collection<SpanData>): CompletableResultCode = sendEncoded { encodeSpans(spans) }
+
+    fun sendLogs(logs: Collection<LogRecordData>): CompletableResultCode = sendEncoded { encodeLogs(logs) }
+
+    /**
+     * Posts a body previously returned by `encodeSpans` or `encodeLogs`
+     */
+    fun sendEncoded(body: ByteArray): CompletableResultCode = sendEncoded { body }
+
+    private fun sendEncoded(body: () -> ByteArray): CompletableResultCode {
+        val result = CompletableResultCode()
+        try {
+            executor.execute {
+                val failure = deliver(body())
+                if (failure == null) {
+                    result.succeed()
+                } else {
+                    result.failExceptionally(failure)
+                }
+            }
+        } catch (e: RejectedExecutionException) {
+            result.fail()
+        }
+        return result
+    }
+
+    /**
+     * Posts the body, retrying retryable failures as configured. Returns null once it is sent, or why it wasn't
+     */
+    private fun deliver(body: ByteArray): OtlpExportException? {
+        val backoff = retry?.let { RetryBackoff(it, random) }
+        var attempt = 1
+
+        while (true) {
+            var connectionError: IOException? = null
+            val response = try {
+                bytesSent.addAndGet(body.size.toLong())
+                post(body)
+            } catch (e: IOException) {
+                log.warning("Failed to export to $endpoint: ${e.message}")
+                connectionError = e
+                null
+            } catch (e: IllegalArgumentException) {
+                log.warning("Invalid endpoint `$endpoint`: ${e.message}")
+                return OtlpExportException("Invalid endpoint `$endpoint`", null, false, e)
+            }
+
+            if (response != null && response.isSuccess) {
+                return null
+            }
+
+            val failure = if (response == null) {
+                OtlpExportException("Failed to export to $endpoint", null, true, connectionError)
+            } else {
+                log.warning("Failed to export to $endpoint, received status ${response.code}")
+                OtlpExportException(
+                    "Failed to export to $endpoint, received status ${response.code}",
+                    response.code,
+                    response.code in retryableStatusCodes
+                )
+            }
+
+            if (backoff == null || !failure.retryable) {
+                return failure
+            }
+
+            if (attempt >= backoff.maxAttempts) {
+                giveUps.incrementAndGet()
+                log.warning("Giving up exporting to $endpoint after $attempt attempt(s).")
+                return failure
+            }
+
+            val retryAfterMs = parseRetryAfterMs(response?.retryAfter)
+            if (retryAfterMs != null && retryAfterMs > backoff.maxBackoffMs) {
+                giveUps.incrementAndGet()
+                log.warning("Giving up exporting to $endpoint, asked to retry after ${retryAfterMs}ms.")
+                return failure
+            }
+
+            try {
+                sleep(backoff.nextDelayMs(retryAfterMs))
+            } catch (e: InterruptedException) {
+                Thread.currentThread().interrupt()
+                giveUps.incrementAndGet()
+                return failure
+            }
+            retries.incrementAndGet()
+            attempt++
+        }
+    }
+
+    private fun post(body: ByteArray): PostResponse {
+        val request = Request.Builder()
+            .url(endpoint)
+            .post(body.toRequestBody(contentType))
+        if (compression == OtlpCompression.GZIP) {
+            request.header("Content-Encoding", "gzip")
+        }
+        for (header in headers) {
+            request.header(header.key, header.token)
+        }
+
+        client.newCall(request.build()).execute().use { response ->
+            // Read the response out so that the connection goes back to the pool
+            response.body?.bytes()
+            return PostResponse(response.code, response.header("Retry-After"))
+        }
+    }
+
+    fun retryStats(): RetryStats = RetryStats(retries.get(), giveUps.get())
+
+    /**
+     * Bytes of request bodies posted so far, counting every attempt
+     */
+    fun bytesSent(): Long = bytesSent.get()
+
+    /**
+     * Completes once the requests handed to the sender before this call have been sent or given up on
+     */
+    fun flush(): CompletableResultCode {
+        val result = CompletableResultCode()
+        try {
+            // The executor runs one task at a time in order, so this runs after everything queued before it
+            executor.execute { result.succeed() }
+        } catch (e: RejectedExecutionException) {
+            return terminated
+        }
+        return result
+    }
+
+    /**
+     * Stops taking requests, completes once the ones already handed to the sender have been sent or given up on
+     */
+    @Synchronized
+    fun shutdown(): CompletableResultCode {
+        if (!executor.isShutdown) {
+            executor.execute { terminated.succeed() }
+            executor.shutdown()
+        }
+        return terminated
+    }
+}
+
+class OtlpSenderSpanExporter(private val sender: OtlpHttpSender) : SpanExporter {
+    fun retryStats(): RetryStats = sender.retryStats()
+
+    fun bytesSent(): Long = sender.bytesSent()
+
+    override fun export(spans: Collection<SpanData>): CompletableResultCode = sender.sendSpans(spans)
+
+    override fun flush(): CompletableResultCode = sender.flush()
+
+    override fun shutdown(): CompletableResultCode = sender.shutdown()
+}
+
+class OtlpSenderLogRecordExporter(private val sender: OtlpHttpSender) : LogRecordExporter {
+    fun retryStats(): RetryStats = sender.retryStats()
+
+    fun bytesSent(): Long = sender.bytesSent()
+
+    override fun export(logs: Collection<LogRecordData>): CompletableResultCode = sender.sendLogs(logs)
+
+    override fun flush(): CompletableResultCode = sender.flush()
+
+    override fun shutdown(): CompletableResultCode = sender.shutdown()
+}
@@ -1,24 +1,38 @@
 package io.embrace.rnembraceotlp
 
+import java.io.File
 import java.time.Duration
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
 import java.util.logging.Logger
 import kotlin.time.DurationUnit
 import kotlin.time.toDuration
 import kotlin.time.toJavaDuration
 
+import com.facebook.react.bridge.Arguments
 import com.facebook.react.bridge.Promise
 import com.facebook.react.bridge.ReactApplicationContext
 import com.facebook.react.bridge.ReactContextBaseJavaModule
 import com.facebook.react.bridge.ReactMethod
 import com.facebook.react.bridge.ReadableArray
 import com.facebook.react.bridge.ReadableMap
+import com.facebook.react.bridge.ReadableType
 
 import io.embrace.android.embracesdk.Embrace
+import io.embrace.android.embracesdk.Severity
 import io.embrace.android.embracesdk.otel.java.addJavaLogRecordExporter
 import io.embrace.android.embracesdk.otel.java.addJavaSpanExporter
 
-import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter
-import io.opentelemetry.exporter.otlp.http.logs.OtlpHttpLogRecordExporter
+import io.opentelemetry.sdk.common.CompletableResultCode
+import io.opentelemetry.sdk.logs.export.LogRecordExporter
+import io.opentelemetry.sdk.trace.export.SpanExporter
+
+import okhttp3.OkHttpClient
+
+private const val SPOOL_DIR = "embrace_otlp_spool"
+private const val FILE_EXPORTER_DIR = "embrace_otlp_files"
 
 data class HeaderConfig (
     val key: String,
@@ -28,12 +42,33 @@ data class HeaderConfig (
 data class ExporterConfig(
     val endpoint: String,
     val headers: List<HeaderConfig>? = emptyList(),
-    val timeout: Duration? = null
+    val timeout: Duration? = null,
+    val batch: BatchConfig? = null,
+    val compression: OtlpCompression = OtlpCompression.NONE,
+    val encoding: OtlpEncoding = OtlpEncoding.PROTOBUF,
+    val spool: SpoolConfig? = null,
+    val retry: RetryConfig? = null,
+    // Set to run the exporter on its own queue and thread, see ExportWorker
+    val maxPendingItems: Int? = null
 )
 
+enum class OtlpProtocol {
+    HTTP,
+    GRPC
+}
+
 data class OtlpExporterConfig (
-    val traceExporter: ExporterConfig? = null,
-    val logExporter: ExporterConfig? = null
+    val traceExporters: List<ExporterConfig> = emptyList(),
+    val logExporters: List<ExporterConfig> = emptyList(),
+    val protocol: OtlpProtocol = OtlpProtocol.HTTP,
+    val fileExporter: FileExporterConfig? = null,
+    // Tuning for the HTTP client shared by the OTLP/HTTP exporters, see OtlpHttpClients. Null shares
+    // OtlpHttpClients.default
+    val httpClient: HttpClientConfig? = null,
+    // Set to log the exporters' stats to Embrace on this interval
+    val statsReportIntervalMs: Long? = null,
+    // Set to build the exporters in the background instead of before Embrace starts, see DeferredDelegate
+    val deferSetup: Boolean = false
 )
 
 class RNEmbraceOTLPModule(reactContext: ReactApplicationContext) : ReactContextBaseJavaModule(reactContext) {
@@ -42,6 +77,13 @@ class RNEmbraceOTLPModule(reactContext: ReactApplicationContext) : ReactContextB
     private val context: ReactApplicationContext = reactContext
     private val log = Logger.getLogger("[Embrace]")
 
+    // One per trace and log exporter, in the order they were configured
+    private val pipelines = CopyOnWriteArrayList<ExportPipeline>()
+    private var statsReporter: ScheduledExecutorService? = null
+
+    // Completes once every exporter has been built
+    private var exporterSetup: CompletableResultCode = CompletableResultCode.ofSuccess()
+
     // parsing Headers
     private fun parseHeaders(headers: ReadableArray): List<HeaderConfig> {
         val headerList: MutableList<HeaderConfig> = arrayListOf()
@@ -66,99 +108,495 @@ class RNEmbraceOTLPModule(reactContext: ReactApplicationContext) : ReactContextB
         return number.toLong().toDuration(DurationUnit.SECONDS).toJavaDuration()
     }
 
-    // parsing Readable Map into the real OTLP Exporter Config shape
-    private fun parseExportConfig(spanExportConfig: ReadableMap?, logExportConfig: ReadableMap?): OtlpExporterConfig {
-        var spanExportConfigParsed: ExporterConfig? = null
-        val spanExportEndpoint = spanExportConfig?.getString("endpoint")
+    // parsing batching knobs, null if none are set in which case the exporter is used as is
+    private fun parseBatchConfig(exportConfig: ReadableMap): BatchConfig? {
+        val keys = listOf("maxExportBatchSize", "maxQueueSize", "scheduleDelayMs", "maxConcurrentExports")
+        if (keys.none { exportConfig.hasKey(it) }) {
+            return null
+        }
+
+        return BatchConfig(
+            maxExportBatchSize = if (exportConfig.hasKey("maxExportBatchSize")) {
+                exportConfig.getInt("maxExportBatchSize")
+            } else {
+                DEFAULT_MAX_EXPORT_BATCH_SIZE
+            },
+            maxQueueSize = if (exportConfig.hasKey("maxQueueSize")) {
+                exportConfig.getInt("maxQueueSize")
+            } else {
+                DEFAULT_MAX_QUEUE_SIZE
+            },
+            scheduleDelayMs = if (exportConfig.hasKey("scheduleDelayMs")) {
+                exportConfig.getDouble("scheduleDelayMs").toLong()
+            } else {
+                DEFAULT_SCHEDULE_DELAY_MS
+            },
+            maxConcurrentExports = if (exportConfig.hasKey("maxConcurrentExports")) {
+                exportConfig.getInt("maxConcurrentExports")
+            } else {
+                DEFAULT_MAX_CONCURRENT_EXPORTS
+            },
+        )
+    }
+
+    // parsing the offline spool, null if it is not set in which case failed exports are dropped
+    private fun parseSpoolConfig(exportConfig: ReadableMap): SpoolConfig? {
+        val spoolConfig = if (exportConfig.hasKey("offlineSpool")) exportConfig.getMap("offlineSpool") else null
+        if (spoolConfig == null) {
+            return null
+        }
 
-        var logExportConfigParsed: ExporterConfig? = null
-        val logExportEndpoint = logExportConfig?.getString("endpoint")
+        return SpoolConfig(
+            maxBytes = if (spoolConfig.hasKey("maxBytes")) {
+                spoolConfig.getDouble("maxBytes").toLong()
+            } else {
+                DEFAULT_SPOOL_MAX_BYTES
+            },
+            maxAgeMs = if (spoolConfig.hasKey("maxAgeMs")) {
+                spoolConfig.getDouble("maxAgeMs").toLong()
+            } else {
+                DEFAULT_SPOOL_MAX_AGE_MS
+            },
+        )
+    }
 
-        if (!spanExportEndpoint.isNullOrBlank()) {
-            val headers = spanExportConfig.getArray("headers")?.let {
-                parseHeaders(it)
-            } ?: emptyList()
+    // parsing retries, null if they are not set in which case the exporters' own retry policy applies
+    private fun parseRetryConfig(exportConfig: ReadableMap): RetryConfig? {
+        val retryConfig = if (exportConfig.hasKey("retry")) exportConfig.getMap("retry") else null
+        if (retryConfig == null) {
+            return null
+        }
 
-            var timeout: Duration? = null
-            if (spanExportConfig.hasKey("timeout")) {
-                timeout = parseTimeout(spanExportConfig.getDouble("timeout"))
+        var retryableStatusCodes = DEFAULT_RETRYABLE_STATUS_CODES
+        if (retryConfig.hasKey("retryableStatusCodes")) {
+            val codes = retryConfig.getArray("retryableStatusCodes")
+            if (codes != null) {
+                retryableStatusCodes = (0 until codes.size()).map { codes.getInt(it) }.toSet()
             }
+        }
 
-            spanExportConfigParsed = ExporterConfig(
-                endpoint = spanExportEndpoint,
-                headers = headers,
-                timeout = timeout,
-            )
+        return RetryConfig(
+            maxAttempts = if (retryConfig.hasKey("maxAttempts")) {
+                retryConfig.getInt("maxAttempts")
+            } else {
+                DEFAULT_RETRY_MAX_ATTEMPTS
+            },
+            initialBackoffMs = if (retryConfig.hasKey("initialBackoffMs")) {
+                retryConfig.getDouble("initialBackoffMs").toLong()
+            } else {
+                DEFAULT_RETRY_INITIAL_BACKOFF_MS
+            },
+            maxBackoffMs = if (retryConfig.hasKey("maxBackoffMs")) {
+                retryConfig.getDouble("maxBackoffMs").toLong()
+            } else {
+                DEFAULT_RETRY_MAX_BACKOFF_MS
+            },
+            backoffMultiplier = if (retryConfig.hasKey("backoffMultiplier")) {
+                retryConfig.getDouble("backoffMultiplier")
+            } else {
+                DEFAULT_RETRY_BACKOFF_MULTIPLIER
+            },
+            jitter = if (retryConfig.hasKey("jitter")) {
+                retryConfig.getDouble("jitter")
+            } else {
+                DEFAULT_RETRY_JITTER
+            },
+            retryableStatusCodes = retryableStatusCodes,
+        )
+    }
+
+    // parsing compression, anything other than gzip is sent uncompressed
+    private fun parseCompression(exportConfig: ReadableMap): OtlpCompression {
+        val compression = if (exportConfig.hasKey("compression")) exportConfig.getString("compression") else null
+
+        return when (compression) {
+            null, "none" -> OtlpCompression.NONE
+            "gzip" -> OtlpCompression.GZIP
+            else -> {
+                log.warning("Invalid compression `$compression`, sending uncompressed.")
+                OtlpCompression.NONE
+            }
         }
+    }
 
-        if (!logExportEndpoint.isNullOrBlank()) {
-            val headers = logExportConfig.getArray("headers")?.let {
-                parseHeaders(it)
-            } ?: emptyList()
+    // parsing encoding, defaults to protobuf
+    private fun parseEncoding(exportConfig: ReadableMap): OtlpEncoding {
+        val encoding = if (exportConfig.hasKey("encoding")) exportConfig.getString("encoding") else null
 
-            var timeout: Duration? = null
-            if (logExportConfig.hasKey("timeout")) {
-                timeout = parseTimeout(logExportConfig.getDouble("timeout"))
+        return when (encoding) {
+            null, "protobuf" -> OtlpEncoding.PROTOBUF
+            "json" -> OtlpEncoding.JSON
+            else -> {
+                log.warning("Invalid encoding `$encoding`, using protobuf.")
+                OtlpEncoding.PROTOBUF
             }
+        }
+    }
 
-            logExportConfigParsed = ExporterConfig(
-                endpoint = logExportEndpoint,
-                headers = headers,
-                timeout = timeout,
-            )
+    // parsing protocol, defaults to http
+    private fun parseProtocol(otlpExporterConfig: ReadableMap): OtlpProtocol {
+        val protocol = if (otlpExporterConfig.hasKey("protocol")) otlpExporterConfig.getString("protocol") else null
+
+        return when (protocol) {
+            null, "http" -> OtlpProtocol.HTTP
+            "grpc" -> OtlpProtocol.GRPC
+            else -> {
+                log.warning("Invalid protocol `$protocol`, using http.")
+                OtlpProtocol.HTTP
+            }
+        }
+    }
+
+    // parsing the self-report interval, null if it is not set or not positive in which case stats are only read on demand
+    private fun parseStatsReportInterval(otlpExporterConfig: ReadableMap): Long? {
+        if (!otlpExporterConfig.hasKey("statsReportIntervalMs")) {
+            return null
         }
 
-        return OtlpExporterConfig(traceExporter = spanExportConfigParsed, logExporter = logExportConfigParsed)
+        val interval = otlpExporterConfig.getDouble("statsReportIntervalMs").toLong()
+        if (interval <= 0) {
+            log.warning("Invalid `statsReportIntervalMs` `$interval`, stats will not be reported.")
+            return null
+        }
+        return interval
     }
 
-    // Traces
-    private fun setOtlpHttpTraceExporter(endpoint: String, headers: List<HeaderConfig>? = emptyList(), timeout: Duration?): OtlpHttpSpanExporter {
-        val otlpHttpSpanExporter = OtlpHttpSpanExporter.builder()
-            .setEndpoint(endpoint)
+    // parsing whether to build the exporters in the background, defaults to false
+    private fun parseDeferSetup(otlpExporterConfig: ReadableMap): Boolean =
+        otlpExporterConfig.hasKey("deferExporterSetup") && otlpExporterConfig.getBoolean("deferExporterSetup")
 
-        if (!headers.isNullOrEmpty()) {
-            for (header in headers) {
-                otlpHttpSpanExporter.addHeader(header.key, header.token)
-            }
+    // parsing the shared HTTP client's tuning, null if it is not set in which case the defaults are used
+    private fun parseHttpClientConfig(otlpExporterConfig: ReadableMap): HttpClientConfig? {
+        val clientConfig = if (otlpExporterConfig.hasKey("httpClient")) otlpExporterConfig.getMap("httpClient") else null
+        if (clientConfig == null) {
+            return null
+        }
+
+        return HttpClientConfig(
+            maxIdleConnections = if (clientConfig.hasKey("maxIdleConnections")) {
+                clientConfig.getInt("maxIdleConnections")
+            } else {
+                DEFAULT_MAX_IDLE_CONNECTIONS
+            },
+            keepAliveMs = if (clientConfig.hasKey("keepAliveMs")) {
+                clientConfig.getDouble("keepAliveMs").toLong()
+            } else {
+                DEFAULT_KEEP_ALIVE_MS
+            },
+            preferHttp2 = if (clientConfig.hasKey("preferHttp2")) {
+                clientConfig.getBoolean("preferHttp2")
+            } else {
+                true
+            },
+            connectTimeoutMs = if (clientConfig.hasKey("connectTimeoutMs")) {
+                clientConfig.getDouble("connectTimeoutMs").toLong()
+            } else {
+                DEFAULT_CONNECT_TIMEOUT_MS
+            },
+            readTimeoutMs = if (clientConfig.hasKey("readTimeoutMs")) {
+                clientConfig.getDouble("readTimeoutMs").toLong()
+            } else {
+                DEFAULT_READ_TIMEOUT_MS
+            },
+        )
+    }
+
+    // parsing the file exporter, null if it is not set. Relative directories are resolved against the app's files
+    // directory
+    private fun parseFileExporterConfig(otlpExporterConfig: ReadableMap): FileExporterConfig? {
+        val fileConfig = if (otlpExporterConfig.hasKey("fileExporter")) otlpExporterConfig.getMap("fileExporter") else null
+        if (fileConfig == null) {
+            return null
+        }
+
+        val directory = (if (fileConfig.hasKey("directory")) fileConfig.getString("directory") else null)
+            ?.takeIf { it.isNotBlank() }
+            ?: FILE_EXPORTER_DIR
+        val format = if (fileConfig.hasKey("format")) fileConfig.getString("format") else null
+
+        return FileExporterConfig(
+            directory = File(directory).takeIf { it.isAbsolute } ?: File(context.filesDir, directory),
+            format = when (format) {
+                null, "ndjson" -> OtlpFileFormat.NDJSON
+                "protobuf" -> OtlpFileFormat.PROTOBUF
+                else -> {
+                    log.warning("Invalid file format `$format`, using ndjson.")
+                    OtlpFileFormat.NDJSON
+                }
+            },
+            maxFileBytes = if (fileConfig.hasKey("maxFileBytes")) {
+                fileConfig.getDouble("maxFileBytes").toLong()
+            } else {
+                DEFAULT_MAX_FILE_BYTES
+            },
+            maxFiles = if (fileConfig.hasKey("maxFiles")) {
+                fileConfig.getInt("maxFiles")
+            } else {
+                DEFAULT_MAX_FILES
+            },
+        )
+    }
+
+    // parsing Readable Map into the real Exporter Config shape, null if there is no endpoint to export to
+    private fun parseExporterConfig(exportConfig: ReadableMap, fanOut: Boolean): ExporterConfig? {
+        val endpoint = exportConfig.getString("endpoint")
+        if (endpoint.isNullOrBlank()) {
+            return null
         }
 
-        if (timeout != null) {
-            otlpHttpSpanExporter.setTimeout(timeout)
+        val headers = exportConfig.getArray("headers")?.let {
+            parseHeaders(it)
+        } ?: emptyList()
+
+        var timeout: Duration? = null
+        if (exportConfig.hasKey("timeout")) {
+            timeout = parseTimeout(exportConfig.getDouble("timeout"))
         }
 
-        return otlpHttpSpanExporter.build()
+        // Endpoints fanned out to are always isolated from one another
+        var maxPendingItems: Int? = if (fanOut) DEFAULT_MAX_PENDING_ITEMS else null
+        if (exportConfig.hasKey("maxPendingItems")) {
+            maxPendingItems = exportConfig.getInt("maxPendingItems")
+        }
+
+        return ExporterConfig(
+            endpoint = endpoint,
+            headers = headers,
+            timeout = timeout,
+            batch = parseBatchConfig(exportConfig),
+            compression = parseCompression(exportConfig),
+            encoding = parseEncoding(exportConfig),
+            spool = parseSpoolConfig(exportConfig),
+            retry = parseRetryConfig(exportConfig),
+            maxPendingItems = maxPendingItems,
+        )
     }
 
-    // Logs
-    private fun setOtlpHttpLogExporter(endpoint: String, headers: List<HeaderConfig>? = emptyList(), timeout: Duration?): OtlpHttpLogRecordExporter {
-        val otlpHttpLogExporter = OtlpHttpLogRecordExporter.builder()
-            .setEndpoint(endpoint)
+    // parsing an exporter entry, either a single config or an array of them to fan out to several endpoints
+    private fun parseExporterConfigs(otlpExporterConfig: ReadableMap, key: String): List<ExporterConfig> {
+        if (!otlpExporterConfig.hasKey(key) || otlpExporterConfig.isNull(key)) {
+            return emptyList()
+        }
 
-        if (!headers.isNullOrEmpty()) {
-            for (header in headers) {
-                otlpHttpLogExporter.addHeader(header.key, header.token)
+        return when (otlpExporterConfig.getType(key)) {
+            ReadableType.Map -> listOfNotNull(otlpExporterConfig.getMap(key)?.let { parseExporterConfig(it, false) })
+            ReadableType.Array -> {
+                val exportConfigs = otlpExporterConfig.getArray(key) ?: return emptyList()
+                (0 until exportConfigs.size()).mapNotNull { i ->
+                    exportConfigs.getMap(i)?.let { parseExporterConfig(it, true) }
+                }
+            }
+            else -> {
+                log.warning("Invalid `$key`, expected an object or an array of objects.")
+                emptyList()
             }
         }
+    }
 
-        if (timeout != null) {
-            otlpHttpLogExporter.setTimeout(timeout)
+    // Replaying spooled requests resends their encoded bodies, which the gRPC exporters from opentelemetry-java have no
+    // way of doing, so the spool is only available over http
+    private fun createSpooler(
+        config: ExporterConfig,
+        protocol: OtlpProtocol,
+        spoolName: String,
+        client: OkHttpClient?
+    ): ExportSpooler? {
+        val spoolConfig = config.spool ?: return null
+        if (protocol != OtlpProtocol.HTTP) {
+            log.warning("The offline spool is not supported over gRPC, failed exports to ${config.endpoint} will be dropped.")
+            return null
         }
 
-        return otlpHttpLogExporter.build()
+        val sender = OtlpExporters.httpSender(config, log, client ?: OtlpHttpClients.default)
+        val dir = File(File(context.filesDir, SPOOL_DIR), spoolName)
+        return ExportSpooler(DiskSpool(dir, spoolConfig, log = log), sender, log)
     }
 
-    private fun setHttpExporters(httpConfig: OtlpExporterConfig) {
-        val spanConfig = httpConfig.traceExporter
-        val logConfig = httpConfig.logExporter
+    // Each endpoint gets its own spool, the first keeps the directory used before fanning out was supported
+    private fun spoolName(signal: String, index: Int) = if (index == 0) signal else "$signal-$index"
+
+    // Traces, the network exporter is metered and then wrapped by whichever of the spool, batching and worker are set
+    private fun buildSpanExporter(
+        spanConfig: ExporterConfig,
+        index: Int,
+        protocol: OtlpProtocol,
+        client: OkHttpClient?
+    ): SpanExporter {
+        val pipeline = ExportPipeline("traces", spanConfig.endpoint)
+        val networkExporter = OtlpExporters.spanExporter(spanConfig, protocol, log, client)
+        var spanCustomExporter: SpanExporter = MeteringSpanExporter(networkExporter, pipeline.meter)
+        val spooler = createSpooler(spanConfig, protocol, spoolName("traces", index), client)
+        spooler?.let {
+            spanCustomExporter = SpoolingSpanExporter(spanCustomExporter, it)
+            pipeline.spoolStats = it::stats
+        }
+        spanConfig.batch?.let {
+            val batching = BatchingSpanExporter(spanCustomExporter, it)
+            pipeline.batcherStats = batching::stats
+            spanCustomExporter = batching
+        }
+        spanConfig.maxPendingItems?.let {
+            val isolated = IsolatedSpanExporter(spanCustomExporter, spanConfig.endpoint, it)
+            pipeline.workerStats = isolated::stats
+            spanCustomExporter = isolated
+        }
+        (networkExporter as? OtlpSenderSpanExporter)?.let { sender ->
+            pipeline.bytesSent = { sender.bytesSent() + (spooler?.bytesSent() ?: 0L) }
+            pipeline.retryStats = sender::retryStats
+        }
+        pipelines.add(pipeline)
+        return spanCustomExporter
+    }
 
-        if (spanConfig != null && spanConfig.endpoint.isNotBlank()) {
-            val spanCustomExporter = setOtlpHttpTraceExporter(spanConfig.endpoint, spanConfig.headers, spanConfig.timeout)
-            Embrace.addJavaSpanExporter(spanCustomExporter)
+    // Logs, wrapped the same way as traces
+    private fun buildLogExporter(
+        logConfig: ExporterConfig,
+        index: Int,
+        protocol: OtlpProtocol,
+        client: OkHttpClient?
+    ): LogRecordExporter {
+        val pipeline = ExportPipeline("logs", logConfig.endpoint)
+        val networkExporter = OtlpExporters.logExporter(logConfig, protocol, log, client)
+        var logCustomExporter: LogRecordExporter = MeteringLogRecordExporter(networkExporter, pipeline.meter)
+        val spooler = createSpooler(logConfig, protocol, spoolName("logs", index), client)
+        spooler?.let {
+            logCustomExporter = SpoolingLogRecordExporter(logCustomExporter, it)
+            pipeline.spoolStats = it::stats
+        }
+        logConfig.batch?.let {
+            val batching = BatchingLogRecordExporter(logCustomExporter, it)
+            pipeline.batcherStats = batching::stats
+            logCustomExporter = batching
+        }
+        logConfig.maxPendingItems?.let {
+            val isolated = IsolatedLogRecordExporter(logCustomExporter, logConfig.endpoint, it)
+            pipeline.workerStats = isolated::stats
+            logCustomExporter = isolated
+        }
+        (networkExporter as? OtlpSenderLogRecordExporter)?.let { sender ->
+            pipeline.bytesSent = { sender.bytesSent() + (spooler?.bytesSent() ?: 0L) }
+            pipeline.retryStats = sender::retryStats
         }
+        pipelines.add(pipeline)
+        return logCustomExporter
+    }
 
-        if (logConfig != null && logConfig.endpoint.isNotBlank()) {
-            val logCustomExporter = setOtlpHttpLogExporter(logConfig.endpoint, logConfig.headers, logConfig.timeout)
-            Embrace.addJavaLogRecordExporter(logCustomExporter)
+    private fun setExporters(exporterConfig: OtlpExporterConfig) {
+        // One client for every endpoint and signal so that they all draw from the same connection pool, created by
+        // whichever exporter is built first. Null falls back to OtlpHttpClients.default, which is shared the same way
+        val client by lazy {
+            exporterConfig.httpClient?.let { OtlpHttpClients.create(it) }
+        }
+        if (exporterConfig.httpClient != null && exporterConfig.protocol == OtlpProtocol.GRPC) {
+            log.warning("`httpClient` is not supported over gRPC and will be ignored.")
+        }
+
+        if (exporterConfig.deferSetup) {
+            // Embrace only needs something to register before it starts, the exporters themselves are built one after
+            // the other in the background, in the order they were configured
+            val setupExecutor = Executors.newSingleThreadExecutor { runnable ->
+                Thread(runnable, "embrace-otlp-setup").apply { isDaemon = true }
+            }
+            val setups = mutableListOf<CompletableResultCode>()
+
+            exporterConfig.traceExporters.forEachIndexed { i, spanConfig ->
+                val deferred = DeferredSpanExporter(
+                    { buildSpanExporter(spanConfig, i, exporterConfig.protocol, client) },
+                    setupExecutor,
+                    log = log
+                )
+                setups.add(deferred.ready)
+                Embrace.addJavaSpanExporter(deferred)
+            }
+            exporterConfig.logExporters.forEachIndexed { i, logConfig ->
+                val deferred = DeferredLogRecordExporter(
+                    { buildLogExporter(logConfig, i, exporterConfig.protocol, client) },
+                    setupExecutor,
+                    log = log
+                )
+                setups.add(deferred.ready)
+                Embrace.addJavaLogRecordExporter(deferred)
+            }
+
+            setupExecutor.shutdown()
+            exporterSetup = CompletableResultCode.ofAll(setups)
+        } else {
+            exporterConfig.traceExporters.forEachIndexed { i, spanConfig ->
+                Embrace.addJavaSpanExporter(buildSpanExporter(spanConfig, i, exporterConfig.protocol, client))
+            }
+            exporterConfig.logExporters.forEachIndexed { i, logConfig ->
+                Embrace.addJavaLogRecordExporter(buildLogExporter(logConfig, i, exporterConfig.protocol, client))
+            }
+        }
+
+        exporterConfig.fileExporter?.let {
+            Embrace.addJavaSpanExporter(
+                OtlpFileSpanExporter(OtlpFileWriter(it.directory, "traces", it.format, it.maxFileBytes, it.maxFiles, log))
+            )
+            Embrace.addJavaLogRecordExporter(
+                OtlpFileLogRecordExporter(OtlpFileWriter(it.directory, "logs", it.format, it.maxFileBytes, it.maxFiles, log))
+            )
+        }
+    }
+
+    // Each report is itself a log that goes out through the log exporters, one per exporter per interval
+    private fun startStatsReport(intervalMs: Long) {
+        if (statsReporter != null) {
+            return
+        }
+
+        statsReporter = Executors.newSingleThreadScheduledExecutor { runnable ->
+            Thread(runnable, "embrace-otlp-stats").apply { isDaemon = true }
+        }.apply {
+            scheduleWithFixedDelay({
+                try {
+                    for (stats in exporterStats()) {
+                        Embrace.logMessage("OTLP export stats", Severity.INFO, stats.toMap())
+                    }
+                } catch (e: RuntimeException) {
+                    log.warning("Failed to report export stats: ${e.message}")
+                }
+            }, intervalMs, intervalMs, TimeUnit.MILLISECONDS)
+        }
+    }
+
+    /**
+     * Completes once the exporters set up by startNativeEmbraceSDK have been built, fails if any of them could not be
+     */
+    fun exporterSetup(): CompletableResultCode = exporterSetup
+
+    /**
+     * Stats for each trace and log exporter built so far, empty if there are none
+     */
+    fun exporterStats(): List<ExportPipelineStats> = pipelines.map { it.stats() }
+
+    // Waits on the exporters being built so that none of them are missing from the stats, rejects if any of them could
+    // not be
+    @ReactMethod
+    fun getExporterStats(promise: Promise) {
+        val setup = exporterSetup
+        setup.whenComplete {
+            try {
+                if (!setup.isSuccess) {
+                    promise.reject("GET_EXPORTER_STATS_ERROR", "Error setting up the OTLP exporters", setup.failureThrowable)
+                    return@whenComplete
+                }
+
+                val result = Arguments.createArray()
+                for (stats in exporterStats()) {
+                    val map = Arguments.createMap()
+                    for ((key, value) in stats.toMap()) {
+                        when (value) {
+                            is String -> map.putString(key, value)
+                            is Long -> map.putDouble(key, value.toDouble())
+                        }
+                    }
+                    result.pushMap(map)
+                }
+                promise.resolve(result)
+            } catch (e: RuntimeException) {
+                promise.reject("GET_EXPORTER_STATS_ERROR", "Error getting the OTLP exporter stats", e)
+            }
         }
     }
 
@@ -169,11 +607,25 @@ class RNEmbraceOTLPModule(reactContext: ReactApplicationContext) : ReactContextB
         try {
             // 1) Initialize custom export if there is config
             if (otlpExporterConfig != null) {
-                val spanExportConfig = otlpExporterConfig.getMap("traceExporter")
-                val logExportConfig = otlpExporterConfig.getMap("logExporter")
-
-                if (spanExportConfig != null || logExportConfig != null) {
-                    setHttpExporters(parseExportConfig(spanExportConfig, logExportConfig))
+                val parsedConfig = OtlpExporterConfig(
+                    traceExporters = parseExporterConfigs(otlpExporterConfig, "traceExporter"),
+                    logExporters = parseExporterConfigs(otlpExporterConfig, "logExporter"),
+                    protocol = parseProtocol(otlpExporterConfig),
+                    fileExporter = parseFileExporterConfig(otlpExporterConfig),
+                    httpClient = parseHttpClientConfig(otlpExporterConfig),
+                    statsReportIntervalMs = parseStatsReportInterval(otlpExporterConfig),
+                    deferSetup = parseDeferSetup(otlpExporterConfig),
+                )
+
+                if (
+                    parsedConfig.traceExporters.isNotEmpty() ||
+                    parsedConfig.logExporters.isNotEmpty() ||
+                    parsedConfig.fileExporter != null
+                ) {
+                    setExporters(parsedConfig)
+                    if (parsedConfig.traceExporters.isNotEmpty() || parsedConfig.logExporters.isNotEmpty()) {
+                        parsedConfig.statsReportIntervalMs?.let { startStatsReport(it) }
+                    }
                 } else {
                     log.info("Neither Traces nor Logs configuration were found, skipping custom export.")
                 }
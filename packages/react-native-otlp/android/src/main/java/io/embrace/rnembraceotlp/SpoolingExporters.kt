@@ -0,0 +1,128 @@
+package io.embrace.rnembraceotlp
+
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.logging.Logger
+
+import io.opentelemetry.sdk.common.CompletableResultCode
+import io.opentelemetry.sdk.logs.data.LogRecordData
+import io.opentelemetry.sdk.logs.export.LogRecordExporter
+import io.opentelemetry.sdk.trace.data.SpanData
+import io.opentelemetry.sdk.trace.export.SpanExporter
+
+// Upper bound on waiting for a replayed request, the sender's own timeout normally kicks in well before
+private const val REPLAY_TIMEOUT_SECONDS = 60L
+
+/**
+ * Keeps requests that failed to export in a DiskSpool and replays them through `sender` once an export succeeds again,
+ * and once when created to pick up anything left over from a previous run. Only the failures of exports sent through an
+ * OtlpHttpSender are told apart, so the exporter being wrapped should be one of OtlpSenderSpanExporter and
+ * OtlpSenderLogRecordExporter
+ */
+class ExportSpooler(
+    private val spool: DiskSpool,
+    private val sender: OtlpHttpSender,
+    private val log: Logger = Logger.getLogger("[Embrace]")
+) {
+    private val replaying = AtomicBoolean(false)
+    private val executor: ExecutorService = Executors.newSingleThreadExecutor { runnable ->
+        Thread(runnable, "embrace-otlp-spool").apply { isDaemon = true }
+    }
+
+    init {
+        replay()
+    }
+
+    /**
+     * Resolves once `exported` has, spooling the request built by `encode` if it failed in a way that could succeed
+     * later, see isRetryableFailure. Succeeds when the request was either sent or stored to be replayed later, requests
+     * that were rejected outright are not spooled since replaying them would only be rejected again
+     */
+    fun export(exported: CompletableResultCode, encode: (OtlpHttpSender) -> ByteArray): CompletableResultCode {
+        val result = CompletableResultCode()
+        exported.whenComplete {
+            if (exported.isSuccess) {
+                replay()
+                result.succeed()
+            } else if (isRetryableFailure(exported) && spool.append(encode(sender))) {
+                result.succeed()
+            } else {
+                result.fail()
+            }
+        }
+        return result
+    }
+
+    private fun replay() {
+        if (executor.isShutdown || !replaying.compareAndSet(false, true)) {
+            return
+        }
+
+        executor.execute {
+            try {
+                val sent = spool.replay { body ->
+                    val replayed = sender.sendEncoded(body).join(REPLAY_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    when {
+                        replayed.isSuccess -> ReplayResult.SENT
+                        // Still in flight past the timeout counts as a failure to retry later
+                        !replayed.isDone || isRetryableFailure(replayed) -> ReplayResult.RETRY_LATER
+                        else -> ReplayResult.REJECTED
+                    }
+                }
+                if (sent > 0) {
+                    log.info("Replayed $sent spooled export(s).")
+                }
+            } finally {
+                replaying.set(false)
+            }
+        }
+    }
+
+    fun stats(): DiskSpoolStats = spool.stats()
+
+    fun bytesSent(): Long = sender.bytesSent()
+
+    fun shutdown(): CompletableResultCode {
+        executor.shutdown()
+        spool.close()
+        return sender.shutdown()
+    }
+}
+
+/**
+ * Wraps a SpanExporter so that batches it fails to send are spooled to disk and replayed later, see ExportSpooler
+ */
+class SpoolingSpanExporter(
+    private val delegate: SpanExporter,
+    private val spooler: ExportSpooler
+) : SpanExporter {
+    override fun export(spans: Collection<SpanData>): CompletableResultCode =
+        spooler.export(delegate.export(spans)) { it.encodeSpans(spans) }
+
+    override fun flush(): CompletableResultCode = delegate.flush()
+
+    override fun shutdown(): CompletableResultCode {
+        spooler.shutdown()
+        return delegate.shutdown()
+    }
+}
+
+/**
+ * Wraps a LogRecordExporter so that batches it fails to send are spooled to disk and replayed later, see ExportSpooler
+ */
+class SpoolingLogRecordExporter(
+    private val delegate: LogRecordExporter,
+    private val spooler: ExportSpooler
+) : LogRecordExporter {
+    override fun export(logs: Collection<LogRecordData>): CompletableResultCode =
+        spooler.export(delegate.export(logs)) { it.encodeLogs(logs) }
+
+    override fun flush(): CompletableResultCode = delegate.flush()
+
+    override fun shutdown(): CompletableResultCode {
+        spooler.shutdown()
+        return delegate.shutdown()
+    }
+}
@@ -1,7 +1,11 @@
 import {Platform, NativeModules} from "react-native";
 
 import {SDKConfig} from "../interfaces";
-import {initialize, type OTLPExporterConfig} from "../index";
+import {
+  getExporterStats,
+  initialize,
+  type OTLPExporterConfig,
+} from "../index";
 
 const IOS_SDK_BASE_CONFIG = {
   ios: {
@@ -10,6 +14,7 @@ const IOS_SDK_BASE_CONFIG = {
 };
 
 const mockStartNativeEmbraceSDK = jest.fn().mockResolvedValue(true);
+const mockGetExporterStats = jest.fn();
 jest.mock("react-native", () => ({
   NativeModules: {
     RNEmbraceOTLP: {
@@ -17,6 +22,7 @@ jest.mock("react-native", () => ({
         sdkConfig: SDKConfig["ios"] | NonNullable<object>,
         otlpConfig: OTLPExporterConfig,
       ) => mockStartNativeEmbraceSDK(sdkConfig, otlpConfig),
+      getExporterStats: () => mockGetExporterStats(),
     },
   },
   Platform: {
@@ -103,6 +109,110 @@ describe("React Native OTLP", () => {
         otlpExporterConfig,
       );
     });
+
+    it("with only the first exporter if it receives several on iOS", async () => {
+      const mockConsoleWarn = jest
+        .spyOn(console, "warn")
+        .mockImplementation(a => a);
+      const ownCollector = {endpoint: "https://example.com/traces/v1"};
+      const vendor = {endpoint: "https://vendor.example.com/traces/v1"};
+
+      const customInitCallback = initialize({
+        traceExporter: [ownCollector, vendor],
+      });
+      await customInitCallback(IOS_SDK_BASE_CONFIG);
+
+      expect(mockStartNativeEmbraceSDK).toHaveBeenCalledWith(
+        IOS_SDK_BASE_CONFIG,
+        {traceExporter: ownCollector},
+      );
+      expect(mockConsoleWarn).toHaveBeenCalledWith(
+        "[Embrace] Exporting to multiple endpoints is not supported on iOS, only the first one will be used",
+      );
+    });
+
+    it("and warn that the file exporter is ignored on iOS", async () => {
+      const mockConsoleWarn = jest
+        .spyOn(console, "warn")
+        .mockImplementation(a => a);
+      const otlpExporterConfig = {
+        fileExporter: {format: "protobuf" as const},
+      };
+
+      const customInitCallback = initialize(otlpExporterConfig);
+      await customInitCallback(IOS_SDK_BASE_CONFIG);
+
+      expect(mockStartNativeEmbraceSDK).toHaveBeenCalledWith(
+        IOS_SDK_BASE_CONFIG,
+        otlpExporterConfig,
+      );
+      expect(mockConsoleWarn).toHaveBeenCalledWith(
+        "[Embrace] `fileExporter` is not supported on iOS and will be ignored",
+      );
+    });
+
+    it("and warn that the stats report is ignored on iOS", async () => {
+      const mockConsoleWarn = jest
+        .spyOn(console, "warn")
+        .mockImplementation(a => a);
+      const otlpExporterConfig = {
+        traceExporter: {endpoint: "https://example.com/traces/v1"},
+        statsReportIntervalMs: 60000,
+      };
+
+      const customInitCallback = initialize(otlpExporterConfig);
+      await customInitCallback(IOS_SDK_BASE_CONFIG);
+
+      expect(mockStartNativeEmbraceSDK).toHaveBeenCalledWith(
+        IOS_SDK_BASE_CONFIG,
+        otlpExporterConfig,
+      );
+      expect(mockConsoleWarn).toHaveBeenCalledWith(
+        "[Embrace] `statsReportIntervalMs` is not supported on iOS and will be ignored",
+      );
+    });
+
+    it("and warn that the http client tuning is ignored on iOS", async () => {
+      const mockConsoleWarn = jest
+        .spyOn(console, "warn")
+        .mockImplementation(a => a);
+      const otlpExporterConfig = {
+        traceExporter: {endpoint: "https://example.com/traces/v1"},
+        httpClient: {maxIdleConnections: 2},
+      };
+
+      const customInitCallback = initialize(otlpExporterConfig);
+      await customInitCallback(IOS_SDK_BASE_CONFIG);
+
+      expect(mockStartNativeEmbraceSDK).toHaveBeenCalledWith(
+        IOS_SDK_BASE_CONFIG,
+        otlpExporterConfig,
+      );
+      expect(mockConsoleWarn).toHaveBeenCalledWith(
+        "[Embrace] `httpClient` is not supported on iOS and will be ignored",
+      );
+    });
+
+    it("and warn that deferring the exporter setup is ignored on iOS", async () => {
+      const mockConsoleWarn = jest
+        .spyOn(console, "warn")
+        .mockImplementation(a => a);
+      const otlpExporterConfig = {
+        traceExporter: {endpoint: "https://example.com/traces/v1"},
+        deferExporterSetup: false,
+      };
+
+      const customInitCallback = initialize(otlpExporterConfig);
+      await customInitCallback(IOS_SDK_BASE_CONFIG);
+
+      expect(mockStartNativeEmbraceSDK).toHaveBeenCalledWith(
+        IOS_SDK_BASE_CONFIG,
+        otlpExporterConfig,
+      );
+      expect(mockConsoleWarn).toHaveBeenCalledWith(
+        "[Embrace] `deferExporterSetup` is not supported on iOS and will be ignored",
+      );
+    });
   });
 
   describe("should call `startNativeEmbraceSDK` (Android specific)", () => {
@@ -136,6 +246,152 @@ describe("React Native OTLP", () => {
         otlpExporterConfig,
       );
     });
+
+    it("if it receives the grpc protocol", async () => {
+      const otlpExporterConfig = {
+        protocol: "grpc" as const,
+        traceExporter: {
+          endpoint: "https://example.com:4317",
+          compression: "gzip" as const,
+        },
+      };
+
+      const customInitCallback = initialize(otlpExporterConfig);
+      await customInitCallback({});
+
+      expect(mockStartNativeEmbraceSDK).toHaveBeenCalledWith(
+        {},
+        otlpExporterConfig,
+      );
+    });
+
+    it("if it receives batching configuration", async () => {
+      const otlpExporterConfig = {
+        traceExporter: {
+          endpoint: "https://example.com/traces/v1",
+          maxExportBatchSize: 100,
+          maxQueueSize: 1000,
+          scheduleDelayMs: 2000,
+          maxConcurrentExports: 2,
+        },
+      };
+
+      const customInitCallback = initialize(otlpExporterConfig);
+      await customInitCallback({});
+
+      expect(mockStartNativeEmbraceSDK).toHaveBeenCalledWith(
+        {},
+        otlpExporterConfig,
+      );
+    });
+
+    it("if it receives retry configuration", async () => {
+      const otlpExporterConfig = {
+        traceExporter: {
+          endpoint: "https://example.com/traces/v1",
+          retry: {
+            maxAttempts: 3,
+            initialBackoffMs: 500,
+            maxBackoffMs: 10000,
+            backoffMultiplier: 2,
+            jitter: 0.5,
+            retryableStatusCodes: [429, 503],
+          },
+        },
+      };
+
+      const customInitCallback = initialize(otlpExporterConfig);
+      await customInitCallback({});
+
+      expect(mockStartNativeEmbraceSDK).toHaveBeenCalledWith(
+        {},
+        otlpExporterConfig,
+      );
+    });
+
+    it("if it receives several exporters to fan out to", async () => {
+      const otlpExporterConfig = {
+        traceExporter: [
+          {endpoint: "https://example.com/traces/v1"},
+          {
+            endpoint: "https://vendor.example.com/traces/v1",
+            headers: [{key: "Authorization", token: "Bearer token"}],
+            maxPendingItems: 500,
+          },
+        ],
+        logExporter: [{endpoint: "https://example.com/logs/v1"}],
+      };
+
+      const customInitCallback = initialize(otlpExporterConfig);
+      await customInitCallback({});
+
+      expect(mockStartNativeEmbraceSDK).toHaveBeenCalledWith(
+        {},
+        otlpExporterConfig,
+      );
+    });
+
+    it("if it receives http client configuration", async () => {
+      const otlpExporterConfig = {
+        traceExporter: {endpoint: "https://example.com/traces/v1"},
+        logExporter: {endpoint: "https://example.com/logs/v1"},
+        httpClient: {
+          maxIdleConnections: 2,
+          keepAliveMs: 60000,
+          preferHttp2: false,
+          connectTimeoutMs: 5000,
+          readTimeoutMs: 15000,
+        },
+      };
+
+      const customInitCallback = initialize(otlpExporterConfig);
+      await customInitCallback({});
+
+      expect(mockStartNativeEmbraceSDK).toHaveBeenCalledWith(
+        {},
+        otlpExporterConfig,
+      );
+    });
+
+    it("if it receives file exporter configuration", async () => {
+      const otlpExporterConfig = {
+        traceExporter: {endpoint: "https://example.com/traces/v1"},
+        fileExporter: {
+          directory: "otlp-capture",
+          format: "ndjson" as const,
+          maxFileBytes: 1024 * 1024,
+          maxFiles: 5,
+        },
+      };
+
+      const customInitCallback = initialize(otlpExporterConfig);
+      await customInitCallback({});
+
+      expect(mockStartNativeEmbraceSDK).toHaveBeenCalledWith(
+        {},
+        otlpExporterConfig,
+      );
+    });
+
+    it("if it receives offline spool configuration", async () => {
+      const otlpExporterConfig = {
+        logExporter: {
+          endpoint: "https://example.com/logs/v1",
+          offlineSpool: {
+            maxBytes: 1024 * 1024,
+            maxAgeMs: 60 * 60 * 1000,
+          },
+        },
+      };
+
+      const customInitCallback = initialize(otlpExporterConfig);
+      await customInitCallback({});
+
+      expect(mockStartNativeEmbraceSDK).toHaveBeenCalledWith(
+        {},
+        otlpExporterConfig,
+      );
+    });
   });
 
   // should NOT call
@@ -144,6 +400,21 @@ describe("React Native OTLP", () => {
       .spyOn(console, "warn")
       .mockImplementation(a => a);
 
+    it("if one of several exporters is invalid", async () => {
+      const customInitCallback = initialize({
+        traceExporter: [
+          {endpoint: "https://example.com/traces/v1"},
+          {endpoint: ""},
+        ],
+      });
+      await customInitCallback(IOS_SDK_BASE_CONFIG);
+
+      expect(mockStartNativeEmbraceSDK).not.toHaveBeenCalled();
+      expect(mockConsoleWarn).toHaveBeenCalledWith(
+        "[Embrace] Invalid endpoint for Custom Exporter",
+      );
+    });
+
     it("if configuration is missing", async () => {
       // @ts-expect-error (testing invalid configuration)
       const customInitCallback = initialize(undefined);
@@ -371,6 +642,42 @@ describe("React Native OTLP", () => {
     });
   });
 
+  describe("getExporterStats", () => {
+    it("should return the stats collected by the Native layer on Android", async () => {
+      Platform.OS = "android";
+      const stats = [
+        {
+          signal: "traces",
+          endpoint: "https://example.com/traces/v1",
+          batchesSent: 3,
+          itemsSent: 120,
+          failedBatches: 1,
+          failedItems: 40,
+          bytesSent: 20480,
+          retries: 2,
+          queueDepth: 10,
+          dropped: 0,
+          spooledRecords: 1,
+          latencyP50Ms: 100,
+          latencyP90Ms: 250,
+          latencyP99Ms: 1000,
+          latencyMaxMs: 870,
+        },
+      ];
+      mockGetExporterStats.mockResolvedValue(stats);
+
+      expect(await getExporterStats()).toEqual(stats);
+      expect(mockGetExporterStats).toHaveBeenCalledTimes(1);
+    });
+
+    it("should return no stats on iOS", async () => {
+      Platform.OS = "ios";
+
+      expect(await getExporterStats()).toEqual([]);
+      expect(mockGetExporterStats).not.toHaveBeenCalled();
+    });
+  });
+
   describe("should throw and reject", () => {
     beforeAll(() => {
       NativeModules.RNEmbraceOTLP.startNativeEmbraceSDK = jest
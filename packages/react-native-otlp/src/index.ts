@@ -1,7 +1,13 @@
 "use strict";
-import {NativeModules} from "react-native";
+import {NativeModules, Platform} from "react-native";
 
-import {AndroidConfig, IOSConfig, OTLPExporterConfig} from "./interfaces";
+import {
+  AndroidConfig,
+  ExporterConfig,
+  ExporterStats,
+  IOSConfig,
+  OTLPExporterConfig,
+} from "./interfaces";
 
 const noOp = async (_: IOSConfig | AndroidConfig) => {};
 
@@ -12,6 +18,57 @@ const WARN_MESSAGES = {
   endpoint: "[Embrace] Invalid endpoint for Custom Exporter",
   header: "[Embrace] Invalid header for Custom Exporter",
   error: "[Embrace] Failed to configure Custom Exporter",
+  fanOut:
+    "[Embrace] Exporting to multiple endpoints is not supported on iOS, only the first one will be used",
+  fileExporter:
+    "[Embrace] `fileExporter` is not supported on iOS and will be ignored",
+  httpClient:
+    "[Embrace] `httpClient` is not supported on iOS and will be ignored",
+  statsReportIntervalMs:
+    "[Embrace] `statsReportIntervalMs` is not supported on iOS and will be ignored",
+  deferExporterSetup:
+    "[Embrace] `deferExporterSetup` is not supported on iOS and will be ignored",
+};
+
+const isValidExporter = (exporter: ExporterConfig, invalidMessage: string) => {
+  if (typeof exporter !== "object" || Array.isArray(exporter)) {
+    console.warn(invalidMessage);
+    return false;
+  }
+
+  const {endpoint, headers} = exporter;
+
+  if (!endpoint || typeof endpoint !== "string") {
+    console.warn(WARN_MESSAGES.endpoint);
+    return false;
+  }
+
+  if (headers && !Array.isArray(headers)) {
+    console.warn(WARN_MESSAGES.header);
+    return false;
+  }
+
+  return true;
+};
+
+const isValidExporters = (
+  exporters: ExporterConfig | ExporterConfig[],
+  invalidMessage: string,
+) =>
+  Array.isArray(exporters)
+    ? exporters.every(exporter => isValidExporter(exporter, invalidMessage))
+    : isValidExporter(exporters, invalidMessage);
+
+// iOS sends to a single endpoint per signal
+const firstExporter = (exporters?: ExporterConfig | ExporterConfig[]) => {
+  if (!Array.isArray(exporters)) {
+    return exporters;
+  }
+
+  if (exporters.length > 1) {
+    console.warn(WARN_MESSAGES.fanOut);
+  }
+  return exporters[0];
 };
 
 const initialize = (otlpExporterConfig: OTLPExporterConfig) => {
@@ -24,47 +81,51 @@ const initialize = (otlpExporterConfig: OTLPExporterConfig) => {
     return noOp;
   }
 
-  if (otlpExporterConfig.logExporter) {
-    const {logExporter} = otlpExporterConfig;
-
-    if (typeof logExporter !== "object" && !Array.isArray(logExporter)) {
-      console.warn(WARN_MESSAGES.logs);
-      return noOp;
-    }
-
-    const {endpoint: logEndpoint, headers: logHeaders} = logExporter;
+  if (
+    otlpExporterConfig.logExporter &&
+    !isValidExporters(otlpExporterConfig.logExporter, WARN_MESSAGES.logs)
+  ) {
+    return noOp;
+  }
 
-    if (!logEndpoint || typeof logEndpoint !== "string") {
-      console.warn(WARN_MESSAGES.endpoint);
-      return noOp;
-    }
+  if (
+    otlpExporterConfig.traceExporter &&
+    !isValidExporters(otlpExporterConfig.traceExporter, WARN_MESSAGES.traces)
+  ) {
+    return noOp;
+  }
 
-    if (logHeaders && !Array.isArray(logHeaders)) {
-      console.warn(WARN_MESSAGES.header);
-      return noOp;
-    }
+  if (Platform.OS === "ios" && otlpExporterConfig.fileExporter) {
+    console.warn(WARN_MESSAGES.fileExporter);
   }
 
-  if (otlpExporterConfig.traceExporter) {
-    const {traceExporter} = otlpExporterConfig;
+  if (Platform.OS === "ios" && otlpExporterConfig.httpClient) {
+    console.warn(WARN_MESSAGES.httpClient);
+  }
 
-    if (typeof traceExporter !== "object" && !Array.isArray(traceExporter)) {
-      console.warn(WARN_MESSAGES.traces);
-      return noOp;
-    }
+  if (Platform.OS === "ios" && otlpExporterConfig.statsReportIntervalMs) {
+    console.warn(WARN_MESSAGES.statsReportIntervalMs);
+  }
 
-    const {endpoint: traceEndpoint, headers: traceHeaders} = traceExporter;
+  if (
+    Platform.OS === "ios" &&
+    otlpExporterConfig.deferExporterSetup !== undefined
+  ) {
+    console.warn(WARN_MESSAGES.deferExporterSetup);
+  }
 
-    if (!traceEndpoint || typeof traceEndpoint !== "string") {
-      console.warn(WARN_MESSAGES.endpoint);
-      return noOp;
-    }
+  const fansOut =
+    Array.isArray(otlpExporterConfig.logExporter) ||
+    Array.isArray(otlpExporterConfig.traceExporter);
 
-    if (traceHeaders && !Array.isArray(traceHeaders)) {
-      console.warn(WARN_MESSAGES.header);
-      return noOp;
-    }
-  }
+  const nativeConfig =
+    Platform.OS === "ios" && fansOut
+      ? {
+          ...otlpExporterConfig,
+          logExporter: firstExporter(otlpExporterConfig.logExporter),
+          traceExporter: firstExporter(otlpExporterConfig.traceExporter),
+        }
+      : otlpExporterConfig;
 
   return async (sdkConfig: IOSConfig | AndroidConfig) => {
     try {
@@ -72,7 +133,7 @@ const initialize = (otlpExporterConfig: OTLPExporterConfig) => {
       // if an error occurs, the main package will print the proper errors
       return await NativeModules.RNEmbraceOTLP.startNativeEmbraceSDK(
         sdkConfig,
-        otlpExporterConfig,
+        nativeConfig,
       );
     } catch (_) {
       return Promise.reject(WARN_MESSAGES.error);
@@ -80,5 +141,14 @@ const initialize = (otlpExporterConfig: OTLPExporterConfig) => {
   };
 };
 
-export {initialize};
+// Stats are only collected on Android, iOS has nothing to report
+const getExporterStats = async (): Promise<ExporterStats[]> => {
+  if (Platform.OS !== "android") {
+    return [];
+  }
+
+  return await NativeModules.RNEmbraceOTLP.getExporterStats();
+};
+
+export {initialize, getExporterStats};
 export * from "./interfaces";
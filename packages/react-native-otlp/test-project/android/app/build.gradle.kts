@@ -122,6 +122,10 @@ dependencies {
 
     testImplementation("org.robolectric:robolectric:4.15.1")
 
+    // in-process collector stub for the gRPC exporters
+    testImplementation("io.grpc:grpc-netty-shaded:1.68.1")
+    testImplementation("io.grpc:grpc-stub:1.68.1")
+
     androidTestImplementation(libs.androidx.junit)
     androidTestImplementation(libs.androidx.espresso.core)
 
@@ -0,0 +1,87 @@
+package io.embrace.rnembraceotlptest
+
+import com.sun.net.httpserver.HttpServer
+import io.embrace.rnembraceotlp.BatchConfig
+import io.embrace.rnembraceotlp.BatchingSpanExporter
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter
+import io.opentelemetry.sdk.trace.SdkTracerProvider
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor
+import io.opentelemetry.sdk.trace.export.SpanExporter
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Test
+import java.net.InetSocketAddress
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+private const val SPAN_COUNT = 1000
+private const val BATCH_SIZE = 100
+private const val TIMEOUT_SECONDS = 30L
+
+/**
+ * Sends spans through the OTLP HTTP exporter to a stub receiver on localhost, comparing the number of requests with
+ * and without batching. How long that takes is measured in benchmarks/android, see OtlpBatchingBenchmark.
+ */
+class BatchingExporterRequestsTest {
+    private val requests = AtomicInteger()
+    private lateinit var serverExecutor: ExecutorService
+    private lateinit var server: HttpServer
+
+    @Before
+    fun setUp() {
+        serverExecutor = Executors.newFixedThreadPool(4)
+        server = HttpServer.create(InetSocketAddress("127.0.0.1", 0), 0).apply {
+            createContext("/v1/traces") { exchange ->
+                exchange.requestBody.readBytes()
+                requests.incrementAndGet()
+                exchange.sendResponseHeaders(200, -1)
+                exchange.close()
+            }
+            executor = serverExecutor
+            start()
+        }
+    }
+
+    @After
+    fun tearDown() {
+        server.stop(0)
+        serverExecutor.shutdownNow()
+    }
+
+    private fun otlpExporter(): SpanExporter = OtlpHttpSpanExporter.builder()
+        .setEndpoint("http://127.0.0.1:${server.address.port}/v1/traces")
+        .build()
+
+    /**
+     * Ends spans through a SimpleSpanProcessor, which hands each one to the exporter as it ends the same way Embrace
+     * does with custom exporters, and waits for all of them to reach the receiver
+     */
+    private fun exportSpans(exporter: SpanExporter) {
+        requests.set(0)
+        val provider = SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+            .build()
+        val tracer = provider.get("throughput")
+
+        for (i in 0 until SPAN_COUNT) {
+            tracer.spanBuilder("span-$i").startSpan().end()
+        }
+        provider.forceFlush().join(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        exporter.flush().join(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        provider.shutdown().join(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+    }
+
+    @Test
+    fun batchingReducesRequests() {
+        exportSpans(otlpExporter())
+        assertEquals(SPAN_COUNT, requests.get())
+
+        exportSpans(
+            BatchingSpanExporter(otlpExporter(), BatchConfig(maxExportBatchSize = BATCH_SIZE, scheduleDelayMs = 60_000))
+        )
+        assertEquals(SPAN_COUNT / BATCH_SIZE, requests.get())
+    }
+}
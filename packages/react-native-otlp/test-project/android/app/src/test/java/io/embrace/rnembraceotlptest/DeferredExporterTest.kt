@@ -0,0 +1,208 @@
+package io.embrace.rnembraceotlptest
+
+import io.embrace.rnembraceotlp.BatchConfig
+import io.embrace.rnembraceotlp.BatchingLogRecordExporter
+import io.embrace.rnembraceotlp.BatchingSpanExporter
+import io.embrace.rnembraceotlp.DeferredDelegate
+import io.embrace.rnembraceotlp.DeferredLogRecordExporter
+import io.embrace.rnembraceotlp.DeferredSpanExporter
+import io.embrace.rnembraceotlp.ExporterConfig
+import io.embrace.rnembraceotlp.OtlpExporters
+import io.embrace.rnembraceotlp.OtlpProtocol
+import io.opentelemetry.sdk.common.CompletableResultCode
+import io.opentelemetry.sdk.logs.export.LogRecordExporter
+import io.opentelemetry.sdk.trace.export.SpanExporter
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.logging.Logger
+
+private const val TIMEOUT_SECONDS = 5L
+
+class DeferredExporterTest {
+    private val executor = Executors.newSingleThreadExecutor()
+    private val release = CountDownLatch(1)
+
+    @After
+    fun tearDown() {
+        release.countDown()
+        executor.shutdownNow()
+    }
+
+    /**
+     * Creates a deferred delegate over a list of exported items that only finishes building once `release` is counted
+     * down
+     */
+    private fun gatedDelegate(
+        exported: MutableList<Int>,
+        maxBufferedItems: Int = 100
+    ): DeferredDelegate<MutableList<Int>, Int> = DeferredDelegate(
+        {
+            release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+            exported
+        },
+        executor,
+        maxBufferedItems,
+        { target, items ->
+            target.addAll(items)
+            CompletableResultCode.ofSuccess()
+        }
+    )
+
+    @Test
+    fun holdsExportsUntilBuiltAndKeepsOrder() {
+        val exported = Collections.synchronizedList(mutableListOf<Int>())
+        val deferred = gatedDelegate(exported)
+
+        val results = (0 until 5).map { deferred.export(listOf(it)) }
+        assertEquals(emptyList<Int>(), exported.toList())
+        assertFalse(deferred.ready.isDone)
+        // Held exports only complete once they have been handed over
+        assertFalse(results.any { it.isDone })
+
+        release.countDown()
+        assertTrue(deferred.ready.join(TIMEOUT_SECONDS, TimeUnit.SECONDS).isSuccess)
+        assertTrue(results.all { it.isSuccess })
+        deferred.export(listOf(5))
+
+        assertEquals((0..5).toList(), exported.toList())
+    }
+
+    @Test
+    fun dropsPastMaxBufferedItems() {
+        val exported = Collections.synchronizedList(mutableListOf<Int>())
+        val deferred = gatedDelegate(exported, maxBufferedItems = 3)
+
+        val held = deferred.export(listOf(0, 1))
+        val dropped = deferred.export(listOf(2, 3))
+        assertTrue(dropped.isDone)
+        assertFalse(dropped.isSuccess)
+        val heldAfter = deferred.export(listOf(4))
+
+        release.countDown()
+        deferred.ready.join(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        assertEquals(listOf(0, 1, 4), exported.toList())
+        assertTrue(held.isSuccess)
+        assertTrue(heldAfter.isSuccess)
+    }
+
+    @Test
+    fun failedBuildDropsEverything() {
+        val deferred = DeferredDelegate<MutableList<Int>, Int>(
+            { throw IllegalStateException("no exporter") },
+            executor,
+            100,
+            { _, _ -> CompletableResultCode.ofSuccess() }
+        )
+
+        assertTrue(deferred.ready.join(TIMEOUT_SECONDS, TimeUnit.SECONDS).isDone)
+        assertFalse(deferred.ready.isSuccess)
+        assertFalse(deferred.export(listOf(1)).isSuccess)
+        val flushed = deferred.afterSetup { CompletableResultCode.ofSuccess() }
+        assertFalse(flushed.join(TIMEOUT_SECONDS, TimeUnit.SECONDS).isSuccess)
+    }
+
+    @Test
+    fun failedBuildFailsHeldExports() {
+        val deferred = DeferredDelegate<MutableList<Int>, Int>(
+            {
+                release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                throw IllegalStateException("no exporter")
+            },
+            executor,
+            100,
+            { _, _ -> CompletableResultCode.ofSuccess() }
+        )
+        val held = deferred.export(listOf(1))
+
+        release.countDown()
+        assertTrue(held.join(TIMEOUT_SECONDS, TimeUnit.SECONDS).isDone)
+        assertFalse(held.isSuccess)
+    }
+
+    @Test
+    fun heldExportsCompleteWithTheExporter() {
+        val exported = CompletableResultCode()
+        val deferred = DeferredDelegate<MutableList<Int>, Int>(
+            {
+                release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                mutableListOf()
+            },
+            executor,
+            100,
+            { _, _ -> exported }
+        )
+        val held = deferred.export(listOf(1))
+
+        release.countDown()
+        assertTrue(deferred.ready.join(TIMEOUT_SECONDS, TimeUnit.SECONDS).isSuccess)
+        // Handed over, but the exporter hasn't finished with it yet
+        assertFalse(held.isDone)
+
+        exported.fail()
+        assertTrue(held.isDone)
+        assertFalse(held.isSuccess)
+    }
+
+    @Test
+    fun flushWaitsForSetup() {
+        val exported = Collections.synchronizedList(mutableListOf<Int>())
+        val deferred = gatedDelegate(exported)
+        deferred.export(listOf(1))
+
+        val flushed = deferred.afterSetup { CompletableResultCode.ofSuccess() }
+        assertFalse(flushed.isDone)
+
+        release.countDown()
+        assertTrue(flushed.join(TIMEOUT_SECONDS, TimeUnit.SECONDS).isSuccess)
+        assertEquals(listOf(1), exported.toList())
+    }
+
+    private fun config(signal: String) = ExporterConfig(
+        endpoint = "http://127.0.0.1:4318/v1/$signal",
+        batch = BatchConfig()
+    )
+
+    // What the module builds for a trace and a log exporter with batching
+    private fun buildSpanExporter(): SpanExporter = BatchingSpanExporter(
+        OtlpExporters.spanExporter(config("traces"), OtlpProtocol.HTTP, Logger.getLogger("[Embrace]")),
+        BatchConfig()
+    )
+
+    private fun buildLogExporter(): LogRecordExporter = BatchingLogRecordExporter(
+        OtlpExporters.logExporter(config("logs"), OtlpProtocol.HTTP, Logger.getLogger("[Embrace]")),
+        BatchConfig()
+    )
+
+    /**
+     * Registering deferred exporters returns while their build is still held up. How long registering keeps the calling
+     * thread busy, inline and deferred, is measured in benchmarks/android, see ExporterSetupBenchmark.
+     */
+    @Test
+    fun registeringDoesNotWaitOnTheBuild() {
+        val built = CountDownLatch(2)
+        val spans = DeferredSpanExporter(
+            {
+                release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                buildSpanExporter().also { built.countDown() }
+            },
+            executor
+        )
+        val logs = DeferredLogRecordExporter({ buildLogExporter().also { built.countDown() } }, executor)
+
+        assertEquals(2L, built.count)
+        release.countDown()
+        assertTrue(spans.ready.join(TIMEOUT_SECONDS, TimeUnit.SECONDS).isSuccess)
+        assertTrue(logs.ready.join(TIMEOUT_SECONDS, TimeUnit.SECONDS).isSuccess)
+        assertEquals(0L, built.count)
+
+        spans.shutdown().join(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        logs.shutdown().join(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+    }
+}
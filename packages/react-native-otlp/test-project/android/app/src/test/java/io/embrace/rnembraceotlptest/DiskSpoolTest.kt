@@ -0,0 +1,216 @@
+package io.embrace.rnembraceotlptest
+
+import io.embrace.rnembraceotlp.DiskSpool
+import io.embrace.rnembraceotlp.ReplayResult
+import io.embrace.rnembraceotlp.SpoolConfig
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+import java.io.RandomAccessFile
+
+// Records are a 20 byte header followed by the payload
+private const val HEADER_BYTES = 20
+private const val PAYLOAD_BYTES = 10
+
+class DiskSpoolTest {
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private var now = 1_000L
+
+    private fun createSpool(
+        config: SpoolConfig = SpoolConfig(),
+        segmentBytes: Int = 4096,
+        dir: File = File(folder.root, "spool")
+    ): DiskSpool = DiskSpool(dir, config, segmentBytes, { now })
+
+    private fun payload(i: Int): ByteArray = "record-%03d".format(i).toByteArray()
+
+    private fun replayAll(spool: DiskSpool): List<String> {
+        val sent = mutableListOf<String>()
+        spool.replay {
+            sent.add(String(it))
+            ReplayResult.SENT
+        }
+        return sent
+    }
+
+    @Test
+    fun replaysOldestFirst() {
+        val spool = createSpool()
+        for (i in 0 until 5) {
+            assertTrue(spool.append(payload(i)))
+        }
+
+        assertEquals((0 until 5).map { "record-%03d".format(it) }, replayAll(spool))
+        assertEquals(0, spool.stats().pendingRecords)
+        assertEquals(5L, spool.stats().replayed)
+        assertEquals(emptyList<String>(), replayAll(spool))
+    }
+
+    @Test
+    fun stopsAtFailedSend() {
+        val spool = createSpool()
+        for (i in 0 until 3) {
+            spool.append(payload(i))
+        }
+
+        val attempted = mutableListOf<String>()
+        assertEquals(
+            1,
+            spool.replay {
+                attempted.add(String(it))
+                if (attempted.size < 2) ReplayResult.SENT else ReplayResult.RETRY_LATER
+            }
+        )
+        assertEquals(listOf("record-000", "record-001"), attempted)
+        assertEquals(2, spool.stats().pendingRecords)
+
+        assertEquals(listOf("record-001", "record-002"), replayAll(spool))
+    }
+
+    @Test
+    fun discardsRejectedRecords() {
+        val spool = createSpool()
+        for (i in 0 until 3) {
+            spool.append(payload(i))
+        }
+
+        val attempted = mutableListOf<String>()
+        assertEquals(
+            2,
+            spool.replay {
+                attempted.add(String(it))
+                if (String(it) == "record-001") ReplayResult.REJECTED else ReplayResult.SENT
+            }
+        )
+
+        // The rejected record doesn't hold up the one after it, and isn't replayed again
+        assertEquals(listOf("record-000", "record-001", "record-002"), attempted)
+        assertEquals(0, spool.stats().pendingRecords)
+        assertEquals(1L, spool.stats().rejected)
+        assertEquals(emptyList<String>(), replayAll(spool))
+    }
+
+    @Test
+    fun recoversAfterReopening() {
+        // Two records per segment
+        val spool = createSpool(segmentBytes = 64)
+        for (i in 0 until 5) {
+            spool.append(payload(i))
+        }
+        spool.replay { if (String(it) != "record-002") ReplayResult.SENT else ReplayResult.RETRY_LATER }
+
+        // The first spool is never closed, as if the process had been killed
+        val reopened = createSpool(segmentBytes = 64)
+        assertEquals(3, reopened.stats().pendingRecords)
+
+        reopened.append(payload(5))
+        assertEquals(listOf("record-002", "record-003", "record-004", "record-005"), replayAll(reopened))
+        assertEquals(0, reopened.stats().pendingRecords)
+    }
+
+    @Test
+    fun discardsTornRecords() {
+        val dir = File(folder.root, "spool")
+        val spool = createSpool(dir = dir)
+        for (i in 0 until 4) {
+            spool.append(payload(i))
+        }
+
+        // Corrupt the payload of the third record, it and anything after it in the segment can't be trusted
+        val segment = dir.listFiles()!!.single()
+        RandomAccessFile(segment, "rw").use { raf ->
+            raf.seek((2L * (HEADER_BYTES + PAYLOAD_BYTES)) + HEADER_BYTES)
+            raf.write('X'.code)
+        }
+
+        val reopened = createSpool(dir = dir)
+        assertEquals(listOf("record-000", "record-001"), replayAll(reopened))
+    }
+
+    @Test
+    fun dropsOldestSegmentsPastMaxBytes() {
+        // One record per segment, with room for two segments
+        val spool = createSpool(SpoolConfig(maxBytes = 100), segmentBytes = 50)
+        for (i in 0 until 4) {
+            assertTrue(spool.append(payload(i)))
+        }
+
+        val stats = spool.stats()
+        assertEquals(2, stats.segments)
+        assertEquals(100L, stats.bytesOnDisk)
+        assertEquals(2L, stats.dropped)
+        assertEquals(listOf("record-002", "record-003"), replayAll(spool))
+    }
+
+    @Test
+    fun rejectsRecordsLargerThanMaxBytes() {
+        val spool = createSpool(SpoolConfig(maxBytes = 64), segmentBytes = 64)
+
+        assertFalse(spool.append(ByteArray(64)))
+        assertTrue(spool.append(payload(0)))
+        assertEquals(1L, spool.stats().dropped)
+        assertEquals(listOf("record-000"), replayAll(spool))
+    }
+
+    @Test
+    fun expiresOldRecords() {
+        val spool = createSpool(SpoolConfig(maxAgeMs = 1000))
+        spool.append(payload(0))
+        now += 600
+        spool.append(payload(1))
+        now += 600
+
+        assertEquals(listOf("record-001"), replayAll(spool))
+        assertEquals(1L, spool.stats().expired)
+    }
+
+    @Test
+    fun deletesConsumedSegments() {
+        val dir = File(folder.root, "spool")
+        // One record per segment
+        val spool = createSpool(segmentBytes = 50, dir = dir)
+        for (i in 0 until 3) {
+            spool.append(payload(i))
+        }
+        assertEquals(3, dir.listFiles()!!.size)
+
+        replayAll(spool)
+
+        // The segment being appended to is kept around
+        assertEquals(1, dir.listFiles()!!.size)
+        assertEquals(1, spool.stats().segments)
+    }
+
+    @Test
+    fun numbersNewSegmentsAfterTheHighestOnDisk() {
+        val dir = File(folder.root, "spool").apply { mkdirs() }
+        // Left behind empty, as when a consumed segment could only be truncated rather than deleted
+        File(dir, "0000000000000007.seg").createNewFile()
+
+        val spool = createSpool(dir = dir)
+        assertEquals(0, spool.stats().segments)
+        spool.append(payload(0))
+
+        assertTrue(File(dir, "0000000000000008.seg").exists())
+        assertEquals(listOf("record-000"), replayAll(spool))
+    }
+
+    @Test
+    fun keepsPendingRecordsOnDiskWhenClosed() {
+        val spool = createSpool()
+        spool.append(payload(0))
+        spool.close()
+
+        assertFalse(spool.append(payload(1)))
+        assertEquals(0, spool.stats().segments)
+        assertEquals(emptyList<String>(), replayAll(spool))
+
+        assertEquals(listOf("record-000"), replayAll(createSpool()))
+    }
+}
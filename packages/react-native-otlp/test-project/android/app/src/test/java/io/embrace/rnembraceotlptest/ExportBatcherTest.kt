@@ -0,0 +1,131 @@
+package io.embrace.rnembraceotlptest
+
+import io.embrace.rnembraceotlp.BatchConfig
+import io.embrace.rnembraceotlp.ExportBatcher
+import io.opentelemetry.sdk.common.CompletableResultCode
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Collections
+import java.util.concurrent.TimeUnit
+
+private const val TIMEOUT_MS = 5000L
+
+class ExportBatcherTest {
+    private val batches = Collections.synchronizedList(mutableListOf<List<Int>>())
+    private val pending = Collections.synchronizedList(mutableListOf<CompletableResultCode>())
+    private var batcher: ExportBatcher<Int>? = null
+
+    @Volatile
+    private var completeExports = true
+
+    @After
+    fun tearDown() {
+        completeExports = true
+        pending.forEach { it.succeed() }
+        batcher?.shutdown()?.join(TIMEOUT_MS, TimeUnit.MILLISECONDS)
+    }
+
+    private fun createBatcher(config: BatchConfig): ExportBatcher<Int> {
+        val batcher = ExportBatcher<Int>(config, { batch ->
+            batches.add(batch.toList())
+            if (completeExports) {
+                CompletableResultCode.ofSuccess()
+            } else {
+                CompletableResultCode().also { pending.add(it) }
+            }
+        })
+        this.batcher = batcher
+        return batcher
+    }
+
+    private fun awaitBatches(count: Int) {
+        val deadline = System.currentTimeMillis() + TIMEOUT_MS
+        while (batches.size < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1)
+        }
+    }
+
+    @Test
+    fun exportsFullBatches() {
+        val batcher = createBatcher(BatchConfig(maxExportBatchSize = 3, scheduleDelayMs = 60_000))
+
+        batcher.add(listOf(1, 2))
+        batcher.add(listOf(3, 4))
+        batcher.add(listOf(5, 6, 7))
+        awaitBatches(2)
+
+        assertEquals(listOf(listOf(1, 2, 3), listOf(4, 5, 6)), batches.toList())
+
+        // The partial batch left over is only exported once flushed or the delay has passed
+        assertTrue(batcher.flush().join(TIMEOUT_MS, TimeUnit.MILLISECONDS).isSuccess)
+        assertEquals(listOf(7), batches.last())
+    }
+
+    @Test
+    fun exportsPartialBatchAfterDelay() {
+        val batcher = createBatcher(BatchConfig(maxExportBatchSize = 100, scheduleDelayMs = 20))
+
+        batcher.add(listOf(1))
+        batcher.add(listOf(2))
+        awaitBatches(1)
+
+        assertEquals(listOf(listOf(1, 2)), batches.toList())
+    }
+
+    @Test
+    fun dropsWhenQueueIsFull() {
+        completeExports = false
+        val batcher = createBatcher(BatchConfig(maxExportBatchSize = 2, maxQueueSize = 4))
+        batcher.add(listOf(1, 2))
+        awaitBatches(1)
+
+        // The first batch is in flight holding the only permit so nothing else leaves the queue
+        batcher.add((3..10).toList())
+        Thread.sleep(50)
+        assertEquals(1, batches.size)
+
+        completeExports = true
+        pending.forEach { it.succeed() }
+        awaitBatches(3)
+        assertEquals(listOf(listOf(1, 2), listOf(3, 4), listOf(5, 6)), batches.toList())
+    }
+
+    @Test
+    fun limitsConcurrentExports() {
+        completeExports = false
+        val batcher = createBatcher(BatchConfig(maxExportBatchSize = 1, maxConcurrentExports = 2))
+        batcher.add(listOf(1, 2, 3, 4))
+        awaitBatches(2)
+        Thread.sleep(50)
+        assertEquals(2, batches.size)
+
+        pending.first().succeed()
+        awaitBatches(3)
+        assertEquals(listOf(listOf(1), listOf(2), listOf(3)), batches.toList())
+    }
+
+    @Test
+    fun flushWaitsForInFlightExports() {
+        completeExports = false
+        val batcher = createBatcher(BatchConfig(maxExportBatchSize = 1))
+        batcher.add(listOf(1))
+        awaitBatches(1)
+
+        val flushed = batcher.flush()
+        assertTrue(!flushed.isDone)
+        pending.forEach { it.succeed() }
+        assertTrue(flushed.join(TIMEOUT_MS, TimeUnit.MILLISECONDS).isSuccess)
+    }
+
+    @Test
+    fun rejectsAfterShutdown() {
+        val batcher = createBatcher(BatchConfig())
+        batcher.add(listOf(1))
+        assertTrue(batcher.shutdown().join(TIMEOUT_MS, TimeUnit.MILLISECONDS).isSuccess)
+
+        assertEquals(listOf(listOf(1)), batches.toList())
+        assertTrue(!batcher.add(listOf(2)).isSuccess)
+    }
+}
@@ -0,0 +1,155 @@
+package io.embrace.rnembraceotlptest
+
+import com.sun.net.httpserver.HttpServer
+import io.embrace.rnembraceotlp.HeaderConfig
+import io.embrace.rnembraceotlp.OtlpCompression
+import io.embrace.rnembraceotlp.OtlpEncoding
+import io.embrace.rnembraceotlp.OtlpHttpSender
+import io.embrace.rnembraceotlp.OtlpSenderSpanExporter
+import io.embrace.rnembraceotlp.encodeOtlpSpans
+import io.opentelemetry.api.common.AttributeKey
+import io.opentelemetry.api.common.Attributes
+import io.opentelemetry.api.trace.SpanKind
+import io.opentelemetry.sdk.common.CompletableResultCode
+import io.opentelemetry.sdk.trace.SdkTracerProvider
+import io.opentelemetry.sdk.trace.data.SpanData
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor
+import io.opentelemetry.sdk.trace.export.SpanExporter
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.net.InetSocketAddress
+import java.util.Collections
+import java.util.concurrent.TimeUnit
+import java.util.zip.GZIPInputStream
+
+private const val SPAN_PAIRS = 50
+private const val TIMEOUT_SECONDS = 10L
+
+private class ReceivedRequest(val headers: Map<String, String>, val body: ByteArray)
+
+/**
+ * Exports a batch shaped like the ones the app exports, screen and network spans with a handful of attributes and
+ * events, with each encoding and compression. How long encoding takes is measured in benchmarks/android, see
+ * OtlpEncodingBenchmark.
+ */
+class ExportEncodingTest {
+    private val received = Collections.synchronizedList(mutableListOf<ReceivedRequest>())
+    private lateinit var server: HttpServer
+
+    @Before
+    fun setUp() {
+        server = HttpServer.create(InetSocketAddress("127.0.0.1", 0), 0).apply {
+            createContext("/v1/traces") { exchange ->
+                val headers = exchange.requestHeaders.mapValues { it.value.first() }
+                received.add(ReceivedRequest(headers, exchange.requestBody.readBytes()))
+                exchange.sendResponseHeaders(200, -1)
+                exchange.close()
+            }
+            start()
+        }
+    }
+
+    @After
+    fun tearDown() {
+        server.stop(0)
+    }
+
+    /**
+     * Records the spans of a batch by ending them through an exporter that keeps hold of them
+     */
+    private fun recordBatch(): List<SpanData> {
+        val batch = mutableListOf<SpanData>()
+        val recorder = object : SpanExporter {
+            override fun export(spans: Collection<SpanData>): CompletableResultCode {
+                batch.addAll(spans)
+                return CompletableResultCode.ofSuccess()
+            }
+
+            override fun flush(): CompletableResultCode = CompletableResultCode.ofSuccess()
+
+            override fun shutdown(): CompletableResultCode = CompletableResultCode.ofSuccess()
+        }
+        val provider = SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(recorder))
+            .build()
+        val tracer = provider.get("benchmark")
+
+        for (i in 0 until SPAN_PAIRS) {
+            val screen = tracer.spanBuilder("emb-screen-view")
+                .setAttribute("view.name", "screen-${i % 7}")
+                .setAttribute("emb.type", "ux.view")
+                .startSpan()
+            val request = tracer.spanBuilder("emb-GET /api/v1/items/$i")
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute("http.request.method", "GET")
+                .setAttribute("url.full", "https://example.com/api/v1/items/$i?page=0")
+                .setAttribute("http.response.status_code", 200L)
+                .setAttribute("http.response.body.size", 1024L * (i + 1))
+                .startSpan()
+            request.addEvent("response-received", Attributes.of(AttributeKey.longKey("attempt"), 1L))
+            request.end()
+            screen.end()
+        }
+
+        provider.shutdown().join(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        return batch
+    }
+
+    @Test
+    fun jsonExporterSendsEncodedRequests() {
+        val sender = OtlpHttpSender(
+            "http://127.0.0.1:${server.address.port}/v1/traces",
+            listOf(HeaderConfig("Authorization", "Bearer token")),
+            null,
+            OtlpCompression.GZIP
+        )
+        val exporter = OtlpSenderSpanExporter(sender)
+        val batch = recordBatch()
+
+        assertTrue(exporter.export(batch).join(TIMEOUT_SECONDS, TimeUnit.SECONDS).isSuccess)
+        exporter.shutdown()
+
+        assertEquals(1, received.size)
+        val request = received.first()
+        assertEquals("application/json", request.headers["Content-type"])
+        assertEquals("gzip", request.headers["Content-encoding"])
+        assertEquals("Bearer token", request.headers["Authorization"])
+
+        val json = GZIPInputStream(ByteArrayInputStream(request.body)).readBytes().toString(Charsets.UTF_8)
+        assertTrue(json.startsWith("{\"resourceSpans\":"))
+        assertTrue(json.contains("emb-screen-view"))
+    }
+
+    @Test
+    fun jsonExporterFailsOnErrorStatus() {
+        server.removeContext("/v1/traces")
+        server.createContext("/v1/traces") { exchange ->
+            exchange.requestBody.readBytes()
+            exchange.sendResponseHeaders(503, -1)
+            exchange.close()
+        }
+        val exporter = OtlpSenderSpanExporter(
+            OtlpHttpSender("http://127.0.0.1:${server.address.port}/v1/traces", emptyList(), null, OtlpCompression.NONE)
+        )
+
+        assertTrue(!exporter.export(recordBatch()).join(TIMEOUT_SECONDS, TimeUnit.SECONDS).isSuccess)
+        exporter.shutdown()
+    }
+
+    @Test
+    fun protobufAndGzipShrinkTheBody() {
+        val batch = recordBatch()
+        fun size(encoding: OtlpEncoding, compression: OtlpCompression) = encodeOtlpSpans(batch, encoding, compression).size
+
+        for (encoding in OtlpEncoding.values()) {
+            assertTrue(size(encoding, OtlpCompression.GZIP) < size(encoding, OtlpCompression.NONE))
+        }
+        for (compression in OtlpCompression.values()) {
+            assertTrue(size(OtlpEncoding.PROTOBUF, compression) < size(OtlpEncoding.JSON, compression))
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package io.embrace.rnembraceotlptest
+
+import com.sun.net.httpserver.HttpServer
+import io.embrace.rnembraceotlp.BatchConfig
+import io.embrace.rnembraceotlp.ExportBatcher
+import io.embrace.rnembraceotlp.ExportMeter
+import io.embrace.rnembraceotlp.ExportPipeline
+import io.embrace.rnembraceotlp.LatencyHistogram
+import io.embrace.rnembraceotlp.OtlpCompression
+import io.embrace.rnembraceotlp.OtlpEncoding
+import io.embrace.rnembraceotlp.OtlpHttpSender
+import io.embrace.rnembraceotlp.toMap
+import io.opentelemetry.sdk.common.CompletableResultCode
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.net.InetSocketAddress
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+private const val TIMEOUT_SECONDS = 5L
+
+class ExportMetricsTest {
+    @Test
+    fun histogramPercentiles() {
+        val histogram = LatencyHistogram()
+        assertEquals(0L, histogram.percentileMs(50.0))
+
+        repeat(90) { histogram.record(TimeUnit.MILLISECONDS.toNanos(3)) }
+        repeat(9) { histogram.record(TimeUnit.MILLISECONDS.toNanos(80)) }
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(40_000))
+
+        assertEquals(5L, histogram.percentileMs(50.0))
+        assertEquals(5L, histogram.percentileMs(90.0))
+        assertEquals(100L, histogram.percentileMs(99.0))
+        assertEquals(40_000L, histogram.percentileMs(100.0))
+        assertEquals(40_000L, histogram.maxMs())
+    }
+
+    @Test
+    fun histogramRecordsFromManyThreads() {
+        val histogram = LatencyHistogram()
+        val threads = (0 until 4).map {
+            Thread { repeat(10_000) { histogram.record(TimeUnit.MILLISECONDS.toNanos(7)) } }.apply { start() }
+        }
+        threads.forEach { it.join() }
+
+        // Capped at the slowest latency seen rather than the bucket's upper bound of 10ms
+        assertEquals(7L, histogram.percentileMs(99.0))
+        assertEquals(7L, histogram.maxMs())
+    }
+
+    @Test
+    fun meterCountsCompletedBatches() {
+        val meter = ExportMeter()
+        val pending = CompletableResultCode()
+
+        meter.export(listOf(1, 2, 3)) { CompletableResultCode.ofSuccess() }
+        meter.export(listOf(4)) { CompletableResultCode.ofFailure() }
+        meter.export(listOf(5, 6)) { pending }
+
+        var stats = meter.stats()
+        assertEquals(1L, stats.batchesSent)
+        assertEquals(3L, stats.itemsSent)
+        assertEquals(1L, stats.failedBatches)
+        assertEquals(1L, stats.failedItems)
+        assertEquals(2L, stats.inFlightItems)
+
+        pending.succeed()
+        stats = meter.stats()
+        assertEquals(2L, stats.batchesSent)
+        assertEquals(5L, stats.itemsSent)
+        assertEquals(0L, stats.inFlightItems)
+    }
+
+    @Test
+    fun pipelineStats() {
+        val pipeline = ExportPipeline("traces", "https://example.com")
+        val started = CountDownLatch(1)
+        val first = CompletableResultCode()
+        val batcher = ExportBatcher<Int>(BatchConfig(2, 2, 60_000, 1), { items ->
+            pipeline.meter.export(items) {
+                if (started.count > 0) {
+                    started.countDown()
+                    first
+                } else {
+                    CompletableResultCode.ofSuccess()
+                }
+            }
+        })
+        pipeline.batcherStats = batcher::stats
+
+        batcher.add(listOf(1, 2))
+        assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+        batcher.add(listOf(3, 4, 5))
+
+        var stats = pipeline.stats()
+        assertEquals(4L, stats.queueDepth)
+        assertEquals(1L, stats.dropped)
+        assertEquals(0L, stats.batchesSent)
+
+        // Completing the first batch frees up the permit the queued one is waiting on
+        first.succeed()
+        val deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS)
+        while (pipeline.stats().batchesSent < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10)
+        }
+        stats = pipeline.stats()
+        assertEquals(2L, stats.batchesSent)
+        assertEquals(4L, stats.itemsSent)
+        assertEquals(0L, stats.queueDepth)
+        assertEquals("traces", stats.toMap()["signal"])
+        assertEquals(4L, stats.toMap()["itemsSent"])
+        batcher.shutdown()
+    }
+
+    @Test
+    fun senderCountsBytesSent() {
+        val server = HttpServer.create(InetSocketAddress("127.0.0.1", 0), 0).apply {
+            createContext("/v1/traces") { exchange ->
+                exchange.requestBody.readBytes()
+                exchange.sendResponseHeaders(200, -1)
+                exchange.close()
+            }
+            start()
+        }
+
+        try {
+            val sender = OtlpHttpSender(
+                "http://127.0.0.1:${server.address.port}/v1/traces",
+                emptyList(),
+                null,
+                OtlpCompression.NONE,
+                OtlpEncoding.PROTOBUF
+            )
+            val pipeline = ExportPipeline("traces", "https://example.com").apply {
+                bytesSent = sender::bytesSent
+                retryStats = sender::retryStats
+            }
+
+            repeat(3) {
+                assertTrue(sender.sendEncoded(ByteArray(10)).join(TIMEOUT_SECONDS, TimeUnit.SECONDS).isSuccess)
+            }
+            sender.shutdown()
+
+            assertEquals(30L, pipeline.stats().bytesSent)
+            assertEquals(0L, pipeline.stats().retries)
+        } finally {
+            server.stop(0)
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package io.embrace.rnembraceotlptest
+
+import com.sun.net.httpserver.HttpServer
+import io.embrace.rnembraceotlp.OtlpCompression
+import io.embrace.rnembraceotlp.OtlpEncoding
+import io.embrace.rnembraceotlp.OtlpHttpSender
+import io.embrace.rnembraceotlp.RetryBackoff
+import io.embrace.rnembraceotlp.RetryConfig
+import io.embrace.rnembraceotlp.parseRetryAfterMs
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import java.net.InetSocketAddress
+import java.util.Collections
+import java.util.Random
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+private const val TIMEOUT_SECONDS = 5L
+
+private class StubResponse(
+    val code: Int,
+    val retryAfter: String? = null
+)
+
+class ExportRetryTest {
+    // Responses handed out in order, the stub accepts requests once it runs out
+    private val responses = ConcurrentLinkedQueue<StubResponse>()
+    private val requests = AtomicInteger()
+    private val delays = Collections.synchronizedList(mutableListOf<Long>())
+    private lateinit var server: HttpServer
+    private var sender: OtlpHttpSender? = null
+
+    @Before
+    fun setUp() {
+        server = HttpServer.create(InetSocketAddress("127.0.0.1", 0), 0).apply {
+            createContext("/v1/traces") { exchange ->
+                exchange.requestBody.readBytes()
+                requests.incrementAndGet()
+                val response = responses.poll() ?: StubResponse(200)
+                response.retryAfter?.let { exchange.responseHeaders.add("Retry-After", it) }
+                exchange.sendResponseHeaders(response.code, -1)
+                exchange.close()
+            }
+            start()
+        }
+    }
+
+    @After
+    fun tearDown() {
+        sender?.shutdown()
+        server.stop(0)
+    }
+
+    private fun send(retry: RetryConfig): Boolean {
+        val sender = OtlpHttpSender(
+            "http://127.0.0.1:${server.address.port}/v1/traces",
+            emptyList(),
+            null,
+            OtlpCompression.NONE,
+            OtlpEncoding.PROTOBUF,
+            retry,
+            random = Random(0),
+            sleep = { delays.add(it) }
+        )
+        this.sender = sender
+        return sender.sendEncoded(ByteArray(16)).join(TIMEOUT_SECONDS, TimeUnit.SECONDS).isSuccess
+    }
+
+    @Test
+    fun retriesRetryableStatuses() {
+        responses.addAll(listOf(StubResponse(503), StubResponse(429)))
+
+        assertTrue(send(RetryConfig(initialBackoffMs = 100, jitter = 0.0)))
+        assertEquals(3, requests.get())
+        assertEquals(listOf(100L, 150L), delays.toList())
+        assertEquals(2L, sender!!.retryStats().retries)
+        assertEquals(0L, sender!!.retryStats().giveUps)
+    }
+
+    @Test
+    fun doesNotRetryOtherStatuses() {
+        responses.add(StubResponse(400))
+
+        assertFalse(send(RetryConfig()))
+        assertEquals(1, requests.get())
+        assertEquals(0L, sender!!.retryStats().retries)
+        assertEquals(0L, sender!!.retryStats().giveUps)
+    }
+
+    @Test
+    fun retriesConfiguredStatuses() {
+        responses.add(StubResponse(500))
+
+        assertTrue(send(RetryConfig(retryableStatusCodes = setOf(500))))
+        assertEquals(2, requests.get())
+    }
+
+    @Test
+    fun givesUpAfterMaxAttempts() {
+        repeat(5) { responses.add(StubResponse(503)) }
+
+        assertFalse(send(RetryConfig(maxAttempts = 3)))
+        assertEquals(3, requests.get())
+        assertEquals(2L, sender!!.retryStats().retries)
+        assertEquals(1L, sender!!.retryStats().giveUps)
+    }
+
+    @Test
+    fun honoursRetryAfter() {
+        responses.add(StubResponse(429, "2"))
+
+        assertTrue(send(RetryConfig(initialBackoffMs = 100, maxBackoffMs = 5000, jitter = 0.0)))
+        assertEquals(listOf(2000L), delays.toList())
+    }
+
+    @Test
+    fun givesUpWhenRetryAfterIsTooLong() {
+        responses.add(StubResponse(503, "60"))
+
+        assertFalse(send(RetryConfig(maxBackoffMs = 5000)))
+        assertEquals(1, requests.get())
+        assertEquals(0L, sender!!.retryStats().retries)
+        assertEquals(1L, sender!!.retryStats().giveUps)
+    }
+
+    @Test
+    fun backoffGrowsUpToMax() {
+        val backoff = RetryBackoff(
+            RetryConfig(initialBackoffMs = 100, maxBackoffMs = 800, backoffMultiplier = 2.0, jitter = 0.0),
+            Random(0)
+        )
+
+        assertEquals(listOf(100L, 200L, 400L, 800L, 800L), (0 until 5).map { backoff.nextDelayMs(null) })
+    }
+
+    @Test
+    fun backoffIsJittered() {
+        val backoff = RetryBackoff(RetryConfig(initialBackoffMs = 1000, maxBackoffMs = 1000, jitter = 0.5), Random(0))
+        val samples = (0 until 100).map { backoff.nextDelayMs(null) }
+
+        assertTrue(samples.all { it in 500L..1000L })
+        assertTrue(samples.toSet().size > 1)
+    }
+
+    @Test
+    fun parsesRetryAfter() {
+        assertEquals(120_000L, parseRetryAfterMs("120"))
+        assertEquals(
+            30_000L,
+            parseRetryAfterMs("Wed, 21 Oct 2015 07:28:30 GMT", now = 1445412480000L)
+        )
+        assertNull(parseRetryAfterMs("soon"))
+        assertNull(parseRetryAfterMs(null))
+    }
+}
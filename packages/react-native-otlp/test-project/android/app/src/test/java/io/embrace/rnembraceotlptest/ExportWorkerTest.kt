@@ -0,0 +1,144 @@
+package io.embrace.rnembraceotlptest
+
+import io.embrace.rnembraceotlp.ExportWorker
+import io.opentelemetry.sdk.common.CompletableResultCode
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+private const val TIMEOUT_SECONDS = 5L
+
+class ExportWorkerTest {
+    private val release = CountDownLatch(1)
+    private val workers = mutableListOf<ExportWorker<Int>>()
+
+    @After
+    fun tearDown() {
+        release.countDown()
+        workers.forEach { it.shutdown().join(TIMEOUT_SECONDS, TimeUnit.SECONDS) }
+    }
+
+    private fun createWorker(
+        endpoint: String,
+        maxPendingItems: Int,
+        exportBatch: (Collection<Int>) -> CompletableResultCode
+    ): ExportWorker<Int> = ExportWorker(endpoint, maxPendingItems, exportBatch).also { workers.add(it) }
+
+    /**
+     * Creates a worker whose exports complete only once `release` is counted down, standing in for an endpoint that
+     * has stopped responding
+     */
+    private fun stalledWorker(maxPendingItems: Int, exported: MutableList<Int>): ExportWorker<Int> =
+        createWorker("https://stalled.example.com", maxPendingItems) { items ->
+            release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+            exported.addAll(items)
+            CompletableResultCode.ofSuccess()
+        }
+
+    @Test
+    fun exportsInOrderOffTheCallingThread() {
+        val exported = Collections.synchronizedList(mutableListOf<Int>())
+        val threads = Collections.synchronizedSet(mutableSetOf<Thread>())
+        val worker = createWorker("https://example.com", 1000) { items ->
+            threads.add(Thread.currentThread())
+            exported.addAll(items)
+            CompletableResultCode.ofSuccess()
+        }
+
+        for (i in 0 until 100) {
+            assertTrue(worker.add(listOf(i)).isSuccess)
+        }
+        assertTrue(worker.flush().join(TIMEOUT_SECONDS, TimeUnit.SECONDS).isSuccess)
+
+        assertEquals((0 until 100).toList(), exported.toList())
+        assertEquals(1, threads.size)
+        assertFalse(threads.contains(Thread.currentThread()))
+    }
+
+    @Test
+    fun stalledEndpointDoesNotHoldUpOthers() {
+        val stalledExports = Collections.synchronizedList(mutableListOf<Int>())
+        val healthyExports = Collections.synchronizedList(mutableListOf<Int>())
+        val stalled = stalledWorker(2, stalledExports)
+        val healthy = createWorker("https://healthy.example.com", 2) { items ->
+            healthyExports.addAll(items)
+            CompletableResultCode.ofSuccess()
+        }
+
+        // Fan out the same telemetry to both endpoints the way Embrace hands it to each of its exporters
+        for (i in 0 until 10) {
+            stalled.add(listOf(i))
+            healthy.add(listOf(i))
+            healthy.flush().join(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        }
+
+        assertEquals((0 until 10).toList(), healthyExports.toList())
+        assertEquals(0L, healthy.stats().dropped)
+        assertTrue(stalled.stats().dropped > 0)
+
+        release.countDown()
+        assertTrue(stalled.flush().join(TIMEOUT_SECONDS, TimeUnit.SECONDS).isSuccess)
+        assertEquals(10L, stalled.stats().dropped + stalledExports.size)
+    }
+
+    @Test
+    fun dropsExportsPastMaxPendingItems() {
+        val exported = Collections.synchronizedList(mutableListOf<Int>())
+        val worker = stalledWorker(3, exported)
+
+        // Items count towards the queue until their export completes, including while it is in flight
+        assertTrue(worker.add(listOf(0)).isSuccess)
+        assertTrue(worker.add(listOf(1, 2)).isSuccess)
+        assertFalse(worker.add(listOf(3)).isSuccess)
+        assertEquals(3, worker.stats().queueDepth)
+
+        release.countDown()
+        worker.flush().join(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+
+        assertEquals(listOf(0, 1, 2), exported.toList())
+        assertEquals(1L, worker.stats().dropped)
+    }
+
+    @Test
+    fun stats() {
+        val worker = createWorker("https://example.com", 100) { items ->
+            Thread.sleep(10)
+            if (items.first() % 2 == 0) CompletableResultCode.ofSuccess() else CompletableResultCode.ofFailure()
+        }
+
+        for (i in 0 until 4) {
+            worker.add(listOf(i, i))
+        }
+        worker.flush().join(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+
+        val stats = worker.stats()
+        assertEquals("https://example.com", stats.endpoint)
+        assertEquals(0, stats.queueDepth)
+        assertTrue(stats.maxQueueDepth >= 2)
+        assertEquals(4L, stats.exported)
+        assertEquals(4L, stats.failed)
+        assertEquals(0L, stats.dropped)
+        assertTrue(stats.maxLatencyNanos >= TimeUnit.MILLISECONDS.toNanos(10))
+        assertTrue(stats.meanLatencyNanos <= stats.maxLatencyNanos)
+    }
+
+    @Test
+    fun exportsQueuedItemsOnShutdown() {
+        val exported = Collections.synchronizedList(mutableListOf<Int>())
+        val worker = stalledWorker(10, exported)
+        worker.add(listOf(0))
+        worker.add(listOf(1))
+
+        val shutdown = worker.shutdown()
+        assertFalse(worker.add(listOf(2)).isSuccess)
+        release.countDown()
+
+        shutdown.join(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        assertEquals(listOf(0, 1), exported.toList())
+    }
+}
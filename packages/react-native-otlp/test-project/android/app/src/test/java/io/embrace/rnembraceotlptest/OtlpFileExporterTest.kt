@@ -0,0 +1,213 @@
+package io.embrace.rnembraceotlptest
+
+import com.sun.net.httpserver.HttpServer
+import io.embrace.rnembraceotlp.OtlpCompression
+import io.embrace.rnembraceotlp.OtlpFileFormat
+import io.embrace.rnembraceotlp.OtlpFileLogRecordExporter
+import io.embrace.rnembraceotlp.OtlpFileSpanExporter
+import io.embrace.rnembraceotlp.OtlpFileWriter
+import io.embrace.rnembraceotlp.OtlpHttpSender
+import io.embrace.rnembraceotlp.readOtlpFile
+import io.opentelemetry.sdk.common.CompletableResultCode
+import io.opentelemetry.sdk.logs.SdkLoggerProvider
+import io.opentelemetry.sdk.logs.data.LogRecordData
+import io.opentelemetry.sdk.logs.export.LogRecordExporter
+import io.opentelemetry.sdk.logs.export.SimpleLogRecordProcessor
+import io.opentelemetry.sdk.trace.SdkTracerProvider
+import io.opentelemetry.sdk.trace.data.SpanData
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor
+import io.opentelemetry.sdk.trace.export.SpanExporter
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+import java.net.InetSocketAddress
+import java.util.Collections
+import java.util.concurrent.TimeUnit
+
+private const val TIMEOUT_SECONDS = 5L
+
+class OtlpFileExporterTest {
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private val dir: File get() = File(folder.root, "capture")
+
+    private fun spans(vararg names: String): List<SpanData> {
+        val recorded = mutableListOf<SpanData>()
+        val recorder = object : SpanExporter {
+            override fun export(spans: Collection<SpanData>): CompletableResultCode {
+                recorded.addAll(spans)
+                return CompletableResultCode.ofSuccess()
+            }
+
+            override fun flush(): CompletableResultCode = CompletableResultCode.ofSuccess()
+
+            override fun shutdown(): CompletableResultCode = CompletableResultCode.ofSuccess()
+        }
+        val provider = SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(recorder))
+            .build()
+        names.forEach { provider.get("file").spanBuilder(it).startSpan().end() }
+        provider.shutdown().join(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        return recorded
+    }
+
+    private fun logs(vararg bodies: String): List<LogRecordData> {
+        val recorded = mutableListOf<LogRecordData>()
+        val recorder = object : LogRecordExporter {
+            override fun export(logs: Collection<LogRecordData>): CompletableResultCode {
+                recorded.addAll(logs)
+                return CompletableResultCode.ofSuccess()
+            }
+
+            override fun flush(): CompletableResultCode = CompletableResultCode.ofSuccess()
+
+            override fun shutdown(): CompletableResultCode = CompletableResultCode.ofSuccess()
+        }
+        val provider = SdkLoggerProvider.builder()
+            .addLogRecordProcessor(SimpleLogRecordProcessor.create(recorder))
+            .build()
+        bodies.forEach { provider.get("file").logRecordBuilder().setBody(it).emit() }
+        provider.shutdown().join(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        return recorded
+    }
+
+    @Test
+    fun writesNdjson() {
+        val writer = OtlpFileWriter(dir, "traces", OtlpFileFormat.NDJSON)
+        val exporter = OtlpFileSpanExporter(writer)
+
+        for (i in 0 until 3) {
+            assertTrue(exporter.export(spans("span-$i")).isSuccess)
+        }
+        // Nothing reaches the file until the buffer is flushed
+        assertFalse(writer.currentFile.exists() && writer.currentFile.length() > 0)
+        assertTrue(exporter.shutdown().isSuccess)
+
+        val lines = writer.currentFile.readLines()
+        assertEquals(3, lines.size)
+        lines.forEachIndexed { i, line ->
+            assertTrue(line.startsWith("{\"resourceSpans\":"))
+            assertTrue(line.contains("span-$i"))
+        }
+        assertEquals(lines, readOtlpFile(writer.currentFile, OtlpFileFormat.NDJSON).map { String(it) })
+    }
+
+    @Test
+    fun writesLengthDelimitedProtobuf() {
+        val writer = OtlpFileWriter(dir, "logs", OtlpFileFormat.PROTOBUF)
+        val exporter = OtlpFileLogRecordExporter(writer)
+
+        exporter.export(logs("first-log"))
+        exporter.export(logs("second-log", "third-log"))
+        exporter.shutdown()
+
+        val records = readOtlpFile(writer.currentFile, OtlpFileFormat.PROTOBUF)
+        assertEquals(2, records.size)
+        assertTrue(String(records[0], Charsets.ISO_8859_1).contains("first-log"))
+        assertTrue(String(records[1], Charsets.ISO_8859_1).contains("second-log"))
+        assertTrue(String(records[1], Charsets.ISO_8859_1).contains("third-log"))
+    }
+
+    @Test
+    fun appendsAcrossWriters() {
+        val first = OtlpFileWriter(dir, "traces", OtlpFileFormat.PROTOBUF)
+        OtlpFileSpanExporter(first).apply {
+            export(spans("before-restart"))
+            shutdown()
+        }
+
+        val second = OtlpFileWriter(dir, "traces", OtlpFileFormat.PROTOBUF)
+        OtlpFileSpanExporter(second).apply {
+            export(spans("after-restart"))
+            shutdown()
+        }
+
+        assertEquals(2, readOtlpFile(second.currentFile, OtlpFileFormat.PROTOBUF).size)
+    }
+
+    @Test
+    fun rotatesBySize() {
+        val writer = OtlpFileWriter(dir, "traces", OtlpFileFormat.NDJSON, maxFileBytes = 2048, maxFiles = 3)
+        val exporter = OtlpFileSpanExporter(writer)
+
+        for (i in 0 until 50) {
+            exporter.export(spans("span-$i"))
+        }
+        exporter.shutdown()
+
+        val files = dir.listFiles()!!.map { it.name }.sorted()
+        assertEquals(listOf("traces.1.ndjson", "traces.2.ndjson", "traces.ndjson"), files)
+        for (file in dir.listFiles()!!) {
+            assertTrue(file.length() <= 2048)
+        }
+
+        // The newest spans are in the current file, older ones in the rotated files
+        val newest = readOtlpFile(writer.currentFile, OtlpFileFormat.NDJSON).map { String(it) }
+        assertTrue(newest.last().contains("span-49"))
+        val older = readOtlpFile(writer.rotatedFile(1), OtlpFileFormat.NDJSON).map { String(it) }
+        assertTrue(older.isNotEmpty())
+        assertFalse(older.any { it.contains("span-49") })
+    }
+
+    @Test
+    fun skipsTruncatedRecord() {
+        val writer = OtlpFileWriter(dir, "traces", OtlpFileFormat.PROTOBUF)
+        OtlpFileSpanExporter(writer).apply {
+            export(spans("complete"))
+            export(spans("truncated"))
+            shutdown()
+        }
+
+        val file = writer.currentFile
+        file.writeBytes(file.readBytes().copyOf(file.length().toInt() - 10))
+
+        val records = readOtlpFile(file, OtlpFileFormat.PROTOBUF)
+        assertEquals(1, records.size)
+        assertTrue(String(records[0], Charsets.ISO_8859_1).contains("complete"))
+    }
+
+    @Test
+    fun replaysCapturedRequests() {
+        val writer = OtlpFileWriter(dir, "traces", OtlpFileFormat.PROTOBUF)
+        OtlpFileSpanExporter(writer).apply {
+            for (i in 0 until 5) {
+                export(spans("captured-$i"))
+            }
+            shutdown()
+        }
+
+        val received = Collections.synchronizedList(mutableListOf<String>())
+        val server = HttpServer.create(InetSocketAddress("127.0.0.1", 0), 0).apply {
+            createContext("/v1/traces") { exchange ->
+                received.add(exchange.requestHeaders.getFirst("Content-Type"))
+                exchange.requestBody.readBytes()
+                exchange.sendResponseHeaders(200, -1)
+                exchange.close()
+            }
+            start()
+        }
+
+        try {
+            val sender = OtlpHttpSender(
+                "http://127.0.0.1:${server.address.port}/v1/traces",
+                emptyList(),
+                null,
+                OtlpCompression.NONE,
+                OtlpFileFormat.PROTOBUF.encoding
+            )
+            for (record in readOtlpFile(writer.currentFile, OtlpFileFormat.PROTOBUF)) {
+                assertTrue(sender.sendEncoded(record).join(TIMEOUT_SECONDS, TimeUnit.SECONDS).isSuccess)
+            }
+            sender.shutdown()
+        } finally {
+            server.stop(0)
+        }
+
+        assertEquals(List(5) { "application/x-protobuf" }, received.toList())
+    }
+}
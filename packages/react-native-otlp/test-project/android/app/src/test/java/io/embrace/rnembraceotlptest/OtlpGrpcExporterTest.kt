@@ -0,0 +1,204 @@
+package io.embrace.rnembraceotlptest
+
+import io.embrace.rnembraceotlp.ExporterConfig
+import io.embrace.rnembraceotlp.HeaderConfig
+import io.embrace.rnembraceotlp.OtlpCompression
+import io.embrace.rnembraceotlp.OtlpExporters
+import io.embrace.rnembraceotlp.OtlpProtocol
+import io.grpc.Metadata
+import io.grpc.MethodDescriptor
+import io.grpc.Server
+import io.grpc.ServerCall
+import io.grpc.ServerCallHandler
+import io.grpc.ServerInterceptor
+import io.grpc.ServerInterceptors
+import io.grpc.ServerServiceDefinition
+import io.grpc.Status
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder
+import io.grpc.stub.ServerCalls
+import io.opentelemetry.sdk.common.CompletableResultCode
+import io.opentelemetry.sdk.logs.SdkLoggerProvider
+import io.opentelemetry.sdk.logs.data.LogRecordData
+import io.opentelemetry.sdk.logs.export.LogRecordExporter
+import io.opentelemetry.sdk.logs.export.SimpleLogRecordProcessor
+import io.opentelemetry.sdk.trace.SdkTracerProvider
+import io.opentelemetry.sdk.trace.data.SpanData
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor
+import io.opentelemetry.sdk.trace.export.SpanExporter
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.InputStream
+import java.net.InetSocketAddress
+import java.time.Duration
+import java.util.Collections
+import java.util.concurrent.TimeUnit
+import java.util.logging.Logger
+
+private const val TRACE_SERVICE = "opentelemetry.proto.collector.trace.v1.TraceService"
+private const val LOGS_SERVICE = "opentelemetry.proto.collector.logs.v1.LogsService"
+private const val TIMEOUT_SECONDS = 10L
+
+private val AUTHORIZATION_KEY: Metadata.Key<String> = Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER)
+
+private class InMemorySpanRecorder(private val spans: MutableList<SpanData>) : SpanExporter {
+    override fun export(spans: Collection<SpanData>): CompletableResultCode {
+        this.spans.addAll(spans)
+        return CompletableResultCode.ofSuccess()
+    }
+
+    override fun flush(): CompletableResultCode = CompletableResultCode.ofSuccess()
+
+    override fun shutdown(): CompletableResultCode = CompletableResultCode.ofSuccess()
+}
+
+private class InMemoryLogRecorder(private val logs: MutableList<LogRecordData>) : LogRecordExporter {
+    override fun export(logs: Collection<LogRecordData>): CompletableResultCode {
+        this.logs.addAll(logs)
+        return CompletableResultCode.ofSuccess()
+    }
+
+    override fun flush(): CompletableResultCode = CompletableResultCode.ofSuccess()
+
+    override fun shutdown(): CompletableResultCode = CompletableResultCode.ofSuccess()
+}
+
+// Requests are kept as raw protobuf so the stub doesn't need the OTLP service definitions
+private object BytesMarshaller : MethodDescriptor.Marshaller<ByteArray> {
+    override fun stream(value: ByteArray): InputStream = ByteArrayInputStream(value)
+
+    override fun parse(stream: InputStream): ByteArray = stream.readBytes()
+}
+
+/**
+ * Sends telemetry through the gRPC exporters to an in-process collector stub that implements the OTLP Export methods
+ */
+class OtlpGrpcExporterTest {
+    private val log = Logger.getLogger("[Embrace]")
+    private val traceRequests = Collections.synchronizedList(mutableListOf<ByteArray>())
+    private val logRequests = Collections.synchronizedList(mutableListOf<ByteArray>())
+    private val authorizations = Collections.synchronizedList(mutableListOf<String?>())
+
+    @Volatile
+    private var status: Status = Status.OK
+    private lateinit var server: Server
+
+    private fun exportService(name: String, requests: MutableList<ByteArray>): ServerServiceDefinition {
+        val method = MethodDescriptor.newBuilder(BytesMarshaller, BytesMarshaller)
+            .setType(MethodDescriptor.MethodType.UNARY)
+            .setFullMethodName(MethodDescriptor.generateFullMethodName(name, "Export"))
+            .build()
+
+        return ServerServiceDefinition.builder(name)
+            .addMethod(
+                method,
+                ServerCalls.asyncUnaryCall { request, responseObserver ->
+                    requests.add(request)
+                    if (status.isOk) {
+                        // An empty Export*ServiceResponse
+                        responseObserver.onNext(ByteArray(0))
+                        responseObserver.onCompleted()
+                    } else {
+                        responseObserver.onError(status.asRuntimeException())
+                    }
+                }
+            )
+            .build()
+    }
+
+    private val headerInterceptor = object : ServerInterceptor {
+        override fun <ReqT, RespT> interceptCall(
+            call: ServerCall<ReqT, RespT>,
+            headers: Metadata,
+            next: ServerCallHandler<ReqT, RespT>
+        ): ServerCall.Listener<ReqT> {
+            authorizations.add(headers.get(AUTHORIZATION_KEY))
+            return next.startCall(call, headers)
+        }
+    }
+
+    @Before
+    fun setUp() {
+        server = NettyServerBuilder.forAddress(InetSocketAddress("127.0.0.1", 0))
+            .addService(ServerInterceptors.intercept(exportService(TRACE_SERVICE, traceRequests), headerInterceptor))
+            .addService(ServerInterceptors.intercept(exportService(LOGS_SERVICE, logRequests), headerInterceptor))
+            .build()
+            .start()
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdownNow().awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+    }
+
+    private fun config(compression: OtlpCompression = OtlpCompression.NONE) = ExporterConfig(
+        endpoint = "http://127.0.0.1:${server.port}",
+        headers = listOf(HeaderConfig("Authorization", "Bearer token")),
+        timeout = Duration.ofSeconds(TIMEOUT_SECONDS),
+        compression = compression,
+    )
+
+    /**
+     * Exports a span directly rather than through a span processor so the result of the export can be checked
+     */
+    private fun exportSpan(compression: OtlpCompression = OtlpCompression.NONE): Boolean {
+        val spans = mutableListOf<SpanData>()
+        val provider = SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(InMemorySpanRecorder(spans)))
+            .build()
+        provider.get("grpc").spanBuilder("grpc-span").startSpan().end()
+
+        val exporter = OtlpExporters.spanExporter(config(compression), OtlpProtocol.GRPC, log)
+        val result = exporter.export(spans).join(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        exporter.shutdown().join(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        return result.isSuccess
+    }
+
+    @Test
+    fun exportsSpans() {
+        assertTrue(exportSpan())
+
+        assertEquals(1, traceRequests.size)
+        assertTrue(String(traceRequests[0], Charsets.ISO_8859_1).contains("grpc-span"))
+        assertEquals(listOf("Bearer token"), authorizations.toList())
+    }
+
+    @Test
+    fun exportsSpansWithGzip() {
+        assertTrue(exportSpan(OtlpCompression.GZIP))
+
+        // The stub receives the request after gRPC has decompressed it
+        assertEquals(1, traceRequests.size)
+        assertTrue(String(traceRequests[0], Charsets.ISO_8859_1).contains("grpc-span"))
+    }
+
+    @Test
+    fun exportsLogs() {
+        val logs = mutableListOf<LogRecordData>()
+        val provider = SdkLoggerProvider.builder()
+            .addLogRecordProcessor(SimpleLogRecordProcessor.create(InMemoryLogRecorder(logs)))
+            .build()
+        provider.get("grpc").logRecordBuilder().setBody("grpc-log").emit()
+
+        val exporter = OtlpExporters.logExporter(config(), OtlpProtocol.GRPC, log)
+        assertTrue(exporter.export(logs).join(TIMEOUT_SECONDS, TimeUnit.SECONDS).isSuccess)
+        exporter.shutdown().join(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+
+        assertEquals(1, logRequests.size)
+        assertTrue(String(logRequests[0], Charsets.ISO_8859_1).contains("grpc-log"))
+        assertEquals(listOf("Bearer token"), authorizations.toList())
+    }
+
+    @Test
+    fun failsWhenCollectorRejects() {
+        // Not one of the codes the exporter retries on
+        status = Status.INVALID_ARGUMENT
+
+        assertFalse(exportSpan())
+        assertEquals(1, traceRequests.size)
+    }
+}
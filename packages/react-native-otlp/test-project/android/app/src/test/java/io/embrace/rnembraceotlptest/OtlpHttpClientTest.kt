@@ -0,0 +1,178 @@
+package io.embrace.rnembraceotlptest
+
+import com.sun.net.httpserver.HttpServer
+import io.embrace.rnembraceotlp.ExporterConfig
+import io.embrace.rnembraceotlp.HttpClientConfig
+import io.embrace.rnembraceotlp.OtlpCompression
+import io.embrace.rnembraceotlp.OtlpEncoding
+import io.embrace.rnembraceotlp.OtlpExporters
+import io.embrace.rnembraceotlp.OtlpHttpClients
+import io.embrace.rnembraceotlp.OtlpHttpSender
+import io.embrace.rnembraceotlp.OtlpProtocol
+import io.embrace.rnembraceotlp.OtlpSenderSpanExporter
+import io.embrace.rnembraceotlp.RetryConfig
+import io.embrace.rnembraceotlp.SpoolConfig
+import okhttp3.OkHttpClient
+import okhttp3.Protocol
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import java.net.InetSocketAddress
+import java.time.Duration
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.logging.Logger
+
+private const val TIMEOUT_SECONDS = 5L
+
+class OtlpHttpClientTest {
+    private lateinit var server: HttpServer
+
+    // Requests wait on this before being answered so that tests can hold them in flight
+    @Volatile
+    private var responseGate = CountDownLatch(0)
+
+    // Remote port of the connection each request came in on, one per connection the client opened
+    private val ports = Collections.synchronizedList(mutableListOf<Int>())
+    private val paths = Collections.synchronizedList(mutableListOf<String>())
+
+    @Before
+    fun setUp() {
+        server = HttpServer.create(InetSocketAddress("127.0.0.1", 0), 0).apply {
+            createContext("/") { exchange ->
+                responseGate.await()
+                ports.add(exchange.remoteAddress.port)
+                paths.add(exchange.requestURI.path)
+                exchange.requestBody.readBytes()
+                exchange.sendResponseHeaders(200, -1)
+                exchange.close()
+            }
+            start()
+        }
+    }
+
+    @After
+    fun tearDown() {
+        server.stop(0)
+    }
+
+    private fun sender(path: String, client: OkHttpClient): OtlpHttpSender = OtlpHttpSender(
+        "http://127.0.0.1:${server.address.port}$path",
+        emptyList(),
+        null,
+        OtlpCompression.NONE,
+        OtlpEncoding.PROTOBUF,
+        client = client
+    )
+
+    /**
+     * Alternates requests between a trace and a log sender the way Embrace interleaves the two signals
+     */
+    private fun sendInterleaved(traces: OtlpHttpSender, logs: OtlpHttpSender, requests: Int) {
+        for (i in 0 until requests) {
+            val sender = if (i % 2 == 0) traces else logs
+            assertTrue(sender.sendEncoded(byteArrayOf(i.toByte())).join(TIMEOUT_SECONDS, TimeUnit.SECONDS).isSuccess)
+        }
+        traces.shutdown()
+        logs.shutdown()
+    }
+
+    @Test
+    fun sharedClientReusesConnectionAcrossSignals() {
+        val client = OtlpHttpClients.create(HttpClientConfig())
+        sendInterleaved(sender("/v1/traces", client), sender("/v1/logs", client), 10)
+
+        assertEquals(10, ports.size)
+        assertEquals(1, ports.toSet().size)
+        assertEquals(setOf("/v1/traces", "/v1/logs"), paths.toSet())
+        assertEquals(1, client.connectionPool.connectionCount())
+    }
+
+    @Test
+    fun separateClientsOpenTheirOwnConnections() {
+        sendInterleaved(
+            sender("/v1/traces", OtlpHttpClients.create(HttpClientConfig())),
+            sender("/v1/logs", OtlpHttpClients.create(HttpClientConfig())),
+            10
+        )
+
+        assertEquals(2, ports.toSet().size)
+    }
+
+    @Test
+    fun timeoutKeepsSharingTheConnectionPool() {
+        val client = OtlpHttpClients.create(HttpClientConfig())
+        val traces = OtlpHttpSender(
+            "http://127.0.0.1:${server.address.port}/v1/traces",
+            emptyList(),
+            Duration.ofSeconds(3),
+            OtlpCompression.NONE,
+            OtlpEncoding.PROTOBUF,
+            client = client
+        )
+        sendInterleaved(traces, sender("/v1/logs", client), 6)
+
+        assertEquals(1, ports.toSet().size)
+    }
+
+    @Test
+    fun noIdleConnectionsDisablesReuse() {
+        val client = OtlpHttpClients.create(HttpClientConfig(maxIdleConnections = 0))
+        sendInterleaved(sender("/v1/traces", client), sender("/v1/logs", client), 4)
+
+        assertEquals(4, ports.toSet().size)
+    }
+
+    @Test
+    fun config() {
+        val client = OtlpHttpClients.create(
+            HttpClientConfig(preferHttp2 = false, connectTimeoutMs = 1500, readTimeoutMs = 2500)
+        )
+        assertEquals(listOf(Protocol.HTTP_1_1), client.protocols)
+        assertEquals(1500, client.connectTimeoutMillis)
+        assertEquals(2500, client.readTimeoutMillis)
+
+        assertEquals(listOf(Protocol.HTTP_2, Protocol.HTTP_1_1), OtlpHttpClients.create(HttpClientConfig()).protocols)
+    }
+
+    @Test
+    fun flushAndShutdownWaitForQueuedRequests() {
+        responseGate = CountDownLatch(1)
+        val sender = sender("/v1/traces", OtlpHttpClients.create(HttpClientConfig()))
+        val sent = (0 until 3).map { sender.sendEncoded(byteArrayOf(it.toByte())) }
+
+        val flushed = sender.flush()
+        val shutdown = sender.shutdown()
+        assertFalse(flushed.isDone)
+        assertFalse(shutdown.isDone)
+
+        responseGate.countDown()
+        assertTrue(flushed.join(TIMEOUT_SECONDS, TimeUnit.SECONDS).isSuccess)
+        assertTrue(shutdown.join(TIMEOUT_SECONDS, TimeUnit.SECONDS).isSuccess)
+        assertTrue(sent.all { it.isSuccess })
+
+        // Nothing is taken once shut down
+        assertFalse(sender.sendEncoded(byteArrayOf(3)).join(TIMEOUT_SECONDS, TimeUnit.SECONDS).isSuccess)
+        assertEquals(3, paths.size)
+    }
+
+    @Test
+    fun httpExportersAlwaysGoThroughTheSender() {
+        val log = Logger.getLogger("[Embrace]")
+        val config = ExporterConfig("http://127.0.0.1:${server.address.port}/v1/traces")
+        val exporters = listOf(
+            OtlpExporters.spanExporter(config, OtlpProtocol.HTTP, log),
+            OtlpExporters.spanExporter(config.copy(encoding = OtlpEncoding.JSON), OtlpProtocol.HTTP, log),
+            OtlpExporters.spanExporter(config.copy(retry = RetryConfig()), OtlpProtocol.HTTP, log),
+            OtlpExporters.spanExporter(config.copy(spool = SpoolConfig()), OtlpProtocol.HTTP, log),
+            OtlpExporters.spanExporter(config, OtlpProtocol.HTTP, log, OtlpHttpClients.create(HttpClientConfig()))
+        )
+
+        assertTrue(exporters.all { it is OtlpSenderSpanExporter })
+        exporters.forEach { it.shutdown() }
+    }
+}
@@ -9,16 +9,20 @@ import com.facebook.react.bridge.ReactApplicationContext
 import com.facebook.react.bridge.WritableMap
 import io.embrace.rnembraceotlp.RNEmbraceOTLPModule
 import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
 import org.junit.Before
 import org.junit.Test
 import org.junit.runner.RunWith
 import org.mockito.Mockito.mockStatic
 import org.mockito.Mockito.`when`
+import org.mockito.kotlin.any
 import org.mockito.kotlin.doReturn
+import org.mockito.kotlin.eq
 import org.mockito.kotlin.mock
 import org.mockito.kotlin.times
 import org.mockito.kotlin.verify
 import org.robolectric.RobolectricTestRunner
+import java.util.concurrent.TimeUnit
 import java.util.logging.Handler
 import java.util.logging.LogRecord
 import java.util.logging.Logger
@@ -54,13 +58,14 @@ class RNEmbraceOTLPTest {
         log.useParentHandlers = false
     }
 
-    private fun otlpStart(config: WritableMap) {
+    private fun otlpStart(config: WritableMap): RNEmbraceOTLPModule {
         val context: ReactApplicationContext = mock {
             on { applicationContext } doReturn mock<Context>()
         }
         val embraceOTLPModule = RNEmbraceOTLPModule(context)
 
         embraceOTLPModule.startNativeEmbraceSDK(JavaOnlyMap(), config, promise)
+        return embraceOTLPModule
     }
 
     @Test
@@ -181,6 +186,175 @@ class RNEmbraceOTLPTest {
         verify(promise, times(1)).resolve(true)
     }
 
+    @Test
+    fun testStartWithGrpcProtocol() {
+        val otlpConfig: WritableMap = JavaOnlyMap()
+
+        val traceExporter: WritableMap = JavaOnlyMap().apply {
+            putString("endpoint", "https://test-trace-endpoint:4317")
+            putString("compression", "gzip")
+        }
+
+        otlpConfig.putString("protocol", "grpc")
+        otlpConfig.putMap("traceExporter", traceExporter)
+
+        otlpStart(otlpConfig)
+
+        assertEquals(emptyList<String>(), logHandler.records.map { it.message })
+        verify(promise, times(1)).resolve(true)
+    }
+
+    @Test
+    fun testInvalidProtocol() {
+        val otlpConfig: WritableMap = JavaOnlyMap()
+
+        val traceExporter: WritableMap = JavaOnlyMap().apply {
+            putString("endpoint", "https://test-trace-endpoint/v1")
+        }
+
+        otlpConfig.putString("protocol", "websocket")
+        otlpConfig.putMap("traceExporter", traceExporter)
+
+        otlpStart(otlpConfig)
+
+        val logs = logHandler.records.map { it.message }
+        assertEquals(listOf("Invalid protocol `websocket`, using http."), logs)
+
+        // falls back to http and embrace starts without issues
+        verify(promise, times(1)).resolve(true)
+    }
+
+    @Test
+    fun testStartWithMultipleExporters() {
+        val otlpConfig: WritableMap = JavaOnlyMap()
+
+        val traceExporters = JavaOnlyArray().apply {
+            pushMap(
+                JavaOnlyMap().apply {
+                    putString("endpoint", "https://test-trace-endpoint/v1")
+                }
+            )
+            pushMap(
+                JavaOnlyMap().apply {
+                    putString("endpoint", "https://test-vendor-trace-endpoint/v1")
+                    putInt("maxPendingItems", 100)
+                }
+            )
+        }
+
+        otlpConfig.putArray("traceExporter", traceExporters)
+
+        otlpStart(otlpConfig)
+
+        assertEquals(emptyList<String>(), logHandler.records.map { it.message })
+        verify(promise, times(1)).resolve(true)
+    }
+
+    @Test
+    fun testExporterStats() {
+        val otlpConfig: WritableMap = JavaOnlyMap()
+
+        otlpConfig.putArray(
+            "traceExporter",
+            JavaOnlyArray().apply {
+                pushMap(JavaOnlyMap().apply { putString("endpoint", "https://test-trace-endpoint/v1") })
+                pushMap(JavaOnlyMap().apply { putString("endpoint", "https://test-vendor-trace-endpoint/v1") })
+            }
+        )
+        otlpConfig.putMap(
+            "logExporter",
+            JavaOnlyMap().apply {
+                putString("endpoint", "https://test-log-endpoint/v1")
+                putInt("maxExportBatchSize", 50)
+            }
+        )
+        otlpConfig.putDouble("statsReportIntervalMs", 60000.0)
+
+        val module = otlpStart(otlpConfig)
+        assertTrue(module.exporterSetup().join(5, TimeUnit.SECONDS).isSuccess)
+        val stats = module.exporterStats()
+
+        assertEquals(emptyList<String>(), logHandler.records.map { it.message })
+        assertEquals(listOf("traces", "traces", "logs"), stats.map { it.signal })
+        assertEquals(
+            listOf("https://test-trace-endpoint/v1", "https://test-vendor-trace-endpoint/v1", "https://test-log-endpoint/v1"),
+            stats.map { it.endpoint }
+        )
+        assertEquals(listOf(0L, 0L, 0L), stats.map { it.batchesSent + it.queueDepth + it.dropped })
+    }
+
+    @Test
+    fun testStartWithoutDeferredSetup() {
+        val otlpConfig: WritableMap = JavaOnlyMap()
+        otlpConfig.putMap("traceExporter", JavaOnlyMap().apply { putString("endpoint", "https://test-trace-endpoint/v1") })
+        otlpConfig.putMap("logExporter", JavaOnlyMap().apply { putString("endpoint", "https://test-log-endpoint/v1") })
+
+        val module = otlpStart(otlpConfig)
+
+        // Built before Embrace starts by default, so there is nothing to wait on
+        assertTrue(module.exporterSetup().isSuccess)
+        assertEquals(listOf("traces", "logs"), module.exporterStats().map { it.signal })
+        assertEquals(emptyList<String>(), logHandler.records.map { it.message })
+        verify(promise, times(1)).resolve(true)
+    }
+
+    @Test
+    fun testStartWithDeferredSetup() {
+        val otlpConfig: WritableMap = JavaOnlyMap()
+        otlpConfig.putMap("traceExporter", JavaOnlyMap().apply { putString("endpoint", "https://test-trace-endpoint/v1") })
+        otlpConfig.putMap("logExporter", JavaOnlyMap().apply { putString("endpoint", "https://test-log-endpoint/v1") })
+        otlpConfig.putBoolean("deferExporterSetup", true)
+
+        val module = otlpStart(otlpConfig)
+
+        assertTrue(module.exporterSetup().join(5, TimeUnit.SECONDS).isSuccess)
+        assertEquals(listOf("traces", "logs"), module.exporterStats().map { it.signal })
+        verify(promise, times(1)).resolve(true)
+    }
+
+    @Test
+    fun testExporterSetupErrorRejects() {
+        val otlpConfig: WritableMap = JavaOnlyMap()
+        otlpConfig.putMap("traceExporter", JavaOnlyMap().apply { putString("endpoint", "not a url") })
+
+        otlpStart(otlpConfig)
+
+        verify(promise, times(1)).reject(eq("START_SDK_ERROR"), any<String>(), any<Throwable>())
+    }
+
+    @Test
+    fun testInvalidStatsReportInterval() {
+        val otlpConfig: WritableMap = JavaOnlyMap()
+        otlpConfig.putMap("traceExporter", JavaOnlyMap().apply { putString("endpoint", "https://test-trace-endpoint/v1") })
+        otlpConfig.putDouble("statsReportIntervalMs", 0.0)
+
+        otlpStart(otlpConfig)
+
+        assertEquals(
+            listOf("Invalid `statsReportIntervalMs` `0`, stats will not be reported."),
+            logHandler.records.map { it.message }
+        )
+        verify(promise, times(1)).resolve(true)
+    }
+
+    @Test
+    fun testInvalidExporterType() {
+        val otlpConfig: WritableMap = JavaOnlyMap()
+        otlpConfig.putString("traceExporter", "https://test-trace-endpoint/v1")
+
+        otlpStart(otlpConfig)
+
+        val logs = logHandler.records.map { it.message }
+        assertEquals(
+            listOf(
+                "Invalid `traceExporter`, expected an object or an array of objects.",
+                "Neither Traces nor Logs configuration were found, skipping custom export."
+            ),
+            logs
+        )
+        verify(promise, times(1)).resolve(true)
+    }
+
     @Test
     fun testInvalidHeader() {
         val otlpConfig: WritableMap = JavaOnlyMap()
@@ -0,0 +1,171 @@
+package io.embrace.rnembraceotlptest
+
+import com.sun.net.httpserver.HttpServer
+import io.embrace.rnembraceotlp.DiskSpool
+import io.embrace.rnembraceotlp.ExportSpooler
+import io.embrace.rnembraceotlp.OtlpCompression
+import io.embrace.rnembraceotlp.OtlpEncoding
+import io.embrace.rnembraceotlp.OtlpHttpSender
+import io.embrace.rnembraceotlp.OtlpSenderSpanExporter
+import io.embrace.rnembraceotlp.SpoolingSpanExporter
+import io.opentelemetry.sdk.common.CompletableResultCode
+import io.opentelemetry.sdk.trace.SdkTracerProvider
+import io.opentelemetry.sdk.trace.data.SpanData
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor
+import io.opentelemetry.sdk.trace.export.SpanExporter
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+import java.net.InetSocketAddress
+import java.util.Collections
+import java.util.concurrent.TimeUnit
+
+private const val TIMEOUT_SECONDS = 5L
+private const val SPAN_NAME_PREFIX = "spooled-span-"
+
+/**
+ * Exports spans to a stub receiver on localhost that fails on demand, checking that failed batches are spooled and
+ * replayed in the order they were first exported
+ */
+class SpoolingExporterTest {
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    // Span names in the order their requests were accepted
+    private val received = Collections.synchronizedList(mutableListOf<String>())
+    private lateinit var server: HttpServer
+    private val exporters = mutableListOf<SpanExporter>()
+
+    private lateinit var spooler: ExportSpooler
+
+    // Status to fail requests with, 0 to accept them
+    @Volatile
+    private var failWith = 0
+
+    @Before
+    fun setUp() {
+        server = HttpServer.create(InetSocketAddress("127.0.0.1", 0), 0).apply {
+            createContext("/v1/traces") { exchange ->
+                val body = String(exchange.requestBody.readBytes(), Charsets.ISO_8859_1)
+                if (failWith != 0) {
+                    exchange.sendResponseHeaders(failWith, -1)
+                } else {
+                    received.add(Regex("$SPAN_NAME_PREFIX\\d+").find(body)!!.value)
+                    exchange.sendResponseHeaders(200, -1)
+                }
+                exchange.close()
+            }
+            start()
+        }
+    }
+
+    @After
+    fun tearDown() {
+        exporters.forEach { it.shutdown().join(TIMEOUT_SECONDS, TimeUnit.SECONDS) }
+        server.stop(0)
+    }
+
+    private fun sender(): OtlpHttpSender =
+        OtlpHttpSender(
+            "http://127.0.0.1:${server.address.port}/v1/traces",
+            emptyList(),
+            null,
+            OtlpCompression.NONE,
+            OtlpEncoding.PROTOBUF
+        )
+
+    private fun createExporter(): SpanExporter {
+        // Neither sender retries, so retryable failures are spooled straight away
+        spooler = ExportSpooler(DiskSpool(File(folder.root, "traces")), sender())
+        val exporter = SpoolingSpanExporter(OtlpSenderSpanExporter(sender()), spooler)
+        exporters.add(exporter)
+        return exporter
+    }
+
+    private fun span(i: Int): List<SpanData> {
+        val recorded = mutableListOf<SpanData>()
+        val recorder = object : SpanExporter {
+            override fun export(spans: Collection<SpanData>): CompletableResultCode {
+                recorded.addAll(spans)
+                return CompletableResultCode.ofSuccess()
+            }
+
+            override fun flush(): CompletableResultCode = CompletableResultCode.ofSuccess()
+
+            override fun shutdown(): CompletableResultCode = CompletableResultCode.ofSuccess()
+        }
+        val provider = SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(recorder))
+            .build()
+        provider.get("spool").spanBuilder("$SPAN_NAME_PREFIX$i").startSpan().end()
+        provider.shutdown().join(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        return recorded
+    }
+
+    private fun export(exporter: SpanExporter, i: Int): Boolean =
+        exporter.export(span(i)).join(TIMEOUT_SECONDS, TimeUnit.SECONDS).isSuccess
+
+    private fun awaitReceived(count: Int) {
+        val deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS)
+        while (received.size < count && System.nanoTime() < deadline) {
+            Thread.sleep(1)
+        }
+    }
+
+    @Test
+    fun replaysFailedExportsInOrderOnceExportsSucceed() {
+        val exporter = createExporter()
+
+        failWith = 503
+        for (i in 0 until 3) {
+            assertTrue(export(exporter, i))
+        }
+        assertEquals(0, received.size)
+
+        failWith = 0
+        assertTrue(export(exporter, 3))
+        awaitReceived(4)
+
+        assertEquals(
+            listOf("${SPAN_NAME_PREFIX}3", "${SPAN_NAME_PREFIX}0", "${SPAN_NAME_PREFIX}1", "${SPAN_NAME_PREFIX}2"),
+            received.toList()
+        )
+    }
+
+    @Test
+    fun replaysExportsSpooledBeforeARestart() {
+        failWith = 503
+        val exporter = createExporter()
+        assertTrue(export(exporter, 0))
+        assertTrue(export(exporter, 1))
+        exporter.shutdown().join(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        exporters.remove(exporter)
+
+        // A new exporter over the same spool directory sends what the previous one left behind as soon as it is created
+        failWith = 0
+        createExporter()
+        awaitReceived(2)
+
+        assertEquals(listOf("${SPAN_NAME_PREFIX}0", "${SPAN_NAME_PREFIX}1"), received.toList())
+    }
+
+    @Test
+    fun doesNotSpoolRejectedExports() {
+        val exporter = createExporter()
+
+        failWith = 400
+        assertFalse(export(exporter, 0))
+        assertEquals(0L, spooler.stats().appended)
+
+        failWith = 0
+        assertTrue(export(exporter, 1))
+        awaitReceived(1)
+        assertEquals(listOf("${SPAN_NAME_PREFIX}1"), received.toList())
+    }
+}
@@ -0,0 +1,156 @@
+package io.embrace.reactnativetracerprovider
+
+import com.facebook.react.bridge.ReadableArray
+import com.facebook.react.bridge.ReadableMap
+import com.facebook.react.bridge.ReadableType
+import io.opentelemetry.api.common.AttributeKey
+import io.opentelemetry.api.common.Attributes
+import java.util.concurrent.ConcurrentHashMap
+import java.util.logging.Logger
+
+// Apps normally use a small, fixed set of attribute keys. Past this many per type keys are assumed to be dynamic and
+// are created as needed rather than cached so that the cache can't grow without bound
+private const val MAX_INTERNED_KEYS_PER_TYPE = 1024
+
+/**
+ * Caches AttributeKey instances by name, one cache per attribute type since the same name could be used with
+ * values of different types
+ */
+private class AttributeKeyCache<T>(private val create: (String) -> AttributeKey<T>) {
+    private val keys = ConcurrentHashMap<String, AttributeKey<T>>()
+
+    fun get(name: String): AttributeKey<T> {
+        val cached = keys[name]
+        if (cached != null) {
+            return cached
+        }
+
+        val key = create(name)
+        if (keys.size < MAX_INTERNED_KEYS_PER_TYPE) {
+            keys.putIfAbsent(name, key)
+        }
+        return key
+    }
+}
+
+/**
+ * Converts attribute maps received over the bridge to OTEL Attributes.
+ *
+ * The same handful of keys show up on most spans and events, so keys are interned rather than having
+ * `AttributesBuilder.put(String, ...)` allocate a new AttributeKey each time. Maps with zero or one entry skip the
+ * builder entirely, and array values are read into a single list sized upfront.
+ */
+class AttributeConverter(private val log: Logger) {
+    private val booleanKeys = AttributeKeyCache { AttributeKey.booleanKey(it) }
+    private val doubleKeys = AttributeKeyCache { AttributeKey.doubleKey(it) }
+    private val stringKeys = AttributeKeyCache { AttributeKey.stringKey(it) }
+    private val booleanArrayKeys = AttributeKeyCache { AttributeKey.booleanArrayKey(it) }
+    private val doubleArrayKeys = AttributeKeyCache { AttributeKey.doubleArrayKey(it) }
+    private val stringArrayKeys = AttributeKeyCache { AttributeKey.stringArrayKey(it) }
+
+    fun fromReadableMap(map: ReadableMap): Attributes {
+        val it = map.keySetIterator()
+        if (!it.hasNextKey()) {
+            return Attributes.empty()
+        }
+
+        val firstKey = it.nextKey()
+        if (!it.hasNextKey()) {
+            return single(map, firstKey)
+        }
+
+        val builder = Attributes.builder()
+        put(map, firstKey) { key, value -> builder.put(key, value) }
+        while (it.hasNextKey()) {
+            put(map, it.nextKey()) { key, value -> builder.put(key, value) }
+        }
+        return builder.build()
+    }
+
+    private fun single(map: ReadableMap, name: String): Attributes {
+        var attributes = Attributes.empty()
+        put(map, name) { key, value -> attributes = Attributes.of(key, value) }
+        return attributes
+    }
+
+    /**
+     * Reads the value for the given name with its interned key and hands both to `sink`, skipping invalid values
+     */
+    @Suppress("UNCHECKED_CAST")
+    private inline fun put(map: ReadableMap, name: String, sink: (AttributeKey<Any>, Any) -> Unit) {
+        when (map.getType(name)) {
+            ReadableType.Boolean -> sink(booleanKeys.get(name) as AttributeKey<Any>, map.getBoolean(name))
+            ReadableType.Number -> sink(doubleKeys.get(name) as AttributeKey<Any>, map.getDouble(name))
+            ReadableType.String -> sink(stringKeys.get(name) as AttributeKey<Any>, map.getString(name) ?: "")
+            ReadableType.Array -> {
+                val array = map.getArray(name)
+                if (array == null || array.size() == 0) {
+                    log.warning("invalid attribute key: $name")
+                    return
+                }
+
+                when (array.getType(0)) {
+                    ReadableType.Boolean -> putArray(name, booleanArrayKeys.get(name), booleanList(array), sink)
+                    ReadableType.Number -> putArray(name, doubleArrayKeys.get(name), doubleList(array), sink)
+                    ReadableType.String -> putArray(name, stringArrayKeys.get(name), stringList(array), sink)
+                    else -> log.warning("invalid attribute key: $name")
+                }
+            }
+            else -> log.warning("invalid attribute value for key: $name")
+        }
+    }
+
+    /**
+     * OTEL array attributes hold a single type, an array with a null or differently typed element is rejected as a
+     * whole rather than dropping elements and shifting the positions of the rest
+     */
+    @Suppress("UNCHECKED_CAST")
+    private inline fun putArray(
+        name: String,
+        key: AttributeKey<*>,
+        list: List<*>?,
+        sink: (AttributeKey<Any>, Any) -> Unit
+    ) {
+        if (list == null) {
+            log.warning("invalid attribute value for key: $name, array elements must all be of the same type and not null")
+            return
+        }
+        sink(key as AttributeKey<Any>, list)
+    }
+
+    private fun booleanList(array: ReadableArray): List<Boolean>? {
+        val size = array.size()
+        val list = ArrayList<Boolean>(size)
+        for (i in 0 until size) {
+            if (array.getType(i) != ReadableType.Boolean) {
+                return null
+            }
+            list.add(array.getBoolean(i))
+        }
+        return list
+    }
+
+    private fun doubleList(array: ReadableArray): List<Double>? {
+        val size = array.size()
+        val list = ArrayList<Double>(size)
+        for (i in 0 until size) {
+            if (array.getType(i) != ReadableType.Number) {
+                return null
+            }
+            list.add(array.getDouble(i))
+        }
+        return list
+    }
+
+    private fun stringList(array: ReadableArray): List<String>? {
+        val size = array.size()
+        val list = ArrayList<String>(size)
+        for (i in 0 until size) {
+            if (array.getType(i) != ReadableType.String) {
+                return null
+            }
+            list.add(array.getString(i) ?: return null)
+        }
+        return list
+    }
+}
@@ -0,0 +1,22 @@
+package io.embrace.reactnativetracerprovider
+
+import io.opentelemetry.sdk.trace.IdGenerator
+
+/**
+ * IdGenerator that hands out the IDs supplied by the JS side when a span is started through the
+ * ReactNativeTracerProviderModule, falling back to another generator for spans started elsewhere.
+ *
+ * Only applies to tracer providers built from the OpenTelemetry SDK, e.g.
+ * `SdkTracerProvider.builder().setIdGenerator(CallerSuppliedIdGenerator()).build()`, and handed to
+ * `ReactNativeTracerProviderModule.useTracerProvider`. The opentelemetry-sdk-trace dependency is not brought in by this
+ * package so needs to be present in the app when this class is used
+ */
+class CallerSuppliedIdGenerator(private val fallback: IdGenerator = IdGenerator.random()) : IdGenerator {
+    init {
+        CallerSuppliedIds.generatorCreated = true
+    }
+
+    override fun generateSpanId(): String = CallerSuppliedIds.spanId() ?: fallback.generateSpanId()
+
+    override fun generateTraceId(): String = CallerSuppliedIds.traceId() ?: fallback.generateTraceId()
+}
@@ -0,0 +1,41 @@
+package io.embrace.reactnativetracerprovider
+
+import io.opentelemetry.api.trace.SpanId
+import io.opentelemetry.api.trace.TraceId
+
+/**
+ * Holds the trace and span IDs generated on the JS side for the span currently being started on this thread so that
+ * an IdGenerator on the tracer provider (see CallerSuppliedIdGenerator) can hand them out instead of its own
+ */
+object CallerSuppliedIds {
+    private class Ids(val traceId: String?, val spanId: String?)
+
+    private val current = ThreadLocal<Ids?>()
+
+    /**
+     * Set once a CallerSuppliedIdGenerator has been created, without one no tracer provider can adopt the IDs
+     */
+    @Volatile
+    var generatorCreated = false
+        internal set
+
+    fun <T> withIds(traceId: String, spanId: String, block: () -> T): T {
+        val validTraceId = traceId.takeIf { TraceId.isValid(it) }
+        val validSpanId = spanId.takeIf { SpanId.isValid(it) }
+
+        if (validTraceId == null && validSpanId == null) {
+            return block()
+        }
+
+        current.set(Ids(validTraceId, validSpanId))
+        try {
+            return block()
+        } finally {
+            current.remove()
+        }
+    }
+
+    fun traceId(): String? = current.get()?.traceId
+
+    fun spanId(): String? = current.get()?.spanId
+}
@@ -1,28 +1,29 @@
 package io.embrace.reactnativetracerprovider
 
+import com.facebook.react.bridge.JavaOnlyArray
+import com.facebook.react.bridge.JavaOnlyMap
 import com.facebook.react.bridge.Promise
 import com.facebook.react.bridge.ReactApplicationContext
 import com.facebook.react.bridge.ReactContextBaseJavaModule
 import com.facebook.react.bridge.ReactMethod
 import com.facebook.react.bridge.ReadableArray
 import com.facebook.react.bridge.ReadableMap
-import com.facebook.react.bridge.ReadableType
 import com.facebook.react.bridge.WritableMap
 import com.facebook.react.bridge.WritableNativeMap
 import io.embrace.android.embracesdk.Embrace
 import io.embrace.android.embracesdk.otel.java.getJavaOpenTelemetry
-import io.opentelemetry.api.common.AttributeKey
-import io.opentelemetry.api.common.Attributes
 import io.opentelemetry.api.trace.Span
 import io.opentelemetry.api.trace.SpanContext
+import io.opentelemetry.api.trace.SpanId
 import io.opentelemetry.api.trace.SpanKind
 import io.opentelemetry.api.trace.StatusCode
 import io.opentelemetry.api.trace.TraceFlags
 import io.opentelemetry.api.trace.TraceState
-import io.opentelemetry.api.trace.Tracer
 import io.opentelemetry.api.trace.TracerProvider
 import io.opentelemetry.context.Context
-import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
 import java.util.concurrent.TimeUnit
 import java.util.logging.Logger
 
@@ -47,83 +48,86 @@ private const val SPAN_CONTEXT_SPAN_ID_KEY = "spanId"
 private const val SPAN_STATUS_CODE_KEY = "code"
 private const val SPAN_STATUS_MESSAGE_KEY = "message"
 
-// Should not get hit under normal circumstances, add as a guard against misinstrumentation
-private const val MAX_STORED_SPANS = 10000
+private const val SPAN_STORE_MAX_ACTIVE_SPANS_KEY = "maxActiveSpans"
+private const val SPAN_STORE_MAX_COMPLETED_SPANS_KEY = "maxCompletedSpans"
+private const val SPAN_STORE_COMPLETED_SPAN_TTL_MS_KEY = "completedSpanTtlMs"
+private const val SPAN_STORE_ACTIVE_SPAN_OVERFLOW_KEY = "activeSpanOverflow"
+
+private const val SPAN_EXECUTOR_QUEUE_CAPACITY_KEY = "queueCapacity"
+private const val SPAN_EXECUTOR_FULL_QUEUE_POLICY_KEY = "fullQueuePolicy"
+
+private const val ORPHANED_SPANS_MAX_SPAN_AGE_MS_KEY = "maxSpanAgeMs"
+private const val ORPHANED_SPANS_SWEEP_INTERVAL_MS_KEY = "sweepIntervalMs"
+
+private const val DEFAULT_ORPHANED_SPANS_SWEEP_INTERVAL_MS = 30_000L
+private const val ORPHANED_ATTRIBUTE = "emb.orphaned"
+private const val ORPHANED_STATUS_MESSAGE = "span exceeded the maximum age and was ended as orphaned"
+
+// Upper bounds of the buckets active spans are counted in by age for `getActiveSpanStats`
+private val ACTIVE_SPAN_AGE_BUCKETS_MS = longArrayOf(1_000, 5_000, 30_000, 60_000, 300_000, 900_000, 3_600_000)
+
+// How long to wait for queued span operations to be applied when the module is torn down
+private const val SPAN_EXECUTOR_SHUTDOWN_TIMEOUT_MS = 1000L
+
+// How long startSpanSync blocks the JS thread waiting on the executor before giving up on the span context
+private const val START_SPAN_SYNC_TIMEOUT_MS = 500L
+// Set in place of the span context returned by startSpanSync when it gave up waiting, see getSpanContext
+private const val START_SPAN_SYNC_TIMED_OUT_KEY = "timedOut"
+
+private const val NANOS_PER_MILLI = 1_000_000.0
+
+// Operation names used by the JS command queue when sending a batch through `applyBatch`, each command is an array
+// whose first element is one of these names followed by the same arguments the individual @ReactMethod takes
+private const val BATCH_START_SPAN = "startSpan"
+private const val BATCH_SET_ATTRIBUTES = "setAttributes"
+private const val BATCH_ADD_EVENT = "addEvent"
+private const val BATCH_ADD_LINKS = "addLinks"
+private const val BATCH_SET_STATUS = "setStatus"
+private const val BATCH_UPDATE_NAME = "updateName"
+private const val BATCH_END_SPAN = "endSpan"
 
 class ReactNativeTracerProviderModule(reactContext: ReactApplicationContext) : ReactContextBaseJavaModule(reactContext) {
     private val log = Logger.getLogger("[Embrace]")
-    private val tracers = ConcurrentHashMap<String, Tracer>()
-    private val activeSpans = ConcurrentHashMap<String, Span>()
-    private val completedSpans = ConcurrentHashMap<String, Span>()
+    private val tracers = TracerRegistry()
+    private val spans = SpanTable()
+    private val attributeConverter = AttributeConverter(log)
     private var tracerProvider: TracerProvider? = null
-    private var writableMapBuilder: WritableMapBuilder
 
-    override fun getName() = "ReactNativeTracerProviderModule"
+    // Only a tracer provider used in place of the Embrace one can be built with a CallerSuppliedIdGenerator
+    private var tracerProviderInjected = false
 
-    /**
-     * Various deserializer helpers to go to and from the bridge Readable/Writable Array/Maps to
-     * actual OTEL API objects
-     */
+    // Set if a span started with caller supplied IDs came back with other ones
+    @Volatile
+    private var callerSuppliedIdsRejected = false
 
-    private fun stringListFromReadableArray(array: ReadableArray): List<String> {
-        val list: MutableList<String> = mutableListOf()
-        for (i in 0..array.size() - 1) {
-            val str = array.getString(i)
-            if (str != null) {
-                list.add(str)
-            }
-        }
-        return list.toList()
-    }
+    @Volatile
+    private var spanExecutor: SpanExecutor? = null
+    private var orphanedSpanSweeper: ScheduledExecutorService? = null
+    private var writableMapBuilder: WritableMapBuilder
 
-    private fun doubleListFromReadableArray(array: ReadableArray): List<Double> {
-        val list: MutableList<Double> = mutableListOf()
-        for (i in 0..array.size() - 1) {
-            list.add(array.getDouble(i))
-        }
-        return list.toList()
-    }
+    override fun getName() = "ReactNativeTracerProviderModule"
 
-    private fun booleanListFromReadableArray(array: ReadableArray): List<Boolean> {
-        val list: MutableList<Boolean> = mutableListOf()
-        for (i in 0..array.size() - 1) {
-            list.add(array.getBoolean(i))
+    companion object {
+        @Volatile
+        private var appTracerProvider: TracerProvider? = null
+
+        /**
+         * Has spans started from JS go to `tracerProvider` instead of the Embrace SDK's, e.g. one built with
+         * `SdkTracerProvider.builder().setIdGenerator(CallerSuppliedIdGenerator())` so that spans can keep the IDs
+         * generated on the JS side with `idGeneration: "js"`. The app is then responsible for exporting those spans.
+         * Must be called before the JS side sets up its tracer provider, e.g. in `Application.onCreate`, passing null
+         * goes back to the Embrace SDK's for modules created after that
+         */
+        @JvmStatic
+        fun useTracerProvider(tracerProvider: TracerProvider?) {
+            appTracerProvider = tracerProvider
         }
-        return list.toList()
     }
 
-    private fun attributesFromReadableMap(map: ReadableMap): Attributes {
-        val it = map.keySetIterator()
-        val builder = Attributes.builder()
-
-        while (it.hasNextKey()) {
-            val key = it.nextKey()
-            val type = map.getType(key)
-
-            when (type) {
-                ReadableType.Boolean -> builder.put(key, map.getBoolean(key))
-                ReadableType.Number -> builder.put(key, map.getDouble(key))
-                ReadableType.String -> builder.put(key, map.getString(key) ?: "")
-                ReadableType.Array -> {
-                    val array = map.getArray(key)
-                    val arrayType = array?.getType(0)
-                    when (arrayType) {
-                        ReadableType.Boolean -> builder.put(AttributeKey.booleanArrayKey(key), booleanListFromReadableArray(array))
-                        ReadableType.Number -> builder.put(AttributeKey.doubleArrayKey(key), doubleListFromReadableArray(array))
-                        ReadableType.String -> builder.put(AttributeKey.stringArrayKey(key), stringListFromReadableArray(array))
-                        else -> {
-                            log.warning("invalid attribute key: $key")
-                        }
-                    }
-                }
-                else -> {
-                    log.warning("invalid attribute value for key: $key")
-                }
-            }
-        }
-
-        return builder.build()
-    }
+    /**
+     * Various deserializer helpers to go to and from the bridge Readable/Writable Array/Maps to
+     * actual OTEL API objects
+     */
 
     private fun spanContextFromReadableMap(map: ReadableMap): SpanContext {
         val traceId = map.getString(SPAN_CONTEXT_TRACE_ID_KEY) ?: ""
@@ -171,15 +175,25 @@ class ReactNativeTracerProviderModule(reactContext: ReactApplicationContext) : R
         writableMapBuilder: WritableMapBuilder
     ) : this(reactContext) {
         this.tracerProvider = tracerProvider
+        this.tracerProviderInjected = true
         this.writableMapBuilder = writableMapBuilder
     }
 
-    private fun getTracerKey(name: String, version: String, schemaUrl: String): String {
-        return "$name $version $schemaUrl"
+    /**
+     * Runs span work on the dedicated executor if one has been enabled, otherwise inline on the calling thread.
+     * Operations already running on the executor, such as the commands in a batch, are also run inline
+     */
+    private fun execute(onDropped: (() -> Unit)? = null, operation: () -> Unit) {
+        val executor = spanExecutor
+        if (executor == null || executor.isExecutorThread()) {
+            operation()
+        } else {
+            executor.submit(onDropped, operation)
+        }
     }
 
-    private fun getSpan(spanBridgeId: String): Span? {
-        val span = activeSpans[spanBridgeId] ?: completedSpans[spanBridgeId]
+    private fun getSpan(spanBridgeId: Long): Span? {
+        val span = spans.get(spanBridgeId)
         if (span == null) {
             log.warning("could not retrieve span with bridge id: $spanBridgeId")
         }
@@ -190,8 +204,30 @@ class ReactNativeTracerProviderModule(reactContext: ReactApplicationContext) : R
      * Methods to allow the JS side to conform to @opentelemetry-js/api
      */
 
+    /**
+     * Whether spans can be started with the trace and span IDs generated on the JS side. This needs the tracer provider
+     * to be built with a CallerSuppliedIdGenerator, which the one from the Embrace SDK isn't, so the JS side falls back
+     * to native IDs when this is false unless the app has supplied its own with `useTracerProvider`
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    fun canAdoptCallerSuppliedIds(): Boolean =
+        (tracerProviderInjected || appTracerProvider != null) &&
+            CallerSuppliedIds.generatorCreated &&
+            !callerSuppliedIdsRejected
+
+    /**
+     * Sets up the tracer for the given name, version and schemaUrl under the handle assigned to it by the JS side,
+     * subsequent calls to start spans only pass along the handle
+     */
     @ReactMethod
-    fun setupTracer(name: String, version: String, schemaUrl: String) {
+    fun setupTracer(tracerHandle: Double, name: String, version: String, schemaUrl: String) {
+        if (tracerProvider == null) {
+            appTracerProvider?.let {
+                tracerProvider = it
+                tracerProviderInjected = true
+            }
+        }
+
         if (tracerProvider == null) {
             if (!Embrace.isStarted) {
                 log.warning("cannot access tracer provider, Embrace SDK has not been started")
@@ -201,9 +237,9 @@ class ReactNativeTracerProviderModule(reactContext: ReactApplicationContext) : R
             tracerProvider = Embrace.getJavaOpenTelemetry().tracerProvider
         }
 
-        val id = getTracerKey(name, version, schemaUrl)
+        val handle = tracerHandle.toInt()
 
-        if (tracers.containsKey(id)) {
+        if (tracers.contains(handle)) {
             // tracer is already setup
             return
         }
@@ -220,31 +256,30 @@ class ReactNativeTracerProviderModule(reactContext: ReactApplicationContext) : R
 
         val tracer = builder?.build()
 
-        if (tracer != null) {
-            tracers[id] = tracer
+        if (tracer != null && !tracers.put(handle, tracer)) {
+            log.warning("invalid tracer handle for setupTracer: $handle")
         }
     }
 
     @Suppress("LongParameterList")
-    @ReactMethod
-    fun startSpan(
-        tracerName: String,
-        tracerVersion: String,
-        tracerSchemaUrl: String,
-        spanBridgeId: String,
+    private fun createSpan(
+        tracerHandle: Int,
+        spanBridgeId: Long,
         name: String,
         kind: String,
         time: Double,
         attributes: ReadableMap,
         links: ReadableArray,
-        parentId: String,
-        promise: Promise
-    ) {
-        val tracer = tracers[getTracerKey(tracerName, tracerVersion, tracerSchemaUrl)]
+        parentId: Long,
+        traceId: String,
+        spanId: String,
+        onError: (String) -> Unit
+    ): Span? {
+        val tracer = tracers.get(tracerHandle)
 
         if (tracer == null) {
-            promise.reject("START_SPAN", "tracer not found")
-            return
+            onError("tracer not found")
+            return null
         }
 
         val spanBuilder = tracer.spanBuilder(name)
@@ -265,7 +300,7 @@ class ReactNativeTracerProviderModule(reactContext: ReactApplicationContext) : R
         }
 
         // Set attributes
-        spanBuilder.setAllAttributes(attributesFromReadableMap(attributes))
+        spanBuilder.setAllAttributes(attributeConverter.fromReadableMap(attributes))
 
         // Set links
         for (i in 0..links.size() - 1) {
@@ -277,107 +312,518 @@ class ReactNativeTracerProviderModule(reactContext: ReactApplicationContext) : R
                 val spanContext = spanContextFromReadableMap(linkSpanContext)
                 spanBuilder.addLink(spanContext)
             } else {
-                spanBuilder.addLink(spanContextFromReadableMap(linkSpanContext), attributesFromReadableMap(linkAttributes))
+                spanBuilder.addLink(spanContextFromReadableMap(linkSpanContext), attributeConverter.fromReadableMap(linkAttributes))
             }
         }
 
-        // Set parent
-        if (parentId.isEmpty()) {
+        // Set parent, handles start at 1 so 0 is used to signal no parent
+        if (parentId == 0L) {
             spanBuilder.setNoParent()
         } else {
             val parent = getSpan(parentId)
             if (parent != null) {
                 spanBuilder.setParent(parent.storeInContext(Context.root()))
+            } else {
+                // Parent was never started, or has since been evicted from the span table, start as a root instead
+                spans.recordOrphaned()
             }
         }
 
-        if (activeSpans.size > MAX_STORED_SPANS) {
+        if (!spans.reserveActive()) {
             val msg = "too many active spans being tracked, ignoring"
             log.warning(msg)
-            promise.reject("START_SPAN", msg)
-        } else {
-            val span = spanBuilder.startSpan()
-            activeSpans[spanBridgeId] = span
-            promise.resolve(spanContextToWritableMap(span.spanContext))
+            onError(msg)
+            return null
         }
+
+        // IDs generated on the JS side are only adopted if the tracer provider was configured with a
+        // CallerSuppliedIdGenerator, otherwise the span is started with IDs allocated by the provider
+        val span = CallerSuppliedIds.withIds(traceId, spanId) { spanBuilder.startSpan() }
+        if (SpanId.isValid(spanId) && span.spanContext.spanId != spanId && !callerSuppliedIdsRejected) {
+            log.warning("tracer provider did not adopt the IDs generated on the JS side, native IDs will be used")
+            callerSuppliedIdsRejected = true
+        }
+        spans.putActive(spanBridgeId, span, tracerHandle)
+        return span
     }
 
+    @Suppress("LongParameterList")
     @ReactMethod
-    fun setAttributes(spanBridgeId: String, attributes: ReadableMap) {
-        val span = getSpan(spanBridgeId) ?: return
-        span.setAllAttributes(attributesFromReadableMap(attributes))
+    fun startSpan(
+        tracerHandle: Double,
+        spanBridgeId: Double,
+        name: String,
+        kind: String,
+        time: Double,
+        attributes: ReadableMap,
+        links: ReadableArray,
+        parentId: Double,
+        traceId: String,
+        spanId: String,
+        promise: Promise
+    ) {
+        execute({ promise.reject("START_SPAN", "span executor dropped the operation") }) {
+            val span = createSpan(
+                tracerHandle.toInt(), spanBridgeId.toLong(),
+                name, kind, time, attributes, links, parentId.toLong(), traceId, spanId
+            ) { msg -> promise.reject("START_SPAN", msg) }
+
+            if (span != null) {
+                promise.resolve(spanContextToWritableMap(span.spanContext))
+            }
+        }
     }
 
-    @ReactMethod
-    fun addEvent(spanBridgeId: String, eventName: String, attributes: ReadableMap, time: Double) {
-        val span = getSpan(spanBridgeId) ?: return
+    /**
+     * Blocking variant of startSpan that returns the span context inline so that it is available to the JS side as
+     * soon as the span has been started, returns null if the span could not be started. When the executor is enabled
+     * and the span isn't queued and started within START_SPAN_SYNC_TIMEOUT_MS a map with only `timedOut` set is
+     * returned instead, the span is still started once the executor gets to it and its context can be waited on with
+     * getSpanContext
+     */
+    @Suppress("LongParameterList")
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    fun startSpanSync(
+        tracerHandle: Double,
+        spanBridgeId: Double,
+        name: String,
+        kind: String,
+        time: Double,
+        attributes: ReadableMap,
+        links: ReadableArray,
+        parentId: Double,
+        traceId: String,
+        spanId: String
+    ): WritableMap? {
+        var spanContext: WritableMap? = null
+        val start = {
+            val span = createSpan(
+                tracerHandle.toInt(), spanBridgeId.toLong(),
+                name, kind, time, attributes, links, parentId.toLong(), traceId, spanId
+            ) { msg -> log.warning("failed to start span ${spanBridgeId.toLong()}: $msg") }
+
+            spanContext = span?.let { spanContextToWritableMap(it.spanContext) }
+        }
 
-        if (time != 0.0) {
-            span.addEvent(eventName, attributesFromReadableMap(attributes), time.toLong(), TimeUnit.MILLISECONDS)
+        val executor = spanExecutor
+        if (executor == null) {
+            start()
         } else {
-            span.addEvent(eventName, attributesFromReadableMap(attributes))
+            // Still goes through the executor so that the span is started after any operations queued before it, such
+            // as its parent being started. The timeout covers waiting for room in a full queue as well
+            val timeoutNanos = TimeUnit.MILLISECONDS.toNanos(START_SPAN_SYNC_TIMEOUT_MS)
+            val deadline = System.nanoTime() + timeoutNanos
+            val applied = CountDownLatch(1)
+            executor.submit({ applied.countDown() }, timeoutNanos) {
+                try {
+                    start()
+                } finally {
+                    applied.countDown()
+                }
+            }
+            if (!applied.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                log.warning("timed out waiting for the span executor to start span ${spanBridgeId.toLong()}")
+                return writableMapBuilder.build().apply { putBoolean(START_SPAN_SYNC_TIMED_OUT_KEY, true) }
+            }
+        }
+
+        return spanContext
+    }
+
+    /**
+     * Resolves with the context of a span once the operations queued before this call, such as the span being started,
+     * have been applied. Used when startSpanSync gave up waiting on the executor
+     */
+    @ReactMethod
+    fun getSpanContext(spanBridgeId: Double, promise: Promise) {
+        execute({ promise.reject("SPAN_CONTEXT", "span executor dropped the operation") }) {
+            val span = spans.get(spanBridgeId.toLong())
+            if (span == null) {
+                promise.reject("SPAN_CONTEXT", "span ${spanBridgeId.toLong()} was not started")
+            } else {
+                promise.resolve(spanContextToWritableMap(span.spanContext))
+            }
         }
     }
 
     @ReactMethod
-    fun addLinks(spanBridgeId: String, links: ReadableArray) {
-        val span = getSpan(spanBridgeId) ?: return
-        for (i in 0..links.size() - 1) {
-            val link = links.getMap(i)
-            val linkSpanContext = link?.getMap(LINK_SPAN_CONTEXT_KEY) ?: continue
-            val linkAttributes = link?.getMap(LINK_ATTRIBUTES_KEY)
+    fun setAttributes(spanBridgeId: Double, attributes: ReadableMap) {
+        execute {
+            val span = getSpan(spanBridgeId.toLong()) ?: return@execute
+            span.setAllAttributes(attributeConverter.fromReadableMap(attributes))
+        }
+    }
 
-            if (linkAttributes == null) {
-                span.addLink(spanContextFromReadableMap(linkSpanContext))
+    @ReactMethod
+    fun addEvent(spanBridgeId: Double, eventName: String, attributes: ReadableMap, time: Double) {
+        execute {
+            val span = getSpan(spanBridgeId.toLong()) ?: return@execute
+
+            if (time != 0.0) {
+                span.addEvent(eventName, attributeConverter.fromReadableMap(attributes), time.toLong(), TimeUnit.MILLISECONDS)
             } else {
-                span.addLink(spanContextFromReadableMap(linkSpanContext), attributesFromReadableMap(linkAttributes))
+                span.addEvent(eventName, attributeConverter.fromReadableMap(attributes))
             }
         }
     }
 
     @ReactMethod
-    fun setStatus(spanBridgeId: String, status: ReadableMap) {
-        val span = getSpan(spanBridgeId) ?: return
-        val statusCode = status.getString(SPAN_STATUS_CODE_KEY) ?: return
-        val message = status.getString(SPAN_STATUS_MESSAGE_KEY) ?: ""
-
-        try {
-            if (message.isEmpty()) {
-                span.setStatus(StatusCode.valueOf(statusCode))
+    fun addLinks(spanBridgeId: Double, links: ReadableArray) {
+        execute {
+            val span = getSpan(spanBridgeId.toLong()) ?: return@execute
+            for (i in 0..links.size() - 1) {
+                val link = links.getMap(i)
+                val linkSpanContext = link?.getMap(LINK_SPAN_CONTEXT_KEY) ?: continue
+                val linkAttributes = link?.getMap(LINK_ATTRIBUTES_KEY)
+
+                if (linkAttributes == null) {
+                    span.addLink(spanContextFromReadableMap(linkSpanContext))
+                } else {
+                    span.addLink(spanContextFromReadableMap(linkSpanContext), attributeConverter.fromReadableMap(linkAttributes))
+                }
+            }
+        }
+    }
+
+    @ReactMethod
+    fun setStatus(spanBridgeId: Double, status: ReadableMap) {
+        execute {
+            val span = getSpan(spanBridgeId.toLong()) ?: return@execute
+            val statusCode = status.getString(SPAN_STATUS_CODE_KEY) ?: return@execute
+            val message = status.getString(SPAN_STATUS_MESSAGE_KEY) ?: ""
+
+            try {
+                if (message.isEmpty()) {
+                    span.setStatus(StatusCode.valueOf(statusCode))
+                } else {
+                    span.setStatus(StatusCode.valueOf(statusCode), message)
+                }
+            } catch (e: IllegalArgumentException) {
+                log.warning("invalid statusCode for setStatus: $statusCode")
+            }
+        }
+    }
+
+    @ReactMethod
+    fun updateName(spanBridgeId: Double, name: String) {
+        execute {
+            val span = getSpan(spanBridgeId.toLong()) ?: return@execute
+            span.updateName(name)
+        }
+    }
+
+    @ReactMethod
+    fun endSpan(spanBridgeId: Double, endTime: Double) {
+        execute {
+            val handle = spanBridgeId.toLong()
+            val span = getSpan(handle) ?: return@execute
+
+            if (endTime == 0.0) {
+                span.end()
             } else {
-                span.setStatus(StatusCode.valueOf(statusCode), message)
+                span.end(endTime.toLong(), TimeUnit.MILLISECONDS)
+            }
+
+            // Completed spans are kept so that they can still be referenced as parents, the table takes care of evicting
+            // them once they go unused for too long or there are too many
+            spans.markCompleted(handle)
+        }
+    }
+
+    @ReactMethod
+    fun clearCompletedSpans() {
+        execute {
+            spans.clearCompleted()
+        }
+    }
+
+    /**
+     * Sets the bounds on the number of spans being tracked, keys that are not present keep their defaults
+     */
+    @ReactMethod
+    fun configureSpanStore(config: ReadableMap) {
+        val overflow = if (config.hasKey(SPAN_STORE_ACTIVE_SPAN_OVERFLOW_KEY)) {
+            config.getString(SPAN_STORE_ACTIVE_SPAN_OVERFLOW_KEY)
+        } else {
+            null
+        }
+
+        val maxActiveSpans = if (config.hasKey(SPAN_STORE_MAX_ACTIVE_SPANS_KEY)) {
+            config.getInt(SPAN_STORE_MAX_ACTIVE_SPANS_KEY)
+        } else {
+            DEFAULT_MAX_ACTIVE_SPANS
+        }
+        val maxCompletedSpans = if (config.hasKey(SPAN_STORE_MAX_COMPLETED_SPANS_KEY)) {
+            config.getInt(SPAN_STORE_MAX_COMPLETED_SPANS_KEY)
+        } else {
+            DEFAULT_MAX_COMPLETED_SPANS
+        }
+        val completedSpanTtlMs = if (config.hasKey(SPAN_STORE_COMPLETED_SPAN_TTL_MS_KEY)) {
+            config.getDouble(SPAN_STORE_COMPLETED_SPAN_TTL_MS_KEY).toLong()
+        } else {
+            DEFAULT_COMPLETED_SPAN_TTL_MS
+        }
+        val activeSpanOverflow = when (overflow) {
+            null, "endOldest" -> ActiveSpanOverflow.END_OLDEST
+            "reject" -> ActiveSpanOverflow.REJECT
+            else -> {
+                log.warning("invalid activeSpanOverflow for configureSpanStore: $overflow")
+                ActiveSpanOverflow.END_OLDEST
             }
-        } catch (e: IllegalArgumentException) {
-            log.warning("invalid statusCode for setStatus: $statusCode")
+        }
+
+        execute {
+            spans.configure(maxActiveSpans, maxCompletedSpans, completedSpanTtlMs, activeSpanOverflow)
         }
     }
 
+    /**
+     * Resolves with the number of spans currently being tracked along with counters of spans that had to be dropped:
+     * completed spans evicted to stay under the maximum or expired past their ttl, active spans force ended or
+     * rejected to stay under the maximum, and spans started with a parent that was no longer being tracked
+     */
     @ReactMethod
-    fun updateName(spanBridgeId: String, name: String) {
-        val span = getSpan(spanBridgeId) ?: return
-        span.updateName(name)
+    fun getSpanStoreStats(promise: Promise) {
+        execute({ promise.reject("GET_SPAN_STORE_STATS", "span executor dropped the operation") }) {
+            val stats = spans.stats()
+            val map = this.writableMapBuilder.build()
+
+            map.putInt("activeSpans", stats.activeSpans)
+            map.putInt("completedSpans", stats.completedSpans)
+            map.putDouble("evicted", stats.evicted.toDouble())
+            map.putDouble("expired", stats.expired.toDouble())
+            map.putDouble("forceEnded", stats.forceEnded.toDouble())
+            map.putDouble("rejected", stats.rejected.toDouble())
+            map.putDouble("orphaned", stats.orphaned.toDouble())
+            map.putDouble("orphansEnded", stats.orphansEnded.toDouble())
+
+            promise.resolve(map)
+        }
     }
 
+    /**
+     * Moves span operations off the native modules thread onto a dedicated executor, should be called before any spans
+     * are started. Has no effect if the executor has already been enabled
+     */
     @ReactMethod
-    fun endSpan(spanBridgeId: String, endTime: Double) {
-        val span = getSpan(spanBridgeId) ?: return
+    fun enableSpanExecutor(config: ReadableMap) {
+        if (spanExecutor != null) {
+            return
+        }
 
-        if (endTime == 0.0) {
-            span.end()
+        val capacity = if (config.hasKey(SPAN_EXECUTOR_QUEUE_CAPACITY_KEY)) {
+            config.getInt(SPAN_EXECUTOR_QUEUE_CAPACITY_KEY)
         } else {
-            span.end(endTime.toLong(), TimeUnit.MILLISECONDS)
+            DEFAULT_SPAN_EXECUTOR_CAPACITY
         }
 
-        activeSpans.remove(spanBridgeId)
-        if (completedSpans.size > MAX_STORED_SPANS) {
-            log.warning("too many completed spans being tracked, ignoring")
+        val policy = if (config.hasKey(SPAN_EXECUTOR_FULL_QUEUE_POLICY_KEY)) {
+            config.getString(SPAN_EXECUTOR_FULL_QUEUE_POLICY_KEY)
         } else {
-            completedSpans[spanBridgeId] = span
+            null
         }
+
+        spanExecutor = SpanExecutor(
+            capacity,
+            when (policy) {
+                null, "dropNewest" -> FullQueuePolicy.DROP_NEWEST
+                "dropOldest" -> FullQueuePolicy.DROP_OLDEST
+                "block" -> FullQueuePolicy.BLOCK
+                else -> {
+                    log.warning("invalid fullQueuePolicy for enableSpanExecutor: $policy")
+                    FullQueuePolicy.DROP_NEWEST
+                }
+            },
+            log
+        )
     }
 
+    /**
+     * Resolves with the executor's current and maximum queue depth, operation counts and how long operations waited
+     * between being submitted and applied, or null if the executor is not enabled. The stats are read on the executor
+     * once the operations submitted before this call have been applied, so this request itself is counted as submitted
+     * and applied
+     */
     @ReactMethod
-    fun clearCompletedSpans() {
-        completedSpans.clear()
+    fun getSpanExecutorStats(promise: Promise) {
+        val executor = spanExecutor
+        if (executor == null) {
+            promise.resolve(null)
+            return
+        }
+
+        execute({ promise.reject("GET_SPAN_EXECUTOR_STATS", "span executor dropped the operation") }) {
+            val stats = executor.stats()
+            val map = this.writableMapBuilder.build()
+
+            map.putInt("queueDepth", stats.queueDepth)
+            map.putInt("maxQueueDepth", stats.maxQueueDepth)
+            map.putDouble("submitted", stats.submitted.toDouble())
+            map.putDouble("applied", stats.applied.toDouble())
+            map.putDouble("dropped", stats.dropped.toDouble())
+            map.putDouble("meanLatencyMs", stats.meanLatencyNanos / NANOS_PER_MILLI)
+            map.putDouble("maxLatencyMs", stats.maxLatencyNanos / NANOS_PER_MILLI)
+
+            promise.resolve(map)
+        }
+    }
+
+    /**
+     * Starts periodically ending spans that have been active for longer than `maxSpanAgeMs`, such as those left behind
+     * by components that unmounted before ending them. Calling it again replaces the previous configuration
+     */
+    @ReactMethod
+    fun enableOrphanedSpanSweeper(config: ReadableMap) {
+        if (!config.hasKey(ORPHANED_SPANS_MAX_SPAN_AGE_MS_KEY)) {
+            log.warning("maxSpanAgeMs is required for enableOrphanedSpanSweeper")
+            return
+        }
+
+        val maxSpanAgeMs = config.getDouble(ORPHANED_SPANS_MAX_SPAN_AGE_MS_KEY).toLong()
+        val sweepIntervalMs = if (config.hasKey(ORPHANED_SPANS_SWEEP_INTERVAL_MS_KEY)) {
+            config.getDouble(ORPHANED_SPANS_SWEEP_INTERVAL_MS_KEY).toLong()
+        } else {
+            minOf(DEFAULT_ORPHANED_SPANS_SWEEP_INTERVAL_MS, maxSpanAgeMs)
+        }
+
+        if (maxSpanAgeMs <= 0 || sweepIntervalMs <= 0) {
+            log.warning("invalid config for enableOrphanedSpanSweeper: $maxSpanAgeMs $sweepIntervalMs")
+            return
+        }
+
+        val sweeper = Executors.newSingleThreadScheduledExecutor { runnable ->
+            Thread(runnable, "embrace-orphaned-span-sweeper").apply { isDaemon = true }
+        }
+        // Sweeps only decide when to look for orphans, the spans are ended through `execute` so that it happens in order
+        // with the rest of the span operations when the executor is enabled
+        sweeper.scheduleWithFixedDelay(
+            { execute { endOrphanedSpans(maxSpanAgeMs) } },
+            sweepIntervalMs,
+            sweepIntervalMs,
+            TimeUnit.MILLISECONDS
+        )
+
+        synchronized(this) {
+            orphanedSpanSweeper?.shutdownNow()
+            orphanedSpanSweeper = sweeper
+        }
+    }
+
+    private fun endOrphanedSpans(maxSpanAgeMs: Long) {
+        val orphans = spans.takeOrphaned(maxSpanAgeMs)
+        if (orphans.isEmpty()) {
+            return
+        }
+
+        log.warning("ending ${orphans.size} span(s) active for longer than ${maxSpanAgeMs}ms")
+        orphans.forEach {
+            it.setAttribute(ORPHANED_ATTRIBUTE, true)
+            it.setStatus(StatusCode.ERROR, ORPHANED_STATUS_MESSAGE)
+            it.end()
+        }
+    }
+
+    /**
+     * Resolves with a histogram of how long the currently active spans have been running, keyed by the upper bound of
+     * each bucket in milliseconds, along with the number of active spans per tracer handle. Meant for tracking down
+     * spans that are never ended
+     */
+    @ReactMethod
+    fun getActiveSpanStats(promise: Promise) {
+        execute({ promise.reject("GET_ACTIVE_SPAN_STATS", "span executor dropped the operation") }) {
+            val ages = spans.activeSpanAges(ACTIVE_SPAN_AGE_BUCKETS_MS)
+            val map = this.writableMapBuilder.build()
+
+            val buckets = this.writableMapBuilder.build()
+            ages.ageBucketCounts.forEachIndexed { i, count ->
+                buckets.putInt(if (i < ACTIVE_SPAN_AGE_BUCKETS_MS.size) ACTIVE_SPAN_AGE_BUCKETS_MS[i].toString() else "+Inf", count)
+            }
+
+            val byTracer = this.writableMapBuilder.build()
+            ages.activeSpansByTracer.forEach { (tracerHandle, count) ->
+                byTracer.putInt(tracerHandle.toString(), count)
+            }
+
+            map.putInt("activeSpans", ages.ageBucketCounts.sum())
+            map.putDouble("oldestAgeMs", ages.oldestAgeMs.toDouble())
+            map.putMap("ageBuckets", buckets)
+            map.putMap("activeSpansByTracer", byTracer)
+
+            promise.resolve(map)
+        }
+    }
+
+    override fun invalidate() {
+        synchronized(this) {
+            orphanedSpanSweeper?.shutdownNow()
+            orphanedSpanSweeper = null
+        }
+        spanExecutor?.shutdown(SPAN_EXECUTOR_SHUTDOWN_TIMEOUT_MS)
+        super.invalidate()
+    }
+
+    /**
+     * Replays a batch of span operations queued on the JS side in a single bridge call, commands are applied in the
+     * order they were issued. Resolves with a map of spanBridgeId -> span context for each span that was successfully
+     * started as part of the batch
+     */
+    @ReactMethod
+    fun applyBatch(commands: ReadableArray, promise: Promise) {
+        execute({ promise.reject("APPLY_BATCH", "span executor dropped the operation") }) {
+            val startedSpans = this.writableMapBuilder.build()
+
+            for (i in 0 until commands.size()) {
+                val command = commands.getArray(i)
+                if (command == null || command.size() == 0) {
+                    log.warning("invalid command in batch at index: $i")
+                    continue
+                }
+
+                try {
+                    applyCommand(command, startedSpans)
+                } catch (e: RuntimeException) {
+                    // A malformed command should not prevent the rest of the batch from being applied
+                    log.warning("failed to apply command in batch at index $i: ${e.message}")
+                }
+            }
+
+            promise.resolve(startedSpans)
+        }
+    }
+
+    private fun applyCommand(command: ReadableArray, startedSpans: WritableMap) {
+        when (val op = command.getString(0)) {
+            BATCH_START_SPAN -> {
+                val spanBridgeId = command.getDouble(2).toLong()
+                val span = createSpan(
+                    command.getDouble(1).toInt(),
+                    spanBridgeId,
+                    command.getString(3) ?: "",
+                    command.getString(4) ?: "",
+                    command.getDouble(5),
+                    command.getMap(6) ?: JavaOnlyMap(),
+                    command.getArray(7) ?: JavaOnlyArray(),
+                    command.getDouble(8).toLong(),
+                    command.getString(9) ?: "",
+                    command.getString(10) ?: ""
+                ) { msg -> log.warning("failed to start span $spanBridgeId in batch: $msg") }
+
+                if (span != null) {
+                    startedSpans.putMap(spanBridgeId.toString(), spanContextToWritableMap(span.spanContext))
+                }
+            }
+            BATCH_SET_ATTRIBUTES -> setAttributes(command.getDouble(1), command.getMap(2) ?: JavaOnlyMap())
+            BATCH_ADD_EVENT -> addEvent(
+                command.getDouble(1),
+                command.getString(2) ?: "",
+                command.getMap(3) ?: JavaOnlyMap(),
+                command.getDouble(4)
+            )
+            BATCH_ADD_LINKS -> addLinks(command.getDouble(1), command.getArray(2) ?: JavaOnlyArray())
+            BATCH_SET_STATUS -> setStatus(command.getDouble(1), command.getMap(2) ?: JavaOnlyMap())
+            BATCH_UPDATE_NAME -> updateName(command.getDouble(1), command.getString(2) ?: "")
+            BATCH_END_SPAN -> endSpan(command.getDouble(1), command.getDouble(2))
+            else -> log.warning("unknown command in batch: $op")
+        }
     }
 }
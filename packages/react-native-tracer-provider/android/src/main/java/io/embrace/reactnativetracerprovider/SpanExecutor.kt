@@ -0,0 +1,252 @@
+package io.embrace.reactnativetracerprovider
+
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+import java.util.concurrent.atomic.AtomicReferenceArray
+import java.util.concurrent.locks.LockSupport
+import java.util.logging.Logger
+
+const val DEFAULT_SPAN_EXECUTOR_CAPACITY = 4096
+
+private const val IDLE_PARK_NANOS = 10_000_000L
+private const val FULL_PARK_NANOS = 50_000L
+
+/**
+ * What to do when an operation is submitted while the queue is full
+ */
+enum class FullQueuePolicy {
+    /** Discard the operation being submitted */
+    DROP_NEWEST,
+
+    /** Discard the operation that has been waiting the longest to make room */
+    DROP_OLDEST,
+
+    /** Wait for the executor to make room, applies backpressure to the submitting thread */
+    BLOCK
+}
+
+/**
+ * Snapshot of the executor's queue and how long operations wait in it
+ */
+data class SpanExecutorStats(
+    val queueDepth: Int,
+    val maxQueueDepth: Int,
+    val submitted: Long,
+    val applied: Long,
+    val dropped: Long,
+    val meanLatencyNanos: Long,
+    val maxLatencyNanos: Long
+)
+
+private class SpanOperation(
+    val submittedAt: Long,
+    val run: () -> Unit,
+    val onDropped: (() -> Unit)?
+)
+
+/**
+ * Applies span operations on a dedicated thread rather than on the shared native modules thread, so a burst of span
+ * work doesn't hold up calls to unrelated modules. Being the only thread that applies operations also means they are
+ * applied in the order they were submitted.
+ *
+ * Operations are handed over through a bounded lock-free queue based on Dmitry Vyukov's bounded MPMC queue, each slot
+ * carries a sequence number that tells producers and the consumer whether it is free or holds an operation. It is
+ * multi-consumer safe so that under DROP_OLDEST a producer can take the oldest operation off the head itself.
+ */
+class SpanExecutor(
+    capacity: Int = DEFAULT_SPAN_EXECUTOR_CAPACITY,
+    private val fullQueuePolicy: FullQueuePolicy = FullQueuePolicy.DROP_NEWEST,
+    private val log: Logger = Logger.getLogger("[Embrace]")
+) {
+    private val capacity = Integer.highestOneBit(maxOf(capacity, 2) * 2 - 1)
+    private val mask = this.capacity - 1
+    private val buffer = AtomicReferenceArray<SpanOperation?>(this.capacity)
+    private val sequences = AtomicLongArray(this.capacity)
+    private val head = AtomicLong()
+    private val tail = AtomicLong()
+
+    private val running = AtomicBoolean(true)
+    private val sleeping = AtomicBoolean(false)
+
+    private val submitted = AtomicLong()
+    private val applied = AtomicLong()
+    private val dropped = AtomicLong()
+    private val totalLatencyNanos = AtomicLong()
+    private val maxLatencyNanos = AtomicLong()
+    private val maxQueueDepth = AtomicLong()
+
+    private val thread = Thread(::drain, "embrace-span-executor")
+
+    init {
+        for (i in 0 until this.capacity) {
+            sequences.set(i, i.toLong())
+        }
+        thread.isDaemon = true
+        thread.start()
+    }
+
+    private fun offer(operation: SpanOperation): Boolean {
+        var pos = tail.get()
+        while (true) {
+            val i = (pos and mask.toLong()).toInt()
+            val diff = sequences.get(i) - pos
+            if (diff == 0L) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    buffer.set(i, operation)
+                    sequences.set(i, pos + 1)
+                    return true
+                }
+                pos = tail.get()
+            } else if (diff < 0) {
+                return false
+            } else {
+                pos = tail.get()
+            }
+        }
+    }
+
+    private fun poll(): SpanOperation? {
+        var pos = head.get()
+        while (true) {
+            val i = (pos and mask.toLong()).toInt()
+            val diff = sequences.get(i) - (pos + 1)
+            if (diff == 0L) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    val operation = buffer.get(i)
+                    buffer.set(i, null)
+                    sequences.set(i, pos + capacity)
+                    return operation
+                }
+                pos = head.get()
+            } else if (diff < 0) {
+                return null
+            } else {
+                pos = head.get()
+            }
+        }
+    }
+
+    fun isExecutorThread(): Boolean = Thread.currentThread() === thread
+
+    val queueDepth: Int
+        get() = (tail.get() - head.get()).coerceIn(0, capacity.toLong()).toInt()
+
+    /**
+     * Queues an operation to be applied on the executor's thread. `onDropped` is invoked instead if the operation is
+     * discarded because the queue was full or the executor has been shut down, which gives promise based calls a
+     * chance to reject rather than never settling. Under BLOCK a full queue is waited on for at most `maxBlockNanos`
+     * before the operation is dropped
+     */
+    fun submit(onDropped: (() -> Unit)? = null, maxBlockNanos: Long = Long.MAX_VALUE, run: () -> Unit) {
+        val operation = SpanOperation(System.nanoTime(), run, onDropped)
+
+        if (!running.get()) {
+            drop(operation)
+            return
+        }
+
+        while (!offer(operation)) {
+            when (fullQueuePolicy) {
+                FullQueuePolicy.DROP_NEWEST -> {
+                    drop(operation)
+                    return
+                }
+                FullQueuePolicy.DROP_OLDEST -> poll()?.let { drop(it) }
+                FullQueuePolicy.BLOCK -> {
+                    wake()
+                    LockSupport.parkNanos(FULL_PARK_NANOS)
+                    if (!running.get() || System.nanoTime() - operation.submittedAt >= maxBlockNanos) {
+                        drop(operation)
+                        return
+                    }
+                }
+            }
+        }
+
+        submitted.incrementAndGet()
+        val depth = queueDepth.toLong()
+        if (depth > maxQueueDepth.get()) {
+            maxQueueDepth.accumulateAndGet(depth) { a, b -> maxOf(a, b) }
+        }
+
+        // Shut down since `running` was checked above, the executor thread may already have stopped draining so
+        // nothing would ever apply or drop the operation
+        if (!running.get()) {
+            dropQueued()
+            return
+        }
+        wake()
+    }
+
+    private fun drop(operation: SpanOperation) {
+        dropped.incrementAndGet()
+        log.warning("dropping span operation, the queue is full or the executor has been shut down")
+        operation.onDropped?.invoke()
+    }
+
+    private fun dropQueued() {
+        while (true) {
+            drop(poll() ?: return)
+        }
+    }
+
+    private fun wake() {
+        if (sleeping.compareAndSet(true, false)) {
+            LockSupport.unpark(thread)
+        }
+    }
+
+    private fun drain() {
+        while (running.get() || queueDepth > 0) {
+            val operation = poll()
+            if (operation == null) {
+                sleeping.set(true)
+                // Checked again after flagging as sleeping so an operation submitted in between isn't missed
+                if (queueDepth == 0 && running.get()) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS)
+                }
+                sleeping.set(false)
+                continue
+            }
+
+            val latency = System.nanoTime() - operation.submittedAt
+            totalLatencyNanos.addAndGet(latency)
+            if (latency > maxLatencyNanos.get()) {
+                maxLatencyNanos.accumulateAndGet(latency) { a, b -> maxOf(a, b) }
+            }
+
+            applied.incrementAndGet()
+            try {
+                operation.run()
+            } catch (e: RuntimeException) {
+                // An operation failing should not take the executor down with it
+                log.warning("failed to apply span operation: ${e.message}")
+            }
+        }
+    }
+
+    fun stats(): SpanExecutorStats {
+        val appliedCount = applied.get()
+        return SpanExecutorStats(
+            queueDepth,
+            maxQueueDepth.get().toInt(),
+            submitted.get(),
+            appliedCount,
+            dropped.get(),
+            if (appliedCount == 0L) 0 else totalLatencyNanos.get() / appliedCount,
+            maxLatencyNanos.get()
+        )
+    }
+
+    /**
+     * Stops accepting operations, waiting up to `timeoutMs` for the ones already queued to be applied. Whatever is left
+     * after that, or was queued while shutting down, is dropped
+     */
+    fun shutdown(timeoutMs: Long) {
+        running.set(false)
+        LockSupport.unpark(thread)
+        thread.join(timeoutMs)
+        dropQueued()
+    }
+}
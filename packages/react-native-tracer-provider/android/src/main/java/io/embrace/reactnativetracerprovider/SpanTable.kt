@@ -0,0 +1,501 @@
+package io.embrace.reactnativetracerprovider
+
+import io.opentelemetry.api.trace.Span
+import java.util.concurrent.TimeUnit
+
+private const val DEFAULT_CAPACITY = 64
+
+// Should not get hit under normal circumstances, guards against misinstrumentation
+const val DEFAULT_MAX_ACTIVE_SPANS = 10000
+const val DEFAULT_MAX_COMPLETED_SPANS = 10000
+
+// Completed spans are only kept around so they can be referenced as parents, past this point they are unlikely to be
+const val DEFAULT_COMPLETED_SPAN_TTL_MS = 10L * 60 * 1000
+
+private const val STATE_EMPTY: Byte = 0
+private const val STATE_ACTIVE: Byte = 1
+private const val STATE_COMPLETED: Byte = 2
+private const val STATE_REMOVED: Byte = 3
+
+private const val NONE = -1
+
+// Golden ratio multiplier to spread sequential handles across the table (Fibonacci hashing)
+private const val HASH_MULTIPLIER = -0x61c8864680b583ebL
+
+private fun monotonicMillis(): Long = TimeUnit.NANOSECONDS.toMillis(System.nanoTime())
+
+/**
+ * What to do when a span is started while the maximum number of active spans are already being tracked
+ */
+enum class ActiveSpanOverflow {
+    /** End the span that was started the longest time ago to make room for the new one */
+    END_OLDEST,
+
+    /** Refuse to start the new span */
+    REJECT
+}
+
+/**
+ * Snapshot of the table's size and the counters of spans it has had to drop
+ */
+data class SpanTableStats(
+    val activeSpans: Int,
+    val completedSpans: Int,
+    val evicted: Long,
+    val expired: Long,
+    val forceEnded: Long,
+    val rejected: Long,
+    val orphaned: Long,
+    val orphansEnded: Long
+)
+
+/**
+ * Snapshot of how long the currently active spans have been running. `ageBucketCounts` has one more entry than the
+ * bounds it was taken with, the last one counting spans older than the highest bound
+ */
+data class ActiveSpanAges(
+    val ageBucketCounts: List<Int>,
+    val activeSpansByTracer: Map<Int, Int>,
+    val oldestAgeMs: Long
+)
+
+/**
+ * Open addressing hash table keyed by the numeric span handles assigned on the JS side.
+ *
+ * Replaces a pair of ConcurrentHashMap<String, Span> for active and completed spans. Each slot carries a state byte so
+ * that both live in the same table, and keys are primitive longs so a lookup needs no string building, hashing or
+ * boxing. Uses linear probing and is kept at most half full, counting removed slots, so that probe sequences stay short.
+ *
+ * Both kinds of span are also threaded onto intrusive doubly linked lists through the slots so that the table can be
+ * bounded without scanning it: active spans in the order they were started so the oldest can be force ended once
+ * `maxActiveSpans` is reached, and completed spans in least recently used order so the coldest are evicted once
+ * `maxCompletedSpans` is reached or once they have gone unused for `completedSpanTtlMs`.
+ *
+ * Methods are synchronized since spans can be started from the JS thread through startSpanSync while the rest of the
+ * module's methods run on the native modules thread.
+ */
+class SpanTable(
+    initialCapacity: Int = DEFAULT_CAPACITY,
+    private val clock: () -> Long = ::monotonicMillis
+) {
+    private var keys: LongArray
+    private var values: Array<Span?>
+    private var states: ByteArray
+    private var prev: IntArray
+    private var next: IntArray
+    private var accessedAt: LongArray
+    private var tracerHandles: IntArray
+    private var mask: Int
+    private var shift: Int
+    private var removedSlots = 0
+
+    private var activeHead = NONE
+    private var activeTail = NONE
+    private var completedHead = NONE
+    private var completedTail = NONE
+
+    private var maxActiveSpans = DEFAULT_MAX_ACTIVE_SPANS
+    private var maxCompletedSpans = DEFAULT_MAX_COMPLETED_SPANS
+    private var completedSpanTtlMs = DEFAULT_COMPLETED_SPAN_TTL_MS
+    private var activeSpanOverflow = ActiveSpanOverflow.END_OLDEST
+
+    private var evicted = 0L
+    private var expired = 0L
+    private var forceEnded = 0L
+    private var rejected = 0L
+    private var orphaned = 0L
+    private var orphansEnded = 0L
+
+    var activeCount = 0
+        private set
+
+    var completedCount = 0
+        private set
+
+    init {
+        val capacity = Integer.highestOneBit(maxOf(initialCapacity, 2) * 2 - 1)
+        keys = LongArray(capacity)
+        values = arrayOfNulls(capacity)
+        states = ByteArray(capacity)
+        prev = IntArray(capacity)
+        next = IntArray(capacity)
+        accessedAt = LongArray(capacity)
+        tracerHandles = IntArray(capacity)
+        mask = capacity - 1
+        shift = Long.SIZE_BITS - Integer.numberOfTrailingZeros(capacity)
+    }
+
+    /**
+     * Updates the bounds of the table, a ttl of 0 keeps completed spans until they are evicted or cleared. Lowering a
+     * bound takes effect the next time a span is started or completed
+     */
+    @Synchronized
+    fun configure(
+        maxActiveSpans: Int,
+        maxCompletedSpans: Int,
+        completedSpanTtlMs: Long,
+        activeSpanOverflow: ActiveSpanOverflow
+    ) {
+        this.maxActiveSpans = maxOf(maxActiveSpans, 1)
+        this.maxCompletedSpans = maxOf(maxCompletedSpans, 0)
+        this.completedSpanTtlMs = maxOf(completedSpanTtlMs, 0L)
+        this.activeSpanOverflow = activeSpanOverflow
+    }
+
+    @Synchronized
+    fun stats(): SpanTableStats =
+        SpanTableStats(activeCount, completedCount, evicted, expired, forceEnded, rejected, orphaned, orphansEnded)
+
+    /**
+     * Records a span that was started with a parent handle the table no longer knows about
+     */
+    @Synchronized
+    fun recordOrphaned() {
+        orphaned++
+    }
+
+    private fun slotFor(handle: Long): Int = ((handle * HASH_MULTIPLIER) ushr shift).toInt()
+
+    private fun indexOf(handle: Long): Int {
+        var i = slotFor(handle)
+        while (true) {
+            val state = states[i]
+            if (state == STATE_EMPTY) {
+                return -1
+            }
+            if (state != STATE_REMOVED && keys[i] == handle) {
+                return i
+            }
+            i = (i + 1) and mask
+        }
+    }
+
+    private fun linkActive(i: Int) {
+        prev[i] = activeTail
+        next[i] = NONE
+        if (activeTail == NONE) activeHead = i else next[activeTail] = i
+        activeTail = i
+    }
+
+    private fun unlinkActive(i: Int) {
+        if (prev[i] == NONE) activeHead = next[i] else next[prev[i]] = next[i]
+        if (next[i] == NONE) activeTail = prev[i] else prev[next[i]] = prev[i]
+    }
+
+    private fun linkCompleted(i: Int) {
+        prev[i] = completedTail
+        next[i] = NONE
+        if (completedTail == NONE) completedHead = i else next[completedTail] = i
+        completedTail = i
+    }
+
+    private fun unlinkCompleted(i: Int) {
+        if (prev[i] == NONE) completedHead = next[i] else next[prev[i]] = next[i]
+        if (next[i] == NONE) completedTail = prev[i] else prev[next[i]] = prev[i]
+    }
+
+    private fun dropSlot(i: Int) {
+        if (states[i] == STATE_ACTIVE) {
+            unlinkActive(i)
+            activeCount--
+        } else {
+            unlinkCompleted(i)
+            completedCount--
+        }
+        states[i] = STATE_REMOVED
+        values[i] = null
+        removedSlots++
+    }
+
+    private fun isExpired(i: Int, now: Long): Boolean =
+        completedSpanTtlMs > 0 && now - accessedAt[i] >= completedSpanTtlMs
+
+    /**
+     * Completed spans are kept in least recently used order so the expired ones are always at the head of the list
+     */
+    private fun expireCompleted(now: Long) {
+        while (completedHead != NONE && isExpired(completedHead, now)) {
+            dropSlot(completedHead)
+            expired++
+        }
+    }
+
+    private fun evictCompleted() {
+        while (completedCount > maxCompletedSpans) {
+            dropSlot(completedHead)
+            evicted++
+        }
+    }
+
+    /**
+     * Returns the span for the handle whether it is active or completed, counting as an access for completed spans
+     */
+    @Synchronized
+    fun get(handle: Long): Span? {
+        val i = indexOf(handle)
+        if (i < 0) {
+            return null
+        }
+
+        if (states[i] == STATE_COMPLETED) {
+            val now = clock()
+            if (isExpired(i, now)) {
+                dropSlot(i)
+                expired++
+                return null
+            }
+            accessedAt[i] = now
+            unlinkCompleted(i)
+            linkCompleted(i)
+        }
+
+        return values[i]
+    }
+
+    @Synchronized
+    fun isActive(handle: Long): Boolean {
+        val i = indexOf(handle)
+        return i >= 0 && states[i] == STATE_ACTIVE
+    }
+
+    /**
+     * Makes sure there is room to track another active span, should be called before starting the span. Force ends the
+     * oldest active spans if configured to do so, otherwise returns false if the new span should be rejected
+     */
+    fun reserveActive(): Boolean {
+        val toEnd = mutableListOf<Span>()
+
+        synchronized(this) {
+            if (activeCount < maxActiveSpans) {
+                return true
+            }
+
+            if (activeSpanOverflow == ActiveSpanOverflow.REJECT) {
+                rejected++
+                return false
+            }
+
+            val now = clock()
+            while (activeCount >= maxActiveSpans) {
+                val i = activeHead
+                values[i]?.let { toEnd.add(it) }
+                unlinkActive(i)
+                activeCount--
+                states[i] = STATE_COMPLETED
+                accessedAt[i] = now
+                linkCompleted(i)
+                completedCount++
+                forceEnded++
+            }
+            evictCompleted()
+        }
+
+        // Ended outside the lock since ending a span runs its processors, the spans are already out of the active
+        // list so concurrent callers won't pick them again
+        toEnd.forEach { it.end() }
+        return true
+    }
+
+    /**
+     * Moves active spans that were started at least `maxAgeMs` ago to completed and returns them so the caller can end
+     * them outside the lock. They are kept as completed so spans started after them can still reference them as parents
+     */
+    @Synchronized
+    fun takeOrphaned(maxAgeMs: Long): List<Span> {
+        val now = clock()
+        val orphans = mutableListOf<Span>()
+
+        // Active spans are kept in the order they were started so the ones past the maximum age are at the head
+        while (activeHead != NONE && now - accessedAt[activeHead] >= maxAgeMs) {
+            val i = activeHead
+            values[i]?.let { orphans.add(it) }
+            unlinkActive(i)
+            activeCount--
+            states[i] = STATE_COMPLETED
+            accessedAt[i] = now
+            linkCompleted(i)
+            completedCount++
+            orphansEnded++
+        }
+
+        if (orphans.isNotEmpty()) {
+            evictCompleted()
+        }
+        return orphans
+    }
+
+    /**
+     * Buckets the active spans by how long ago they were started, `bucketBoundsMs` should be in ascending order
+     */
+    @Synchronized
+    fun activeSpanAges(bucketBoundsMs: LongArray): ActiveSpanAges {
+        val now = clock()
+        val counts = IntArray(bucketBoundsMs.size + 1)
+        val byTracer = mutableMapOf<Int, Int>()
+
+        var i = activeHead
+        while (i != NONE) {
+            val age = now - accessedAt[i]
+            var bucket = 0
+            while (bucket < bucketBoundsMs.size && age > bucketBoundsMs[bucket]) {
+                bucket++
+            }
+            counts[bucket]++
+            byTracer[tracerHandles[i]] = (byTracer[tracerHandles[i]] ?: 0) + 1
+            i = next[i]
+        }
+
+        val oldestAgeMs = if (activeHead == NONE) 0L else now - accessedAt[activeHead]
+        return ActiveSpanAges(counts.toList(), byTracer, oldestAgeMs)
+    }
+
+    /**
+     * Tracks a span as active, `accessedAt` is not updated again while it stays active so it doubles as the time the
+     * span was started. `tracerHandle` is only recorded for diagnostics
+     */
+    @Synchronized
+    fun putActive(handle: Long, span: Span, tracerHandle: Int = 0) {
+        val now = clock()
+        expireCompleted(now)
+
+        val existing = indexOf(handle)
+        if (existing >= 0) {
+            if (states[existing] == STATE_COMPLETED) {
+                unlinkCompleted(existing)
+                completedCount--
+                states[existing] = STATE_ACTIVE
+                linkActive(existing)
+                activeCount++
+            }
+            values[existing] = span
+            accessedAt[existing] = now
+            tracerHandles[existing] = tracerHandle
+            return
+        }
+
+        if ((activeCount + completedCount + removedSlots + 1) * 2 > states.size) {
+            rehash()
+        }
+
+        var i = slotFor(handle)
+        while (states[i] == STATE_ACTIVE || states[i] == STATE_COMPLETED) {
+            i = (i + 1) and mask
+        }
+        if (states[i] == STATE_REMOVED) {
+            removedSlots--
+        }
+        keys[i] = handle
+        values[i] = span
+        states[i] = STATE_ACTIVE
+        accessedAt[i] = now
+        tracerHandles[i] = tracerHandle
+        linkActive(i)
+        activeCount++
+    }
+
+    /**
+     * Moves an active span to completed, returns false if there was no active span for the handle
+     */
+    @Synchronized
+    fun markCompleted(handle: Long): Boolean {
+        val i = indexOf(handle)
+        if (i < 0 || states[i] != STATE_ACTIVE) {
+            return false
+        }
+
+        val now = clock()
+        unlinkActive(i)
+        activeCount--
+        states[i] = STATE_COMPLETED
+        accessedAt[i] = now
+        linkCompleted(i)
+        completedCount++
+
+        expireCompleted(now)
+        evictCompleted()
+        return true
+    }
+
+    @Synchronized
+    fun remove(handle: Long): Span? {
+        val i = indexOf(handle)
+        if (i < 0) {
+            return null
+        }
+        val span = values[i]
+        dropSlot(i)
+        return span
+    }
+
+    @Synchronized
+    fun clearCompleted() {
+        if (completedCount == 0) {
+            return
+        }
+        while (completedHead != NONE) {
+            dropSlot(completedHead)
+        }
+        rehash()
+    }
+
+    /**
+     * Rebuilds the table dropping removed slots, growing it if live entries would otherwise take up more than half.
+     * Entries are re-inserted by walking the lists so that start and access order are preserved
+     */
+    private fun rehash() {
+        val live = activeCount + completedCount
+        var capacity = states.size
+        while ((live + 1) * 2 > capacity) {
+            capacity *= 2
+        }
+
+        val oldKeys = keys
+        val oldValues = values
+        val oldNext = next
+        val oldAccessedAt = accessedAt
+        val oldTracerHandles = tracerHandles
+        val oldActiveHead = activeHead
+        val oldCompletedHead = completedHead
+
+        keys = LongArray(capacity)
+        values = arrayOfNulls(capacity)
+        states = ByteArray(capacity)
+        prev = IntArray(capacity)
+        next = IntArray(capacity)
+        accessedAt = LongArray(capacity)
+        tracerHandles = IntArray(capacity)
+        mask = capacity - 1
+        shift = Long.SIZE_BITS - Integer.numberOfTrailingZeros(capacity)
+        removedSlots = 0
+        activeHead = NONE
+        activeTail = NONE
+        completedHead = NONE
+        completedTail = NONE
+
+        var j = oldActiveHead
+        while (j != NONE) {
+            val i = reinsert(oldKeys[j], oldValues[j], STATE_ACTIVE, oldAccessedAt[j])
+            tracerHandles[i] = oldTracerHandles[j]
+            linkActive(i)
+            j = oldNext[j]
+        }
+
+        j = oldCompletedHead
+        while (j != NONE) {
+            linkCompleted(reinsert(oldKeys[j], oldValues[j], STATE_COMPLETED, oldAccessedAt[j]))
+            j = oldNext[j]
+        }
+    }
+
+    private fun reinsert(handle: Long, span: Span?, state: Byte, accessed: Long): Int {
+        var i = slotFor(handle)
+        while (states[i] != STATE_EMPTY) {
+            i = (i + 1) and mask
+        }
+        keys[i] = handle
+        values[i] = span
+        states[i] = state
+        accessedAt[i] = accessed
+        return i
+    }
+}
@@ -0,0 +1,49 @@
+package io.embrace.reactnativetracerprovider
+
+import io.opentelemetry.api.trace.Tracer
+
+private const val INITIAL_CAPACITY = 8
+
+// Handles are only allocated for each distinct name/version/schemaUrl, far fewer than this is expected, guards against
+// tracers being created with dynamic names
+const val MAX_TRACERS = 1024
+
+/**
+ * Tracers that have been set up from the JS side, stored in an array indexed by the handle the JS side assigned them
+ * so that looking one up when starting a span doesn't involve building or hashing a key.
+ *
+ * Tracers are set up rarely and never removed while spans are started all the time, so writes copy the array and
+ * publish it through a volatile field which lets reads go without locking.
+ */
+class TracerRegistry {
+    @Volatile
+    private var tracers = arrayOfNulls<Tracer>(INITIAL_CAPACITY)
+
+    fun get(handle: Int): Tracer? {
+        val current = tracers
+        return if (handle in 1 until current.size) current[handle] else null
+    }
+
+    fun contains(handle: Int): Boolean = get(handle) != null
+
+    /**
+     * Registers the tracer under the given handle, returns false if the handle is outside of the range supported
+     */
+    @Synchronized
+    fun put(handle: Int, tracer: Tracer): Boolean {
+        if (handle < 1 || handle > MAX_TRACERS) {
+            return false
+        }
+
+        val current = tracers
+        var capacity = current.size
+        while (handle >= capacity) {
+            capacity *= 2
+        }
+
+        val updated = current.copyOf(capacity)
+        updated[handle] = tracer
+        tracers = updated
+        return true
+    }
+}
@@ -24,6 +24,16 @@ private let SPAN_STATUS_MESSAGE_KEY = "message"
 // Should not get hit under normal circumstances, add as a guard against misinstrumentation
 private let MAX_STORED_SPANS = 10000
 
+// Operation names used by the JS command queue when sending a batch through `applyBatch`, each command is an array
+// whose first element is one of these names followed by the same arguments the individual method takes
+private let BATCH_START_SPAN = "startSpan"
+private let BATCH_SET_ATTRIBUTES = "setAttributes"
+private let BATCH_ADD_EVENT = "addEvent"
+private let BATCH_ADD_LINKS = "addLinks"
+private let BATCH_SET_STATUS = "setStatus"
+private let BATCH_UPDATE_NAME = "updateName"
+private let BATCH_END_SPAN = "endSpan"
+
 @objc(ReactNativeTracerProviderModule)
 class ReactNativeTracerProviderModule: NSObject {
   private let tracersQueue = DispatchQueue(
@@ -38,9 +48,10 @@ class ReactNativeTracerProviderModule: NSObject {
     label: "io.embrace.reactnativetracerprovider.completedSpans",
     attributes: .concurrent
   )
-  private var tracers = [String: Tracer]()
-  private var activeSpans = [String: Span]()
-  private var completedSpans = [String: Span]()
+  // Keyed by the numeric handles assigned to tracers and spans on the JS side
+  private var tracers = [Int: Tracer]()
+  private var activeSpans = [Int: Span]()
+  private var completedSpans = [Int: Span]()
   private var tracerProvider: TracerProvider!
   private var log = OSLog(subsystem: "Embrace", category: "ReactNativeTracerProviderModule")
 
@@ -109,11 +120,7 @@ class ReactNativeTracerProviderModule: NSObject {
     return Date(timeIntervalSince1970: TimeInterval(ms / 1000.0))
   }
 
-  private func getTracerKey(name: String, version: String, schemaUrl: String) -> String {
-    return "\(name) \(version) \(schemaUrl)"
-  }
-
-  private func getSpan(spanBridgeId: String) -> Span? {
+  private func getSpan(spanBridgeId: Int) -> Span? {
     var span: Span?
 
     activeSpansQueue.sync {
@@ -127,7 +134,7 @@ class ReactNativeTracerProviderModule: NSObject {
     }
 
     if span == nil {
-      os_log("could not retrieve span with id: %@", log: log, type: .error, spanBridgeId)
+      os_log("could not retrieve span with id: %d", log: log, type: .error, spanBridgeId)
     }
 
     return span
@@ -137,8 +144,8 @@ class ReactNativeTracerProviderModule: NSObject {
    * Methods to allow the JS side to conform to @opentelemetry-js/api
    */
 
-  @objc(setupTracer:version:schemaUrl:)
-  func setupTracer(name: String, version: String, schemaUrl: String) {
+  @objc(setupTracer:name:version:schemaUrl:)
+  func setupTracer(tracerHandle: Int, name: String, version: String, schemaUrl: String) {
     if tracerProvider == nil {
         if let state = Embrace.client?.state as? EmbraceSDKState,
            state == .started {
@@ -149,11 +156,10 @@ class ReactNativeTracerProviderModule: NSObject {
         }
     }
 
-    let id = getTracerKey(name: name, version: version, schemaUrl: schemaUrl)
     var existingTracer: Tracer?
 
     tracersQueue.sync {
-      existingTracer = tracers[id]
+      existingTracer = tracers[tracerHandle]
     }
 
     if existingTracer != nil {
@@ -164,20 +170,21 @@ class ReactNativeTracerProviderModule: NSObject {
     let tracer = tracerProvider.get(instrumentationName: name, instrumentationVersion: version)
 
     tracersQueue.async(flags: .barrier) {
-      self.tracers.updateValue(tracer, forKey: id)
+      self.tracers.updateValue(tracer, forKey: tracerHandle)
     }
   }
 
-  @objc(startSpan:tracerVersion:tracerSchemaUrl:spanBridgeId:name:kind:time:attributes:links:parentId:resolve:reject:)
-  func startSpan(tracerName: String, tracerVersion: String, tracerSchemaUrl: String,
-                 spanBridgeId: String, name: String, kind: String, time: Double,
-                 attributes: NSDictionary, links: NSArray, parentId: String,
+  // traceId and spanId are supplied when IDs are generated on the JS side, this isn't supported on iOS since there is
+  // no way to set the IDs of a span through the OTEL Swift API so they are ignored and the span context returned
+  // reflects the IDs allocated natively
+  @objc(startSpan:spanBridgeId:name:kind:time:attributes:links:parentId:traceId:spanId:resolve:reject:)
+  func startSpan(tracerHandle: Int, spanBridgeId: Int, name: String, kind: String, time: Double,
+                 attributes: NSDictionary, links: NSArray, parentId: Int, traceId: String, spanId: String,
                  resolve: @escaping RCTPromiseResolveBlock, reject: @escaping RCTPromiseRejectBlock) {
-    let tracerKey = getTracerKey(name: tracerName, version: tracerVersion, schemaUrl: tracerSchemaUrl)
     var tracer: Tracer?
 
     tracersQueue.sync {
-      tracer = tracers[tracerKey]
+      tracer = tracers[tracerHandle]
     }
 
     if tracer == nil {
@@ -227,7 +234,8 @@ class ReactNativeTracerProviderModule: NSObject {
     }
 
     // Set parent
-    if !parentId.isEmpty, let parent = getSpan(spanBridgeId: parentId) {
+    // Handles start at 1 so 0 is used to signal no parent
+    if parentId != 0, let parent = getSpan(spanBridgeId: parentId) {
       spanBuilder.setParent(parent)
     } else {
       spanBuilder.setNoParent()
@@ -245,8 +253,33 @@ class ReactNativeTracerProviderModule: NSObject {
     }
   }
 
+  /**
+   * Blocking variant of startSpan that returns the span context inline so that it is available to the JS side as
+   * soon as the span has been started, returns nil if the span could not be started
+   */
+  @objc(startSpanSync:spanBridgeId:name:kind:time:attributes:links:parentId:traceId:spanId:)
+  func startSpanSync(tracerHandle: Int, spanBridgeId: Int, name: String, kind: String, time: Double,
+                     attributes: NSDictionary, links: NSArray, parentId: Int,
+                     traceId: String, spanId: String) -> NSDictionary? {
+    var spanContext: NSDictionary?
+
+    startSpan(tracerHandle: tracerHandle, spanBridgeId: spanBridgeId, name: name, kind: kind, time: time,
+              attributes: attributes, links: links, parentId: parentId, traceId: traceId, spanId: spanId,
+              resolve: { result in
+                spanContext = result as? NSDictionary
+              },
+              reject: { _, message, _ in
+                os_log("failed to start span %d: %@", log: self.log, type: .error, spanBridgeId, message ?? "")
+              })
+
+    // startSpan stores the span from a barrier block, wait for it to run so that the result has been captured
+    activeSpansQueue.sync {}
+
+    return spanContext
+  }
+
   @objc(setAttributes:attributes:)
-  func setAttributes(spanBridgeId: String, attributes: NSDictionary) {
+  func setAttributes(spanBridgeId: Int, attributes: NSDictionary) {
     if let span = getSpan(spanBridgeId: spanBridgeId) {
       for (key, value) in attributesFrom(dict: attributes) {
         span.setAttribute(key: key, value: value)
@@ -255,7 +288,7 @@ class ReactNativeTracerProviderModule: NSObject {
   }
 
   @objc(addEvent:eventName:attributes:time:)
-  func addEvent(spanBridgeId: String, eventName: String, attributes: NSDictionary, time: Double) {
+  func addEvent(spanBridgeId: Int, eventName: String, attributes: NSDictionary, time: Double) {
     if let span = getSpan(spanBridgeId: spanBridgeId) {
       if time.isZero {
         span.addEvent(name: eventName, attributes: attributesFrom(dict: attributes))
@@ -266,13 +299,13 @@ class ReactNativeTracerProviderModule: NSObject {
   }
 
   @objc(addLinks:links:)
-  func addLinks(spanBridgeId: String, links: NSArray) {
+  func addLinks(spanBridgeId: Int, links: NSArray) {
     // not supported by the OTEL Swift API currently
     os_log("adding links is not currently supported", log: log, type: .error)
   }
 
   @objc(setStatus:status:)
-  func setStatus(spanBridgeId: String, status: NSDictionary) {
+  func setStatus(spanBridgeId: Int, status: NSDictionary) {
     if let span = getSpan(spanBridgeId: spanBridgeId),
        let code = status.value(forKey: SPAN_STATUS_CODE_KEY),
        let code = code as? String {
@@ -294,14 +327,14 @@ class ReactNativeTracerProviderModule: NSObject {
   }
 
   @objc(updateName:name:)
-  func updateName(spanBridgeId: String, name: String) {
+  func updateName(spanBridgeId: Int, name: String) {
     if let span = getSpan(spanBridgeId: spanBridgeId) {
       span.name = name
     }
   }
 
   @objc(endSpan:time:)
-  func endSpan(spanBridgeId: String, time: Double) {
+  func endSpan(spanBridgeId: Int, time: Double) {
     if let span = getSpan(spanBridgeId: spanBridgeId) {
       if time.isZero {
         span.end()
@@ -330,4 +363,70 @@ class ReactNativeTracerProviderModule: NSObject {
       self.completedSpans.removeAll()
     }
   }
+
+  /**
+   * Replays a batch of span operations queued on the JS side in a single bridge call, commands are applied in the
+   * order they were issued. Resolves with a dictionary of spanBridgeId -> span context for each span that was
+   * successfully started as part of the batch
+   */
+  @objc(applyBatch:resolve:reject:)
+  func applyBatch(commands: NSArray, resolve: @escaping RCTPromiseResolveBlock, reject: @escaping RCTPromiseRejectBlock) {
+    // Only ever mutated from barrier blocks on activeSpansQueue which is also where startSpan resolves
+    let startedSpans = NSMutableDictionary()
+
+    for (index, command) in commands.enumerated() {
+      guard let command = command as? NSArray, let op = command.firstObject as? String else {
+        os_log("invalid command in batch at index: %d", log: log, type: .error, index)
+        continue
+      }
+
+      applyCommand(op: op, command: command, startedSpans: startedSpans)
+    }
+
+    // Queued behind any barrier blocks issued by startSpan above so all results have been collected by now
+    activeSpansQueue.async(flags: .barrier) {
+      resolve(startedSpans)
+    }
+  }
+
+  private func applyCommand(op: String, command: NSArray, startedSpans: NSMutableDictionary) {
+    let arg = { (index: Int) -> Any? in
+      index < command.count ? command[index] : nil
+    }
+    let stringArg = { (index: Int) -> String in arg(index) as? String ?? "" }
+    let intArg = { (index: Int) -> Int in (arg(index) as? NSNumber)?.intValue ?? 0 }
+    let doubleArg = { (index: Int) -> Double in (arg(index) as? NSNumber)?.doubleValue ?? 0 }
+    let dictArg = { (index: Int) -> NSDictionary in arg(index) as? NSDictionary ?? NSDictionary() }
+    let arrayArg = { (index: Int) -> NSArray in arg(index) as? NSArray ?? NSArray() }
+
+    switch op {
+    case BATCH_START_SPAN:
+      let spanBridgeId = intArg(2)
+      startSpan(tracerHandle: intArg(1), spanBridgeId: spanBridgeId,
+                name: stringArg(3), kind: stringArg(4), time: doubleArg(5),
+                attributes: dictArg(6), links: arrayArg(7), parentId: intArg(8),
+                traceId: stringArg(9), spanId: stringArg(10),
+                resolve: { spanContext in
+                  startedSpans.setValue(spanContext, forKey: String(spanBridgeId))
+                },
+                reject: { _, message, _ in
+                  os_log("failed to start span %d in batch: %@", log: self.log, type: .error,
+                         spanBridgeId, message ?? "")
+                })
+    case BATCH_SET_ATTRIBUTES:
+      setAttributes(spanBridgeId: intArg(1), attributes: dictArg(2))
+    case BATCH_ADD_EVENT:
+      addEvent(spanBridgeId: intArg(1), eventName: stringArg(2), attributes: dictArg(3), time: doubleArg(4))
+    case BATCH_ADD_LINKS:
+      addLinks(spanBridgeId: intArg(1), links: arrayArg(2))
+    case BATCH_SET_STATUS:
+      setStatus(spanBridgeId: intArg(1), status: dictArg(2))
+    case BATCH_UPDATE_NAME:
+      updateName(spanBridgeId: intArg(1), name: stringArg(2))
+    case BATCH_END_SPAN:
+      endSpan(spanBridgeId: intArg(1), time: doubleArg(2))
+    default:
+      os_log("unknown command in batch: %@", log: log, type: .error, op)
+    }
+  }
  }
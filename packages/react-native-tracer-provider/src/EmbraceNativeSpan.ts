@@ -18,62 +18,117 @@ import {
   normalizeTime,
 } from "./util";
 import {SpanContextSyncBehaviour} from "./types";
-import {TracerProviderModule} from "./TracerProviderModule";
+import {
+  applySpanCommand,
+  SpanCommand,
+  SpanCommandQueue,
+} from "./SpanCommandQueue";
 
 /**
  * EmbraceNativeSpan implements a Span over the native Embrace Android and iOS SDKs.
  *
- * A handful of simple attributes are maintained on the JS side for each span including a unique ID based on the
- * tracer's name and version which is used in calls over the bridge to the native modules to perform the actual operations
- * on the span
+ * A handful of simple attributes are maintained on the JS side for each span including a unique numeric ID which is
+ * used in calls over the bridge to the native modules to perform the actual operations on the span
  *
  * The JS side of this implementation is modelled after [opentelemetry-sdk-trace-base](https://github.com/open-telemetry/opentelemetry-js/tree/main/packages/opentelemetry-sdk-trace-base)
  */
 
 // Need an ID that spans from JS can use to communicate with their stored instances on the native side. A uuid would
 // work but did not want to introduce extra work or another dependency here. Instead, it should be enough to keep a
-// global count of the spans created by any tracer or tracer provider and use a given span's createdIndex as their ID
+// global count of the spans created by any tracer or tracer provider and use a given span's createdIndex as their ID.
+// Kept numeric so the native side can store spans in a table keyed by primitive integers rather than strings
 let spansCreated = 0;
 
+// Set once the native side has started a span with other IDs than the ones generated for it on the JS side, after which
+// tracers stop generating IDs on the JS side
+let jsIDsNotAdopted = false;
+
+const nativeAdoptsJSIDs = (): boolean => !jsIDsNotAdopted;
+
 class EmbraceNativeSpan implements Span {
-  private readonly tracerName: string;
-  private readonly tracerVersion: string;
-  private readonly tracerSchemaUrl: string;
   private readonly createdIndex: number;
   private readonly spanContextSyncBehaviour: SpanContextSyncBehaviour;
+  private readonly commandQueue: SpanCommandQueue | null;
   private recording: boolean = true;
   private savedSpanContext: SpanContext | null = null;
   private creating: Promise<SpanContext> | null = null;
 
   constructor(
-    tracerName: string,
-    tracerVersion: string,
-    tracerSchemaUrl: string,
     spanContextSyncBehaviour: SpanContextSyncBehaviour,
+    commandQueue: SpanCommandQueue | null = null,
   ) {
-    this.tracerName = tracerName;
-    this.tracerVersion = tracerVersion;
-    this.tracerSchemaUrl = tracerSchemaUrl;
     this.spanContextSyncBehaviour = spanContextSyncBehaviour;
+    this.commandQueue = commandQueue;
     this.createdIndex = spansCreated++;
   }
 
-  public nativeID(): string {
-    // Only `this.createdIndex` is strictly needed for uniqueness, keeping the other values for debugging purposes
-    return `${this.tracerName}_${this.tracerVersion}_${this.tracerSchemaUrl}_${this.createdIndex}`;
+  public nativeID(): number {
+    // Starts from 1 so that 0 can be passed over the bridge to mean no parent
+    return this.createdIndex + 1;
   }
 
   public creatingNativeSide(creating: Promise<SpanContext>) {
     this.creating = creating;
     this.creating
       .then((spanContext: SpanContext) => {
-        this.savedSpanContext = spanContext;
+        this.adoptNativeSpanContext(spanContext);
       })
       .catch(reason => {
         logWarning(`Failed to create span: ${reason}`);
       });
   }
 
+  /**
+   * Used when the span was started synchronously on the native side and its context is therefore already known
+   */
+  public createdNativeSide(spanContext: SpanContext) {
+    this.adoptNativeSpanContext(spanContext);
+    this.creating = Promise.resolve(spanContext);
+  }
+
+  /**
+   * Used when the span's IDs were generated on the JS side, the span context is available right away and is confirmed
+   * once the native side has started the span
+   */
+  public generatedJSSide(spanContext: SpanContext) {
+    this.savedSpanContext = spanContext;
+  }
+
+  /**
+   * The span context if it is already known, without the fallback `spanContext` applies when it isn't
+   */
+  public knownSpanContext(): SpanContext | null {
+    return this.savedSpanContext;
+  }
+
+  private adoptNativeSpanContext(spanContext: SpanContext) {
+    if (
+      this.savedSpanContext &&
+      !jsIDsNotAdopted &&
+      (this.savedSpanContext.traceId !== spanContext.traceId ||
+        this.savedSpanContext.spanId !== spanContext.spanId)
+    ) {
+      logWarning(
+        "The native tracer provider did not adopt the IDs generated on the JS side, using the native IDs instead",
+      );
+      jsIDsNotAdopted = true;
+    }
+
+    this.savedSpanContext = spanContext;
+  }
+
+  /**
+   * Operations are either sent to the native side immediately or queued to be sent as part of the next batch if
+   * batching has been configured on the EmbraceNativeTracerProvider
+   */
+  private send(command: SpanCommand) {
+    if (this.commandQueue) {
+      this.commandQueue.enqueue(command);
+    } else {
+      applySpanCommand(command);
+    }
+  }
+
   public isReadonly() {
     return !this.recording;
   }
@@ -85,7 +140,8 @@ class EmbraceNativeSpan implements Span {
    *  - return a blank span context
    *  - throw an error
    *
-   * Behaviour can be configured on the EmbraceNativeTracerProvider by supplying spanContextSyncBehaviour
+   * Behaviour can be configured on the EmbraceNativeTracerProvider by supplying spanContextSyncBehaviour, alternatively
+   * setting synchronousSpanStart will have the span context available as soon as the span has been started
    */
   public spanContext(): SpanContext {
     if (this.savedSpanContext) {
@@ -124,10 +180,11 @@ class EmbraceNativeSpan implements Span {
     if (this.isReadonly()) {
       return this;
     }
-    TracerProviderModule.setAttributes(
+    this.send([
+      "setAttributes",
       this.nativeID(),
       normalizeAttributes(attributes),
-    );
+    ]);
     return this;
   }
 
@@ -141,26 +198,29 @@ class EmbraceNativeSpan implements Span {
     }
 
     if (isAttributes(attributesOrStartTime)) {
-      TracerProviderModule.addEvent(
+      this.send([
+        "addEvent",
         this.nativeID(),
         name,
         normalizeAttributes(attributesOrStartTime),
         normalizeTime(timeStamp),
-      );
+      ]);
     } else if (timeStamp) {
-      TracerProviderModule.addEvent(
+      this.send([
+        "addEvent",
         this.nativeID(),
         name,
         normalizeAttributes({}),
         normalizeTime(timeStamp),
-      );
+      ]);
     } else {
-      TracerProviderModule.addEvent(
+      this.send([
+        "addEvent",
         this.nativeID(),
         name,
         normalizeAttributes({}),
         normalizeTime(attributesOrStartTime),
-      );
+      ]);
     }
 
     return this;
@@ -178,7 +238,7 @@ class EmbraceNativeSpan implements Span {
     logWarning(
       "Adding span links is not currently supported by the Embrace SDK",
     );
-    TracerProviderModule.addLinks(this.nativeID(), normalizeLinks(links));
+    this.send(["addLinks", this.nativeID(), normalizeLinks(links)]);
 
     return this;
   }
@@ -188,10 +248,14 @@ class EmbraceNativeSpan implements Span {
       return this;
     }
 
-    TracerProviderModule.setStatus(this.nativeID(), {
-      code: SpanStatusCode[status.code],
-      message: status.message,
-    });
+    this.send([
+      "setStatus",
+      this.nativeID(),
+      {
+        code: SpanStatusCode[status.code],
+        message: status.message,
+      },
+    ]);
 
     return this;
   }
@@ -201,7 +265,7 @@ class EmbraceNativeSpan implements Span {
       return this;
     }
 
-    TracerProviderModule.updateName(this.nativeID(), name);
+    this.send(["updateName", this.nativeID(), name]);
 
     return this;
   }
@@ -211,7 +275,7 @@ class EmbraceNativeSpan implements Span {
       return;
     }
 
-    TracerProviderModule.endSpan(this.nativeID(), normalizeTime(endTime));
+    this.send(["endSpan", this.nativeID(), normalizeTime(endTime)]);
     this.recording = false;
   }
 
@@ -244,13 +308,14 @@ class EmbraceNativeSpan implements Span {
       }
     }
 
-    TracerProviderModule.addEvent(
+    this.send([
+      "addEvent",
       this.nativeID(),
       "exception",
       normalizeAttributes(attributes),
       normalizeTime(time),
-    );
+    ]);
   }
 }
 
-export {EmbraceNativeSpan};
+export {EmbraceNativeSpan, nativeAdoptsJSIDs};
@@ -2,9 +2,11 @@ import {
   Context,
   ContextManager,
   Span,
+  SpanContext,
   SpanKind,
   SpanOptions,
   trace,
+  TraceFlags,
   Tracer,
 } from "@opentelemetry/api";
 
@@ -14,9 +16,33 @@ import {
   normalizeLinks,
   normalizeTime,
 } from "./util";
-import {SpanContextSyncBehaviour} from "./types";
-import {TracerProviderModule} from "./TracerProviderModule";
-import {EmbraceNativeSpan} from "./EmbraceNativeSpan";
+import {IdGeneration, SpanContextSyncBehaviour} from "./types";
+import {
+  applyStartSpanCommand,
+  applyStartSpanCommandSync,
+  SpanCommandQueue,
+  StartSpanCommand,
+  startSpanSyncTimedOut,
+  waitForSpanContext,
+} from "./SpanCommandQueue";
+import {generateSpanId, generateTraceId} from "./IdGenerator";
+import {EmbraceNativeSpan, nativeAdoptsJSIDs} from "./EmbraceNativeSpan";
+
+/**
+ * Generates a span context on the JS side, children continue their parent's trace. A parent started before IDs were
+ * generated on the JS side may not have its context yet, its children then get theirs from the native side as well
+ */
+const generateSpanContext = (
+  parentSpan: EmbraceNativeSpan | null,
+): SpanContext | null => {
+  const traceId = parentSpan
+    ? parentSpan.knownSpanContext()?.traceId
+    : generateTraceId();
+
+  return traceId
+    ? {traceId, spanId: generateSpanId(), traceFlags: TraceFlags.SAMPLED}
+    : null;
+};
 
 /**
  * EmbraceNativeTracer implements a Tracer over the native Embrace Android and iOS SDKs.
@@ -30,23 +56,26 @@ import {EmbraceNativeSpan} from "./EmbraceNativeSpan";
  * The JS side of this implementation is modelled after [opentelemetry-sdk-trace-base](https://github.com/open-telemetry/opentelemetry-js/tree/main/packages/opentelemetry-sdk-trace-base)
  */
 class EmbraceNativeTracer implements Tracer {
-  private readonly name: string;
-  private readonly version: string;
-  private readonly schemaUrl: string;
+  private readonly tracerHandle: number;
   private readonly contextManager: ContextManager;
   private readonly spanContextSyncBehaviour: SpanContextSyncBehaviour;
+  private readonly commandQueue: SpanCommandQueue | null;
+  private synchronousSpanStart: boolean;
+  private readonly idGeneration: IdGeneration;
   constructor(
     contextManager: ContextManager,
     spanContextSyncBehaviour: SpanContextSyncBehaviour,
-    name: string,
-    version: string,
-    schemaUrl: string,
+    tracerHandle: number,
+    commandQueue: SpanCommandQueue | null = null,
+    synchronousSpanStart: boolean = false,
+    idGeneration: IdGeneration = "native",
   ) {
-    this.name = name;
-    this.version = version;
-    this.schemaUrl = schemaUrl;
+    this.tracerHandle = tracerHandle;
     this.contextManager = contextManager;
     this.spanContextSyncBehaviour = spanContextSyncBehaviour;
+    this.commandQueue = commandQueue;
+    this.synchronousSpanStart = synchronousSpanStart;
+    this.idGeneration = idGeneration;
   }
 
   public startSpan(
@@ -58,13 +87,11 @@ class EmbraceNativeTracer implements Tracer {
     const parentSpan = trace.getSpan(
       context || this.contextManager.active(),
     ) as EmbraceNativeSpan;
-    const parentNativeID = (!root && parentSpan && parentSpan.nativeID()) || "";
+    const parentNativeID = (!root && parentSpan && parentSpan.nativeID()) || 0;
 
     const nativeSpan = new EmbraceNativeSpan(
-      this.name,
-      this.version,
-      this.schemaUrl,
       this.spanContextSyncBehaviour,
+      this.commandQueue,
     );
 
     if (links && links.length) {
@@ -73,24 +100,71 @@ class EmbraceNativeTracer implements Tracer {
       );
     }
 
-    nativeSpan.creatingNativeSide(
-      TracerProviderModule.startSpan(
-        this.name,
-        this.version,
-        this.schemaUrl,
-        nativeSpan.nativeID(),
-        name,
-        kind ? SpanKind[kind] : "",
-        normalizeTime(startTime),
-        normalizeAttributes(attributes),
-        normalizeLinks(links),
-        parentNativeID,
-      ),
-    );
+    const jsSpanContext =
+      this.idGeneration === "js" && nativeAdoptsJSIDs()
+        ? generateSpanContext(parentNativeID ? parentSpan : null)
+        : null;
+
+    if (jsSpanContext) {
+      nativeSpan.generatedJSSide(jsSpanContext);
+    }
+
+    const command: StartSpanCommand = [
+      "startSpan",
+      this.tracerHandle,
+      nativeSpan.nativeID(),
+      name,
+      kind ? SpanKind[kind] : "",
+      normalizeTime(startTime),
+      normalizeAttributes(attributes),
+      normalizeLinks(links),
+      parentNativeID,
+      jsSpanContext?.traceId || "",
+      jsSpanContext?.spanId || "",
+    ];
+
+    this.startNativeSide(nativeSpan, command);
 
     return nativeSpan;
   }
 
+  private startNativeSide(
+    nativeSpan: EmbraceNativeSpan,
+    command: StartSpanCommand,
+  ) {
+    if (this.synchronousSpanStart) {
+      try {
+        const spanContext = applyStartSpanCommandSync(command);
+        if (spanContext && startSpanSyncTimedOut(spanContext)) {
+          // The native side is still going to start the span, wait on it as the asynchronous method would
+          nativeSpan.creatingNativeSide(
+            waitForSpanContext(nativeSpan.nativeID()),
+          );
+        } else if (spanContext) {
+          nativeSpan.createdNativeSide(spanContext);
+        } else {
+          nativeSpan.creatingNativeSide(
+            Promise.reject("span was not started on the native side"),
+          );
+        }
+        return;
+      } catch (e) {
+        // Synchronous native calls are not available in every environment (e.g. while remote debugging), stop
+        // attempting them for this tracer and fall back to the Promise based method
+        logWarning(
+          `Failed to start span synchronously, falling back to asynchronous: ${e}`,
+        );
+        this.synchronousSpanStart = false;
+      }
+    }
+
+    nativeSpan.creatingNativeSide(
+      this.commandQueue
+        ? this.commandQueue.enqueueStart(command)
+        : applyStartSpanCommand(command),
+    );
+  }
+
   // Taken from https://github.com/open-telemetry/opentelemetry-js/blob/01a2c35a694e57df45f063d61506ef9e9938eb7d/packages/opentelemetry-sdk-trace-base/src/Tracer.ts#L199-L242
   public startActiveSpan<F extends (span: Span) => ReturnType<F>>(
     name: string,
@@ -8,13 +8,55 @@ import {
 
 import {logWarning} from "./util";
 import {
+  ActiveSpanStats,
   EmbraceNativeTracerProviderConfig,
+  IdGeneration,
   SpanContextSyncBehaviour,
+  SpanExecutorStats,
+  SpanStoreStats,
 } from "./types";
 import {TracerProviderModule} from "./TracerProviderModule";
 import {StackContextManager} from "./StackContextManager";
+import {SpanCommandQueue} from "./SpanCommandQueue";
 import {EmbraceNativeTracer} from "./EmbraceNativeTracer";
 
+// Spans handed out with IDs the native side then replaced would break any context already propagated with them, so
+// only generate IDs on the JS side if the native side says up front that it can adopt them
+const canAdoptJSGeneratedIds = (): boolean => {
+  try {
+    return TracerProviderModule.canAdoptCallerSuppliedIds() === true;
+  } catch (e) {
+    // Synchronous native calls are not available in every environment (e.g. while remote debugging)
+    return false;
+  }
+};
+
+// Each distinct name/version/schemaUrl is assigned a numeric handle which is sent to the native side once when setting
+// up the tracer, starting a span then only needs to pass the handle rather than all three strings. Like span handles
+// these are global so that tracers from any tracer provider can share the native module, starting from 1.
+const tracerHandles = new Map<string, number>();
+
+// The reverse of tracerHandles, used to report native stats keyed by handle against the tracer they belong to
+const tracersByHandle = new Map<
+  number,
+  {name: string; version: string; schemaUrl: string}
+>();
+
+const getTracerHandle = (
+  name: string,
+  version: string,
+  schemaUrl: string,
+): number => {
+  const key = `${name} ${version} ${schemaUrl}`;
+  let handle = tracerHandles.get(key);
+  if (handle === undefined) {
+    handle = tracerHandles.size + 1;
+    tracerHandles.set(key, handle);
+    tracersByHandle.set(handle, {name, version, schemaUrl});
+  }
+  return handle;
+};
+
 /**
  * EmbraceNativeTracerProvider implements a TracerProvider over the native Embrace Android and iOS SDKs.
  * Thin wrapped objects representing Tracers and Spans are maintained at the JS level and use Native Modules to
@@ -25,6 +67,9 @@ import {EmbraceNativeTracer} from "./EmbraceNativeTracer";
 class EmbraceNativeTracerProvider implements TracerProvider {
   private readonly contextManager: ContextManager;
   private readonly spanContextSyncBehaviour: SpanContextSyncBehaviour;
+  private readonly commandQueue: SpanCommandQueue | null;
+  private readonly synchronousSpanStart: boolean;
+  private readonly idGeneration: IdGeneration;
 
   constructor(
     config: EmbraceNativeTracerProviderConfig = {
@@ -41,7 +86,59 @@ class EmbraceNativeTracerProvider implements TracerProvider {
     this.spanContextSyncBehaviour =
       config.spanContextSyncBehaviour || "return_empty";
 
+    this.commandQueue = config.spanBatching
+      ? new SpanCommandQueue(config.spanBatching)
+      : null;
+
+    this.synchronousSpanStart = !!config.synchronousSpanStart;
+
+    this.idGeneration = config.idGeneration || "native";
+    if (this.idGeneration === "js" && Platform.OS === "ios") {
+      logWarning(
+        '`idGeneration: "js"` is not supported on iOS, IDs will be generated natively',
+      );
+      this.idGeneration = "native";
+    } else if (this.idGeneration === "js" && !canAdoptJSGeneratedIds()) {
+      logWarning(
+        '`idGeneration: "js"` needs a native tracer provider built with a CallerSuppliedIdGenerator and passed to `ReactNativeTracerProviderModule.useTracerProvider`, IDs will be generated natively',
+      );
+      this.idGeneration = "native";
+    }
+
+    // Enabled before anything else is sent to the native module so that every span operation goes through it
+    if (config.spanExecutor) {
+      if (Platform.OS === "ios") {
+        logWarning(
+          "`spanExecutor` is not supported on iOS and will be ignored",
+        );
+      } else {
+        TracerProviderModule.enableSpanExecutor(config.spanExecutor);
+      }
+    }
+
+    if (config.spanStore) {
+      if (Platform.OS === "ios") {
+        logWarning("`spanStore` is not supported on iOS and will be ignored");
+      } else {
+        TracerProviderModule.configureSpanStore(config.spanStore);
+      }
+    }
+
+    if (config.orphanedSpans) {
+      if (Platform.OS === "ios") {
+        logWarning(
+          "`orphanedSpans` is not supported on iOS and will be ignored",
+        );
+      } else {
+        TracerProviderModule.enableOrphanedSpanSweeper(config.orphanedSpans);
+      }
+    }
+
     AppState.addEventListener("change", () => {
+      // Send along anything still queued so it is applied before completed spans are cleared and isn't lost if the
+      // app is killed while in the background
+      this.commandQueue?.flush();
+
       // Embrace ends the current session when the app switches between foreground and background, at that point
       // we can clear any completed spans from memory as they won't be valid to reference anymore
       TracerProviderModule.clearCompletedSpans();
@@ -60,14 +157,101 @@ class EmbraceNativeTracerProvider implements TracerProvider {
       logWarning("`schemaUrl` is ignored when running on iOS");
     }
 
-    TracerProviderModule.setupTracer(name, tracerVersion, schemaUrl);
-    return new EmbraceNativeTracer(
-      this.contextManager,
-      this.spanContextSyncBehaviour,
+    const tracerHandle = getTracerHandle(name, tracerVersion, schemaUrl);
+    TracerProviderModule.setupTracer(
+      tracerHandle,
       name,
       tracerVersion,
       schemaUrl,
     );
+    return new EmbraceNativeTracer(
+      this.contextManager,
+      this.spanContextSyncBehaviour,
+      tracerHandle,
+      this.commandQueue,
+      this.synchronousSpanStart,
+      this.idGeneration,
+    );
+  }
+
+  /**
+   * Resolves with counters of the spans being tracked on the native side and those it has had to drop, or null where
+   * this is not supported
+   */
+  public async getSpanStoreStats(): Promise<SpanStoreStats | null> {
+    if (Platform.OS === "ios") {
+      return null;
+    }
+
+    try {
+      return await TracerProviderModule.getSpanStoreStats();
+    } catch (e) {
+      logWarning(`Failed to get span store stats: ${e}`);
+      return null;
+    }
+  }
+
+  /**
+   * Resolves with metrics for the native span executor's queue, or null if the executor is not enabled or not
+   * supported
+   */
+  public async getSpanExecutorStats(): Promise<SpanExecutorStats | null> {
+    if (Platform.OS === "ios") {
+      return null;
+    }
+
+    try {
+      return await TracerProviderModule.getSpanExecutorStats();
+    } catch (e) {
+      logWarning(`Failed to get span executor stats: ${e}`);
+      return null;
+    }
+  }
+
+  /**
+   * Resolves with a histogram of how long the spans currently active on the native side have been running and how
+   * many each tracer has active, or null where this is not supported
+   */
+  public async getActiveSpanStats(): Promise<ActiveSpanStats | null> {
+    if (Platform.OS === "ios") {
+      return null;
+    }
+
+    try {
+      const stats: {
+        activeSpans: number;
+        oldestAgeMs: number;
+        ageBuckets: Record<string, number>;
+        activeSpansByTracer: Record<string, number>;
+      } = await TracerProviderModule.getActiveSpanStats();
+
+      const ageHistogram = Object.keys(stats.ageBuckets)
+        .map(bound => ({
+          upperBoundMs: bound === "+Inf" ? Infinity : Number(bound),
+          count: stats.ageBuckets[bound],
+        }))
+        .sort((a, b) => a.upperBoundMs - b.upperBoundMs);
+
+      const tracers = Object.keys(stats.activeSpansByTracer).map(handle => {
+        const tracer = tracersByHandle.get(Number(handle));
+        return {
+          name: tracer?.name || "",
+          version: tracer?.version || "",
+          schemaUrl: tracer?.schemaUrl || "",
+          activeSpans: stats.activeSpansByTracer[handle],
+        };
+      });
+
+      return {
+        activeSpans: stats.activeSpans,
+        oldestAgeMs: stats.oldestAgeMs,
+        ageHistogram,
+        tracers,
+      };
+    } catch (e) {
+      logWarning(`Failed to get active span stats: ${e}`);
+      return null;
+    }
   }
 }
 
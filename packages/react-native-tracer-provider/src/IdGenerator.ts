@@ -0,0 +1,44 @@
+/**
+ * Generates W3C trace context compliant IDs on the JS side, adapted from the RandomIdGenerator in
+ * [opentelemetry-sdk-trace-base](https://github.com/open-telemetry/opentelemetry-js/blob/main/packages/opentelemetry-sdk-trace-base/src/platform/node/RandomIdGenerator.ts)
+ *
+ * Math.random is not cryptographically secure but these IDs only need to be unique rather than unpredictable and
+ * this avoids pulling in a crypto polyfill
+ */
+
+const TRACE_ID_BYTES = 16;
+const SPAN_ID_BYTES = 8;
+
+const SHARED_BUFFER = new Uint32Array(TRACE_ID_BYTES / 4);
+
+const generateId = (bytes: number): string => {
+  const words = bytes / 4;
+
+  for (let i = 0; i < words; i++) {
+    SHARED_BUFFER[i] = (Math.random() * 2 ** 32) >>> 0;
+  }
+
+  // An all zero ID is invalid, make sure at least one bit is set
+  let allZero = true;
+  for (let i = 0; i < words; i++) {
+    if (SHARED_BUFFER[i] !== 0) {
+      allZero = false;
+      break;
+    }
+  }
+  if (allZero) {
+    SHARED_BUFFER[words - 1] = 1;
+  }
+
+  let id = "";
+  for (let i = 0; i < words; i++) {
+    id += ("00000000" + SHARED_BUFFER[i].toString(16)).slice(-8);
+  }
+  return id;
+};
+
+const generateTraceId = (): string => generateId(TRACE_ID_BYTES);
+
+const generateSpanId = (): string => generateId(SPAN_ID_BYTES);
+
+export {generateTraceId, generateSpanId};
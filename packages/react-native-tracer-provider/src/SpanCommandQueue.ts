@@ -0,0 +1,196 @@
+import {Attributes, Link, SpanContext} from "@opentelemetry/api";
+
+import {logWarning} from "./util";
+import {SpanBatchingConfig} from "./types";
+import {TracerProviderModule} from "./TracerProviderModule";
+
+/**
+ * Each span operation is represented as a tuple of the operation name followed by the same arguments the corresponding
+ * native module method takes. This keeps the payload compact when sent over the bridge as part of a batch and lets the
+ * native side replay a command by simply forwarding the arguments.
+ */
+type StartSpanCommand = [
+  "startSpan",
+  number, // tracerHandle, assigned when the tracer was set up
+  number, // spanBridgeId
+  string, // name
+  string, // kind
+  number, // time
+  Attributes,
+  Link[],
+  number, // parentId, 0 if the span has no parent
+  string, // traceId, empty if IDs are generated natively
+  string, // spanId, empty if IDs are generated natively
+];
+type SetAttributesCommand = ["setAttributes", number, Attributes];
+type AddEventCommand = ["addEvent", number, string, Attributes, number];
+type AddLinksCommand = ["addLinks", number, Link[]];
+type SetStatusCommand = [
+  "setStatus",
+  number,
+  {code: string; message?: string},
+];
+type UpdateNameCommand = ["updateName", number, string];
+type EndSpanCommand = ["endSpan", number, number];
+
+type SpanCommand =
+  | StartSpanCommand
+  | SetAttributesCommand
+  | AddEventCommand
+  | AddLinksCommand
+  | SetStatusCommand
+  | UpdateNameCommand
+  | EndSpanCommand;
+
+const DEFAULT_MAX_BATCH_SIZE = 200;
+const DEFAULT_MAX_DELAY_MS = 0;
+
+/**
+ * Sends a single command straight to the native module, used when batching is not enabled
+ */
+const applyStartSpanCommand = (
+  command: StartSpanCommand,
+): Promise<SpanContext> => TracerProviderModule.startSpan(...command.slice(1));
+
+/**
+ * What the blocking synchronous native method returns in place of the span context when it gave up waiting on the
+ * native span executor, the span is still started and its context can be waited on with `waitForSpanContext`
+ */
+interface StartSpanSyncTimedOut {
+  timedOut: true;
+}
+
+const startSpanSyncTimedOut = (
+  result: SpanContext | StartSpanSyncTimedOut,
+): result is StartSpanSyncTimedOut =>
+  (result as StartSpanSyncTimedOut).timedOut === true;
+
+/**
+ * Starts the span through the blocking synchronous native method so that its context is returned inline, resolves to
+ * null if the span could not be started. Throws if synchronous native calls are not supported in the current
+ * environment (e.g. while remote debugging)
+ */
+const applyStartSpanCommandSync = (
+  command: StartSpanCommand,
+): SpanContext | StartSpanSyncTimedOut | null =>
+  TracerProviderModule.startSpanSync(...command.slice(1));
+
+const waitForSpanContext = (spanBridgeId: number): Promise<SpanContext> =>
+  TracerProviderModule.getSpanContext(spanBridgeId);
+
+const applySpanCommand = (command: SpanCommand) => {
+  switch (command[0]) {
+    case "startSpan":
+      return applyStartSpanCommand(command);
+    case "setAttributes":
+      return TracerProviderModule.setAttributes(...command.slice(1));
+    case "addEvent":
+      return TracerProviderModule.addEvent(...command.slice(1));
+    case "addLinks":
+      return TracerProviderModule.addLinks(...command.slice(1));
+    case "setStatus":
+      return TracerProviderModule.setStatus(...command.slice(1));
+    case "updateName":
+      return TracerProviderModule.updateName(...command.slice(1));
+    case "endSpan":
+      return TracerProviderModule.endSpan(...command.slice(1));
+  }
+};
+
+interface PendingStart {
+  resolve: (spanContext: SpanContext) => void;
+  reject: (reason: string) => void;
+}
+
+/**
+ * SpanCommandQueue coalesces span operations issued within the same JS tick (or until `maxBatchSize` operations have
+ * been queued / `maxDelayMs` has elapsed) into a single `applyBatch` call to the native module which then replays them
+ * in the order they were issued.
+ */
+class SpanCommandQueue {
+  private readonly maxBatchSize: number;
+  private readonly maxDelayMs: number;
+  private commands: SpanCommand[] = [];
+  private pendingStarts: Map<number, PendingStart> = new Map();
+  private flushTimeout: ReturnType<typeof setTimeout> | null = null;
+
+  constructor(config: SpanBatchingConfig = {}) {
+    this.maxBatchSize = config.maxBatchSize || DEFAULT_MAX_BATCH_SIZE;
+    this.maxDelayMs = config.maxDelayMs ?? DEFAULT_MAX_DELAY_MS;
+  }
+
+  public enqueue(command: SpanCommand) {
+    this.commands.push(command);
+
+    if (this.commands.length >= this.maxBatchSize) {
+      this.flush();
+    } else if (this.flushTimeout === null) {
+      this.flushTimeout = setTimeout(() => this.flush(), this.maxDelayMs);
+    }
+  }
+
+  /**
+   * Queues a startSpan command, the returned promise resolves with the span context once the batch containing it has
+   * been applied on the native side
+   */
+  public enqueueStart(command: StartSpanCommand): Promise<SpanContext> {
+    const spanBridgeId = command[2];
+    const started = new Promise<SpanContext>((resolve, reject) => {
+      this.pendingStarts.set(spanBridgeId, {resolve, reject});
+    });
+
+    this.enqueue(command);
+
+    return started;
+  }
+
+  public flush() {
+    if (this.flushTimeout !== null) {
+      clearTimeout(this.flushTimeout);
+      this.flushTimeout = null;
+    }
+
+    if (this.commands.length === 0) {
+      return;
+    }
+
+    const commands = this.commands;
+    const pendingStarts = this.pendingStarts;
+    this.commands = [];
+    this.pendingStarts = new Map();
+
+    const settleStarts = (startedSpans: Record<number, SpanContext>) => {
+      pendingStarts.forEach(({resolve, reject}, spanBridgeId) => {
+        const spanContext = startedSpans[spanBridgeId];
+        if (spanContext) {
+          resolve(spanContext);
+        } else {
+          reject("span was not started on the native side");
+        }
+      });
+    };
+
+    try {
+      TracerProviderModule.applyBatch(commands)
+        .then(settleStarts)
+        .catch((reason: unknown) => {
+          logWarning(`Failed to apply span batch: ${reason}`);
+          settleStarts({});
+        });
+    } catch (e) {
+      logWarning(`Failed to apply span batch: ${e}`);
+      settleStarts({});
+    }
+  }
+}
+
+export {
+  SpanCommand,
+  StartSpanCommand,
+  SpanCommandQueue,
+  applySpanCommand,
+  applyStartSpanCommand,
+  applyStartSpanCommandSync,
+  startSpanSyncTimedOut,
+  waitForSpanContext,
+};
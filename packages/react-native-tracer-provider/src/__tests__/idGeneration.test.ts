@@ -0,0 +1,197 @@
+import {ROOT_CONTEXT, trace} from "@opentelemetry/api";
+
+import {generateSpanId, generateTraceId} from "../IdGenerator";
+import {EmbraceNativeSpan, EmbraceNativeTracerProvider} from "../index";
+
+const mockSetupTracer = jest.fn();
+const mockStartSpan = jest.fn();
+const mockApplyBatch = jest.fn();
+const mockCanAdoptCallerSuppliedIds = jest.fn();
+const mockPlatform = {OS: "android"};
+
+jest.mock("react-native", () => ({
+  AppState: {
+    addEventListener: jest.fn(),
+  },
+  Platform: {
+    get OS() {
+      return mockPlatform.OS;
+    },
+  },
+}));
+
+jest.mock("../TracerProviderModule", () => ({
+  TracerProviderModule: {
+    setupTracer: (...args: unknown[]) => mockSetupTracer(...args),
+    startSpan: (...args: unknown[]) => mockStartSpan(...args),
+    applyBatch: (commands: unknown[]) => mockApplyBatch(commands),
+    canAdoptCallerSuppliedIds: () => mockCanAdoptCallerSuppliedIds(),
+  },
+}));
+
+// Native side adopts the IDs it was given
+const adoptingStartSpan = (...args: unknown[]) =>
+  Promise.resolve({traceId: args[10], spanId: args[11]});
+
+describe("ID generation", () => {
+  beforeEach(() => {
+    jest.resetAllMocks();
+    mockPlatform.OS = "android";
+    mockStartSpan.mockImplementation(adoptingStartSpan);
+    mockCanAdoptCallerSuppliedIds.mockReturnValue(true);
+  });
+
+  it("should generate valid W3C trace and span IDs", () => {
+    const traceIds = new Set<string>();
+    const spanIds = new Set<string>();
+
+    for (let i = 0; i < 1000; i++) {
+      const traceId = generateTraceId();
+      const spanId = generateSpanId();
+
+      expect(traceId).toMatch(/^[0-9a-f]{32}$/);
+      expect(spanId).toMatch(/^[0-9a-f]{16}$/);
+      expect(traceId).not.toEqual("0".repeat(32));
+      expect(spanId).not.toEqual("0".repeat(16));
+
+      traceIds.add(traceId);
+      spanIds.add(spanId);
+    }
+
+    expect(traceIds.size).toBe(1000);
+    expect(spanIds.size).toBe(1000);
+  });
+
+  it("should make the span context available immediately and supply the IDs to the native side", async () => {
+    const tracer = new EmbraceNativeTracerProvider({
+      idGeneration: "js",
+      spanContextSyncBehaviour: "throw",
+    }).getTracer("test", "v1");
+
+    const parent = tracer.startSpan("parent");
+    const child = tracer.startSpan(
+      "child",
+      {},
+      trace.setSpan(ROOT_CONTEXT, parent),
+    );
+
+    const parentContext = parent.spanContext();
+    const childContext = child.spanContext();
+
+    expect(parentContext.traceId).toMatch(/^[0-9a-f]{32}$/);
+    expect(parentContext.spanId).toMatch(/^[0-9a-f]{16}$/);
+    expect(childContext.traceId).toEqual(parentContext.traceId);
+    expect(childContext.spanId).not.toEqual(parentContext.spanId);
+
+    expect(mockStartSpan.mock.calls[0].slice(8)).toEqual([
+      parentContext.traceId,
+      parentContext.spanId,
+    ]);
+    expect(mockStartSpan.mock.calls[1].slice(7)).toEqual([
+      (parent as EmbraceNativeSpan).nativeID(),
+      childContext.traceId,
+      childContext.spanId,
+    ]);
+
+    expect(await (child as EmbraceNativeSpan).spanContextAsync()).toEqual({
+      traceId: childContext.traceId,
+      spanId: childContext.spanId,
+    });
+  });
+
+  it("should make the span context available immediately when batching", () => {
+    const tracer = new EmbraceNativeTracerProvider({
+      idGeneration: "js",
+      spanContextSyncBehaviour: "throw",
+      spanBatching: {},
+    }).getTracer("test", "v1");
+
+    const span = tracer.startSpan("my-span");
+    span.end();
+
+    expect(span.spanContext().spanId).toMatch(/^[0-9a-f]{16}$/);
+    expect(mockApplyBatch).not.toHaveBeenCalled();
+  });
+
+  it("should generate IDs natively by default", () => {
+    const tracer = new EmbraceNativeTracerProvider().getTracer("test", "v1");
+    tracer.startSpan("my-span");
+
+    expect(mockStartSpan.mock.calls[0].slice(8)).toEqual(["", ""]);
+  });
+
+  it("should generate IDs natively on iOS", () => {
+    mockPlatform.OS = "ios";
+    const tracer = new EmbraceNativeTracerProvider({
+      idGeneration: "js",
+    }).getTracer("test", "v1");
+    tracer.startSpan("my-span");
+
+    expect(mockStartSpan.mock.calls[0].slice(8)).toEqual(["", ""]);
+  });
+
+  it("should generate IDs natively if the native side can't adopt the ones generated in JS", () => {
+    mockCanAdoptCallerSuppliedIds.mockReturnValue(false);
+    const tracer = new EmbraceNativeTracerProvider({
+      idGeneration: "js",
+    }).getTracer("test", "v1");
+    tracer.startSpan("my-span");
+
+    expect(mockStartSpan.mock.calls[0].slice(8)).toEqual(["", ""]);
+  });
+
+  it("should generate IDs natively if synchronous native calls are not available", () => {
+    mockCanAdoptCallerSuppliedIds.mockImplementation(() => {
+      throw new Error("not available");
+    });
+    const tracer = new EmbraceNativeTracerProvider({
+      idGeneration: "js",
+    }).getTracer("test", "v1");
+    tracer.startSpan("my-span");
+
+    expect(mockStartSpan.mock.calls[0].slice(8)).toEqual(["", ""]);
+  });
+
+  it("should generate IDs natively for children of a parent whose context isn't known yet", () => {
+    const parent = new EmbraceNativeTracerProvider({
+      spanContextSyncBehaviour: "throw",
+    })
+      .getTracer("test", "v1")
+      .startSpan("parent");
+    const tracer = new EmbraceNativeTracerProvider({
+      idGeneration: "js",
+      spanContextSyncBehaviour: "throw",
+    }).getTracer("test", "v1");
+
+    tracer.startSpan("child", {}, trace.setSpan(ROOT_CONTEXT, parent));
+
+    expect(mockStartSpan.mock.calls[1].slice(7)).toEqual([
+      (parent as EmbraceNativeSpan).nativeID(),
+      "",
+      "",
+    ]);
+  });
+
+  // Switches JS generation off for every tracer, so kept as the last test
+  it("should use the native IDs if the native side did not adopt the ones generated in JS", async () => {
+    mockStartSpan.mockReturnValue(
+      Promise.resolve({traceId: "native-trace", spanId: "native-span"}),
+    );
+    const tracer = new EmbraceNativeTracerProvider({
+      idGeneration: "js",
+    }).getTracer("test", "v1");
+
+    const span = tracer.startSpan("my-span") as EmbraceNativeSpan;
+    expect(span.spanContext().spanId).toMatch(/^[0-9a-f]{16}$/);
+
+    await span.spanContextAsync();
+    expect(span.spanContext()).toEqual({
+      traceId: "native-trace",
+      spanId: "native-span",
+    });
+
+    // and stops generating IDs on the JS side from then on
+    tracer.startSpan("next-span");
+    expect(mockStartSpan.mock.calls[1].slice(8)).toEqual(["", ""]);
+  });
+});
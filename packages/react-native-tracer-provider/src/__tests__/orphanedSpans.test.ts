@@ -0,0 +1,97 @@
+import {EmbraceNativeTracerProvider} from "../index";
+
+const mockSetupTracer = jest.fn();
+const mockEnableOrphanedSpanSweeper = jest.fn();
+const mockGetActiveSpanStats = jest.fn();
+const mockPlatform = {OS: "android"};
+
+jest.mock("react-native", () => ({
+  AppState: {
+    addEventListener: jest.fn(),
+  },
+  Platform: {
+    get OS() {
+      return mockPlatform.OS;
+    },
+  },
+}));
+
+jest.mock("../TracerProviderModule", () => ({
+  TracerProviderModule: {
+    setupTracer: (...args: unknown[]) => mockSetupTracer(...args),
+    enableOrphanedSpanSweeper: (config: unknown) =>
+      mockEnableOrphanedSpanSweeper(config),
+    getActiveSpanStats: () => mockGetActiveSpanStats(),
+  },
+}));
+
+describe("Orphaned spans", () => {
+  beforeEach(() => {
+    jest.resetAllMocks();
+    mockPlatform.OS = "android";
+  });
+
+  it("should enable the native orphaned span sweeper", () => {
+    new EmbraceNativeTracerProvider({
+      orphanedSpans: {maxSpanAgeMs: 60000, sweepIntervalMs: 5000},
+    });
+
+    expect(mockEnableOrphanedSpanSweeper).toHaveBeenCalledWith({
+      maxSpanAgeMs: 60000,
+      sweepIntervalMs: 5000,
+    });
+  });
+
+  it("should not enable the sweeper if not configured", () => {
+    new EmbraceNativeTracerProvider();
+
+    expect(mockEnableOrphanedSpanSweeper).not.toHaveBeenCalled();
+  });
+
+  it("should not enable the sweeper on iOS", () => {
+    mockPlatform.OS = "ios";
+    new EmbraceNativeTracerProvider({orphanedSpans: {maxSpanAgeMs: 60000}});
+
+    expect(mockEnableOrphanedSpanSweeper).not.toHaveBeenCalled();
+  });
+
+  it("should get the active span stats with counts by tracer", async () => {
+    const tracerProvider = new EmbraceNativeTracerProvider();
+    tracerProvider.getTracer("orphans", "v1", {schemaUrl: "schema"});
+    const tracerHandle = mockSetupTracer.mock.calls[0][0];
+
+    mockGetActiveSpanStats.mockReturnValue(
+      Promise.resolve({
+        activeSpans: 3,
+        oldestAgeMs: 120000,
+        ageBuckets: {"+Inf": 0, "1000": 2, "60000": 0, "300000": 1},
+        activeSpansByTracer: {[tracerHandle]: 2, "999": 1},
+      }),
+    );
+
+    expect(await tracerProvider.getActiveSpanStats()).toEqual({
+      activeSpans: 3,
+      oldestAgeMs: 120000,
+      ageHistogram: [
+        {upperBoundMs: 1000, count: 2},
+        {upperBoundMs: 60000, count: 0},
+        {upperBoundMs: 300000, count: 1},
+        {upperBoundMs: Infinity, count: 0},
+      ],
+      tracers: [
+        {name: "orphans", version: "v1", schemaUrl: "schema", activeSpans: 2},
+        {name: "", version: "", schemaUrl: "", activeSpans: 1},
+      ],
+    });
+  });
+
+  it("should return null active span stats if they can't be retrieved", async () => {
+    mockGetActiveSpanStats.mockReturnValue(Promise.reject("failed"));
+
+    const tracerProvider = new EmbraceNativeTracerProvider();
+    expect(await tracerProvider.getActiveSpanStats()).toBeNull();
+
+    mockPlatform.OS = "ios";
+    expect(await tracerProvider.getActiveSpanStats()).toBeNull();
+  });
+});
@@ -0,0 +1,271 @@
+import {
+  ROOT_CONTEXT,
+  SpanContext,
+  SpanStatusCode,
+  trace,
+} from "@opentelemetry/api";
+
+import {
+  EmbraceNativeSpan,
+  EmbraceNativeTracerProvider,
+  SpanBatchingConfig,
+} from "../index";
+
+const mockSetupTracer = jest.fn();
+const mockStartSpan = jest.fn();
+const mockSetAttributes = jest.fn();
+const mockAddEvent = jest.fn();
+const mockSetStatus = jest.fn();
+const mockUpdateName = jest.fn();
+const mockEndSpan = jest.fn();
+const mockClearCompletedSpans = jest.fn();
+const mockApplyBatch = jest.fn();
+const mockAppStateListener = jest.fn();
+
+jest.mock("react-native", () => ({
+  AppState: {
+    addEventListener: (type: string, listener: () => void) =>
+      mockAppStateListener(type, listener),
+  },
+  Platform: {
+    OS: "android",
+  },
+}));
+
+jest.mock("../TracerProviderModule", () => ({
+  TracerProviderModule: {
+    setupTracer: (...args: unknown[]) => mockSetupTracer(...args),
+    startSpan: (...args: unknown[]) => mockStartSpan(...args),
+    setAttributes: (...args: unknown[]) => mockSetAttributes(...args),
+    addEvent: (...args: unknown[]) => mockAddEvent(...args),
+    setStatus: (...args: unknown[]) => mockSetStatus(...args),
+    updateName: (...args: unknown[]) => mockUpdateName(...args),
+    endSpan: (...args: unknown[]) => mockEndSpan(...args),
+    clearCompletedSpans: () => mockClearCompletedSpans(),
+    applyBatch: (commands: unknown[]) => mockApplyBatch(commands),
+  },
+}));
+
+const nextTick = () => new Promise(resolve => setTimeout(resolve, 0));
+
+const allNativeCalls = () =>
+  [
+    mockStartSpan,
+    mockSetAttributes,
+    mockAddEvent,
+    mockSetStatus,
+    mockUpdateName,
+    mockEndSpan,
+    mockApplyBatch,
+  ].reduce((total, mock) => total + mock.mock.calls.length, 0);
+
+describe("Span command batching", () => {
+  beforeEach(() => {
+    jest.resetAllMocks();
+
+    mockStartSpan.mockReturnValue(
+      Promise.resolve({traceId: "", spanId: "", traceFlags: 0}),
+    );
+    mockApplyBatch.mockImplementation((commands: unknown[][]) =>
+      Promise.resolve(
+        commands
+          .filter(command => command[0] === "startSpan")
+          .reduce(
+            (startedSpans, command) => ({
+              ...startedSpans,
+              [`${command[2]}`]: {
+                traceId: `trace-${command[2]}`,
+                spanId: `span-${command[2]}`,
+              },
+            }),
+            {},
+          ),
+      ),
+    );
+  });
+
+  const getTestTracer = (spanBatching?: SpanBatchingConfig) =>
+    new EmbraceNativeTracerProvider({spanBatching}).getTracer("test", "v1");
+
+  it("should send all operations issued in the same tick as a single batch in order", async () => {
+    const tracer = getTestTracer({});
+
+    const parent = tracer.startSpan("parent");
+    // the child references a parent that was started as part of the same batch
+    const child = tracer.startSpan(
+      "child",
+      {attributes: {"my-attr": "foo"}},
+      trace.setSpan(ROOT_CONTEXT, parent),
+    );
+    child.setAttribute("other-attr", "bar");
+    child.addEvent("my-event", {"event-attr": "baz"}, 1718409600011);
+    child.setStatus({code: SpanStatusCode.OK});
+    child.updateName("renamed-child");
+    child.end(1718409600099);
+    parent.end();
+
+    expect(mockApplyBatch).not.toHaveBeenCalled();
+    await nextTick();
+
+    const [tracerHandle] = mockSetupTracer.mock.calls[0];
+    const parentID = (parent as EmbraceNativeSpan).nativeID();
+    const childID = (child as EmbraceNativeSpan).nativeID();
+
+    expect(mockApplyBatch).toHaveBeenCalledTimes(1);
+    expect(mockApplyBatch).toHaveBeenCalledWith([
+      [
+        "startSpan",
+        tracerHandle,
+        parentID,
+        "parent",
+        "",
+        0,
+        {},
+        [],
+        0,
+        "",
+        "",
+      ],
+      [
+        "startSpan",
+        tracerHandle,
+        childID,
+        "child",
+        "",
+        0,
+        {"my-attr": "foo"},
+        [],
+        parentID,
+        "",
+        "",
+      ],
+      ["setAttributes", childID, {"other-attr": "bar"}],
+      ["addEvent", childID, "my-event", {"event-attr": "baz"}, 1718409600011],
+      ["setStatus", childID, {code: "OK", message: undefined}],
+      ["updateName", childID, "renamed-child"],
+      ["endSpan", childID, 1718409600099],
+      ["endSpan", parentID, 0],
+    ]);
+
+    // Nothing should have gone over the bridge as an individual call
+    expect(mockStartSpan).not.toHaveBeenCalled();
+    expect(mockSetAttributes).not.toHaveBeenCalled();
+    expect(mockEndSpan).not.toHaveBeenCalled();
+  });
+
+  it("should resolve the span context once the batch has been applied", async () => {
+    const tracer = getTestTracer({});
+    const span = tracer.startSpan("my-span") as EmbraceNativeSpan;
+
+    const spanContext: SpanContext = await span.spanContextAsync();
+    expect(spanContext).toEqual({
+      traceId: `trace-${span.nativeID()}`,
+      spanId: `span-${span.nativeID()}`,
+    });
+    expect(span.spanContext()).toEqual(spanContext);
+  });
+
+  it("should reject the span context if the span was not started on the native side", async () => {
+    mockApplyBatch.mockReturnValue(Promise.resolve({}));
+    const tracer = getTestTracer({});
+    const span = tracer.startSpan("my-span") as EmbraceNativeSpan;
+
+    await expect(span.spanContextAsync()).rejects.toEqual(
+      "span was not started on the native side",
+    );
+  });
+
+  it("should reject pending span contexts if the batch fails", async () => {
+    mockApplyBatch.mockReturnValue(Promise.reject("boom"));
+    const tracer = getTestTracer({});
+    const span = tracer.startSpan("my-span") as EmbraceNativeSpan;
+
+    await expect(span.spanContextAsync()).rejects.toEqual(
+      "span was not started on the native side",
+    );
+  });
+
+  it("should flush as soon as the max batch size is reached", async () => {
+    const tracer = getTestTracer({maxBatchSize: 3});
+
+    const span = tracer.startSpan("my-span");
+    span.setAttribute("attr-1", "foo");
+    expect(mockApplyBatch).not.toHaveBeenCalled();
+
+    span.setAttribute("attr-2", "bar");
+    expect(mockApplyBatch).toHaveBeenCalledTimes(1);
+    expect(mockApplyBatch.mock.calls[0][0]).toHaveLength(3);
+
+    span.end();
+    await nextTick();
+    expect(mockApplyBatch).toHaveBeenCalledTimes(2);
+    expect(mockApplyBatch.mock.calls[1][0]).toEqual([
+      ["endSpan", (span as EmbraceNativeSpan).nativeID(), 0],
+    ]);
+  });
+
+  it("should wait for the configured delay before flushing", async () => {
+    jest.useFakeTimers();
+    try {
+      const tracer = getTestTracer({maxDelayMs: 50});
+      tracer.startSpan("my-span").end();
+
+      jest.advanceTimersByTime(49);
+      expect(mockApplyBatch).not.toHaveBeenCalled();
+
+      jest.advanceTimersByTime(1);
+      expect(mockApplyBatch).toHaveBeenCalledTimes(1);
+    } finally {
+      jest.useRealTimers();
+    }
+  });
+
+  it("should flush queued operations before clearing completed spans when the app state changes", () => {
+    const tracer = getTestTracer({maxDelayMs: 10000});
+    tracer.startSpan("my-span").end();
+    expect(mockApplyBatch).not.toHaveBeenCalled();
+
+    const [, listener] = mockAppStateListener.mock.calls[0];
+    listener();
+
+    expect(mockApplyBatch).toHaveBeenCalledTimes(1);
+    expect(mockClearCompletedSpans).toHaveBeenCalledTimes(1);
+    expect(mockApplyBatch.mock.invocationCallOrder[0]).toBeLessThan(
+      mockClearCompletedSpans.mock.invocationCallOrder[0],
+    );
+  });
+
+  it("should not batch when batching is not configured", () => {
+    const tracer = getTestTracer();
+    tracer.startSpan("my-span").end();
+
+    expect(mockStartSpan).toHaveBeenCalledTimes(1);
+    expect(mockEndSpan).toHaveBeenCalledTimes(1);
+    expect(mockApplyBatch).not.toHaveBeenCalled();
+  });
+
+  it("should reduce bridge calls per 1,000 spans", async () => {
+    const recordSpans = (spanBatching?: SpanBatchingConfig) => {
+      const tracer = getTestTracer(spanBatching);
+      for (let i = 0; i < 1000; i++) {
+        const span = tracer.startSpan(`span-${i}`);
+        span.setAttributes({index: `${i}`});
+        span.addEvent("event");
+        span.setStatus({code: SpanStatusCode.OK});
+        span.updateName(`renamed-span-${i}`);
+        span.end();
+      }
+    };
+
+    recordSpans();
+    expect(allNativeCalls()).toBe(6000);
+
+    jest.clearAllMocks();
+
+    // 6 operations per span, 6,000 operations in batches of 200
+    recordSpans({maxBatchSize: 200});
+    await nextTick();
+    expect(allNativeCalls()).toBe(30);
+    expect(mockApplyBatch).toHaveBeenCalledTimes(30);
+  });
+});
@@ -0,0 +1,78 @@
+import {EmbraceNativeTracerProvider} from "../index";
+
+const mockEnableSpanExecutor = jest.fn();
+const mockGetSpanExecutorStats = jest.fn();
+const mockPlatform = {OS: "android"};
+
+jest.mock("react-native", () => ({
+  AppState: {
+    addEventListener: jest.fn(),
+  },
+  Platform: {
+    get OS() {
+      return mockPlatform.OS;
+    },
+  },
+}));
+
+jest.mock("../TracerProviderModule", () => ({
+  TracerProviderModule: {
+    enableSpanExecutor: (config: unknown) => mockEnableSpanExecutor(config),
+    getSpanExecutorStats: () => mockGetSpanExecutorStats(),
+  },
+}));
+
+describe("Span executor", () => {
+  beforeEach(() => {
+    jest.resetAllMocks();
+    mockPlatform.OS = "android";
+  });
+
+  it("should enable the native span executor", () => {
+    new EmbraceNativeTracerProvider({
+      spanExecutor: {queueCapacity: 1024, fullQueuePolicy: "dropOldest"},
+    });
+
+    expect(mockEnableSpanExecutor).toHaveBeenCalledWith({
+      queueCapacity: 1024,
+      fullQueuePolicy: "dropOldest",
+    });
+  });
+
+  it("should not enable the native span executor by default", () => {
+    new EmbraceNativeTracerProvider();
+
+    expect(mockEnableSpanExecutor).not.toHaveBeenCalled();
+  });
+
+  it("should not enable the native span executor on iOS", () => {
+    mockPlatform.OS = "ios";
+    new EmbraceNativeTracerProvider({spanExecutor: {}});
+
+    expect(mockEnableSpanExecutor).not.toHaveBeenCalled();
+  });
+
+  it("should get the span executor stats", async () => {
+    const stats = {
+      queueDepth: 0,
+      maxQueueDepth: 12,
+      submitted: 100,
+      applied: 100,
+      dropped: 0,
+      meanLatencyMs: 0.2,
+      maxLatencyMs: 3,
+    };
+    mockGetSpanExecutorStats.mockReturnValue(Promise.resolve(stats));
+
+    const tracerProvider = new EmbraceNativeTracerProvider({spanExecutor: {}});
+    expect(await tracerProvider.getSpanExecutorStats()).toEqual(stats);
+  });
+
+  it("should return null stats on iOS", async () => {
+    mockPlatform.OS = "ios";
+    const tracerProvider = new EmbraceNativeTracerProvider();
+
+    expect(await tracerProvider.getSpanExecutorStats()).toBeNull();
+    expect(mockGetSpanExecutorStats).not.toHaveBeenCalled();
+  });
+});
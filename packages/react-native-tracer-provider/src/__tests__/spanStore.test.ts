@@ -0,0 +1,86 @@
+import {EmbraceNativeTracerProvider} from "../index";
+
+const mockConfigureSpanStore = jest.fn();
+const mockGetSpanStoreStats = jest.fn();
+const mockPlatform = {OS: "android"};
+
+jest.mock("react-native", () => ({
+  AppState: {
+    addEventListener: jest.fn(),
+  },
+  Platform: {
+    get OS() {
+      return mockPlatform.OS;
+    },
+  },
+}));
+
+jest.mock("../TracerProviderModule", () => ({
+  TracerProviderModule: {
+    configureSpanStore: (config: unknown) => mockConfigureSpanStore(config),
+    getSpanStoreStats: () => mockGetSpanStoreStats(),
+  },
+}));
+
+describe("Span store", () => {
+  beforeEach(() => {
+    jest.resetAllMocks();
+    mockPlatform.OS = "android";
+  });
+
+  it("should configure the native span store", () => {
+    new EmbraceNativeTracerProvider({
+      spanStore: {
+        maxActiveSpans: 100,
+        completedSpanTtlMs: 5000,
+        activeSpanOverflow: "reject",
+      },
+    });
+
+    expect(mockConfigureSpanStore).toHaveBeenCalledWith({
+      maxActiveSpans: 100,
+      completedSpanTtlMs: 5000,
+      activeSpanOverflow: "reject",
+    });
+  });
+
+  it("should leave the native span store with its defaults if not configured", () => {
+    new EmbraceNativeTracerProvider();
+
+    expect(mockConfigureSpanStore).not.toHaveBeenCalled();
+  });
+
+  it("should not configure the span store on iOS", () => {
+    mockPlatform.OS = "ios";
+    new EmbraceNativeTracerProvider({spanStore: {maxActiveSpans: 100}});
+
+    expect(mockConfigureSpanStore).not.toHaveBeenCalled();
+  });
+
+  it("should get the span store stats", async () => {
+    const stats = {
+      activeSpans: 2,
+      completedSpans: 10,
+      evicted: 1,
+      expired: 3,
+      forceEnded: 0,
+      rejected: 0,
+      orphaned: 1,
+      orphansEnded: 0,
+    };
+    mockGetSpanStoreStats.mockReturnValue(Promise.resolve(stats));
+
+    const tracerProvider = new EmbraceNativeTracerProvider();
+    expect(await tracerProvider.getSpanStoreStats()).toEqual(stats);
+  });
+
+  it("should return null stats if they can't be retrieved", async () => {
+    mockGetSpanStoreStats.mockReturnValue(Promise.reject("failed"));
+
+    const tracerProvider = new EmbraceNativeTracerProvider();
+    expect(await tracerProvider.getSpanStoreStats()).toBeNull();
+
+    mockPlatform.OS = "ios";
+    expect(await tracerProvider.getSpanStoreStats()).toBeNull();
+  });
+});
@@ -0,0 +1,168 @@
+import {ROOT_CONTEXT, trace} from "@opentelemetry/api";
+
+import {EmbraceNativeSpan, EmbraceNativeTracerProvider} from "../index";
+
+const mockSetupTracer = jest.fn();
+const mockStartSpan = jest.fn();
+const mockStartSpanSync = jest.fn();
+const mockGetSpanContext = jest.fn();
+const mockEndSpan = jest.fn();
+const mockApplyBatch = jest.fn();
+
+jest.mock("react-native", () => ({
+  AppState: {
+    addEventListener: jest.fn(),
+  },
+  Platform: {
+    OS: "android",
+  },
+}));
+
+jest.mock("../TracerProviderModule", () => ({
+  TracerProviderModule: {
+    setupTracer: (...args: unknown[]) => mockSetupTracer(...args),
+    startSpan: (...args: unknown[]) => mockStartSpan(...args),
+    startSpanSync: (...args: unknown[]) => mockStartSpanSync(...args),
+    getSpanContext: (...args: unknown[]) => mockGetSpanContext(...args),
+    endSpan: (...args: unknown[]) => mockEndSpan(...args),
+    applyBatch: (commands: unknown[]) => mockApplyBatch(commands),
+  },
+}));
+
+describe("Synchronous span start", () => {
+  beforeEach(() => {
+    jest.resetAllMocks();
+
+    mockStartSpan.mockReturnValue(
+      Promise.resolve({traceId: "async-trace", spanId: "async-span"}),
+    );
+    mockStartSpanSync.mockReturnValue({
+      traceId: "sync-trace",
+      spanId: "sync-span",
+    });
+    mockApplyBatch.mockReturnValue(Promise.resolve({}));
+  });
+
+  it("should have the span context available as soon as the span is started", async () => {
+    const tracer = new EmbraceNativeTracerProvider({
+      synchronousSpanStart: true,
+      spanContextSyncBehaviour: "throw",
+    }).getTracer("test", "v1");
+
+    const parent = tracer.startSpan("parent");
+    expect(parent.spanContext()).toEqual({
+      traceId: "sync-trace",
+      spanId: "sync-span",
+    });
+    expect(await (parent as EmbraceNativeSpan).spanContextAsync()).toEqual({
+      traceId: "sync-trace",
+      spanId: "sync-span",
+    });
+
+    tracer.startSpan(
+      "child",
+      {attributes: {"my-attr": "foo"}},
+      trace.setSpan(ROOT_CONTEXT, parent),
+    );
+
+    expect(mockStartSpan).not.toHaveBeenCalled();
+    expect(mockStartSpanSync).toHaveBeenCalledTimes(2);
+    expect(mockStartSpanSync).toHaveBeenLastCalledWith(
+      mockSetupTracer.mock.calls[0][0],
+      expect.any(Number),
+      "child",
+      "",
+      0,
+      {"my-attr": "foo"},
+      [],
+      (parent as EmbraceNativeSpan).nativeID(),
+      "",
+      "",
+    );
+  });
+
+  it("should reject the span context if the span was not started on the native side", async () => {
+    mockStartSpanSync.mockReturnValue(null);
+    const tracer = new EmbraceNativeTracerProvider({
+      synchronousSpanStart: true,
+    }).getTracer("test", "v1");
+
+    const span = tracer.startSpan("my-span") as EmbraceNativeSpan;
+    await expect(span.spanContextAsync()).rejects.toEqual(
+      "span was not started on the native side",
+    );
+    expect(mockStartSpan).not.toHaveBeenCalled();
+  });
+
+  it("should wait on the span context if the native side timed out starting the span", async () => {
+    mockStartSpanSync.mockReturnValue({timedOut: true});
+    mockGetSpanContext.mockReturnValue(
+      Promise.resolve({traceId: "late-trace", spanId: "late-span"}),
+    );
+    const tracer = new EmbraceNativeTracerProvider({
+      synchronousSpanStart: true,
+      spanContextSyncBehaviour: "throw",
+    }).getTracer("test", "v1");
+
+    const span = tracer.startSpan("my-span") as EmbraceNativeSpan;
+    expect(() => span.spanContext()).toThrow();
+
+    expect(await span.spanContextAsync()).toEqual({
+      traceId: "late-trace",
+      spanId: "late-span",
+    });
+    expect(span.spanContext()).toEqual({
+      traceId: "late-trace",
+      spanId: "late-span",
+    });
+    expect(mockGetSpanContext).toHaveBeenCalledWith(span.nativeID());
+    expect(mockStartSpan).not.toHaveBeenCalled();
+  });
+
+  it("should fall back to the asynchronous method if synchronous calls are unavailable", async () => {
+    mockStartSpanSync.mockImplementation(() => {
+      throw new Error("synchronous calls are not supported");
+    });
+    const tracer = new EmbraceNativeTracerProvider({
+      synchronousSpanStart: true,
+    }).getTracer("test", "v1");
+
+    const span1 = tracer.startSpan("my-span-1") as EmbraceNativeSpan;
+    const span2 = tracer.startSpan("my-span-2") as EmbraceNativeSpan;
+
+    expect(await span1.spanContextAsync()).toEqual({
+      traceId: "async-trace",
+      spanId: "async-span",
+    });
+    expect(await span2.spanContextAsync()).toEqual({
+      traceId: "async-trace",
+      spanId: "async-span",
+    });
+
+    // Should only attempt the synchronous method once before giving up on it
+    expect(mockStartSpanSync).toHaveBeenCalledTimes(1);
+    expect(mockStartSpan).toHaveBeenCalledTimes(2);
+  });
+
+  it("should start spans synchronously while batching other operations", () => {
+    const tracer = new EmbraceNativeTracerProvider({
+      synchronousSpanStart: true,
+      spanBatching: {},
+    }).getTracer("test", "v1");
+
+    const span = tracer.startSpan("my-span");
+    expect(span.spanContext().spanId).toEqual("sync-span");
+
+    span.end();
+    expect(mockStartSpanSync).toHaveBeenCalledTimes(1);
+    expect(mockEndSpan).not.toHaveBeenCalled();
+  });
+
+  it("should use the asynchronous method by default", () => {
+    const tracer = new EmbraceNativeTracerProvider().getTracer("test", "v1");
+    tracer.startSpan("my-span");
+
+    expect(mockStartSpanSync).not.toHaveBeenCalled();
+    expect(mockStartSpan).toHaveBeenCalledTimes(1);
+  });
+});
@@ -51,24 +51,24 @@ jest.mock("react-native", () => ({
 
 jest.mock("../TracerProviderModule", () => ({
   TracerProviderModule: {
-    setupTracer: (name: string, version?: string, schemaUrl?: string) =>
-      mockSetupTracer(name, version, schemaUrl),
+    setupTracer: (
+      tracerHandle: number,
+      name: string,
+      version?: string,
+      schemaUrl?: string,
+    ) => mockSetupTracer(tracerHandle, name, version, schemaUrl),
     startSpan: (
-      tracerName: string,
-      tracerVersion: string,
-      tracerSchemaUrl: string,
-      id: string,
+      tracerHandle: number,
+      id: number,
       name: string,
       kind: string,
       time: number,
       attributes: Attributes,
       links: Link[],
-      parentID: string,
+      parentID: number,
     ) =>
       mockStartSpan(
-        tracerName,
-        tracerVersion,
-        tracerSchemaUrl,
+        tracerHandle,
         id,
         name,
         kind,
@@ -77,19 +77,19 @@ jest.mock("../TracerProviderModule", () => ({
         links,
         parentID,
       ),
-    setAttributes: (id: string, attributes: Attributes) =>
+    setAttributes: (id: number, attributes: Attributes) =>
       mockSetAttributes(id, attributes),
     addEvent: (
-      id: string,
+      id: number,
       name: string,
       attributes: Attributes,
       time: number,
     ) => mockAddEvent(id, name, attributes, time),
-    addLinks: (id: string, links: Link[]) => mockAddLinks(id, links),
-    setStatus: (id: string, status: {code: string; message?: string}) =>
+    addLinks: (id: number, links: Link[]) => mockAddLinks(id, links),
+    setStatus: (id: number, status: {code: string; message?: string}) =>
       mockSetStatus(id, status),
-    updateName: (id: string, name: string) => mockUpdateName(id, name),
-    endSpan: (id: string, time: number) => mockEndSpan(id, time),
+    updateName: (id: number, name: string) => mockUpdateName(id, name),
+    endSpan: (id: number, time: number) => mockEndSpan(id, time),
     clearCompletedSpans: () => mockClearCompletedSpans(),
   },
 }));
@@ -108,8 +108,18 @@ describe("Embrace Native Tracer Provider", () => {
     );
   });
 
+  // Tracer handles are assigned globally so look up the one the tracer was set up with rather than depending on the
+  // order tests run in
+  const getTracerHandle = (name: string, version: string, schemaUrl: string) =>
+    mockSetupTracer.mock.calls.find(
+      ([, tracerName, tracerVersion, tracerSchemaUrl]) =>
+        tracerName === name &&
+        tracerVersion === version &&
+        tracerSchemaUrl === schemaUrl,
+    )?.[0];
+
   const getEmptySpan = (): Span =>
-    new EmbraceNativeSpan("", "", "", "return_empty");
+    new EmbraceNativeSpan("return_empty");
 
   const getTestTracer = async ({
     name = "test",
@@ -135,7 +145,12 @@ describe("Embrace Native Tracer Provider", () => {
 
   it("should allow getting a tracer", async () => {
     await getTestTracer({name: "some-tracer", version: "v17"});
-    expect(mockSetupTracer).toHaveBeenCalledWith("some-tracer", "v17", "");
+    expect(mockSetupTracer).toHaveBeenCalledWith(
+      expect.any(Number),
+      "some-tracer",
+      "v17",
+      "",
+    );
   });
 
   it("should provide a tracer by default", async () => {
@@ -144,6 +159,7 @@ describe("Embrace Native Tracer Provider", () => {
     await waitFor(() => expect(result.current.tracer).toBeTruthy());
 
     expect(mockSetupTracer).toHaveBeenCalledWith(
+      expect.any(Number),
       "embrace-default-tracer",
       "",
       "",
@@ -152,16 +168,14 @@ describe("Embrace Native Tracer Provider", () => {
     const span = result.current.tracer!.startSpan("my-span");
 
     expect(mockStartSpan).toHaveBeenCalledWith(
-      "embrace-default-tracer",
-      "",
-      "",
+      getTracerHandle("embrace-default-tracer", "", ""),
       (span as EmbraceNativeSpan).nativeID(),
       "my-span",
       "",
       0,
       {},
       [],
-      "",
+      0,
     );
   });
 
@@ -211,16 +225,14 @@ describe("Embrace Native Tracer Provider", () => {
     const span = tracer.startSpan("my-span");
 
     expect(mockStartSpan).toHaveBeenCalledWith(
-      "test",
-      "v1",
-      "",
+      getTracerHandle("test", "v1", ""),
       (span as EmbraceNativeSpan).nativeID(),
       "my-span",
       "",
       0,
       {},
       [],
-      "",
+      0,
     );
   });
 
@@ -251,9 +263,7 @@ describe("Embrace Native Tracer Provider", () => {
     });
 
     expect(mockStartSpan).toHaveBeenCalledWith(
-      "test",
-      "v1",
-      "",
+      getTracerHandle("test", "v1", ""),
       (span as EmbraceNativeSpan).nativeID(),
       "my-span",
       "CONSUMER",
@@ -277,7 +287,7 @@ describe("Embrace Native Tracer Provider", () => {
           droppedAttributesCount: 0,
         },
       ],
-      "",
+      0,
     );
   });
 
@@ -290,9 +300,7 @@ describe("Embrace Native Tracer Provider", () => {
     const child = tracer.startSpan("my-child-span", {}, parentContext);
 
     expect(mockStartSpan).toHaveBeenCalledWith(
-      "test",
-      "v1",
-      "",
+      getTracerHandle("test", "v1", ""),
       (child as EmbraceNativeSpan).nativeID(),
       "my-child-span",
       "",
@@ -316,35 +324,31 @@ describe("Embrace Native Tracer Provider", () => {
     );
 
     expect(mockStartSpan).toHaveBeenCalledWith(
-      "test",
-      "v1",
-      "",
+      getTracerHandle("test", "v1", ""),
       (child as EmbraceNativeSpan).nativeID(),
       "my-child-span",
       "",
       0,
       {},
       [],
-      "",
+      0,
     );
   });
 
   it("should allow starting an active span", async () => {
     const tracer = await getTestTracer({});
     let child = getEmptySpan();
-    let parentNativeID: string = "";
+    let parentNativeID: number = 0;
     tracer.startActiveSpan("my-active-span", () => {
       expect(mockStartSpan).toHaveBeenCalledWith(
-        "test",
-        "v1",
-        "",
-        expect.any(String),
+        getTracerHandle("test", "v1", ""),
+        expect.any(Number),
         "my-active-span",
         "",
         0,
         {},
         [],
-        "",
+        0,
       );
       parentNativeID = mockStartSpan.mock.calls[0][3];
       mockStartSpan.mockClear();
@@ -352,9 +356,7 @@ describe("Embrace Native Tracer Provider", () => {
     });
 
     expect(mockStartSpan).toHaveBeenCalledWith(
-      "test",
-      "v1",
-      "",
+      getTracerHandle("test", "v1", ""),
       (child as EmbraceNativeSpan).nativeID(),
       "my-child-span",
       "",
@@ -368,19 +370,17 @@ describe("Embrace Native Tracer Provider", () => {
   it("should allow starting an active span with options", async () => {
     const tracer = await getTestTracer({});
     let child = getEmptySpan();
-    let parentNativeID: string = "";
+    let parentNativeID: number = 0;
     tracer.startActiveSpan("my-active-span", {kind: SpanKind.CLIENT}, () => {
       expect(mockStartSpan).toHaveBeenCalledWith(
-        "test",
-        "v1",
-        "",
-        expect.any(String),
+        getTracerHandle("test", "v1", ""),
+        expect.any(Number),
         "my-active-span",
         "CLIENT",
         0,
         {},
         [],
-        "",
+        0,
       );
       parentNativeID = mockStartSpan.mock.calls[0][3];
       mockStartSpan.mockClear();
@@ -388,9 +388,7 @@ describe("Embrace Native Tracer Provider", () => {
     });
 
     expect(mockStartSpan).toHaveBeenCalledWith(
-      "test",
-      "v1",
-      "",
+      getTracerHandle("test", "v1", ""),
       (child as EmbraceNativeSpan).nativeID(),
       "my-child-span",
       "",
@@ -410,16 +408,14 @@ describe("Embrace Native Tracer Provider", () => {
     let child = getEmptySpan();
     tracer.startActiveSpan("my-active-span", {kind: SpanKind.CLIENT}, () => {
       expect(mockStartSpan).toHaveBeenCalledWith(
-        "test",
-        "v1",
-        "",
-        expect.any(String),
+        getTracerHandle("test", "v1", ""),
+        expect.any(Number),
         "my-active-span",
         "CLIENT",
         0,
         {},
         [],
-        "",
+        0,
       );
 
       mockStartSpan.mockClear();
@@ -427,9 +423,7 @@ describe("Embrace Native Tracer Provider", () => {
     });
 
     expect(mockStartSpan).toHaveBeenCalledWith(
-      "test",
-      "v1",
-      "",
+      getTracerHandle("test", "v1", ""),
       (child as EmbraceNativeSpan).nativeID(),
       "my-child-span",
       "",
@@ -447,19 +441,17 @@ describe("Embrace Native Tracer Provider", () => {
       },
     });
     let child = getEmptySpan();
-    let parentNativeID: string = "";
+    let parentNativeID: number = 0;
     tracer.startActiveSpan("my-active-span", {kind: SpanKind.CLIENT}, () => {
       expect(mockStartSpan).toHaveBeenCalledWith(
-        "test",
-        "v1",
-        "",
-        expect.any(String),
+        getTracerHandle("test", "v1", ""),
+        expect.any(Number),
         "my-active-span",
         "CLIENT",
         0,
         {},
         [],
-        "",
+        0,
       );
       parentNativeID = mockStartSpan.mock.calls[0][3];
       mockStartSpan.mockClear();
@@ -470,9 +462,7 @@ describe("Embrace Native Tracer Provider", () => {
     });
 
     expect(mockStartSpan).toHaveBeenCalledWith(
-      "test",
-      "v1",
-      "",
+      getTracerHandle("test", "v1", ""),
       (child as EmbraceNativeSpan).nativeID(),
       "my-child-span",
       "",
@@ -824,22 +814,57 @@ describe("Embrace Native Tracer Provider", () => {
         schemaUrl: "s1",
       },
     });
-    expect(mockSetupTracer).toHaveBeenCalledWith("test", "v1", "s1");
+    expect(mockSetupTracer).toHaveBeenCalledWith(
+      expect.any(Number),
+      "test",
+      "v1",
+      "s1",
+    );
 
     const span = tracer.startSpan("my-span");
 
-    // Schema URL should be included to uniquely identify tracer and spans
+    // Schema URL is part of what uniquely identifies the tracer so it is set up with its own handle
     expect(mockStartSpan).toHaveBeenCalledWith(
-      "test",
-      "v1",
-      "s1",
+      getTracerHandle("test", "v1", "s1"),
       (span as EmbraceNativeSpan).nativeID(),
       "my-span",
       "",
       0,
       {},
       [],
+      0,
+    );
+  });
+
+  it("should assign each distinct tracer its own handle", async () => {
+    const tracer = await getTestTracer({name: "handles", version: "v1"});
+    await getTestTracer({name: "handles", version: "v1"});
+    await getTestTracer({name: "handles", version: "v2"});
+    await getTestTracer({
+      name: "handles",
+      version: "v1",
+      tracerOptions: {schemaUrl: "s1"},
+    });
+
+    // The hook also sets up the default tracer each time it is rendered
+    const handles = mockSetupTracer.mock.calls
+      .filter(([, name]) => name === "handles")
+      .map(([handle]) => handle);
+    expect(handles).toHaveLength(4);
+    expect(handles[0]).toBeGreaterThan(0);
+    expect(handles[1]).toEqual(handles[0]);
+    expect(new Set(handles).size).toEqual(3);
+
+    tracer.startSpan("my-span");
+    expect(mockStartSpan).toHaveBeenCalledWith(
+      handles[0],
+      expect.any(Number),
+      "my-span",
       "",
+      0,
+      {},
+      [],
+      0,
     );
   });
 
@@ -853,9 +878,7 @@ describe("Embrace Native Tracer Provider", () => {
     const child = tracer.startSpan("my-child-span", {}, parentContext);
 
     expect(mockStartSpan).toHaveBeenCalledWith(
-      "test",
-      "v1",
-      "",
+      getTracerHandle("test", "v1", ""),
       (child as EmbraceNativeSpan).nativeID(),
       "my-child-span",
       "",
@@ -883,9 +906,7 @@ describe("Embrace Native Tracer Provider", () => {
     const span = startView(tracer, "my-view");
 
     expect(mockStartSpan).toHaveBeenCalledWith(
-      "test",
-      "v1",
-      "",
+      getTracerHandle("test", "v1", ""),
       (span as EmbraceNativeSpan).nativeID(),
       "emb-screen-view",
       "",
@@ -895,7 +916,7 @@ describe("Embrace Native Tracer Provider", () => {
         "emb.type": "ux.view",
       },
       [],
-      "",
+      0,
     );
 
     span.end();
@@ -931,9 +952,7 @@ describe("Embrace Native Tracer Provider", () => {
     const child = tracer.startSpan("the-child", {}, asParent(parentSpan));
 
     expect(mockStartSpan).toHaveBeenCalledWith(
-      "test",
-      "v1",
-      "",
+      getTracerHandle("test", "v1", ""),
       (child as EmbraceNativeSpan).nativeID(),
       "the-child",
       "",
@@ -970,10 +989,8 @@ describe("Embrace Native Tracer Provider", () => {
       status: {code: SpanStatusCode.ERROR},
     });
     expect(mockStartSpan).toHaveBeenCalledWith(
-      "test",
-      "v1",
-      "",
-      expect.any(String),
+      getTracerHandle("test", "v1", ""),
+      expect.any(Number),
       "completed-span",
       "CONSUMER",
       1718409600000,
@@ -1008,20 +1025,18 @@ describe("Embrace Native Tracer Provider", () => {
 
     recordCompletedSpan(tracer, "completed-span");
     expect(mockStartSpan).toHaveBeenCalledWith(
-      "test",
-      "v1",
-      "",
-      expect.any(String),
+      getTracerHandle("test", "v1", ""),
+      expect.any(Number),
       "completed-span",
       "",
       0,
       {},
       [],
-      "",
+      0,
     );
     expect(mockAddEvent).not.toHaveBeenCalled();
     expect(mockSetStatus).not.toHaveBeenCalled();
-    expect(mockEndSpan).toHaveBeenCalledWith(expect.any(String), 0);
+    expect(mockEndSpan).toHaveBeenCalledWith(expect.any(Number), 0);
   });
 
   it("should not collide on native span IDs when multiple tracer providers and tracers are instantiated", async () => {
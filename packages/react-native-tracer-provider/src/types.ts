@@ -13,6 +13,143 @@ interface EmbraceNativeTracerProviderConfig {
   spanContextSyncBehaviour?: SpanContextSyncBehaviour;
 
   setGlobalContextManager?: boolean;
+
+  /**
+   * When set, span operations are queued on the JS side and sent to the native module in batches rather than as
+   * individual calls over the bridge
+   */
+  spanBatching?: SpanBatchingConfig;
+
+  /**
+   * When true, spans are started through a blocking synchronous call to the native module so that `spanContext()` is
+   * available as soon as `startSpan` returns. This trades a short block of the JS thread for not having to wait on the
+   * span context. Falls back to the asynchronous method where synchronous native calls are not supported
+   */
+  synchronousSpanStart?: boolean;
+
+  /**
+   * Determines where trace and span IDs are generated, defaults to "native". "js" is only supported on Android with a
+   * tracer provider supplied through `ReactNativeTracerProviderModule.useTracerProvider`, see the README
+   */
+  idGeneration?: IdGeneration;
+
+  /** Bounds on the spans the native side keeps track of, only supported on Android */
+  spanStore?: SpanStoreConfig;
+
+  /**
+   * When set, span operations are applied on a dedicated native thread rather than on the thread shared by all native
+   * modules, so that a burst of span work does not delay calls to other modules. Only supported on Android
+   */
+  spanExecutor?: SpanExecutorConfig;
+
+  /**
+   * When set, spans that stay active for longer than a maximum age, such as those left behind by a component that
+   * unmounted before ending them, are ended by the native side with an error status and an `emb.orphaned` attribute.
+   * Only supported on Android
+   */
+  orphanedSpans?: OrphanedSpansConfig;
+}
+
+interface SpanBatchingConfig {
+  /** Flush the queued operations as soon as this many have been queued, defaults to 200 */
+  maxBatchSize?: number;
+
+  /**
+   * How long to wait after the first operation is queued before flushing, defaults to 0 meaning operations issued
+   * within the same JS tick are sent together
+   */
+  maxDelayMs?: number;
+}
+
+interface SpanStoreConfig {
+  /** Maximum number of spans that can be active at once, defaults to 10000 */
+  maxActiveSpans?: number;
+
+  /**
+   * Maximum number of completed spans kept so they can be referenced as parents, the least recently used are evicted
+   * past this point. Defaults to 10000
+   */
+  maxCompletedSpans?: number;
+
+  /**
+   * How long a completed span is kept after it was last used before being evicted, 0 keeps them until they are
+   * evicted for space or the app is backgrounded. Defaults to 10 minutes
+   */
+  completedSpanTtlMs?: number;
+
+  /** What to do when a span is started while `maxActiveSpans` are already active, defaults to "endOldest" */
+  activeSpanOverflow?: ActiveSpanOverflow;
+}
+
+interface SpanExecutorConfig {
+  /** Maximum number of operations waiting to be applied, defaults to 4096 */
+  queueCapacity?: number;
+
+  /** What to do when an operation is issued while the queue is full, defaults to "dropNewest" */
+  fullQueuePolicy?: FullQueuePolicy;
+}
+
+interface OrphanedSpansConfig {
+  /** How long a span can stay active before it is ended as orphaned */
+  maxSpanAgeMs: number;
+
+  /** How often to check for orphaned spans, defaults to every 30 seconds or `maxSpanAgeMs` if that is shorter */
+  sweepIntervalMs?: number;
+}
+
+/**
+ * Metrics for the native span executor's queue, latencies are between an operation being received by the native
+ * module and being applied
+ */
+interface SpanExecutorStats {
+  queueDepth: number;
+  maxQueueDepth: number;
+  submitted: number;
+  applied: number;
+  dropped: number;
+  meanLatencyMs: number;
+  maxLatencyMs: number;
+}
+
+/**
+ * Counters of the spans tracked by the native side and those it has had to drop
+ */
+interface SpanStoreStats {
+  activeSpans: number;
+  completedSpans: number;
+  /** Completed spans evicted to stay under `maxCompletedSpans` */
+  evicted: number;
+  /** Completed spans evicted after going unused for `completedSpanTtlMs` */
+  expired: number;
+  /** Active spans ended early to stay under `maxActiveSpans` */
+  forceEnded: number;
+  /** Spans that were not started to stay under `maxActiveSpans` */
+  rejected: number;
+  /** Spans started with a parent that was no longer tracked, these are started as root spans instead */
+  orphaned: number;
+  /** Spans ended for staying active past `orphanedSpans.maxSpanAgeMs` */
+  orphansEnded: number;
+}
+
+/**
+ * Breakdown of the spans currently active on the native side, meant for tracking down spans that are never ended
+ */
+interface ActiveSpanStats {
+  activeSpans: number;
+  /** How long ago the oldest active span was started, 0 if there are none */
+  oldestAgeMs: number;
+  /**
+   * Active spans counted by how long ago they were started, each bucket counts the spans started at most
+   * `upperBoundMs` ago that don't fall in a previous bucket. The last bucket's bound is Infinity
+   */
+  ageHistogram: {upperBoundMs: number; count: number}[];
+  /** Active spans counted by the tracer that started them */
+  tracers: {
+    name: string;
+    version: string;
+    schemaUrl: string;
+    activeSpans: number;
+  }[];
 }
 
 /**
@@ -22,8 +159,46 @@ interface EmbraceNativeTracerProviderConfig {
  */
 type SpanContextSyncBehaviour = "return_empty" | "throw";
 
+/**
+ * Possible places for trace and span IDs to be generated:
+ *  - native: IDs are allocated by the native SDK when the span is started, the span context is available once the
+ *    native side has responded
+ *  - js: IDs are generated on the JS side and supplied to the native SDK which builds the span with them, the span
+ *    context is available immediately. Only supported on Android and only when the native tracer provider is built
+ *    with a CallerSuppliedIdGenerator, which the one from the Embrace SDK isn't. Otherwise this falls back to
+ *    "native" with a warning
+ */
+type IdGeneration = "native" | "js";
+
+/**
+ * Possible behaviours when starting a span would go over the maximum number of active spans:
+ *  - endOldest: end the span that was started the longest time ago to make room
+ *  - reject: do not start the new span
+ */
+type ActiveSpanOverflow = "endOldest" | "reject";
+
+/**
+ * Possible behaviours when a span operation is issued while the native span executor's queue is full:
+ *  - dropNewest: drop the operation being issued
+ *  - dropOldest: drop the operation that has been waiting the longest to make room
+ *  - block: wait for room in the queue
+ *
+ * Dropped span starts reject their span context
+ */
+type FullQueuePolicy = "dropNewest" | "dropOldest" | "block";
+
 export {
+  ActiveSpanOverflow,
+  ActiveSpanStats,
   EmbraceNativeTracerProviderReturn,
   EmbraceNativeTracerProviderConfig,
+  FullQueuePolicy,
+  IdGeneration,
+  OrphanedSpansConfig,
+  SpanBatchingConfig,
   SpanContextSyncBehaviour,
+  SpanExecutorConfig,
+  SpanExecutorStats,
+  SpanStoreConfig,
+  SpanStoreStats,
 };
@@ -0,0 +1,79 @@
+package io.embrace.reactnativetracerprovidertest
+
+import com.facebook.react.bridge.JavaOnlyArray
+import com.facebook.react.bridge.JavaOnlyMap
+import io.embrace.reactnativetracerprovider.AttributeConverter
+import io.opentelemetry.api.common.AttributeKey
+import io.opentelemetry.api.common.Attributes
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.logging.Logger
+
+class AttributeConverterTest {
+    private val log = Logger.getLogger("[Embrace]")
+    private val converter = AttributeConverter(log)
+
+    @Test
+    fun convertsAllTypes() {
+        val attributes = converter.fromReadableMap(
+            JavaOnlyMap.of(
+                "bool", true,
+                "number", 1.5,
+                "string", "foo",
+                "bools", JavaOnlyArray.of(true, false),
+                "numbers", JavaOnlyArray.of(1.0, 2.0),
+                "strings", JavaOnlyArray.of("a", "b"),
+                "empty-array", JavaOnlyArray(),
+                "mixed-array", JavaOnlyArray.of(JavaOnlyMap())
+            )
+        )
+
+        assertEquals(
+            Attributes.builder()
+                .put("bool", true)
+                .put("number", 1.5)
+                .put("string", "foo")
+                .put(AttributeKey.booleanArrayKey("bools"), listOf(true, false))
+                .put(AttributeKey.doubleArrayKey("numbers"), listOf(1.0, 2.0))
+                .put(AttributeKey.stringArrayKey("strings"), listOf("a", "b"))
+                .build(),
+            attributes
+        )
+    }
+
+    @Test
+    fun rejectsArraysWithNullOrMixedElements() {
+        val attributes = converter.fromReadableMap(
+            JavaOnlyMap.of(
+                "strings", JavaOnlyArray.of("a", null, "b"),
+                "numbers", JavaOnlyArray.of(1.0, "2"),
+                "bools", JavaOnlyArray.of(true, null),
+                "valid", JavaOnlyArray.of("c")
+            )
+        )
+
+        assertEquals(Attributes.of(AttributeKey.stringArrayKey("valid"), listOf("c")), attributes)
+    }
+
+    @Test
+    fun smallMaps() {
+        assertSame(Attributes.empty(), converter.fromReadableMap(JavaOnlyMap()))
+        assertEquals(Attributes.of(AttributeKey.stringKey("foo"), "bar"), converter.fromReadableMap(JavaOnlyMap.of("foo", "bar")))
+        assertTrue(converter.fromReadableMap(JavaOnlyMap.of("foo", JavaOnlyArray())).isEmpty)
+    }
+
+    @Test
+    fun internsKeys() {
+        val first = converter.fromReadableMap(JavaOnlyMap.of("foo", "bar", "count", 1.0))
+        val second = converter.fromReadableMap(JavaOnlyMap.of("foo", "baz", "count", 2.0))
+
+        assertSame(first.asMap().keys.first { it.key == "foo" }, second.asMap().keys.first { it.key == "foo" })
+        assertSame(first.asMap().keys.first { it.key == "count" }, second.asMap().keys.first { it.key == "count" })
+
+        // Same name with a different type gets its own key
+        val third = converter.fromReadableMap(JavaOnlyMap.of("foo", true))
+        assertEquals(AttributeKey.booleanKey("foo"), third.asMap().keys.first())
+    }
+}
@@ -0,0 +1,182 @@
+package io.embrace.reactnativetracerprovidertest
+
+import com.facebook.react.bridge.JavaOnlyArray
+import com.facebook.react.bridge.JavaOnlyMap
+import com.facebook.react.bridge.Promise
+import com.facebook.react.bridge.ReactApplicationContext
+import com.facebook.react.bridge.WritableMap
+import io.embrace.reactnativetracerprovider.CallerSuppliedIdGenerator
+import io.embrace.reactnativetracerprovider.ReactNativeTracerProviderModule
+import io.opentelemetry.sdk.common.CompletableResultCode
+import io.opentelemetry.sdk.trace.SdkTracerProvider
+import io.opentelemetry.sdk.trace.data.SpanData
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor
+import io.opentelemetry.sdk.trace.export.SpanExporter
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.mockito.kotlin.any
+import org.mockito.kotlin.argumentCaptor
+import org.mockito.kotlin.doReturn
+import org.mockito.kotlin.mock
+import org.mockito.kotlin.times
+import org.mockito.kotlin.verify
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [34])
+class ReactNativeTracerProviderCallerSuppliedIdsTest {
+    private val exporter: SpanExporter = mock {
+        on { export(any()) } doReturn CompletableResultCode.ofSuccess()
+    }
+    private val promise: Promise = mock()
+    private lateinit var tracerProviderModule: ReactNativeTracerProviderModule
+
+    @Before
+    fun setUp() {
+        val context: ReactApplicationContext = mock()
+        val provider = SdkTracerProvider.builder()
+            .setIdGenerator(CallerSuppliedIdGenerator())
+            .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+            .build()
+        tracerProviderModule = ReactNativeTracerProviderModule(context, provider, JavaOnlyMapMapBuilder())
+        tracerProviderModule.setupTracer(1.0, "test", "v1", "")
+    }
+
+    @Test
+    fun startSpanWithCallerSuppliedIds() {
+        tracerProviderModule.startSpan(
+            1.0, 1.0,
+            "parent-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
+            0.0, "22220000222200002222000022220000", "1111000011110000", promise
+        )
+        // Child supplies the same trace ID as its parent, as the JS side does
+        tracerProviderModule.startSpan(
+            1.0, 2.0,
+            "child-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
+            1.0, "22220000222200002222000022220000", "3333000033330000", promise
+        )
+        tracerProviderModule.endSpan(2.0, 0.0)
+        tracerProviderModule.endSpan(1.0, 0.0)
+
+        argumentCaptor<WritableMap>().apply {
+            verify(promise, times(2)).resolve(capture())
+            assertEquals("22220000222200002222000022220000", allValues[0].getString("traceId"))
+            assertEquals("1111000011110000", allValues[0].getString("spanId"))
+            assertEquals("22220000222200002222000022220000", allValues[1].getString("traceId"))
+            assertEquals("3333000033330000", allValues[1].getString("spanId"))
+        }
+
+        argumentCaptor<Collection<SpanData>>().apply {
+            verify(exporter, times(2)).export(capture())
+
+            val childSpan = allValues[0].asSequence().withIndex().elementAt(0).value
+            val parentSpan = allValues[1].asSequence().withIndex().elementAt(0).value
+
+            assertEquals("1111000011110000", parentSpan.spanId)
+            assertEquals("3333000033330000", childSpan.spanId)
+            assertEquals("1111000011110000", childSpan.parentSpanId)
+            assertEquals("22220000222200002222000022220000", childSpan.traceId)
+        }
+    }
+
+    @Test
+    fun startSpanSyncWithCallerSuppliedIds() {
+        val spanContext = tracerProviderModule.startSpanSync(
+            1.0, 1.0,
+            "my-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
+            0.0, "44440000444400004444000044440000", "5555000055550000"
+        )
+
+        assertEquals("44440000444400004444000044440000", spanContext?.getString("traceId"))
+        assertEquals("5555000055550000", spanContext?.getString("spanId"))
+    }
+
+    @Test
+    fun startSpanWithInvalidCallerSuppliedIds() {
+        tracerProviderModule.startSpan(
+            1.0, 1.0,
+            "my-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
+            0.0, "00000000000000000000000000000000", "not-an-id", promise
+        )
+
+        // Falls back to generating its own IDs
+        argumentCaptor<WritableMap>().apply {
+            verify(promise, times(1)).resolve(capture())
+            assertNotEquals("00000000000000000000000000000000", allValues[0].getString("traceId"))
+            assertNotEquals("not-an-id", allValues[0].getString("spanId"))
+            assertEquals(32, allValues[0].getString("traceId")?.length)
+            assertEquals(16, allValues[0].getString("spanId")?.length)
+        }
+    }
+
+    @Test
+    fun startSpanWithoutCallerSuppliedIds() {
+        tracerProviderModule.startSpan(
+            1.0, 1.0,
+            "my-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
+            0.0, "", "", promise
+        )
+
+        argumentCaptor<WritableMap>().apply {
+            verify(promise, times(1)).resolve(capture())
+            assertEquals(32, allValues[0].getString("traceId")?.length)
+            assertEquals(16, allValues[0].getString("spanId")?.length)
+        }
+    }
+
+    @Test
+    fun canAdoptCallerSuppliedIds() {
+        assertTrue(tracerProviderModule.canAdoptCallerSuppliedIds())
+
+        // the Embrace tracer provider can't be built with a CallerSuppliedIdGenerator
+        assertFalse(ReactNativeTracerProviderModule(mock(), JavaOnlyMapMapBuilder()).canAdoptCallerSuppliedIds())
+    }
+
+    @Test
+    fun adoptsCallerSuppliedIdsWithTheAppTracerProvider() {
+        val provider = SdkTracerProvider.builder()
+            .setIdGenerator(CallerSuppliedIdGenerator())
+            .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+            .build()
+        ReactNativeTracerProviderModule.useTracerProvider(provider)
+        try {
+            val module = ReactNativeTracerProviderModule(mock(), JavaOnlyMapMapBuilder())
+            assertTrue(module.canAdoptCallerSuppliedIds())
+
+            module.setupTracer(1.0, "test", "v1", "")
+            val spanContext = module.startSpanSync(
+                1.0, 1.0,
+                "my-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
+                0.0, "88880000888800008888000088880000", "9999000099990000"
+            )
+            assertEquals("9999000099990000", spanContext?.getString("spanId"))
+        } finally {
+            ReactNativeTracerProviderModule.useTracerProvider(null)
+        }
+    }
+
+    @Test
+    fun cannotAdoptCallerSuppliedIdsOnceRejected() {
+        val provider = SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+            .build()
+        val module = ReactNativeTracerProviderModule(mock(), provider, JavaOnlyMapMapBuilder())
+        module.setupTracer(1.0, "test", "v1", "")
+        assertTrue(module.canAdoptCallerSuppliedIds())
+
+        module.startSpan(
+            1.0, 1.0,
+            "my-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
+            0.0, "66660000666600006666000066660000", "7777000077770000", promise
+        )
+
+        // the provider allocated its own IDs, so the JS side should stop generating them
+        assertFalse(module.canAdoptCallerSuppliedIds())
+    }
+}
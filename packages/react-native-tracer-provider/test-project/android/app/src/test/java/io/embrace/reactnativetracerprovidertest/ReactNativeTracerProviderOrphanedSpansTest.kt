@@ -0,0 +1,147 @@
+package io.embrace.reactnativetracerprovidertest
+
+import com.facebook.react.bridge.JavaOnlyArray
+import com.facebook.react.bridge.JavaOnlyMap
+import com.facebook.react.bridge.Promise
+import com.facebook.react.bridge.ReactApplicationContext
+import com.facebook.react.bridge.WritableMap
+import io.embrace.reactnativetracerprovider.ReactNativeTracerProviderModule
+import io.opentelemetry.api.common.AttributeKey
+import io.opentelemetry.api.trace.StatusCode
+import io.opentelemetry.sdk.common.CompletableResultCode
+import io.opentelemetry.sdk.trace.SdkTracerProvider
+import io.opentelemetry.sdk.trace.data.SpanData
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor
+import io.opentelemetry.sdk.trace.export.SpanExporter
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.mockito.kotlin.argumentCaptor
+import org.mockito.kotlin.mock
+import org.mockito.kotlin.times
+import org.mockito.kotlin.verify
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.util.Collections
+
+private const val TIMEOUT_MS = 5000L
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [34])
+class ReactNativeTracerProviderOrphanedSpansTest {
+    private val exportedSpans = Collections.synchronizedList(mutableListOf<SpanData>())
+    private val exporter = object : SpanExporter {
+        override fun export(spans: Collection<SpanData>): CompletableResultCode {
+            exportedSpans.addAll(spans)
+            return CompletableResultCode.ofSuccess()
+        }
+
+        override fun flush(): CompletableResultCode = CompletableResultCode.ofSuccess()
+
+        override fun shutdown(): CompletableResultCode = CompletableResultCode.ofSuccess()
+    }
+    private val promise: Promise = mock()
+    private lateinit var tracerProviderModule: ReactNativeTracerProviderModule
+
+    @Before
+    fun setUp() {
+        val context: ReactApplicationContext = mock()
+        val provider = SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+            .build()
+        tracerProviderModule = ReactNativeTracerProviderModule(context, provider, JavaOnlyMapMapBuilder())
+        tracerProviderModule.setupTracer(1.0, "test", "v1", "")
+        tracerProviderModule.setupTracer(2.0, "other", "v1", "")
+    }
+
+    @After
+    fun tearDown() {
+        tracerProviderModule.invalidate()
+    }
+
+    private fun startSpan(tracerHandle: Double, spanBridgeId: Double, name: String) {
+        tracerProviderModule.startSpan(
+            tracerHandle, spanBridgeId,
+            name, "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
+            0.0, "", "", promise
+        )
+    }
+
+    private fun awaitExported(count: Int) {
+        val deadline = System.currentTimeMillis() + TIMEOUT_MS
+        while (exportedSpans.size < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5)
+        }
+    }
+
+    private fun getActiveSpanStats(): WritableMap {
+        val statsPromise: Promise = mock()
+        tracerProviderModule.getActiveSpanStats(statsPromise)
+        return argumentCaptor<WritableMap>().run {
+            verify(statsPromise, times(1)).resolve(capture())
+            firstValue
+        }
+    }
+
+    @Test
+    fun endsSpansPastTheMaximumAge() {
+        startSpan(1.0, 1.0, "orphan")
+        tracerProviderModule.enableOrphanedSpanSweeper(JavaOnlyMap.of("maxSpanAgeMs", 50.0, "sweepIntervalMs", 10.0))
+
+        awaitExported(1)
+
+        assertEquals(listOf("orphan"), exportedSpans.map { it.name })
+        val orphan = exportedSpans[0]
+        assertEquals(StatusCode.ERROR, orphan.status.statusCode)
+        assertEquals(true, orphan.attributes.get(AttributeKey.booleanKey("emb.orphaned")))
+
+        // Ending it from the JS side later on does not export it again
+        tracerProviderModule.endSpan(1.0, 0.0)
+        assertEquals(1, exportedSpans.size)
+
+        val statsPromise: Promise = mock()
+        tracerProviderModule.getSpanStoreStats(statsPromise)
+        argumentCaptor<WritableMap>().apply {
+            verify(statsPromise).resolve(capture())
+            assertEquals(1.0, firstValue.getDouble("orphansEnded"), 0.0)
+        }
+    }
+
+    @Test
+    fun leavesSpansUnderTheMaximumAge() {
+        tracerProviderModule.enableOrphanedSpanSweeper(JavaOnlyMap.of("maxSpanAgeMs", 60_000.0, "sweepIntervalMs", 10.0))
+        startSpan(1.0, 1.0, "active")
+
+        Thread.sleep(50)
+        tracerProviderModule.endSpan(1.0, 0.0)
+
+        assertEquals(1, exportedSpans.size)
+        assertNull(exportedSpans[0].attributes.get(AttributeKey.booleanKey("emb.orphaned")))
+        assertEquals(StatusCode.UNSET, exportedSpans[0].status.statusCode)
+    }
+
+    @Test
+    fun activeSpanStats() {
+        startSpan(1.0, 1.0, "span-1")
+        startSpan(1.0, 2.0, "span-2")
+        startSpan(2.0, 3.0, "span-3")
+        startSpan(2.0, 4.0, "span-4")
+        tracerProviderModule.endSpan(4.0, 0.0)
+
+        val stats = getActiveSpanStats()
+        assertEquals(3, stats.getInt("activeSpans"))
+        assertTrue(stats.getDouble("oldestAgeMs") < 1000)
+
+        val buckets = stats.getMap("ageBuckets")
+        assertEquals(3, buckets?.getInt("1000"))
+        assertEquals(0, buckets?.getInt("+Inf"))
+
+        val byTracer = stats.getMap("activeSpansByTracer")
+        assertEquals(2, byTracer?.getInt("1"))
+        assertEquals(1, byTracer?.getInt("2"))
+    }
+}
@@ -0,0 +1,208 @@
+package io.embrace.reactnativetracerprovidertest
+
+import com.facebook.react.bridge.JavaOnlyArray
+import com.facebook.react.bridge.JavaOnlyMap
+import com.facebook.react.bridge.Promise
+import com.facebook.react.bridge.ReactApplicationContext
+import com.facebook.react.bridge.WritableMap
+import io.embrace.reactnativetracerprovider.ReactNativeTracerProviderModule
+import io.opentelemetry.sdk.common.CompletableResultCode
+import io.opentelemetry.sdk.trace.SdkTracerProvider
+import io.opentelemetry.sdk.trace.data.SpanData
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor
+import io.opentelemetry.sdk.trace.export.SpanExporter
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.mockito.kotlin.any
+import org.mockito.kotlin.argumentCaptor
+import org.mockito.kotlin.eq
+import org.mockito.kotlin.mock
+import org.mockito.kotlin.timeout
+import org.mockito.kotlin.times
+import org.mockito.kotlin.verify
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+
+private const val TIMEOUT_MS = 5000L
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [34])
+class ReactNativeTracerProviderSpanExecutorTest {
+    private val exportedSpans = Collections.synchronizedList(mutableListOf<SpanData>())
+    private val exportingThreads = Collections.synchronizedSet(mutableSetOf<Thread>())
+    // Exports wait on this so that tests can hold up the executor
+    private var exportGate = CountDownLatch(0)
+    private val exporter = object : SpanExporter {
+        override fun export(spans: Collection<SpanData>): CompletableResultCode {
+            exportGate.await()
+            exportingThreads.add(Thread.currentThread())
+            exportedSpans.addAll(spans)
+            return CompletableResultCode.ofSuccess()
+        }
+
+        override fun flush(): CompletableResultCode = CompletableResultCode.ofSuccess()
+
+        override fun shutdown(): CompletableResultCode = CompletableResultCode.ofSuccess()
+    }
+    private val promise: Promise = mock()
+    private lateinit var tracerProviderModule: ReactNativeTracerProviderModule
+
+    @Before
+    fun setUp() {
+        val context: ReactApplicationContext = mock()
+        val provider = SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+            .build()
+        tracerProviderModule = ReactNativeTracerProviderModule(context, provider, JavaOnlyMapMapBuilder())
+        tracerProviderModule.enableSpanExecutor(JavaOnlyMap())
+        tracerProviderModule.setupTracer(1.0, "test", "v1", "")
+    }
+
+    @After
+    fun tearDown() {
+        tracerProviderModule.invalidate()
+    }
+
+    private fun getStats(): WritableMap? {
+        val statsPromise: Promise = mock()
+        tracerProviderModule.getSpanExecutorStats(statsPromise)
+        return argumentCaptor<WritableMap>().run {
+            verify(statsPromise, timeout(TIMEOUT_MS).times(1)).resolve(capture())
+            firstValue
+        }
+    }
+
+    @Test
+    fun appliesOperationsOnTheExecutor() {
+        tracerProviderModule.startSpan(
+            1.0, 1.0,
+            "parent", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
+            0.0, "", "", promise
+        )
+        tracerProviderModule.startSpan(
+            1.0, 2.0,
+            "child", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
+            1.0, "", "", promise
+        )
+        tracerProviderModule.setAttributes(2.0, JavaOnlyMap.of("my-attr", "foo"))
+        tracerProviderModule.endSpan(2.0, 0.0)
+        tracerProviderModule.endSpan(1.0, 0.0)
+
+        // Promise based calls resolve once the executor has applied them
+        verify(promise, timeout(TIMEOUT_MS).times(2)).resolve(any<WritableMap>())
+
+        // Read on the executor after the operations above, and counted along with them
+        val stats = getStats()
+        assertEquals(0, stats?.getInt("queueDepth"))
+        assertEquals(6.0, stats?.getDouble("applied"))
+        assertEquals(0.0, stats?.getDouble("dropped"))
+
+        tracerProviderModule.invalidate()
+
+        assertEquals(listOf("child", "parent"), exportedSpans.map { it.name })
+        assertEquals("foo", exportedSpans[0].attributes.asMap().values.first())
+        assertEquals(exportedSpans[1].spanId, exportedSpans[0].parentSpanId)
+        assertEquals(1, exportingThreads.size)
+        assertNotEquals(Thread.currentThread(), exportingThreads.first())
+    }
+
+    @Test
+    fun startSpanSyncWaitsForQueuedOperations() {
+        tracerProviderModule.startSpan(
+            1.0, 1.0,
+            "parent", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
+            0.0, "", "", promise
+        )
+        val spanContext = tracerProviderModule.startSpanSync(
+            1.0, 2.0,
+            "child", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
+            1.0, "", ""
+        )
+        tracerProviderModule.endSpan(2.0, 0.0)
+        tracerProviderModule.invalidate()
+
+        assertEquals(16, spanContext?.getString("spanId")?.length)
+        assertEquals(exportedSpans[0].spanId, spanContext?.getString("spanId"))
+        // The parent was started before the child even though only the child's start was waited on
+        assertTrue(exportedSpans[0].parentSpanContext.isValid)
+    }
+
+    @Test
+    fun startSpanSyncTimesOutWhenTheExecutorIsBusy() {
+        exportGate = CountDownLatch(1)
+        tracerProviderModule.startSpan(
+            1.0, 1.0,
+            "blocking", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
+            0.0, "", "", promise
+        )
+        // Exporting the ended span holds up the executor
+        tracerProviderModule.endSpan(1.0, 0.0)
+
+        val spanContext = tracerProviderModule.startSpanSync(
+            1.0, 2.0,
+            "my-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
+            0.0, "", ""
+        )
+
+        assertEquals(true, spanContext?.getBoolean("timedOut"))
+        assertFalse(spanContext?.hasKey("spanId") ?: true)
+
+        // The span is still started once the executor gets to it, and its context can be waited on
+        val contextPromise: Promise = mock()
+        tracerProviderModule.getSpanContext(2.0, contextPromise)
+        exportGate.countDown()
+        val waitedOn = argumentCaptor<WritableMap>().run {
+            verify(contextPromise, timeout(TIMEOUT_MS).times(1)).resolve(capture())
+            firstValue
+        }
+        tracerProviderModule.endSpan(2.0, 0.0)
+        tracerProviderModule.invalidate()
+        assertEquals(listOf("blocking", "my-span"), exportedSpans.map { it.name })
+        assertEquals(exportedSpans[1].spanId, waitedOn.getString("spanId"))
+    }
+
+    @Test
+    fun statsRejectOnceTheExecutorIsShutDown() {
+        tracerProviderModule.invalidate()
+
+        val statsPromise: Promise = mock()
+        tracerProviderModule.getSpanStoreStats(statsPromise)
+
+        verify(statsPromise).reject(eq("GET_SPAN_STORE_STATS"), any<String>())
+    }
+
+    @Test
+    fun applyBatchResolvesOnTheExecutor() {
+        tracerProviderModule.applyBatch(
+            JavaOnlyArray.of(
+                JavaOnlyArray.of(
+                    "startSpan", 1.0, 1.0,
+                    "my-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(), 0.0, "", ""
+                ),
+                JavaOnlyArray.of("endSpan", 1.0, 0.0)
+            ),
+            promise
+        )
+
+        verify(promise, timeout(TIMEOUT_MS).times(1)).resolve(any<WritableMap>())
+        tracerProviderModule.invalidate()
+        assertEquals(listOf("my-span"), exportedSpans.map { it.name })
+    }
+
+    @Test
+    fun statsAreNullWithoutExecutor() {
+        val module = ReactNativeTracerProviderModule(mock(), JavaOnlyMapMapBuilder())
+        val statsPromise: Promise = mock()
+        module.getSpanExecutorStats(statsPromise)
+
+        verify(statsPromise).resolve(null)
+    }
+}
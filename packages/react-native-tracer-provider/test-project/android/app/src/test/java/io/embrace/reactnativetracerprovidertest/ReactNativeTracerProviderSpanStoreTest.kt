@@ -0,0 +1,125 @@
+package io.embrace.reactnativetracerprovidertest
+
+import com.facebook.react.bridge.JavaOnlyArray
+import com.facebook.react.bridge.JavaOnlyMap
+import com.facebook.react.bridge.Promise
+import com.facebook.react.bridge.ReactApplicationContext
+import com.facebook.react.bridge.WritableMap
+import io.embrace.reactnativetracerprovider.ReactNativeTracerProviderModule
+import io.opentelemetry.sdk.common.CompletableResultCode
+import io.opentelemetry.sdk.trace.SdkTracerProvider
+import io.opentelemetry.sdk.trace.data.SpanData
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor
+import io.opentelemetry.sdk.trace.export.SpanExporter
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.mockito.kotlin.any
+import org.mockito.kotlin.argumentCaptor
+import org.mockito.kotlin.doReturn
+import org.mockito.kotlin.mock
+import org.mockito.kotlin.times
+import org.mockito.kotlin.verify
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [34])
+class ReactNativeTracerProviderSpanStoreTest {
+    private val exporter: SpanExporter = mock {
+        on { export(any()) } doReturn CompletableResultCode.ofSuccess()
+    }
+    private val promise: Promise = mock()
+    private lateinit var tracerProviderModule: ReactNativeTracerProviderModule
+
+    @Before
+    fun setUp() {
+        val context: ReactApplicationContext = mock()
+        val provider = SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+            .build()
+        tracerProviderModule = ReactNativeTracerProviderModule(context, provider, JavaOnlyMapMapBuilder())
+        tracerProviderModule.setupTracer(1.0, "test", "v1", "")
+    }
+
+    private fun startSpan(spanBridgeId: Double, name: String, parentId: Double = 0.0) {
+        tracerProviderModule.startSpan(
+            1.0, spanBridgeId,
+            name, "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
+            parentId, "", "", promise
+        )
+    }
+
+    private fun getStats(): WritableMap {
+        val statsPromise: Promise = mock()
+        tracerProviderModule.getSpanStoreStats(statsPromise)
+        return argumentCaptor<WritableMap>().run {
+            verify(statsPromise, times(1)).resolve(capture())
+            firstValue
+        }
+    }
+
+    @Test
+    fun forceEndsOldestActiveSpan() {
+        tracerProviderModule.configureSpanStore(JavaOnlyMap.of("maxActiveSpans", 2.0))
+
+        startSpan(1.0, "span-1")
+        startSpan(2.0, "span-2")
+        startSpan(3.0, "span-3")
+
+        argumentCaptor<Collection<SpanData>>().apply {
+            verify(exporter, times(1)).export(capture())
+            assertEquals("span-1", allValues[0].first().name)
+        }
+
+        val stats = getStats()
+        assertEquals(2, stats.getInt("activeSpans"))
+        assertEquals(1, stats.getInt("completedSpans"))
+        assertEquals(1.0, stats.getDouble("forceEnded"), 0.0)
+        assertEquals(0.0, stats.getDouble("rejected"), 0.0)
+    }
+
+    @Test
+    fun rejectsWhenActiveSpansFull() {
+        tracerProviderModule.configureSpanStore(
+            JavaOnlyMap.of("maxActiveSpans", 1.0, "activeSpanOverflow", "reject")
+        )
+
+        startSpan(1.0, "span-1")
+        startSpan(2.0, "span-2")
+
+        argumentCaptor<String, String>().apply {
+            verify(promise, times(1)).reject(first.capture(), second.capture())
+            assertEquals("too many active spans being tracked, ignoring", second.firstValue)
+        }
+
+        val stats = getStats()
+        assertEquals(1, stats.getInt("activeSpans"))
+        assertEquals(1.0, stats.getDouble("rejected"), 0.0)
+    }
+
+    @Test
+    fun evictedParentCountsAsOrphaned() {
+        tracerProviderModule.configureSpanStore(JavaOnlyMap.of("maxCompletedSpans", 1.0))
+
+        startSpan(1.0, "parent")
+        startSpan(2.0, "other")
+        tracerProviderModule.endSpan(1.0, 0.0)
+        tracerProviderModule.endSpan(2.0, 0.0)
+        startSpan(3.0, "child", 1.0)
+        tracerProviderModule.endSpan(3.0, 0.0)
+
+        argumentCaptor<Collection<SpanData>>().apply {
+            verify(exporter, times(3)).export(capture())
+            val child = allValues[2].first()
+            assertEquals("child", child.name)
+            assertEquals(false, child.parentSpanContext.isValid)
+        }
+
+        // Both the parent and the other span end up evicted as later spans complete
+        val stats = getStats()
+        assertEquals(2.0, stats.getDouble("evicted"), 0.0)
+        assertEquals(1.0, stats.getDouble("orphaned"), 0.0)
+    }
+}
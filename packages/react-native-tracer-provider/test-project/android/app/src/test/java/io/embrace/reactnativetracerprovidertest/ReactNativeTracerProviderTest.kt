@@ -10,6 +10,7 @@ import com.facebook.react.bridge.WritableMap
 import io.embrace.android.embracesdk.Embrace
 import io.embrace.android.embracesdk.otel.java.addJavaSpanExporter
 import io.embrace.android.embracesdk.otel.java.getJavaOpenTelemetry
+import io.embrace.reactnativetracerprovider.MAX_TRACERS
 import io.embrace.reactnativetracerprovider.ReactNativeTracerProviderModule
 import io.embrace.reactnativetracerprovider.WritableMapBuilder
 import io.mockk.every
@@ -89,7 +90,7 @@ class ReactNativeTracerProviderModuleTest {
             assertTrue(Embrace.isStarted)
 
             tracerProviderModule = ReactNativeTracerProviderModule(context, JavaOnlyMapMapBuilder())
-            tracerProviderModule.setupTracer("test", "v1", "")
+            tracerProviderModule.setupTracer(1.0, "test", "v1", "")
 
             extraAttributes = listOf("emb.process_identifier", "emb.type", "emb.private.sequence_id", "session.id")
             sdkStarted = true
@@ -121,11 +122,11 @@ class ReactNativeTracerProviderModuleTest {
     @Test
     fun startSpanSimple() {
         tracerProviderModule.startSpan(
-            "test", "v1", "", "span_0",
+            1.0, 1.0,
             "my-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
-            "", promise
+            0.0, "", "", promise
         )
-        tracerProviderModule.endSpan("span_0", 0.0)
+        tracerProviderModule.endSpan(1.0, 0.0)
 
         argumentCaptor<Collection<SpanData>>().apply {
             verify(exporter, times(1)).export(capture())
@@ -147,6 +148,50 @@ class ReactNativeTracerProviderModuleTest {
         }
     }
 
+    @Test
+    fun startSpanSync() {
+        val parentSpanContext = tracerProviderModule.startSpanSync(
+            1.0, 1.0,
+            "parent-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
+            0.0, "", ""
+        )
+        val childSpanContext = tracerProviderModule.startSpanSync(
+            1.0, 2.0,
+            "child-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
+            1.0, "", ""
+        )
+        tracerProviderModule.endSpan(2.0, 0.0)
+        tracerProviderModule.endSpan(1.0, 0.0)
+
+        assertNotNull(parentSpanContext)
+        assertNotNull(childSpanContext)
+
+        argumentCaptor<Collection<SpanData>>().apply {
+            verify(exporter, times(2)).export(capture())
+            assertEquals(2, allValues.size)
+
+            val childSpan = allValues[0].asSequence().withIndex().elementAt(0).value
+            val parentSpan = allValues[1].asSequence().withIndex().elementAt(0).value
+
+            assertEquals(parentSpanContext?.getString("spanId"), parentSpan.spanId)
+            assertEquals(childSpanContext?.getString("spanId"), childSpan.spanId)
+            assertEquals(parentSpan.spanId, childSpan.parentSpanId)
+            assertEquals(parentSpanContext?.getString("traceId"), childSpanContext?.getString("traceId"))
+        }
+    }
+
+    @Test
+    fun startSpanSyncTracerNotFound() {
+        val spanContext = tracerProviderModule.startSpanSync(
+            99.0, 1.0,
+            "my-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
+            0.0, "", ""
+        )
+
+        assertEquals(null, spanContext)
+        verify(exporter, times(0)).export(any())
+    }
+
     @Test
     fun startSpanWithOptions() {
         val attributes = JavaOnlyMap.of(
@@ -186,12 +231,12 @@ class ReactNativeTracerProviderModuleTest {
         // Skipping links for now as they are both not currently supported AND causing issues with 0.4.0 OtelJavaSpanBuilderAdapter.kt:
         // https://github.com/embrace-io/opentelemetry-kotlin/blob/82ea41fdfc2dfcac893f202f7e76c7a6bc4f7fae/opentelemetry-kotlin-compat/src/jvmMain/kotlin/io/embrace/opentelemetry/kotlin/tracing/OtelJavaSpanBuilderAdapter.kt#L101
         tracerProviderModule.startSpan(
-            "test", "v1", "", "span_0",
+            1.0, 1.0,
             "my-span", "CLIENT", 1718386928001.0, attributes, JavaOnlyArray(),
-            "", promise
+            0.0, "", "", promise
         )
 
-        tracerProviderModule.endSpan("span_0", 1728386928001.0)
+        tracerProviderModule.endSpan(1.0, 1728386928001.0)
 
         argumentCaptor<Collection<SpanData>>().apply {
             verify(exporter, times(1)).export(capture())
@@ -243,17 +288,17 @@ class ReactNativeTracerProviderModuleTest {
     @Test
     fun startSpanWithParent() {
         tracerProviderModule.startSpan(
-            "test", "v1", "", "span_0",
+            1.0, 1.0,
             "parent-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
-            "", promise
+            0.0, "", "", promise
         )
         tracerProviderModule.startSpan(
-            "test", "v1", "", "span_1",
+            1.0, 2.0,
             "child-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
-            "span_0", promise
+            1.0, "", "", promise
         )
-        tracerProviderModule.endSpan("span_0", 0.0)
-        tracerProviderModule.endSpan("span_1", 0.0)
+        tracerProviderModule.endSpan(1.0, 0.0)
+        tracerProviderModule.endSpan(2.0, 0.0)
 
         var parentSpanContext: ReadableMap?
         var childSpanContext: ReadableMap?
@@ -281,18 +326,18 @@ class ReactNativeTracerProviderModuleTest {
     @Test
     fun startSpanWithEndedParent() {
         tracerProviderModule.startSpan(
-            "test", "v1", "", "span_0",
+            1.0, 1.0,
             "parent-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
-            "", promise
+            0.0, "", "", promise
         )
-        tracerProviderModule.endSpan("span_0", 0.0)
+        tracerProviderModule.endSpan(1.0, 0.0)
 
         tracerProviderModule.startSpan(
-            "test", "v1", "", "span_1",
+            1.0, 2.0,
             "child-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
-            "span_0", promise
+            1.0, "", "", promise
         )
-        tracerProviderModule.endSpan("span_1", 0.0)
+        tracerProviderModule.endSpan(2.0, 0.0)
 
         var parentSpanContext: ReadableMap?
         var childSpanContext: ReadableMap?
@@ -320,19 +365,19 @@ class ReactNativeTracerProviderModuleTest {
     @Test
     fun startSpanWithEndedParentAfterClear() {
         tracerProviderModule.startSpan(
-            "test", "v1", "", "span_0",
+            1.0, 1.0,
             "parent-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
-            "", promise
+            0.0, "", "", promise
         )
-        tracerProviderModule.endSpan("span_0", 0.0)
+        tracerProviderModule.endSpan(1.0, 0.0)
         tracerProviderModule.clearCompletedSpans()
 
         tracerProviderModule.startSpan(
-            "test", "v1", "", "span_1",
+            1.0, 2.0,
             "child-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
-            "span_0", promise
+            1.0, "", "", promise
         )
-        tracerProviderModule.endSpan("span_1", 0.0)
+        tracerProviderModule.endSpan(2.0, 0.0)
 
         var parentSpanContext: ReadableMap?
         var childSpanContext: ReadableMap?
@@ -360,12 +405,12 @@ class ReactNativeTracerProviderModuleTest {
     @Test
     fun setAttributes() {
         tracerProviderModule.startSpan(
-            "test", "v1", "", "span_0",
+            1.0, 1.0,
             "my-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
-            "", promise
+            0.0, "", "", promise
         )
         tracerProviderModule.setAttributes(
-            "span_0",
+            1.0,
             JavaOnlyMap.of(
                 "my-attr1", "some-string",
                 "my-attr2", true,
@@ -375,7 +420,7 @@ class ReactNativeTracerProviderModuleTest {
                 "my-attr6", JavaOnlyArray.of(22, 44),
             )
         )
-        tracerProviderModule.endSpan("span_0", 0.0)
+        tracerProviderModule.endSpan(1.0, 0.0)
 
         argumentCaptor<Collection<SpanData>>().apply {
             verify(exporter, times(1)).export(capture())
@@ -408,23 +453,23 @@ class ReactNativeTracerProviderModuleTest {
     @Test
     fun addEvent() {
         tracerProviderModule.startSpan(
-            "test", "v1", "", "span_0",
+            1.0, 1.0,
             "my-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
-            "", promise
+            0.0, "", "", promise
         )
         tracerProviderModule.addEvent(
-            "span_0",
+            1.0,
             "my-1st-event",
             JavaOnlyMap.of("my-attr1", "some-string"),
             0.0
         )
         tracerProviderModule.addEvent(
-            "span_0",
+            1.0,
             "my-2nd-event",
             JavaOnlyMap.of("my-attr2", "other-string"),
             1518386928052.0
         )
-        tracerProviderModule.endSpan("span_0", 0.0)
+        tracerProviderModule.endSpan(1.0, 0.0)
 
         argumentCaptor<Collection<SpanData>>().apply {
             verify(exporter, times(1)).export(capture())
@@ -450,12 +495,12 @@ class ReactNativeTracerProviderModuleTest {
     @Test
     fun addLinks() {
         tracerProviderModule.startSpan(
-            "test", "v1", "", "span_0",
+            1.0, 1.0,
             "my-span", "", 1718386928001.0, JavaOnlyMap(), JavaOnlyArray(),
-            "", promise
+            0.0, "", "", promise
         )
         tracerProviderModule.addLinks(
-            "span_0",
+            1.0,
             JavaOnlyArray.of(
                 JavaOnlyMap.of(
                     "context",
@@ -482,7 +527,7 @@ class ReactNativeTracerProviderModuleTest {
                 )
             )
         )
-        tracerProviderModule.endSpan("span_0", 0.0)
+        tracerProviderModule.endSpan(1.0, 0.0)
 
         argumentCaptor<Collection<SpanData>>().apply {
             verify(exporter, times(1)).export(capture())
@@ -505,20 +550,20 @@ class ReactNativeTracerProviderModuleTest {
     @Test
     fun setStatus() {
         tracerProviderModule.startSpan(
-            "test", "v1", "", "span_0",
+            1.0, 1.0,
             "my-span-1", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
-            "", promise
+            0.0, "", "", promise
         )
-        tracerProviderModule.setStatus("span_0", JavaOnlyMap.of("code", "ERROR", "message", "some message"))
-        tracerProviderModule.endSpan("span_0", 0.0)
+        tracerProviderModule.setStatus(1.0, JavaOnlyMap.of("code", "ERROR", "message", "some message"))
+        tracerProviderModule.endSpan(1.0, 0.0)
 
         tracerProviderModule.startSpan(
-            "test", "v1", "", "span_1",
+            1.0, 2.0,
             "my-span-2", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
-            "", promise
+            0.0, "", "", promise
         )
-        tracerProviderModule.setStatus("span_1", JavaOnlyMap.of("code", "OK"))
-        tracerProviderModule.endSpan("span_1", 0.0)
+        tracerProviderModule.setStatus(2.0, JavaOnlyMap.of("code", "OK"))
+        tracerProviderModule.endSpan(2.0, 0.0)
 
         argumentCaptor<Collection<SpanData>>().apply {
             verify(exporter, times(2)).export(capture())
@@ -537,12 +582,12 @@ class ReactNativeTracerProviderModuleTest {
     @Test
     fun updateName() {
         tracerProviderModule.startSpan(
-            "test", "v1", "", "span_0",
+            1.0, 1.0,
             "my-span-1", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
-            "", promise
+            0.0, "", "", promise
         )
-        tracerProviderModule.updateName("span_0", "my-updated-span-name")
-        tracerProviderModule.endSpan("span_0", 0.0)
+        tracerProviderModule.updateName(1.0, "my-updated-span-name")
+        tracerProviderModule.endSpan(1.0, 0.0)
 
         argumentCaptor<Collection<SpanData>>().apply {
             verify(exporter, times(1)).export(capture())
@@ -556,11 +601,11 @@ class ReactNativeTracerProviderModuleTest {
     @Test
     fun startSpanInvalidKind() {
         tracerProviderModule.startSpan(
-            "test", "v1", "", "span_0",
+            1.0, 1.0,
             "my-span", "foo", 0.0, JavaOnlyMap(), JavaOnlyArray(),
-            "", promise
+            0.0, "", "", promise
         )
-        tracerProviderModule.endSpan("span_0", 0.0)
+        tracerProviderModule.endSpan(1.0, 0.0)
 
         argumentCaptor<Collection<SpanData>>().apply {
             verify(exporter, times(1)).export(capture())
@@ -577,12 +622,12 @@ class ReactNativeTracerProviderModuleTest {
     @Test
     fun setStatusInvalid() {
         tracerProviderModule.startSpan(
-            "test", "v1", "", "span_0",
+            1.0, 1.0,
             "my-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
-            "", promise
+            0.0, "", "", promise
         )
-        tracerProviderModule.setStatus("span_0", JavaOnlyMap.of("code", "foo"))
-        tracerProviderModule.endSpan("span_0", 0.0)
+        tracerProviderModule.setStatus(1.0, JavaOnlyMap.of("code", "foo"))
+        tracerProviderModule.endSpan(1.0, 0.0)
 
         argumentCaptor<Collection<SpanData>>().apply {
             verify(exporter, times(1)).export(capture())
@@ -598,14 +643,14 @@ class ReactNativeTracerProviderModuleTest {
 
     @Test
     fun startSpanWithSchemaURL() {
-        // schemaUrl should form part of the unique key so should not find the tracer we setup
-        // in beforeEach if we set a different value
+        // A different schemaUrl is a different tracer on the JS side so it is assigned its own handle, which should
+        // not find anything until that tracer has been setup
         tracerProviderModule.startSpan(
-            "test", "v1", "schema", "span_0",
+            2.0, 1.0,
             "my-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
-            "", promise
+            0.0, "", "", promise
         )
-        tracerProviderModule.endSpan("span_0", 0.0)
+        tracerProviderModule.endSpan(1.0, 0.0)
 
         argumentCaptor<Collection<SpanData>>().apply {
             verify(exporter, times(0)).export(capture())
@@ -613,13 +658,13 @@ class ReactNativeTracerProviderModuleTest {
         }
 
         // Create a tracer with that schemaUrl, should work now
-        tracerProviderModule.setupTracer("test", "v1", "schema")
+        tracerProviderModule.setupTracer(2.0, "test", "v1", "schema")
         tracerProviderModule.startSpan(
-            "test", "v1", "schema", "span_0",
+            2.0, 1.0,
             "my-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
-            "", promise
+            0.0, "", "", promise
         )
-        tracerProviderModule.endSpan("span_0", 0.0)
+        tracerProviderModule.endSpan(1.0, 0.0)
 
         argumentCaptor<Collection<SpanData>>().apply {
             verify(exporter, times(1)).export(capture())
@@ -634,6 +679,107 @@ class ReactNativeTracerProviderModuleTest {
         }
     }
 
+    @Test
+    fun setupTracerInvalidHandle() {
+        tracerProviderModule.setupTracer(0.0, "test", "v1", "")
+        tracerProviderModule.setupTracer((MAX_TRACERS + 1).toDouble(), "test", "v1", "")
+
+        for (handle in listOf(0.0, (MAX_TRACERS + 1).toDouble())) {
+            val spanContext = tracerProviderModule.startSpanSync(
+                handle, 1.0,
+                "my-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
+                0.0, "", ""
+            )
+            assertEquals(null, spanContext)
+        }
+        verify(exporter, times(0)).export(any())
+    }
+
+    @Test
+    fun applyBatch() {
+        tracerProviderModule.applyBatch(
+            JavaOnlyArray.of(
+                JavaOnlyArray.of(
+                    "startSpan", 1.0, 1.0,
+                    "parent-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(), 0.0, "", ""
+                ),
+                JavaOnlyArray.of(
+                    "startSpan", 1.0, 2.0,
+                    "child-span", "", 0.0, JavaOnlyMap.of("my-attr1", "some-string"), JavaOnlyArray(), 1.0, "", ""
+                ),
+                JavaOnlyArray.of("setAttributes", 2.0, JavaOnlyMap.of("my-attr2", "other-string")),
+                JavaOnlyArray.of("addEvent", 2.0, "my-event", JavaOnlyMap(), 1518386928052.0),
+                JavaOnlyArray.of("setStatus", 2.0, JavaOnlyMap.of("code", "ERROR", "message", "some message")),
+                JavaOnlyArray.of("updateName", 2.0, "my-updated-child-span"),
+                JavaOnlyArray.of("endSpan", 2.0, 0.0),
+                JavaOnlyArray.of("endSpan", 1.0, 0.0)
+            ),
+            promise
+        )
+
+        var startedSpans: ReadableMap?
+
+        argumentCaptor<WritableMap>().apply {
+            verify(promise, times(1)).resolve(capture())
+            startedSpans = allValues[0]
+        }
+
+        argumentCaptor<Collection<SpanData>>().apply {
+            verify(exporter, times(2)).export(capture())
+            assertEquals(2, allValues.size)
+
+            val childSpan = allValues[0].asSequence().withIndex().elementAt(0).value
+            val parentSpan = allValues[1].asSequence().withIndex().elementAt(0).value
+
+            assertEquals("parent-span", parentSpan.name)
+            assertEquals(startedSpans?.getMap("1")?.getString("spanId"), parentSpan.spanId)
+
+            assertEquals("my-updated-child-span", childSpan.name)
+            assertEquals(startedSpans?.getMap("2")?.getString("spanId"), childSpan.spanId)
+            assertEquals(parentSpan.spanId, childSpan.parentSpanId)
+            assertEquals(parentSpan.traceId, childSpan.traceId)
+            assertEquals("some-string", childSpan.attributes.get(AttributeKey.stringKey("my-attr1")))
+            assertEquals("other-string", childSpan.attributes.get(AttributeKey.stringKey("my-attr2")))
+            assertEquals(1, childSpan.events.size)
+            assertEquals("my-event", childSpan.events[0].name)
+            assertEquals(1518386928052000000, childSpan.events[0].epochNanos)
+            assertEquals(StatusCode.ERROR, childSpan.status.statusCode)
+            assertEquals("some message", childSpan.status.description)
+        }
+    }
+
+    @Test
+    fun applyBatchInvalidCommands() {
+        tracerProviderModule.applyBatch(
+            JavaOnlyArray.of(
+                JavaOnlyArray.of("not-a-command", 1.0),
+                JavaOnlyArray.of(
+                    "startSpan", 99.0, 1.0,
+                    "my-span-1", "", 0.0, JavaOnlyMap(), JavaOnlyArray(), 0.0, "", ""
+                ),
+                JavaOnlyArray.of(
+                    "startSpan", 1.0, 2.0,
+                    "my-span-2", "", 0.0, JavaOnlyMap(), JavaOnlyArray(), 0.0, "", ""
+                ),
+                JavaOnlyArray.of("endSpan", 1.0, 0.0),
+                JavaOnlyArray.of("endSpan", 2.0, 0.0)
+            ),
+            promise
+        )
+
+        // Only the span with a valid tracer should be started, the rest of the batch is still applied
+        argumentCaptor<WritableMap>().apply {
+            verify(promise, times(1)).resolve(capture())
+            assertEquals(false, allValues[0].hasKey("1"))
+            assertEquals(true, allValues[0].hasKey("2"))
+        }
+
+        argumentCaptor<Collection<SpanData>>().apply {
+            verify(exporter, times(1)).export(capture())
+            assertEquals("my-span-2", allValues[0].asSequence().withIndex().elementAt(0).value.name)
+        }
+    }
+
     @Test
     fun embraceSDKNotStarted() {
         mockkObject(Embrace)
@@ -644,11 +790,11 @@ class ReactNativeTracerProviderModuleTest {
 
             // Operations are noops that shouldn't error. With the SDK reported as not
             // started, setupTracer registers no tracer, so startSpan rejects.
-            module.setupTracer("test", "v1", "")
+            module.setupTracer(1.0, "test", "v1", "")
             module.startSpan(
-                "test", "v1", "schema", "span_0",
+                1.0, 1.0,
                 "my-span", "", 0.0, JavaOnlyMap(), JavaOnlyArray(),
-                "", promise
+                0.0, "", "", promise
             )
 
             argumentCaptor<WritableMap>().apply {
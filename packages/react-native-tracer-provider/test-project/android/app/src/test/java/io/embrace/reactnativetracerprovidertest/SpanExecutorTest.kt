@@ -0,0 +1,191 @@
+package io.embrace.reactnativetracerprovidertest
+
+import io.embrace.reactnativetracerprovider.FullQueuePolicy
+import io.embrace.reactnativetracerprovider.SpanExecutor
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+private const val TIMEOUT_SECONDS = 5L
+
+class SpanExecutorTest {
+    private val applied = Collections.synchronizedList(mutableListOf<String>())
+    private val dropped = Collections.synchronizedList(mutableListOf<String>())
+    private val release = CountDownLatch(1)
+    private var executor: SpanExecutor? = null
+
+    @After
+    fun tearDown() {
+        release.countDown()
+        executor?.shutdown(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS))
+    }
+
+    private fun submit(executor: SpanExecutor, name: String) {
+        executor.submit({ dropped.add(name) }) { applied.add(name) }
+    }
+
+    /**
+     * Creates an executor whose thread is held up applying an operation until `release` is counted down, so that the
+     * queue can be filled deterministically
+     */
+    private fun blockedExecutor(policy: FullQueuePolicy): SpanExecutor {
+        val started = CountDownLatch(1)
+        val executor = SpanExecutor(2, policy)
+        this.executor = executor
+        executor.submit {
+            started.countDown()
+            release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        }
+        assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+        return executor
+    }
+
+    private fun awaitIdle(executor: SpanExecutor) {
+        // Make sure there is room for the marker operation so that it isn't dropped itself
+        val deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS)
+        while (executor.queueDepth > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1)
+        }
+
+        val idle = CountDownLatch(1)
+        executor.submit { idle.countDown() }
+        assertTrue(idle.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+    }
+
+    @Test
+    fun appliesInOrderOnItsOwnThread() {
+        val executor = SpanExecutor()
+        this.executor = executor
+        val threads = Collections.synchronizedSet(mutableSetOf<Thread>())
+
+        for (i in 0 until 1000) {
+            executor.submit {
+                threads.add(Thread.currentThread())
+                assertTrue(executor.isExecutorThread())
+                applied.add("$i")
+            }
+        }
+        awaitIdle(executor)
+
+        assertEquals((0 until 1000).map { "$it" }, applied.toList())
+        assertEquals(1, threads.size)
+        assertFalse(threads.contains(Thread.currentThread()))
+        assertFalse(executor.isExecutorThread())
+    }
+
+    @Test
+    fun dropNewest() {
+        val executor = blockedExecutor(FullQueuePolicy.DROP_NEWEST)
+        submit(executor, "a")
+        submit(executor, "b")
+        submit(executor, "c")
+
+        release.countDown()
+        awaitIdle(executor)
+
+        assertEquals(listOf("a", "b"), applied.toList())
+        assertEquals(listOf("c"), dropped.toList())
+        assertEquals(1L, executor.stats().dropped)
+    }
+
+    @Test
+    fun dropOldest() {
+        val executor = blockedExecutor(FullQueuePolicy.DROP_OLDEST)
+        submit(executor, "a")
+        submit(executor, "b")
+        submit(executor, "c")
+
+        release.countDown()
+        awaitIdle(executor)
+
+        assertEquals(listOf("b", "c"), applied.toList())
+        assertEquals(listOf("a"), dropped.toList())
+        assertEquals(1L, executor.stats().dropped)
+    }
+
+    @Test
+    fun block() {
+        val executor = blockedExecutor(FullQueuePolicy.BLOCK)
+        submit(executor, "a")
+        submit(executor, "b")
+
+        val submitted = CountDownLatch(1)
+        Thread {
+            submit(executor, "c")
+            submitted.countDown()
+        }.start()
+
+        assertFalse(submitted.await(100, TimeUnit.MILLISECONDS))
+        release.countDown()
+        assertTrue(submitted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+        awaitIdle(executor)
+
+        assertEquals(listOf("a", "b", "c"), applied.toList())
+        assertEquals(0, dropped.size)
+    }
+
+    @Test
+    fun blockGivesUpAfterMaxBlockNanos() {
+        val executor = blockedExecutor(FullQueuePolicy.BLOCK)
+        submit(executor, "a")
+        submit(executor, "b")
+
+        executor.submit({ dropped.add("c") }, TimeUnit.MILLISECONDS.toNanos(50)) { applied.add("c") }
+        assertEquals(listOf("c"), dropped.toList())
+
+        release.countDown()
+        awaitIdle(executor)
+        assertEquals(listOf("a", "b"), applied.toList())
+    }
+
+    @Test
+    fun stats() {
+        val executor = blockedExecutor(FullQueuePolicy.DROP_NEWEST)
+        submit(executor, "a")
+        submit(executor, "b")
+        assertEquals(2, executor.stats().queueDepth)
+
+        Thread.sleep(10)
+        release.countDown()
+        awaitIdle(executor)
+
+        val stats = executor.stats()
+        assertEquals(0, stats.queueDepth)
+        assertEquals(2, stats.maxQueueDepth)
+        assertEquals(4L, stats.submitted)
+        assertEquals(4L, stats.applied)
+        assertTrue(stats.maxLatencyNanos >= TimeUnit.MILLISECONDS.toNanos(10))
+        assertTrue(stats.meanLatencyNanos <= stats.maxLatencyNanos)
+    }
+
+    @Test
+    fun dropsAfterShutdown() {
+        val executor = SpanExecutor()
+        this.executor = executor
+        submit(executor, "a")
+        executor.shutdown(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS))
+        submit(executor, "b")
+
+        assertEquals(listOf("a"), applied.toList())
+        assertEquals(listOf("b"), dropped.toList())
+    }
+
+    @Test
+    fun dropsWhatIsLeftAfterShutdown() {
+        val executor = blockedExecutor(FullQueuePolicy.DROP_NEWEST)
+        submit(executor, "a")
+        submit(executor, "b")
+
+        // The executor thread is still held up once the timeout runs out
+        executor.shutdown(10)
+
+        assertEquals(0, applied.size)
+        assertEquals(listOf("a", "b"), dropped.toList())
+        assertEquals(0, executor.queueDepth)
+    }
+}
@@ -0,0 +1,265 @@
+package io.embrace.reactnativetracerprovidertest
+
+import io.embrace.reactnativetracerprovider.ActiveSpanAges
+import io.embrace.reactnativetracerprovider.ActiveSpanOverflow
+import io.embrace.reactnativetracerprovider.SpanTable
+import io.opentelemetry.api.trace.Span
+import io.opentelemetry.api.trace.SpanContext
+import io.opentelemetry.api.trace.TraceFlags
+import io.opentelemetry.api.trace.TraceState
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.mockito.kotlin.mock
+import org.mockito.kotlin.never
+import org.mockito.kotlin.verify
+
+private const val LIVE_SPANS = 10_000
+
+class SpanTableTest {
+    private fun span(index: Long): Span = Span.wrap(
+        SpanContext.create(
+            String.format("%032x", index),
+            String.format("%016x", index),
+            TraceFlags.getSampled(),
+            TraceState.getDefault()
+        )
+    )
+
+    @Test
+    fun putAndGet() {
+        val table = SpanTable()
+        val span = span(1)
+        table.putActive(1, span)
+
+        assertSame(span, table.get(1))
+        assertTrue(table.isActive(1))
+        assertNull(table.get(2))
+        assertEquals(1, table.activeCount)
+    }
+
+    @Test
+    fun markCompleted() {
+        val table = SpanTable()
+        val span = span(1)
+        table.putActive(1, span)
+
+        assertTrue(table.markCompleted(1))
+        assertFalse(table.markCompleted(1))
+        assertFalse(table.markCompleted(2))
+        assertFalse(table.isActive(1))
+        assertSame(span, table.get(1))
+        assertEquals(0, table.activeCount)
+        assertEquals(1, table.completedCount)
+    }
+
+    @Test
+    fun remove() {
+        val table = SpanTable()
+        table.putActive(1, span(1))
+        table.putActive(2, span(2))
+        table.markCompleted(2)
+
+        assertEquals(span(1).spanContext, table.remove(1)?.spanContext)
+        assertNull(table.remove(1))
+        assertEquals(span(2).spanContext, table.remove(2)?.spanContext)
+        assertNull(table.get(1))
+        assertNull(table.get(2))
+        assertEquals(0, table.activeCount)
+        assertEquals(0, table.completedCount)
+    }
+
+    @Test
+    fun clearCompleted() {
+        val table = SpanTable()
+        for (handle in 1L..100L) {
+            table.putActive(handle, span(handle))
+            if (handle % 2 == 0L) {
+                table.markCompleted(handle)
+            }
+        }
+
+        table.clearCompleted()
+
+        assertEquals(50, table.activeCount)
+        assertEquals(0, table.completedCount)
+        for (handle in 1L..100L) {
+            if (handle % 2 == 0L) {
+                assertNull(table.get(handle))
+            } else {
+                assertEquals(span(handle).spanContext, table.get(handle)?.spanContext)
+            }
+        }
+    }
+
+    @Test
+    fun growsAndReusesRemovedSlots() {
+        val table = SpanTable(4)
+        for (round in 0 until 10) {
+            for (i in 1L..LIVE_SPANS) {
+                val handle = round * LIVE_SPANS + i
+                table.putActive(handle, span(handle))
+            }
+            for (i in 1L..LIVE_SPANS) {
+                val handle = round * LIVE_SPANS + i
+                assertEquals(span(handle).spanContext, table.get(handle)?.spanContext)
+                table.remove(handle)
+            }
+            assertEquals(0, table.activeCount)
+        }
+    }
+
+    @Test
+    fun evictsLeastRecentlyUsedCompletedSpans() {
+        val table = SpanTable()
+        table.configure(10, 3, 0, ActiveSpanOverflow.END_OLDEST)
+        for (handle in 1L..3L) {
+            table.putActive(handle, span(handle))
+            table.markCompleted(handle)
+        }
+
+        // Referencing span 1 makes span 2 the least recently used
+        table.get(1)
+        table.putActive(4, span(4))
+        table.markCompleted(4)
+
+        assertNull(table.get(2))
+        assertEquals(span(1).spanContext, table.get(1)?.spanContext)
+        assertEquals(span(3).spanContext, table.get(3)?.spanContext)
+        assertEquals(span(4).spanContext, table.get(4)?.spanContext)
+        assertEquals(3, table.completedCount)
+        assertEquals(1L, table.stats().evicted)
+    }
+
+    @Test
+    fun expiresCompletedSpans() {
+        var now = 0L
+        val table = SpanTable(clock = { now })
+        table.configure(10, 10, 1000, ActiveSpanOverflow.END_OLDEST)
+        table.putActive(1, span(1))
+        table.putActive(2, span(2))
+        table.markCompleted(1)
+        now = 500
+        table.markCompleted(2)
+
+        now = 1000
+        assertNull(table.get(1))
+        assertEquals(span(2).spanContext, table.get(2)?.spanContext)
+
+        // Access refreshes the ttl
+        now = 1999
+        assertEquals(span(2).spanContext, table.get(2)?.spanContext)
+
+        // Active spans never expire
+        table.putActive(3, span(3))
+        now = 10000
+        assertEquals(span(3).spanContext, table.get(3)?.spanContext)
+        assertNull(table.get(2))
+        assertEquals(2L, table.stats().expired)
+    }
+
+    @Test
+    fun forceEndsOldestActiveSpan() {
+        val table = SpanTable()
+        table.configure(2, 10, 0, ActiveSpanOverflow.END_OLDEST)
+        val oldest: Span = mock()
+        val newer: Span = mock()
+        table.putActive(1, oldest)
+        table.putActive(2, newer)
+
+        assertTrue(table.reserveActive())
+        table.putActive(3, span(3))
+
+        verify(oldest).end()
+        verify(newer, never()).end()
+        assertFalse(table.isActive(1))
+        assertSame(oldest, table.get(1))
+        assertTrue(table.isActive(2))
+        assertTrue(table.isActive(3))
+        assertEquals(2, table.activeCount)
+        assertEquals(1L, table.stats().forceEnded)
+    }
+
+    @Test
+    fun rejectsWhenActiveSpansFull() {
+        val table = SpanTable()
+        table.configure(1, 10, 0, ActiveSpanOverflow.REJECT)
+        val span: Span = mock()
+        table.putActive(1, span)
+
+        assertFalse(table.reserveActive())
+
+        verify(span, never()).end()
+        assertTrue(table.isActive(1))
+        assertEquals(1L, table.stats().rejected)
+    }
+
+    @Test
+    fun takesOrphanedSpans() {
+        var now = 0L
+        val table = SpanTable(clock = { now })
+        table.putActive(1, span(1))
+        now = 500
+        table.putActive(2, span(2))
+        now = 900
+        table.putActive(3, span(3))
+        table.markCompleted(2)
+
+        now = 1000
+        assertEquals(listOf(span(1).spanContext), table.takeOrphaned(1000).map { it.spanContext })
+        assertFalse(table.isActive(1))
+        assertTrue(table.isActive(3))
+        // Kept so it can still be referenced as a parent
+        assertEquals(span(1).spanContext, table.get(1)?.spanContext)
+
+        now = 1899
+        assertTrue(table.takeOrphaned(1000).isEmpty())
+        now = 1900
+        assertEquals(listOf(span(3).spanContext), table.takeOrphaned(1000).map { it.spanContext })
+        assertEquals(0, table.activeCount)
+        assertEquals(2L, table.stats().orphansEnded)
+    }
+
+    @Test
+    fun activeSpanAges() {
+        var now = 0L
+        val table = SpanTable(clock = { now })
+        val bounds = longArrayOf(100, 1000)
+
+        assertEquals(ActiveSpanAges(listOf(0, 0, 0), emptyMap(), 0), table.activeSpanAges(bounds))
+
+        table.putActive(1, span(1), 1)
+        now = 1500
+        table.putActive(2, span(2), 1)
+        now = 1900
+        table.putActive(3, span(3), 2)
+        table.putActive(4, span(4), 2)
+        table.markCompleted(4)
+        now = 2000
+
+        assertEquals(
+            ActiveSpanAges(listOf(1, 1, 1), mapOf(1 to 2, 2 to 1), 2000),
+            table.activeSpanAges(bounds)
+        )
+    }
+
+    @Test
+    fun preservesOrderWhenGrowing() {
+        val table = SpanTable(4)
+        table.configure(LIVE_SPANS, LIVE_SPANS, 0, ActiveSpanOverflow.END_OLDEST)
+        val first: Span = mock()
+        table.putActive(1, first)
+        for (handle in 2L..LIVE_SPANS) {
+            table.putActive(handle, span(handle))
+        }
+
+        // The span started first is still the one force ended after the table has been rebuilt several times
+        assertTrue(table.reserveActive())
+        verify(first).end()
+        assertFalse(table.isActive(1))
+        assertTrue(table.isActive(2))
+    }
+}
@@ -0,0 +1,56 @@
+package io.embrace.reactnativetracerprovidertest
+
+import io.embrace.reactnativetracerprovider.MAX_TRACERS
+import io.embrace.reactnativetracerprovider.TracerRegistry
+import io.opentelemetry.api.trace.Tracer
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.mockito.kotlin.mock
+
+class TracerRegistryTest {
+    @Test
+    fun putAndGet() {
+        val registry = TracerRegistry()
+        val tracer1: Tracer = mock()
+        val tracer2: Tracer = mock()
+
+        assertTrue(registry.put(1, tracer1))
+        assertTrue(registry.put(2, tracer2))
+
+        assertSame(tracer1, registry.get(1))
+        assertSame(tracer2, registry.get(2))
+        assertTrue(registry.contains(1))
+        assertFalse(registry.contains(3))
+        assertNull(registry.get(3))
+    }
+
+    @Test
+    fun grows() {
+        val registry = TracerRegistry()
+        val tracers = (1..100).map { mock<Tracer>() }
+        tracers.forEachIndexed { i, tracer -> assertTrue(registry.put(i + 1, tracer)) }
+
+        tracers.forEachIndexed { i, tracer -> assertSame(tracer, registry.get(i + 1)) }
+        assertNull(registry.get(101))
+    }
+
+    @Test
+    fun invalidHandles() {
+        val registry = TracerRegistry()
+        val tracer: Tracer = mock()
+
+        // Handles start from 1
+        assertFalse(registry.put(0, tracer))
+        assertFalse(registry.put(-1, tracer))
+        assertFalse(registry.put(MAX_TRACERS + 1, tracer))
+        assertTrue(registry.put(MAX_TRACERS, tracer))
+
+        assertNull(registry.get(0))
+        assertNull(registry.get(-1))
+        assertNull(registry.get(MAX_TRACERS + 1))
+        assertSame(tracer, registry.get(MAX_TRACERS))
+    }
+}
@@ -105,7 +105,7 @@ class ReactNativeTracerProviderTests: XCTestCase {
       flushSpans()
       ReactNativeTracerProviderTests.exporter.reset(explicitTimeout: nil)
 
-      module.setupTracer(name: "test", version: "v1", schemaUrl: "")
+      module.setupTracer(tracerHandle: 1, name: "test", version: "v1", schemaUrl: "")
   }
 
   // The tracer provider's forceFlush drains its span processor, which exports spans
@@ -152,11 +152,12 @@ class ReactNativeTracerProviderTests: XCTestCase {
   }
 
   func testStartSpanSimple() async throws {
-    module.startSpan(tracerName: "test", tracerVersion: "v1", tracerSchemaUrl: "",
-                     spanBridgeId: "span_0", name: "my-span", kind: "", time: 0.0,
-                     attributes: NSDictionary(), links: NSArray(), parentId: "",
+    module.startSpan(tracerHandle: 1,
+                     spanBridgeId: 1, name: "my-span", kind: "", time: 0.0,
+                     attributes: NSDictionary(), links: NSArray(), parentId: 0,
+                     traceId: "", spanId: "",
                      resolve: promise.resolve, reject: promise.reject)
-    module.endSpan(spanBridgeId: "span_0", time: 0.0)
+    module.endSpan(spanBridgeId: 1, time: 0.0)
 
     let exportedSpans = try await getExportedSpans()
 
@@ -214,12 +215,13 @@ class ReactNativeTracerProviderTests: XCTestCase {
       ]
     ]
 
-    module.startSpan(tracerName: "test", tracerVersion: "v1", tracerSchemaUrl: "",
-                     spanBridgeId: "span_0", name: "my-span", kind: "CLIENT",
+    module.startSpan(tracerHandle: 1,
+                     spanBridgeId: 1, name: "my-span", kind: "CLIENT",
                      time: 1718386928001.0, attributes: NSDictionary(dictionary: attributes),
-                     links: NSArray(array: links), parentId: "",
+                     links: NSArray(array: links), parentId: 0,
+                     traceId: "", spanId: "",
                      resolve: promise.resolve, reject: promise.reject)
-    module.endSpan(spanBridgeId: "span_0", time: 1728386928001.0)
+    module.endSpan(spanBridgeId: 1, time: 1728386928001.0)
 
     let exportedSpans = try await getExportedSpans()
 
@@ -264,16 +266,18 @@ class ReactNativeTracerProviderTests: XCTestCase {
   }
 
   func testStartSpanWithParent() async throws {
-    module.startSpan(tracerName: "test", tracerVersion: "v1", tracerSchemaUrl: "",
-                     spanBridgeId: "span_0", name: "parent-span", kind: "", time: 0.0,
-                     attributes: NSDictionary(), links: NSArray(), parentId: "",
+    module.startSpan(tracerHandle: 1,
+                     spanBridgeId: 1, name: "parent-span", kind: "", time: 0.0,
+                     attributes: NSDictionary(), links: NSArray(), parentId: 0,
+                     traceId: "", spanId: "",
                      resolve: promise.resolve, reject: promise.reject)
-    module.startSpan(tracerName: "test", tracerVersion: "v1", tracerSchemaUrl: "",
-                     spanBridgeId: "span_1", name: "child-span", kind: "", time: 0.0,
-                     attributes: NSDictionary(), links: NSArray(), parentId: "span_0",
+    module.startSpan(tracerHandle: 1,
+                     spanBridgeId: 2, name: "child-span", kind: "", time: 0.0,
+                     attributes: NSDictionary(), links: NSArray(), parentId: 1,
+                     traceId: "", spanId: "",
                      resolve: promise.resolve, reject: promise.reject)
-    module.endSpan(spanBridgeId: "span_0", time: 0.0)
-    module.endSpan(spanBridgeId: "span_1", time: 0.0)
+    module.endSpan(spanBridgeId: 1, time: 0.0)
+    module.endSpan(spanBridgeId: 2, time: 0.0)
 
     let exportedSpans = try await getExportedSpans()
 
@@ -304,17 +308,19 @@ class ReactNativeTracerProviderTests: XCTestCase {
   }
 
   func testStartSpanWithEndedParent() async throws {
-    module.startSpan(tracerName: "test", tracerVersion: "v1", tracerSchemaUrl: "",
-                     spanBridgeId: "span_0", name: "parent-span", kind: "", time: 0.0,
-                     attributes: NSDictionary(), links: NSArray(), parentId: "",
+    module.startSpan(tracerHandle: 1,
+                     spanBridgeId: 1, name: "parent-span", kind: "", time: 0.0,
+                     attributes: NSDictionary(), links: NSArray(), parentId: 0,
+                     traceId: "", spanId: "",
                      resolve: promise.resolve, reject: promise.reject)
-    module.endSpan(spanBridgeId: "span_0", time: 0.0)
+    module.endSpan(spanBridgeId: 1, time: 0.0)
 
-    module.startSpan(tracerName: "test", tracerVersion: "v1", tracerSchemaUrl: "",
-                     spanBridgeId: "span_1", name: "child-span", kind: "", time: 0.0,
-                     attributes: NSDictionary(), links: NSArray(), parentId: "span_0",
+    module.startSpan(tracerHandle: 1,
+                     spanBridgeId: 2, name: "child-span", kind: "", time: 0.0,
+                     attributes: NSDictionary(), links: NSArray(), parentId: 1,
+                     traceId: "", spanId: "",
                      resolve: promise.resolve, reject: promise.reject)
-    module.endSpan(spanBridgeId: "span_1", time: 0.0)
+    module.endSpan(spanBridgeId: 2, time: 0.0)
 
     let exportedSpans = try await getExportedSpans()
 
@@ -352,18 +358,20 @@ class ReactNativeTracerProviderTests: XCTestCase {
   }
 
  func testStartSpanWithEndedParentAfterClear() async throws {
-    module.startSpan(tracerName: "test", tracerVersion: "v1", tracerSchemaUrl: "",
-                     spanBridgeId: "span_0", name: "parent-span", kind: "", time: 0.0,
-                     attributes: NSDictionary(), links: NSArray(), parentId: "",
+    module.startSpan(tracerHandle: 1,
+                     spanBridgeId: 1, name: "parent-span", kind: "", time: 0.0,
+                     attributes: NSDictionary(), links: NSArray(), parentId: 0,
+                     traceId: "", spanId: "",
                      resolve: promise.resolve, reject: promise.reject)
-    module.endSpan(spanBridgeId: "span_0", time: 0.0)
+    module.endSpan(spanBridgeId: 1, time: 0.0)
    module.clearCompletedSpans()
 
-    module.startSpan(tracerName: "test", tracerVersion: "v1", tracerSchemaUrl: "",
-                     spanBridgeId: "span_1", name: "child-span", kind: "", time: 0.0,
-                     attributes: NSDictionary(), links: NSArray(), parentId: "span_0",
+    module.startSpan(tracerHandle: 1,
+                     spanBridgeId: 2, name: "child-span", kind: "", time: 0.0,
+                     attributes: NSDictionary(), links: NSArray(), parentId: 1,
+                     traceId: "", spanId: "",
                      resolve: promise.resolve, reject: promise.reject)
-    module.endSpan(spanBridgeId: "span_1", time: 0.0)
+    module.endSpan(spanBridgeId: 2, time: 0.0)
 
     let exportedSpans = try await getExportedSpans()
 
@@ -392,11 +400,12 @@ class ReactNativeTracerProviderTests: XCTestCase {
   }
 
   func testSetAttributes() async throws {
-    module.startSpan(tracerName: "test", tracerVersion: "v1", tracerSchemaUrl: "",
-                     spanBridgeId: "span_0", name: "my-span", kind: "", time: 0.0,
-                     attributes: NSDictionary(), links: NSArray(), parentId: "",
+    module.startSpan(tracerHandle: 1,
+                     spanBridgeId: 1, name: "my-span", kind: "", time: 0.0,
+                     attributes: NSDictionary(), links: NSArray(), parentId: 0,
+                     traceId: "", spanId: "",
                      resolve: promise.resolve, reject: promise.reject)
-    module.setAttributes(spanBridgeId: "span_0", attributes: NSDictionary(dictionary: [
+    module.setAttributes(spanBridgeId: 1, attributes: NSDictionary(dictionary: [
       "my-attr1": "some-string",
       "my-attr2": true,
       "my-attr3": 344,
@@ -404,7 +413,7 @@ class ReactNativeTracerProviderTests: XCTestCase {
       "my-attr5": [22, 44],
       "my-attr6": [true, false]
     ]))
-    module.endSpan(spanBridgeId: "span_0", time: 0.0)
+    module.endSpan(spanBridgeId: 1, time: 0.0)
 
     let exportedSpans = try await getExportedSpans()
 
@@ -434,17 +443,18 @@ class ReactNativeTracerProviderTests: XCTestCase {
   }
 
   func testAddEvent() async throws {
-    module.startSpan(tracerName: "test", tracerVersion: "v1", tracerSchemaUrl: "",
-                     spanBridgeId: "span_0", name: "my-span", kind: "", time: 0.0,
-                     attributes: NSDictionary(), links: NSArray(), parentId: "",
+    module.startSpan(tracerHandle: 1,
+                     spanBridgeId: 1, name: "my-span", kind: "", time: 0.0,
+                     attributes: NSDictionary(), links: NSArray(), parentId: 0,
+                     traceId: "", spanId: "",
                      resolve: promise.resolve, reject: promise.reject)
-    module.addEvent(spanBridgeId: "span_0", eventName: "my-1st-event", attributes: NSDictionary(dictionary: [
+    module.addEvent(spanBridgeId: 1, eventName: "my-1st-event", attributes: NSDictionary(dictionary: [
       "my-attr1": "some-string"
     ]), time: 0.0)
-    module.addEvent(spanBridgeId: "span_0", eventName: "my-2nd-event", attributes: NSDictionary(dictionary: [
+    module.addEvent(spanBridgeId: 1, eventName: "my-2nd-event", attributes: NSDictionary(dictionary: [
       "my-attr2": "other-string"
     ]), time: 1518386928052.0)
-    module.endSpan(spanBridgeId: "span_0", time: 0.0)
+    module.endSpan(spanBridgeId: 1, time: 0.0)
 
     let exportedSpans = try await getExportedSpans()
     guard exportedSpans.count == 2 else {
@@ -471,20 +481,22 @@ class ReactNativeTracerProviderTests: XCTestCase {
   }
 
   func testSetStatus() async throws {
-    module.startSpan(tracerName: "test", tracerVersion: "v1", tracerSchemaUrl: "",
-                     spanBridgeId: "span_0", name: "my-span", kind: "", time: 0.0,
-                     attributes: NSDictionary(), links: NSArray(), parentId: "",
+    module.startSpan(tracerHandle: 1,
+                     spanBridgeId: 1, name: "my-span", kind: "", time: 0.0,
+                     attributes: NSDictionary(), links: NSArray(), parentId: 0,
+                     traceId: "", spanId: "",
                      resolve: promise.resolve, reject: promise.reject)
-    module.setStatus(spanBridgeId: "span_0", status: NSDictionary(dictionary: ["code": "OK"]))
-    module.endSpan(spanBridgeId: "span_0", time: 0.0)
+    module.setStatus(spanBridgeId: 1, status: NSDictionary(dictionary: ["code": "OK"]))
+    module.endSpan(spanBridgeId: 1, time: 0.0)
 
-    module.startSpan(tracerName: "test", tracerVersion: "v1", tracerSchemaUrl: "",
-                     spanBridgeId: "span_1", name: "my-span", kind: "", time: 0.0,
-                     attributes: NSDictionary(), links: NSArray(), parentId: "",
+    module.startSpan(tracerHandle: 1,
+                     spanBridgeId: 2, name: "my-span", kind: "", time: 0.0,
+                     attributes: NSDictionary(), links: NSArray(), parentId: 0,
+                     traceId: "", spanId: "",
                      resolve: promise.resolve, reject: promise.reject)
-    module.setStatus(spanBridgeId: "span_1",
+    module.setStatus(spanBridgeId: 2,
                      status: NSDictionary(dictionary: ["code": "ERROR", "message": "some message"]))
-    module.endSpan(spanBridgeId: "span_1", time: 0.0)
+    module.endSpan(spanBridgeId: 2, time: 0.0)
 
     let exportedSpans = try await getExportedSpans()
 
@@ -505,12 +517,13 @@ class ReactNativeTracerProviderTests: XCTestCase {
   }
 
   func testUpdateName() async throws {
-    module.startSpan(tracerName: "test", tracerVersion: "v1", tracerSchemaUrl: "",
-                     spanBridgeId: "span_0", name: "my-span", kind: "", time: 0.0,
-                     attributes: NSDictionary(), links: NSArray(), parentId: "",
+    module.startSpan(tracerHandle: 1,
+                     spanBridgeId: 1, name: "my-span", kind: "", time: 0.0,
+                     attributes: NSDictionary(), links: NSArray(), parentId: 0,
+                     traceId: "", spanId: "",
                      resolve: promise.resolve, reject: promise.reject)
-    module.updateName(spanBridgeId: "span_0", name: "my-updated-span-name")
-    module.endSpan(spanBridgeId: "span_0", time: 0.0)
+    module.updateName(spanBridgeId: 1, name: "my-updated-span-name")
+    module.endSpan(spanBridgeId: 1, time: 0.0)
 
     let exportedSpans = try await getExportedSpans()
 
@@ -524,11 +537,12 @@ class ReactNativeTracerProviderTests: XCTestCase {
   }
 
   func testStartSpanInvalidKind() async throws {
-    module.startSpan(tracerName: "test", tracerVersion: "v1", tracerSchemaUrl: "",
-                     spanBridgeId: "span_0", name: "my-span", kind: "foo", time: 0.0,
-                     attributes: NSDictionary(), links: NSArray(), parentId: "",
+    module.startSpan(tracerHandle: 1,
+                     spanBridgeId: 1, name: "my-span", kind: "foo", time: 0.0,
+                     attributes: NSDictionary(), links: NSArray(), parentId: 0,
+                     traceId: "", spanId: "",
                      resolve: promise.resolve, reject: promise.reject)
-    module.endSpan(spanBridgeId: "span_0", time: 0.0)
+    module.endSpan(spanBridgeId: 1, time: 0.0)
 
     let exportedSpans = try await getExportedSpans()
 
@@ -546,12 +560,13 @@ class ReactNativeTracerProviderTests: XCTestCase {
   }
 
   func testSetStatusInvalid() async throws {
-    module.startSpan(tracerName: "test", tracerVersion: "v1", tracerSchemaUrl: "",
-                     spanBridgeId: "span_0", name: "my-span", kind: "foo", time: 0.0,
-                     attributes: NSDictionary(), links: NSArray(), parentId: "",
+    module.startSpan(tracerHandle: 1,
+                     spanBridgeId: 1, name: "my-span", kind: "foo", time: 0.0,
+                     attributes: NSDictionary(), links: NSArray(), parentId: 0,
+                     traceId: "", spanId: "",
                      resolve: promise.resolve, reject: promise.reject)
-    module.setStatus(spanBridgeId: "span_0", status: NSDictionary(dictionary: ["code": "foo"]))
-    module.endSpan(spanBridgeId: "span_0", time: 0.0)
+    module.setStatus(spanBridgeId: 1, status: NSDictionary(dictionary: ["code": "foo"]))
+    module.endSpan(spanBridgeId: 1, time: 0.0)
 
     let exportedSpans = try await getExportedSpans()
 
@@ -569,25 +584,27 @@ class ReactNativeTracerProviderTests: XCTestCase {
   }
 
   func testStartSpanWithSchemaUrl() async throws {
-    // schemaUrl should form part of the unique key so should not find the tracer we setup
-    // in beforeEach if we set a different value
-    module.startSpan(tracerName: "test", tracerVersion: "v1", tracerSchemaUrl: "schema",
-                     spanBridgeId: "span_0", name: "my-span", kind: "", time: 0.0,
-                     attributes: NSDictionary(), links: NSArray(), parentId: "",
+    // A different schemaUrl is a different tracer on the JS side so it is assigned its own handle, which should
+    // not find anything until that tracer has been setup
+    module.startSpan(tracerHandle: 2,
+                     spanBridgeId: 1, name: "my-span", kind: "", time: 0.0,
+                     attributes: NSDictionary(), links: NSArray(), parentId: 0,
+                     traceId: "", spanId: "",
                      resolve: promise.resolve, reject: promise.reject)
-    module.endSpan(spanBridgeId: "span_0", time: 0.0)
+    module.endSpan(spanBridgeId: 1, time: 0.0)
 
     var exportedSpans = try await getExportedSpans()
     XCTAssertEqual(exportedSpans.count, 0)
 
     // Create a tracer with that schemaUrl, should work now
 
-    module.setupTracer(name: "test", version: "v1", schemaUrl: "schema")
-    module.startSpan(tracerName: "test", tracerVersion: "v1", tracerSchemaUrl: "schema",
-                     spanBridgeId: "span_0", name: "my-span", kind: "", time: 0.0,
-                     attributes: NSDictionary(), links: NSArray(), parentId: "",
+    module.setupTracer(tracerHandle: 2, name: "test", version: "v1", schemaUrl: "schema")
+    module.startSpan(tracerHandle: 2,
+                     spanBridgeId: 1, name: "my-span", kind: "", time: 0.0,
+                     attributes: NSDictionary(), links: NSArray(), parentId: 0,
+                     traceId: "", spanId: "",
                      resolve: promise.resolve, reject: promise.reject)
-    module.endSpan(spanBridgeId: "span_0", time: 0.0)
+    module.endSpan(spanBridgeId: 1, time: 0.0)
 
     exportedSpans = try await getExportedSpans()
 
@@ -608,10 +625,11 @@ class EmbraceSpansSDKNotStartedTests: XCTestCase {
     let module = ReactNativeTracerProviderModule()
 
     // Without the Embrace SDK having started interactions should be no-ops
-    module.setupTracer(name: "test", version: "v1", schemaUrl: "")
-    module.startSpan(tracerName: "test", tracerVersion: "v1", tracerSchemaUrl: "",
-                     spanBridgeId: "span_0", name: "my-span", kind: "", time: 0.0,
-                     attributes: NSDictionary(), links: NSArray(), parentId: "",
+    module.setupTracer(tracerHandle: 1, name: "test", version: "v1", schemaUrl: "")
+    module.startSpan(tracerHandle: 1,
+                     spanBridgeId: 1, name: "my-span", kind: "", time: 0.0,
+                     attributes: NSDictionary(), links: NSArray(), parentId: 0,
+                     traceId: "", spanId: "",
                      resolve: promise.resolve, reject: promise.reject)
 
     XCTAssertEqual(promise.resolveCalls.count, 0)